@@ -0,0 +1,190 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: Aggregate.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code Aggregate} class describes one aggregate column of a group-by,
+ * see {@link Table#groupBy(int[], Aggregate...)}: a function and the column it
+ * is applied to. Aggregates are created with the static factory methods.
+ * Null elements are ignored; groups without valid elements get a null
+ * result, except for counts.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public final class Aggregate {
+
+  //<editor-fold defaultstate="collapsed" desc="Functions">
+  /**
+   * The {@code Functions} enumeration defines the available aggregate
+   * functions.
+   */
+  public enum Functions {
+
+    COUNT,
+    SUM,
+    MEAN,
+    VARIANCE,
+    MINIMUM,
+    MAXIMUM;
+
+    /**
+     * Returns the name of the function as used in column names.
+     *
+     * @return name of the function.
+     */
+    String label() {
+      String name = name();
+      return name.charAt(0) + name.substring(1).toLowerCase();
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * The aggregate function.
+   */
+  private final Functions function;
+
+  /**
+   * Index of the aggregated column, -1 to count the rows.
+   */
+  private final int column;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code Aggregate} class.
+   *
+   * @param function the aggregate function.
+   * @param column index of the aggregated column.
+   */
+  private Aggregate(Functions function, int column) {
+    this.function = function;
+    this.column = column;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Static Methods">
+  /**
+   * Returns an aggregate counting the rows of each group.
+   *
+   * @return the aggregate.
+   */
+  public static Aggregate count() {
+    return new Aggregate(Functions.COUNT, -1);
+  }
+
+  /**
+   * Returns an aggregate counting the valid elements of a column of any
+   * data type.
+   *
+   * @param col index of the column.
+   * @return the aggregate.
+   */
+  public static Aggregate count(int col) {
+    return new Aggregate(Functions.COUNT, col);
+  }
+
+  /**
+   * Returns an aggregate summing the elements of a numeric column.
+   *
+   * @param col index of the column.
+   * @return the aggregate.
+   */
+  public static Aggregate sum(int col) {
+    return new Aggregate(Functions.SUM, col);
+  }
+
+  /**
+   * Returns an aggregate averaging the elements of a numeric column.
+   *
+   * @param col index of the column.
+   * @return the aggregate.
+   */
+  public static Aggregate mean(int col) {
+    return new Aggregate(Functions.MEAN, col);
+  }
+
+  /**
+   * Returns an aggregate computing the sample variance of the elements of a
+   * numeric column, null for groups with less than two valid elements.
+   *
+   * @param col index of the column.
+   * @return the aggregate.
+   */
+  public static Aggregate variance(int col) {
+    return new Aggregate(Functions.VARIANCE, col);
+  }
+
+  /**
+   * Returns an aggregate computing the minimum of a numeric column.
+   *
+   * @param col index of the column.
+   * @return the aggregate.
+   */
+  public static Aggregate minimum(int col) {
+    return new Aggregate(Functions.MINIMUM, col);
+  }
+
+  /**
+   * Returns an aggregate computing the maximum of a numeric column.
+   *
+   * @param col index of the column.
+   * @return the aggregate.
+   */
+  public static Aggregate maximum(int col) {
+    return new Aggregate(Functions.MAXIMUM, col);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the aggregate function.
+   *
+   * @return the function.
+   */
+  public Functions function() {
+    return function;
+  }
+
+  /**
+   * Returns the index of the aggregated column, -1 if the rows are counted.
+   *
+   * @return index of the column.
+   */
+  public int column() {
+    return column;
+  }
+
+  @Override
+  public String toString() {
+    return function.label() + ((column < 0) ? "" : "(col" + column + ")");
+  }
+  //</editor-fold>
+
+}
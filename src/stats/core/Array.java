@@ -27,12 +27,14 @@
 
 package stats.core;
 
-import java.util.ArrayList;
-
 /**
  * The {@code Array} class represents an array of {@code Data} elements. An
  * array must contain elements of the same data type but the common interface
- * can be used with all data types.
+ * can be used with all data types. Elements are not stored as {@code Data}
+ * objects but in a {@link Storage} specialized for the data type, which is
+ * created upon first insertion; {@code Data} objects are generated on request.
+ * Long arrays whose elements are mostly null are kept in a
+ * {@link SparseStorage}, see {@link #checkDensity()}.
  *
  * @author M. Vettigli
  * @version 3.0
@@ -53,9 +55,64 @@ public class Array {
   private String name;
 
   /**
-   * Array of {@code Data} object to actually store the data.
+   * Storage of the elements, null until the first element is inserted.
+   */
+  private Storage storage;
+
+  /**
+   * Off-heap store where the storage is created, null for heap storage.
+   */
+  private final MappedStore store;
+
+  /**
+   * Precision of the values of numeric storages created by the
+   * {@code Array}.
+   */
+  private Precision precision;
+
+  /**
+   * Tells if the {@code Array} is a read-only snapshot.
+   */
+  private boolean readOnly;
+
+  /**
+   * Number of modifications of the {@code Array}, used by dependent objects
+   * to detect changes.
+   */
+  private int version;
+
+  /**
+   * Number of insertions and removals of elements, used by views to detect
+   * that positions have shifted.
+   */
+  private int structure;
+
+  /**
+   * Size of the storage at the last density check.
+   */
+  private int densitySize;
+
+  /**
+   * Number of valid elements of the storage at the last density check.
    */
-  private ArrayList<Data> array;
+  private int densityValid;
+
+  /**
+   * Estimated number of valid elements lost by a dense storage since the
+   * last density check: valid elements replaced by nulls or removed, less
+   * null elements replaced by valid ones and valid elements added.
+   */
+  private int emptied;
+
+  /**
+   * Statistics of the elements, null until requested.
+   */
+  private Summary summary;
+
+  /**
+   * Sorted index of the elements, null if the array is not indexed.
+   */
+  private ColumnIndex columnIndex;
   //</editor-fold>
 
   //<editor-fold defaultstate="collapsed" desc="Constructors">
@@ -74,12 +131,47 @@ public class Array {
    * @param name name of the array.
    */
   public Array(String name) {
+    this(name, null);
+  }
+
+  /**
+   * Constructor for {@code Array} class whose elements are kept off-heap in
+   * the given {@link MappedStore}. If the store is null, elements are kept on
+   * the heap.
+   *
+   * @param name name of the array.
+   * @param store off-heap store of the elements, or null.
+   */
+  Array(String name, MappedStore store) {
     // check if argument is empty and use untitled name
     if (name == null || name.isEmpty()) name = getUntitledName();
     // assign the name to the Array
     this.name = name;
-    // initialize the ArrayList
-    array = new ArrayList<>();
+    // storage is created when the data type is known
+    storage = null;
+    this.store = store;
+    precision = Precision.FLOAT64;
+    readOnly = false;
+    version = 0;
+    structure = 0;
+    densitySize = 0;
+    densityValid = 0;
+    emptied = 0;
+    summary = null;
+    columnIndex = null;
+  }
+
+  /**
+   * Constructor for a computed {@code Array} class, whose elements are
+   * defined by an expression over other numeric arrays of the same size.
+   *
+   * @param name name of the array.
+   * @param expression expression defining the elements.
+   * @param sources source arrays of the expression.
+   */
+  Array(String name, ColumnExpression expression, Array[] sources) {
+    this(name, null);
+    storage = new ComputedStorage(expression, sources);
   }
   //</editor-fold>
 
@@ -99,7 +191,8 @@ public class Array {
    * @return size of the array.
    */
   public int size() {
-    return array.size();
+    if (storage == null) return 0;
+    return storage.size();
   }
 
   /**
@@ -109,8 +202,53 @@ public class Array {
    * @return the data type of {@code Array} elements.
    */
   public DataTypes type() {
-    if (array.isEmpty()) return DataTypes.UNDEFINED;
-    return array.get(0).type();
+    if (storage == null || storage.size() == 0) return DataTypes.UNDEFINED;
+    return storage.type();
+  }
+
+  /**
+   * Returns the precision with which the values of a
+   * {@code DataTypes.NUMERIC} {@code Array} are stored. Arrays of other data
+   * types return the precision that numeric values would take.
+   *
+   * @return the precision of the values.
+   */
+  public Precision precision() {
+    if (storage == null || storage.type() != DataTypes.NUMERIC)
+      return precision;
+    return storage.precision();
+  }
+
+  /**
+   * Checks if the {@code Array} is a read-only snapshot. Any attempt to
+   * modify a read-only {@code Array} throws an
+   * {@code UnsupportedOperationException}.
+   *
+   * @return true if read-only, else false.
+   */
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  /**
+   * Checks if the {@code Array} is computed from other arrays by means of a
+   * {@link ColumnExpression}. Elements of a computed array cannot be
+   * modified.
+   *
+   * @return true if computed, else false.
+   */
+  public boolean isComputed() {
+    return storage instanceof ComputedStorage;
+  }
+
+  /**
+   * Checks if the {@code Array} is a view sharing the elements of another
+   * array, see {@link #view(int, int)}.
+   *
+   * @return true if a view, else false.
+   */
+  public boolean isView() {
+    return storage instanceof ViewStorage;
   }
 
   /**
@@ -121,7 +259,7 @@ public class Array {
    * @return true if the index is valid, else false.
    */
   public boolean isIndex(int index) {
-    return (index < 0 || index >= array.size());
+    return (index < 0 || index >= size());
   }
 
   /**
@@ -134,7 +272,179 @@ public class Array {
   public Data get(int index) {
     // check if index is valid
     if (this.isIndex(index)) throw new ArrayIndexOutOfBoundsException();
-    return array.get(index);
+    return storage.get(index);
+  }
+
+  /**
+   * Checks if the element of the {@code Array} at the specified position is
+   * null value, without creating any {@code Data} object.
+   *
+   * @param index position inside the {@code Array}.
+   * @return true if null, else false.
+   * @throws ArrayIndexOutOfBoundsException
+   */
+  public boolean isEmpty(int index) {
+    // check if index is valid
+    if (this.isIndex(index)) throw new ArrayIndexOutOfBoundsException();
+    return storage.isEmpty(index);
+  }
+
+  /**
+   * Returns the number of null elements stored in the {@code Array}. For
+   * {@code DataTypes.NUMERIC} arrays the count is kept by the storage and no
+   * scan is needed.
+   *
+   * @return number of null elements.
+   */
+  public int countEmpty() {
+    if (storage == null) return 0;
+    return storage.countEmpty();
+  }
+
+  /**
+   * Copies the validity of a range of elements into a word buffer: bit
+   * {@code j} of word {@code w} is set if element {@code index + 64 * w + j}
+   * is not null. Bits of the last word beyond the range are cleared. Scans
+   * can use the words to skip fully null or fully valid groups of 64
+   * elements at once.
+   *
+   * @param index position of the first element.
+   * @param buffer destination buffer, at least {@code (length + 63) / 64}
+   * words long.
+   * @param length number of elements.
+   * @throws ArrayIndexOutOfBoundsException
+   */
+  public void getValidity(int index, long[] buffer, int length) {
+    // check if the range is valid
+    if (length < 0 || this.isIndex(index) || index + length > size()
+            || buffer.length < (length + Bitmap.WORD_SIZE - 1) / Bitmap.WORD_SIZE)
+      throw new ArrayIndexOutOfBoundsException();
+    storage.getValidity(index, buffer, length);
+  }
+
+  /**
+   * Returns the value of a {@code DataTypes.NUMERIC} element at the
+   * specified position, without creating any {@code Data} object. Null
+   * elements are returned as {@link Numeric#NULL}.
+   *
+   * @param index position inside the {@code Array}.
+   * @return the value of the element.
+   * @throws ArrayIndexOutOfBoundsException
+   * @throws UnsupportedOperationException if the {@code Array} is not numeric.
+   */
+  public double getDouble(int index) {
+    // check if index is valid
+    if (this.isIndex(index)) throw new ArrayIndexOutOfBoundsException();
+    return storage.getDouble(index);
+  }
+
+  /**
+   * Copies a range of {@code DataTypes.NUMERIC} elements into a buffer, so
+   * that values can be scanned without creating any {@code Data} object. Null
+   * elements are copied as {@link Numeric#NULL}.
+   *
+   * @param index position of the first element to be copied.
+   * @param buffer destination buffer.
+   * @param offset first position in the buffer.
+   * @param length number of elements to be copied.
+   * @throws ArrayIndexOutOfBoundsException
+   * @throws UnsupportedOperationException if the {@code Array} is not numeric.
+   */
+  public void getDoubles(int index, double[] buffer, int offset, int length) {
+    // check if the range is valid
+    if (length < 0 || this.isIndex(index) || index + length > size()
+            || offset < 0 || offset + length > buffer.length)
+      throw new ArrayIndexOutOfBoundsException();
+    storage.getDoubles(index, buffer, offset, length);
+  }
+
+  /**
+   * Returns the value of a {@code DataTypes.INTEGER}, {@code LONG},
+   * {@code BOOLEAN} or {@code DATETIME} element at the specified position,
+   * without creating any {@code Data} object. Booleans are returned as 1 and
+   * 0, date-times as nanoseconds since the epoch.
+   *
+   * @param index position inside the {@code Array}.
+   * @return the value of the element.
+   * @throws ArrayIndexOutOfBoundsException
+   * @throws UnsupportedOperationException if the {@code Array} is not
+   * integral.
+   */
+  public long getLong(int index) {
+    // check if index is valid
+    if (this.isIndex(index)) throw new ArrayIndexOutOfBoundsException();
+    return storage.getLong(index);
+  }
+
+  /**
+   * Copies a range of {@code DataTypes.INTEGER}, {@code LONG},
+   * {@code BOOLEAN} or {@code DATETIME} elements into a buffer, with the same
+   * rules of {@link #getLong(int)}.
+   *
+   * @param index position of the first element to be copied.
+   * @param buffer destination buffer.
+   * @param offset first position in the buffer.
+   * @param length number of elements to be copied.
+   * @throws ArrayIndexOutOfBoundsException
+   * @throws UnsupportedOperationException if the {@code Array} is not
+   * integral.
+   */
+  public void getLongs(int index, long[] buffer, int offset, int length) {
+    // check if the range is valid
+    if (length < 0 || this.isIndex(index) || index + length > size()
+            || offset < 0 || offset + length > buffer.length)
+      throw new ArrayIndexOutOfBoundsException();
+    storage.getLongs(index, buffer, offset, length);
+  }
+
+  /**
+   * Returns a copy of all {@code DataTypes.NUMERIC} elements as a
+   * {@code double} array. Null elements are copied as {@link Numeric#NULL}.
+   *
+   * @return the values of the elements.
+   * @throws UnsupportedOperationException if the {@code Array} is not numeric.
+   */
+  public double[] toDoubleArray() {
+    double[] values = new double[size()];
+    if (values.length > 0) storage.getDoubles(0, values, 0, values.length);
+    return values;
+  }
+
+  /**
+   * Checks if the elements of the {@code Array} are dictionary encoded. Only
+   * {@code DataTypes.CHARACTER} arrays can be encoded, and only as long as
+   * the number of distinct strings is low.
+   *
+   * @return true if encoded, else false.
+   */
+  public boolean isDictionaryEncoded() {
+    return (storage != null && storage.dictionary() != null);
+  }
+
+  /**
+   * Returns the {@link Dictionary} used to encode the elements of the
+   * {@code Array}, null if the array is not dictionary encoded. The
+   * dictionary is live: new strings stored in the array are added to it.
+   *
+   * @return the dictionary of the array, or null.
+   */
+  public Dictionary getDictionary() {
+    return (storage == null) ? null : storage.dictionary();
+  }
+
+  /**
+   * Returns the dictionary code of the element at the specified position.
+   * Two elements of the same array are equal if and only if their codes are
+   * equal, so the code can be used for grouping without string comparisons.
+   *
+   * @param index position inside the {@code Array}.
+   * @return the code of the element.
+   * @throws ArrayIndexOutOfBoundsException
+   * @throws UnsupportedOperationException if the {@code Array} is not encoded.
+   */
+  public int getCode(int index) {
+    if (this.isIndex(index)) throw new ArrayIndexOutOfBoundsException();
+    return storage.getCode(index);
   }
   //</editor-fold>
 
@@ -146,28 +456,74 @@ public class Array {
    * @return true if successful, else false.
    */
   public boolean setName(String name) {
+    modify();
     // check if the name is not null
     if (name == null || name.isEmpty()) return false;
     // assign the name to the Array
     this.name = name;
     return true;
   }
+  /**
+   * Sets the precision with which the values of a {@code DataTypes.NUMERIC}
+   * {@code Array} are stored. Current values are rounded to the new
+   * precision, if lower, and the statistics are computed again. The precision
+   * of an empty array applies to the values added later. Values of
+   * {@link Precision#FLOAT32} arrays are kept on the heap even if the array
+   * is off-heap. The precision is not changed if a value is beyond the
+   * range of {@code float}, since it would be rounded to infinity.
+   *
+   * @param precision the new precision.
+   * @return true if successful, false if the array is not numeric, is
+   * computed or is a view, or if a value does not fit the new precision.
+   */
+  public boolean setPrecision(Precision precision) {
+    DataTypes type = type();
+    if (precision == null || isDerived()) return false;
+    if (type != DataTypes.NUMERIC && type != DataTypes.UNDEFINED)
+      return false;
+    // check that no value overflows the new precision
+    if (type == DataTypes.NUMERIC)
+      for (int i = 0; i < storage.size(); i++)
+        if (!storage.isEmpty(i) && !precision.fits(storage.getDouble(i)))
+          return false;
+    modify();
+    this.precision = precision;
+    if (type == DataTypes.UNDEFINED || storage.precision() == precision)
+      return true;
+    // copy the values to a storage of the new precision
+    Storage copy = newStorage(type);
+    copy.add(new Numeric(), storage.size());
+    for (int i = 0; i < storage.size(); i++)
+      if (!storage.isEmpty(i)) copy.setDouble(i, storage.getDouble(i));
+    storage = copy;
+    summary = null;
+    if (columnIndex != null) columnIndex = new ColumnIndex(this);
+    return true;
+  }
+
 
   /**
    * Replaces the element of the {@code Array} object at the given position.
+   * Numeric values beyond the range of the precision of the array are
+   * rejected.
    *
    * @param index position of the element to be replaced.
    * @param data new data to substitute the element.
    * @throws ArrayIndexOutOfBoundsException
    */
   public boolean set(int index, Data data) {
+    modify();
     // check if the index is valid
     if (this.isIndex(index)) throw new ArrayIndexOutOfBoundsException();
     // check if data type is valid
     if (data.type() != this.type() && this.type() != DataTypes.UNDEFINED)
       return false;
+    if (!fits(data)) return false;
     // assign the value
-    array.set(index, data);
+    retract(index);
+    storage.set(index, data);
+    record(index);
+    checkEmptied();
     return true;
   }
 
@@ -180,8 +536,56 @@ public class Array {
    * @throws ArrayIndexOutOfBoundsException
    */
   public boolean set(int index, String data) {
+    modify();
+    if (this.isIndex(index)) throw new ArrayIndexOutOfBoundsException();
+    retract(index);
+    boolean parsed = storage.set(index, data);
+    record(index);
+    checkEmptied();
+    return parsed;
+  }
+
+  /**
+   * Replaces the value of a {@code DataTypes.NUMERIC} element at the given
+   * position, without creating any {@code Data} object.
+   *
+   * @param index position of the element to be replaced.
+   * @param value new value of the element.
+   * @throws ArrayIndexOutOfBoundsException
+   * @throws UnsupportedOperationException if the {@code Array} is not numeric.
+   * @throws IllegalArgumentException if the value is beyond the range of the
+   * precision of the {@code Array}.
+   */
+  public void setDouble(int index, double value) {
+    modify();
+    if (this.isIndex(index)) throw new ArrayIndexOutOfBoundsException();
+    if (!precision().fits(value)) throw new IllegalArgumentException(
+              value + " is out of the range of " + name);
+    retract(index);
+    storage.setDouble(index, value);
+    record(index);
+    checkEmptied();
+  }
+
+  /**
+   * Replaces the value of a {@code DataTypes.INTEGER}, {@code LONG},
+   * {@code BOOLEAN} or {@code DATETIME} element at the given position,
+   * without creating any {@code Data} object. The value must be within the
+   * range of the data type; for booleans, any value other than zero is true.
+   *
+   * @param index position of the element to be replaced.
+   * @param value new value of the element.
+   * @throws ArrayIndexOutOfBoundsException
+   * @throws UnsupportedOperationException if the {@code Array} is not
+   * integral.
+   */
+  public void setLong(int index, long value) {
+    modify();
     if (this.isIndex(index)) throw new ArrayIndexOutOfBoundsException();
-    return array.get(index).set(data);
+    retract(index);
+    storage.setLong(index, value);
+    record(index);
+    checkEmptied();
   }
 
   /**
@@ -192,10 +596,14 @@ public class Array {
    * @throws ArrayIndexOutOfBoundsException
    */
   public void empty(int index) {
+    modify();
     // check if index is valid
     if (this.isIndex(index)) throw new ArrayIndexOutOfBoundsException();
     // empty the element
-    array.get(index).empty();
+    retract(index);
+    storage.empty(index);
+    record(index);
+    checkEmptied();
   }
   //</editor-fold>
 
@@ -238,15 +646,29 @@ public class Array {
    * @return true if successful, else false.
    */
   public boolean add(Data data, int number) {
+    modify();
     // check if DataType is valid
     DataTypes type = type();
     if (data.type() != type && type != DataTypes.UNDEFINED)
       return false;
     // check if number is valid
-    if (number < 1) return false;
+    if (number < 1 || !fits(data)) return false;
     // perform the insertion
-    for (int i = 0; i < number; i++)
-      array.add(data.clone());
+    if (storage == null || (type == DataTypes.UNDEFINED && !isDerived()))
+    {
+      storage = newStorage(data.type());
+      summary = null;
+      // the keys of the index depend on the data type
+      if (columnIndex != null)
+        columnIndex = data.type().isNumeric() ? new ColumnIndex(this) : null;
+    }
+    storage.add(data, number);
+    // statistics and index take the value as rounded by the storage
+    if (summary != null) summary.add(stored(size() - number), number);
+    if (columnIndex != null)
+      columnIndex.add(storage, size() - number, number);
+    if (!data.isEmpty()) emptied -= number;
+    if (!data.isEmpty()) checkSparse();
     return true;
   }
 
@@ -284,6 +706,35 @@ public class Array {
     return this.insert(index, nullElement(), number);
   }
 
+  /**
+   * Inserts a given number of null elements before each of the given
+   * positions in a single pass. Positions must be sorted, distinct and refer
+   * to the {@code Array} before the insertion; a position equal to the size
+   * appends the elements.
+   *
+   * @param indexes positions of the insertions.
+   * @param number number of elements inserted at each position.
+   * @return true if successful, else false.
+   * @throws ArrayIndexOutOfBoundsException
+   */
+  public boolean insert(int[] indexes, int number) {
+    modify();
+    // check if number and positions are valid
+    if (number < 1 || indexes.length == 0 || size() == 0) return false;
+    for (int i = 0; i < indexes.length; i++)
+    {
+      if (indexes[i] < 0 || indexes[i] > size())
+        throw new ArrayIndexOutOfBoundsException();
+      if (i > 0 && indexes[i] <= indexes[i - 1]) return false;
+    }
+    // perform the insertion
+    storage.insert(indexes, nullElement(), number);
+    structure++;
+    if (summary != null) summary.add(nullElement(), indexes.length * number);
+    if (columnIndex != null) columnIndex.insert(indexes, number);
+    return true;
+  }
+
   /**
    * Inserts a given number of elements to the {@code Array} object at a
    * specific position of the array. The element must be of the same type of
@@ -296,6 +747,7 @@ public class Array {
    * @throws ArrayIndexOutOfBoundsException
    */
   public boolean insert(int index, Data data, int number) {
+    modify();
     // check if index is valid
     if (this.isIndex(index)) throw new ArrayIndexOutOfBoundsException();
     // check if DataType is valid
@@ -303,10 +755,18 @@ public class Array {
     if (data.type() != type && type != DataTypes.UNDEFINED)
       return false;
     // check if number is valid
-    if (number < 1) return false;
+    if (number < 1 || !fits(data)) return false;
     // perform the insertion
-    for (int i = 0; i < number; i++)
-      array.add(index, data.clone());
+    storage.insert(index, data, number);
+    structure++;
+    if (summary != null) summary.add(stored(index), number);
+    if (columnIndex != null)
+    {
+      columnIndex.insert(index, number);
+      columnIndex.add(storage, index, number);
+    }
+    if (!data.isEmpty()) emptied -= number;
+    if (!data.isEmpty()) checkSparse();
     return true;
   }
 
@@ -317,17 +777,76 @@ public class Array {
    * @throws ArrayIndexOutOfBoundsException
    */
   public void remove(int index) {
+    modify();
     // check if index is valid
     if (this.isIndex(index)) throw new ArrayIndexOutOfBoundsException();
     // remove the element
-    array.remove(index);
+    retract(index);
+    storage.remove(index, 1);
+    structure++;
+    if (columnIndex != null) columnIndex.remove(index, 1);
+  }
+
+  /**
+   * Removes a given number of elements of the {@code Array} starting from a
+   * given position. The elements are removed in a single operation, so the
+   * following elements are shifted only once.
+   *
+   * @param index position of the first element to be removed.
+   * @param number number of elements to be removed.
+   * @return true if successful, else false.
+   * @throws ArrayIndexOutOfBoundsException
+   */
+  public boolean remove(int index, int number) {
+    modify();
+    // check if index is valid
+    if (this.isIndex(index)) throw new ArrayIndexOutOfBoundsException();
+    // check if number is valid
+    if (number < 1 || index + number > size()) return false;
+    // remove the elements
+    if (summary != null) summary.remove(storage, index, index + number);
+    storage.remove(index, number);
+    structure++;
+    if (columnIndex != null) columnIndex.remove(index, number);
+    return true;
+  }
+
+  /**
+   * Removes all elements of the {@code Array} whose bit is set in the given
+   * {@code Bitmap}. The remaining elements are compacted in a single pass.
+   *
+   * @param rows bitmap of the elements to be removed, with the same size of
+   * the {@code Array}.
+   * @return true if successful, else false.
+   */
+  public boolean remove(Bitmap rows) {
+    modify();
+    // check if the bitmap is valid
+    if (rows.size() != size() || rows.cardinality() == 0) return false;
+    // remove the elements
+    if (summary != null)
+      for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1))
+        summary.remove(storage, i);
+    storage.remove(rows);
+    structure++;
+    if (columnIndex != null) columnIndex.remove(rows);
+    return true;
   }
 
   /**
    * Removes all elements inside the {@code Array} object.
    */
   public void clear() {
-    array.clear();
+    modify();
+    // computed arrays and views reject clearing
+    if (isDerived()) storage.clear();
+    storage = null;
+    densitySize = 0;
+    densityValid = 0;
+    emptied = 0;
+    summary = null;
+    structure++;
+    if (columnIndex != null) columnIndex.clear();
   }
 
   /**
@@ -338,13 +857,23 @@ public class Array {
    * @throws ArrayIndexOutOfBoundsException
    */
   public void swap(int index1, int index2) {
+    modify();
     // check if indexes are valid
-    if (!isIndex(index1) || isIndex(index2))
+    if (isIndex(index1) || isIndex(index2))
       throw new ArrayIndexOutOfBoundsException();
-    // swap the elements
-    Data data = array.get(index1);
-    array.set(index1, array.get(index2));
-    array.set(index2, data);
+    // swap the elements, moving their index entries
+    if (columnIndex != null && index1 != index2)
+    {
+      columnIndex.remove(storage, index1);
+      columnIndex.remove(storage, index2);
+    }
+    storage.swap(index1, index2);
+    if (summary != null) summary.touch();
+    if (columnIndex != null && index1 != index2)
+    {
+      columnIndex.add(storage, index1);
+      columnIndex.add(storage, index2);
+    }
   }
 
   /**
@@ -368,15 +897,129 @@ public class Array {
    */
   public boolean fill(int size, Data data) {
     // check if new size is valid
-    if (size <= array.size()) return false;
-    // check if data type is valid
-    if (data.type() != this.type() && this.type() != DataTypes.UNDEFINED)
-      return false;
+    if (size <= size()) return false;
     // add the elements to the array
-    int number = size - array.size();
-    for (int i = 0; i < number; i++)
-      array.add(data.clone());
-    return true;
+    return this.add(data, size - size());
+  }
+
+  /**
+   * Returns a view of a range of elements, sharing them with this
+   * {@code Array} instead of copying them. Changes of the elements are
+   * visible through the view and writes to the view go through this array,
+   * unless it is read-only: use a {@link #snapshot()} to get a view that is
+   * not affected by later changes. Elements cannot be added to or removed
+   * from the view, and the view is not valid anymore once elements are
+   * inserted in or removed from this array.
+   *
+   * @param from first position of the range.
+   * @param to end of the range, exclusive.
+   * @return a view of the range.
+   * @throws ArrayIndexOutOfBoundsException if the range is not valid.
+   */
+  public Array view(int from, int to) {
+    if (from < 0 || to > size() || from > to)
+      throw new ArrayIndexOutOfBoundsException(
+              "from=" + from + ", to=" + to + " is not a valid range of "
+              + name);
+    Array view = new Array(name, store);
+    view.storage = new ViewStorage(this, from, to);
+    view.readOnly = readOnly;
+    return view;
+  }
+
+  /**
+   * Returns a view of the selected elements, in the given order, with the
+   * same behaviour of {@link #view(int, int)}. The row indexes of a
+   * {@link SelectionGroup} can be used to split a column by group.
+   *
+   * @param rows positions of the selected elements.
+   * @return a view of the selected elements.
+   * @throws ArrayIndexOutOfBoundsException if a position is not valid.
+   */
+  public Array select(int[] rows) {
+    for (int i = 0; i < rows.length; i++)
+      if (rows[i] < 0 || rows[i] >= size())
+        throw new ArrayIndexOutOfBoundsException(
+                "row=" + rows[i] + " is not a valid index of " + name);
+    Array view = new Array(name, store);
+    view.storage = new ViewStorage(this, rows);
+    view.readOnly = readOnly;
+    return view;
+  }
+
+  /**
+   * Returns a view of the elements whose bit is set in the given
+   * {@code Bitmap}, with the same behaviour of {@link #view(int, int)}.
+   *
+   * @param rows bitmap of the selected elements, with the same size of the
+   * {@code Array}.
+   * @return a view of the selected elements.
+   * @throws IllegalArgumentException if the bitmap has a different size.
+   */
+  public Array select(Bitmap rows) {
+    if (rows.size() != size()) throw new IllegalArgumentException(
+              "Bitmap size does not match the size of " + name);
+    int[] positions = new int[rows.cardinality()];
+    for (int i = rows.nextSetBit(0), k = 0; i >= 0; i = rows.nextSetBit(i + 1))
+      positions[k++] = i;
+    return select(positions);
+  }
+
+  /**
+   * Returns the descriptive statistics of the elements. The first call scans
+   * the {@code Array}, then the statistics are kept up to date by each
+   * modification, so that later calls take constant time. Statistics of
+   * computed arrays and views are scanned on each call, since their elements
+   * change with other arrays.
+   *
+   * @return the summary of the array.
+   */
+  public Summary summary() {
+    if (isDerived()) return new Summary(this);
+    if (summary == null) summary = new Summary(this);
+    return summary;
+  }
+
+  /**
+   * Returns a cursor reading and writing the elements as {@code double}
+   * values without creating {@code Data} objects.
+   *
+   * @return a numeric cursor on the array.
+   * @throws UnsupportedOperationException if the array is not numeric.
+   */
+  public NumericCursor numericCursor() {
+    return new NumericCursor(this);
+  }
+
+  /**
+   * Returns a cursor reading and writing the elements as {@code String}
+   * values without creating {@code Data} objects.
+   *
+   * @return a character cursor on the array.
+   * @throws UnsupportedOperationException if the array is not character.
+   */
+  public CharacterCursor characterCursor() {
+    return new CharacterCursor(this);
+  }
+
+  /**
+   * Returns a read-only snapshot of the {@code Array} holding its current
+   * elements. The snapshot shares unchanged data with the {@code Array}:
+   * only the blocks of elements modified later are copied. A snapshot is
+   * never affected by later modifications, so it can be read by other threads
+   * without locking while the {@code Array} keeps being edited.
+   *
+   * @return a read-only snapshot of the array.
+   */
+  public Array snapshot() {
+    if (readOnly) return this;
+    Array copy = new Array(name, store);
+    copy.precision = precision;
+    if (storage != null) copy.storage = storage.snapshot();
+    if (summary != null) copy.summary = new Summary(copy, summary);
+    copy.version = version;
+    copy.readOnly = true;
+    return copy;
   }
 
   /**
@@ -390,20 +1033,265 @@ public class Array {
     StringBuilder sb = new StringBuilder();
     // create the header
     sb.append("|").append(name).append(", ");
-    if (!array.isEmpty()) sb.append(this.size()).append(" ");
+    if (size() != 0) sb.append(this.size()).append(" ");
     sb.append(this.type()).append("|> ( ");
     // add the content
-    for (int i = 0; i < array.size(); i++)
+    for (int i = 0; i < size(); i++)
     {
-      if (array.get(i).isEmpty()) sb.append("_");
-      else sb.append(array.get(i).toString());
-      if (i + 1 != array.size()) sb.append(" , ");
+      if (storage.isEmpty(i)) sb.append("_");
+      else sb.append(storage.getString(i));
+      if (i + 1 != size()) sb.append(" , ");
     }
     sb.append(" )");
     return sb.toString();
   }
   //</editor-fold>
 
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Returns the storage of the elements, null if no element was inserted.
+   *
+   * @return the storage of the array, or null.
+   */
+  Storage storage() {
+    return storage;
+  }
+
+  /**
+   * Returns a new heap {@code Array} holding the elements of a storage
+   * filled in bulk, such as by a {@link TableBuilder}.
+   *
+   * @param name name of the array.
+   * @param storage the elements of the array.
+   * @return the new array.
+   */
+  static Array wrap(String name, Storage storage) {
+    Array array = new Array(name, null);
+    array.storage = storage;
+    if (storage != null) array.precision = storage.precision();
+    return array;
+  }
+
+  /**
+   * Checks if the elements are kept off-heap in a {@link MappedStore}.
+   *
+   * @return true if off-heap, else false.
+   */
+  boolean isMapped() {
+    return store != null;
+  }
+
+  /**
+   * Returns the number of modifications of the {@code Array}, so that
+   * dependent objects can detect if the elements have changed.
+   *
+   * @return the current version of the array.
+   */
+  int version() {
+    if (isComputed()) return version + ((ComputedStorage) storage).version();
+    return version;
+  }
+
+  /**
+   * Returns the number of insertions and removals of elements, so that views
+   * can detect if positions have shifted.
+   *
+   * @return the structure counter of the array.
+   */
+  int structure() {
+    return structure;
+  }
+
+  /**
+   * Returns a writable copy of the {@code Array}, which does not depend on
+   * it anymore. Unchanged blocks of elements are shared, as for snapshots.
+   * Copies of computed arrays and views hold plain elements.
+   *
+   * @return a copy of the array.
+   */
+  Array copy() {
+    Array copy = new Array(name, store);
+    copy.precision = precision;
+    if (storage != null) copy.storage = storage.snapshot();
+    return copy;
+  }
+
+  /**
+   * Returns a new {@code Array} holding the elements at the given positions,
+   * in order, and null elements where positions are negative. Character
+   * elements share the dictionary of this array, if encoded.
+   *
+   * @param name name of the new array.
+   * @param rows positions of the elements.
+   * @return a new array with the gathered elements.
+   */
+  Array gather(String name, int[] rows) {
+    Array copy = new Array(name, null);
+    copy.precision = precision();
+    Dictionary dictionary = (storage == null) ? null : storage.dictionary();
+    copy.storage = (dictionary != null)
+            ? new ChunkedStorage(new CharacterStorage(dictionary))
+            : Storage.create(type(), copy.precision);
+    copy.storage.add(nullElement(), rows.length);
+    if (storage == null) return copy;
+    DataTypes type = type();
+    boolean numeric = type == DataTypes.NUMERIC;
+    boolean integral = type.isNumeric() && !numeric;
+    for (int i = 0; i < rows.length; i++)
+      if (rows[i] < 0 || storage.isEmpty(rows[i])) continue;
+      else if (numeric) copy.storage.setDouble(i, storage.getDouble(rows[i]));
+      else if (integral) copy.storage.setLong(i, storage.getLong(rows[i]));
+      else copy.storage.set(i, storage.getString(rows[i]));
+    return copy;
+  }
+
+  /**
+   * Inserts the elements of another array at the positions whose bit is set
+   * in the given {@code Bitmap}, which refers to the {@code Array} after the
+   * insertion, in a single pass. It is used to restore removed elements, so
+   * the index of the elements is rebuilt.
+   *
+   * @param rows bitmap of the positions of the inserted elements.
+   * @param values the elements to be inserted, in order.
+   */
+  void insert(Bitmap rows, Array values) {
+    modify();
+    storage.insert(rows, values.storage);
+    structure++;
+    if (summary != null)
+      for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1))
+        summary.add(storage, i);
+    if (columnIndex != null) columnIndex = new ColumnIndex(this);
+    checkSparse();
+  }
+
+  /**
+   * Checks if the {@code Array} is computed from the given array.
+   *
+   * @param source an array.
+   * @return true if the source is used to compute this array, else false.
+   */
+  boolean dependsOn(Array source) {
+    return isComputed() && ((ComputedStorage) storage).dependsOn(source);
+  }
+
+  /**
+   * Returns the sorted index of the elements, null if the array is not
+   * indexed.
+   *
+   * @return the index of the array, or null.
+   */
+  ColumnIndex index() {
+    return columnIndex;
+  }
+
+  /**
+   * Creates the sorted index of the elements, which is then kept up to date
+   * by each modification. Only numeric arrays, see
+   * {@link DataTypes#isNumeric()}, holding their own elements can be indexed.
+   *
+   * @return true if successful, else false.
+   */
+  boolean createIndex() {
+    if (!type().isNumeric() || isDerived()) return false;
+    if (columnIndex == null) columnIndex = new ColumnIndex(this);
+    return true;
+  }
+
+  /**
+   * Drops the sorted index of the elements.
+   *
+   * @return true if the array was indexed, else false.
+   */
+  boolean dropIndex() {
+    if (columnIndex == null) return false;
+    columnIndex = null;
+    return true;
+  }
+
+  /**
+   * Removes the element at the given position from the statistics and the
+   * index, before it is replaced or removed. It does nothing if the array has
+   * no statistics and no index.
+   *
+   * @param index position of the element.
+   */
+  void retract(int index) {
+    if (summary != null) summary.remove(storage, index);
+    if (columnIndex != null) columnIndex.remove(storage, index);
+    if (!(storage instanceof SparseStorage) && !storage.isEmpty(index))
+      emptied++;
+  }
+
+  /**
+   * Adds the element at the given position to the statistics and the index,
+   * after it has been replaced. A sparse storage is made dense if the new
+   * element makes it too dense.
+   *
+   * @param index position of the element.
+   */
+  void record(int index) {
+    if (summary != null) summary.add(storage, index);
+    if (columnIndex != null) columnIndex.add(storage, index);
+    if (!(storage instanceof SparseStorage) && !storage.isEmpty(index))
+      emptied--;
+    checkSparse();
+  }
+
+  /**
+   * Switches the storage of the elements to a {@link SparseStorage} if it is
+   * long and sparse enough, or back to a dense storage if it became too
+   * dense. Dense storages are only checked when their size has doubled or
+   * halved since the last check, or when the valid elements emptied since
+   * then may make them sparse enough, so that the check takes constant
+   * amortized time. Off-heap, derived and read-only arrays are never made
+   * sparse. It must not be called while other threads access the array.
+   */
+  void checkDensity() {
+    if (storage == null || store != null || readOnly || isDerived()) return;
+    int size = storage.size();
+    if (storage instanceof SparseStorage)
+    {
+      checkSparse();
+      densitySize = size;
+      return;
+    }
+    if (size < 2 * densitySize && 2 * size > densitySize
+            && !SparseStorage.fits(size, densityValid - emptied)) return;
+    densitySize = size;
+    densityValid = size - storage.countEmpty();
+    emptied = 0;
+    if (SparseStorage.fits(size, densityValid))
+      storage = SparseStorage.of(storage);
+  }
+  /**
+   * Returns a null element of the given data type, a null {@code Character}
+   * for {@code DataTypes.UNDEFINED}.
+   *
+   * @param type the data type of the element.
+   * @return a null {@code Data} object.
+   */
+  static Data nullElement(DataTypes type) {
+    switch (type)
+    {
+      case NUMERIC:
+        return new Numeric();
+      case INTEGER:
+        return new IntegerNumber();
+      case LONG:
+        return new LongNumber();
+      case BOOLEAN:
+        return new Logical();
+      case DATETIME:
+        return new DateTime();
+      case CHARACTER:
+      case UNDEFINED:
+      default:
+        return new Character();
+    }
+  }
+  //</editor-fold>
+
   //<editor-fold defaultstate="collapsed" desc="Private Methods">
   /**
    * Returns an untitled name for the {@code Array} object.
@@ -414,6 +1302,96 @@ public class Array {
     return "Array" + untitled_number++;
   }
 
+  /**
+   * Checks that the {@code Array} can be modified and records the
+   * modification by increasing its version. Every method changing the
+   * elements must call this method first.
+   *
+   * @throws UnsupportedOperationException if the array is read-only.
+   */
+  void modify() {
+    if (readOnly) throw new UnsupportedOperationException(
+              name + " is a read-only snapshot");
+    version++;
+  }
+
+  /**
+   * Returns the element at the given position as rounded by the storage.
+   * Numeric elements are read as primitive values, since {@code float}
+   * storages return their elements widened through the shortest decimal.
+   *
+   * @param index position of the element.
+   * @return the stored element.
+   */
+  private Data stored(int index) {
+    if (storage.type() != DataTypes.NUMERIC || storage.isEmpty(index))
+      return storage.get(index);
+    return new Numeric(storage.getDouble(index));
+  }
+
+  /**
+   * Checks if an element can be stored with the precision of the
+   * {@code Array}, that is if it is not a numeric value beyond its range.
+   *
+   * @param data the element to be checked.
+   * @return true if the element can be stored, else false.
+   */
+  private boolean fits(Data data) {
+    if (data.type() != DataTypes.NUMERIC || data.isEmpty()) return true;
+    return precision().fits(((Numeric) data).get());
+  }
+
+  /**
+   * Replaces a sparse storage with a dense one if too many of its elements
+   * are valid. It does nothing on dense storages.
+   */
+  private void checkSparse() {
+    if (!(storage instanceof SparseStorage)) return;
+    SparseStorage sparse = (SparseStorage) storage;
+    if (!sparse.isDense()) return;
+    storage = sparse.toDense();
+    densitySize = storage.size();
+    densityValid = densitySize - sparse.countEmpty();
+    emptied = 0;
+  }
+
+  /**
+   * Checks the density of a dense storage after an element was replaced, if
+   * enough valid elements were emptied since the last check for the storage
+   * to be sparse enough. Elements replaced by cursors are counted but not
+   * checked, since cursors may be written by several threads.
+   */
+  private void checkEmptied() {
+    if (emptied > 0 && !(storage instanceof SparseStorage)
+            && SparseStorage.fits(storage.size(), densityValid - emptied))
+      checkDensity();
+  }
+
+  /**
+   * Returns a new empty storage for the given data type, with the precision
+   * of the {@code Array}. Storages are created in the off-heap store, if
+   * any, unless they hold {@code float} values.
+   *
+   * @param type the data type of the elements.
+   * @return an empty storage.
+   */
+  private Storage newStorage(DataTypes type) {
+    if (store == null || (type == DataTypes.NUMERIC
+            && precision == Precision.FLOAT32))
+      return Storage.create(type, precision);
+    return store.create(type);
+  }
+
+  /**
+   * Checks if the elements of the {@code Array} are derived from other
+   * arrays, as in computed arrays and views.
+   *
+   * @return true if derived, else false.
+   */
+  private boolean isDerived() {
+    return isComputed() || isView();
+  }
+
   /**
    * Returns a null element based on current data type stored by the
    * {@code Array}.
@@ -421,18 +1399,7 @@ public class Array {
    * @return a null {@code Data} object.
    */
   private Data nullElement() {
-    Data nullValue;
-    switch (this.type())
-    {
-      case NUMERIC:
-        nullValue = new Numeric();
-        break;
-      case CHARACTER:
-      case UNDEFINED:
-      default:
-        nullValue = new Character();
-    }
-    return nullValue;
+    return nullElement(this.type());
   }
   //</editor-fold>
 }
@@ -0,0 +1,526 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: Bitmap.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.Arrays;
+
+/**
+ * The {@code Bitmap} class is a growable sequence of bits packed in a
+ * {@code long} array, 64 bits per word. Bit {@code i} is stored in word
+ * {@code i / 64} at position {@code i % 64}, so that scans can test or skip
+ * whole words at once. It is used to track valid elements of an
+ * {@code Array} and to represent row selections of a {@code Table}.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public class Bitmap {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Number of bits in a word.
+   */
+  public static final int WORD_SIZE = 64;
+
+  /**
+   * Initial capacity of the word array.
+   */
+  private static final int DEFAULT_WORDS = 1;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Packed bits, bits beyond {@code size} are always clear.
+   */
+  private long[] words;
+
+  /**
+   * Number of bits in the {@code Bitmap}.
+   */
+  private int size;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Default constructor for {@code Bitmap} class. The bitmap is initialized
+   * empty.
+   */
+  public Bitmap() {
+    this(0);
+  }
+
+  /**
+   * Constructor for {@code Bitmap} class with a given number of bits. All
+   * bits are initialized clear.
+   *
+   * @param size number of bits.
+   */
+  public Bitmap(int size) {
+    if (size < 0) throw new IllegalArgumentException(
+              "Cannot create a bitmap of negative size.");
+    this.words = new long[Math.max(DEFAULT_WORDS, wordsFor(size))];
+    this.size = size;
+  }
+
+  /**
+   * Constructor for {@code Bitmap} class wrapping the given words without
+   * copying them, used by operations producing whole words of bits. Bits
+   * beyond the given size must be clear.
+   *
+   * @param words packed bits, at least as many words as needed by the size.
+   * @param size number of bits.
+   */
+  Bitmap(long[] words, int size) {
+    this.words = (words.length < DEFAULT_WORDS)
+            ? Arrays.copyOf(words, DEFAULT_WORDS) : words;
+    this.size = size;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the number of bits in the {@code Bitmap}.
+   *
+   * @return size of the bitmap.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the state of the bit at the given position.
+   *
+   * @param index position of the bit.
+   * @return true if set, else false.
+   * @throws ArrayIndexOutOfBoundsException if the index is not valid.
+   */
+  public boolean get(int index) {
+    checkIndex(index);
+    return (words[index >>> 6] & (1L << index)) != 0;
+  }
+
+  /**
+   * Returns the number of set bits.
+   *
+   * @return number of set bits.
+   */
+  public int cardinality() {
+    int count = 0;
+    for (int i = 0; i < wordsFor(size); i++)
+      count += Long.bitCount(words[i]);
+    return count;
+  }
+
+  /**
+   * Returns the number of set bits in the range from {@code from},
+   * inclusive, to {@code to}, exclusive.
+   *
+   * @param from first position of the range.
+   * @param to end of the range, exclusive.
+   * @return number of set bits in the range.
+   * @throws ArrayIndexOutOfBoundsException if the range is not valid.
+   */
+  public int cardinality(int from, int to) {
+    checkRange(from, to);
+    int count = 0;
+    while (from < to)
+    {
+      int length = Math.min(WORD_SIZE - (from & 63), to - from);
+      count += Long.bitCount(extract(words, from) & mask(length));
+      from += length;
+    }
+    return count;
+  }
+
+  /**
+   * Returns the position of the first set bit at or after the given
+   * position, -1 if there is none.
+   *
+   * @param from first position to be checked.
+   * @return position of the next set bit, or -1.
+   */
+  public int nextSetBit(int from) {
+    if (from < 0) from = 0;
+    if (from >= size) return -1;
+    int w = from >>> 6;
+    long word = words[w] & (-1L << from);
+    while (true)
+    {
+      if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+      if (++w >= wordsFor(size)) return -1;
+      word = words[w];
+    }
+  }
+
+  /**
+   * Returns the position of the first clear bit at or after the given
+   * position, the size of the bitmap if there is none.
+   *
+   * @param from first position to be checked.
+   * @return position of the next clear bit, or the size.
+   */
+  public int nextClearBit(int from) {
+    if (from < 0) from = 0;
+    if (from >= size) return size;
+    int w = from >>> 6;
+    long word = ~words[w] & (-1L << from);
+    while (true)
+    {
+      if (word != 0)
+        return Math.min(size, (w << 6) + Long.numberOfTrailingZeros(word));
+      if (++w >= wordsFor(size)) return size;
+      word = ~words[w];
+    }
+  }
+
+  /**
+   * Returns the number of words needed to hold all the bits of the
+   * {@code Bitmap}.
+   *
+   * @return number of words.
+   */
+  public int words() {
+    return wordsFor(size);
+  }
+
+  /**
+   * Returns the word at the given position. Bits beyond the size of the
+   * bitmap are clear.
+   *
+   * @param index position of the word.
+   * @return the word as {@code long}.
+   * @throws ArrayIndexOutOfBoundsException if the index is not valid.
+   */
+  public long getWord(int index) {
+    if (index < 0 || index >= wordsFor(size))
+      throw new ArrayIndexOutOfBoundsException();
+    return words[index];
+  }
+
+  /**
+   * Copies a range of bits into a word buffer, the first bit of the range
+   * becoming bit 0 of the first word. Words of the buffer beyond the range
+   * are left untouched, bits of the last word beyond the range are cleared.
+   *
+   * @param index position of the first bit to be copied.
+   * @param buffer destination buffer.
+   * @param length number of bits to be copied.
+   * @throws ArrayIndexOutOfBoundsException if the range is not valid.
+   */
+  public void getWords(int index, long[] buffer, int length) {
+    checkRange(index, index + length);
+    int count = wordsFor(length);
+    if (buffer.length < count) throw new ArrayIndexOutOfBoundsException();
+    for (int i = 0; i < count; i++)
+    {
+      int bits = Math.min(WORD_SIZE, length - i * WORD_SIZE);
+      buffer[i] = extract(words, index + i * WORD_SIZE) & mask(bits);
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  /**
+   * Sets the bit at the given position.
+   *
+   * @param index position of the bit.
+   * @throws ArrayIndexOutOfBoundsException if the index is not valid.
+   */
+  public void set(int index) {
+    checkIndex(index);
+    words[index >>> 6] |= (1L << index);
+  }
+
+  /**
+   * Clears the bit at the given position.
+   *
+   * @param index position of the bit.
+   * @throws ArrayIndexOutOfBoundsException if the index is not valid.
+   */
+  public void clear(int index) {
+    checkIndex(index);
+    words[index >>> 6] &= ~(1L << index);
+  }
+
+  /**
+   * Changes the state of the bit at the given position.
+   *
+   * @param index position of the bit.
+   * @param value new state of the bit.
+   * @throws ArrayIndexOutOfBoundsException if the index is not valid.
+   */
+  public void set(int index, boolean value) {
+    if (value) set(index);
+    else clear(index);
+  }
+
+  /**
+   * Changes the state of all bits in the range from {@code from},
+   * inclusive, to {@code to}, exclusive.
+   *
+   * @param from first position of the range.
+   * @param to end of the range, exclusive.
+   * @param value new state of the bits.
+   * @throws ArrayIndexOutOfBoundsException if the range is not valid.
+   */
+  public void set(int from, int to, boolean value) {
+    checkRange(from, to);
+    fill(words, from, to, value);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Public Methods">
+  /**
+   * Appends a given number of bits at the end of the {@code Bitmap}.
+   *
+   * @param number number of bits to be added.
+   * @param value state of the new bits.
+   */
+  public void add(int number, boolean value) {
+    if (number < 1) return;
+    ensureCapacity(size + number);
+    if (value) fill(words, size, size + number, true);
+    size += number;
+  }
+
+  /**
+   * Appends a range of bits of another {@code Bitmap} at the end of the
+   * {@code Bitmap}.
+   *
+   * @param bitmap source of the bits.
+   * @param from first position of the source range.
+   * @param to end of the source range, exclusive.
+   * @throws ArrayIndexOutOfBoundsException if the range is not valid.
+   */
+  public void add(Bitmap bitmap, int from, int to) {
+    bitmap.checkRange(from, to);
+    int number = to - from;
+    if (number < 1) return;
+    ensureCapacity(size + number);
+    copy(bitmap.words, from, words, size, number);
+    size += number;
+  }
+
+  /**
+   * Inserts a given number of bits at the given position, shifting the
+   * following bits.
+   *
+   * @param index position of the insertion.
+   * @param number number of bits to be inserted.
+   * @param value state of the new bits.
+   * @throws ArrayIndexOutOfBoundsException if the index is not valid.
+   */
+  public void insert(int index, int number, boolean value) {
+    if (index < 0 || index > size) throw new ArrayIndexOutOfBoundsException(
+              "index=" + index + " is not a valid bitmap position");
+    if (number < 1) return;
+    if (index == size)
+    {
+      add(number, value);
+      return;
+    }
+    long[] result = new long[Math.max(DEFAULT_WORDS, wordsFor(size + number))];
+    copy(words, 0, result, 0, index);
+    copy(words, index, result, index + number, size - index);
+    if (value) fill(result, index, index + number, true);
+    words = result;
+    size += number;
+  }
+
+  /**
+   * Removes a given number of bits starting from the given position,
+   * shifting the following bits.
+   *
+   * @param index position of the first bit to be removed.
+   * @param number number of bits to be removed.
+   * @throws ArrayIndexOutOfBoundsException if the range is not valid.
+   */
+  public void remove(int index, int number) {
+    checkRange(index, index + number);
+    if (number < 1) return;
+    long[] result = new long[Math.max(DEFAULT_WORDS, wordsFor(size - number))];
+    copy(words, 0, result, 0, index);
+    copy(words, index + number, result, index, size - index - number);
+    words = result;
+    size -= number;
+  }
+
+  /**
+   * Swaps two bits of the {@code Bitmap}.
+   *
+   * @param index1 position of the first bit.
+   * @param index2 position of the second bit.
+   * @throws ArrayIndexOutOfBoundsException if an index is not valid.
+   */
+  public void swap(int index1, int index2) {
+    boolean value = get(index1);
+    set(index1, get(index2));
+    set(index2, value);
+  }
+
+  /**
+   * Removes all bits of the {@code Bitmap}.
+   */
+  public void clear() {
+    words = new long[DEFAULT_WORDS];
+    size = 0;
+  }
+
+  /**
+   * Returns a deep copy of the {@code Bitmap} object.
+   *
+   * @return a deep copy of the object.
+   */
+  public Bitmap copy() {
+    Bitmap bitmap = new Bitmap(size);
+    System.arraycopy(words, 0, bitmap.words, 0, wordsFor(size));
+    return bitmap;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Grows the word array, if needed, so that it can hold at least the given
+   * number of bits. The capacity is increased by half of its current value
+   * to amortize consecutive additions.
+   *
+   * @param bits minimum required capacity in bits.
+   */
+  private void ensureCapacity(int bits) {
+    int required = wordsFor(bits);
+    if (required <= words.length) return;
+    words = Arrays.copyOf(words,
+            Math.max(required, words.length + (words.length >> 1)));
+  }
+
+  /**
+   * Returns the number of words needed to hold the given number of bits.
+   *
+   * @param bits number of bits.
+   * @return number of words.
+   */
+  private static int wordsFor(int bits) {
+    return (bits + WORD_SIZE - 1) >>> 6;
+  }
+
+  /**
+   * Returns a word with the given number of low bits set.
+   *
+   * @param bits number of bits, between 0 and 64.
+   * @return the mask.
+   */
+  private static long mask(int bits) {
+    return (bits >= WORD_SIZE) ? -1L : (1L << bits) - 1;
+  }
+
+  /**
+   * Returns the 64 bits starting at an arbitrary position of a word array.
+   * Bits beyond the end of the array are clear.
+   *
+   * @param words source word array.
+   * @param index position of the first bit.
+   * @return the extracted bits.
+   */
+  private static long extract(long[] words, int index) {
+    int w = index >>> 6;
+    int shift = index & 63;
+    if (w >= words.length) return 0L;
+    long result = words[w] >>> shift;
+    if (shift != 0 && w + 1 < words.length)
+      result |= words[w + 1] << (WORD_SIZE - shift);
+    return result;
+  }
+
+  /**
+   * Copies a range of bits between word arrays. The destination range must
+   * be clear, as bits are merged with a bitwise or.
+   *
+   * @param src source word array.
+   * @param srcIndex position of the first source bit.
+   * @param dst destination word array.
+   * @param dstIndex position of the first destination bit.
+   * @param length number of bits to be copied.
+   */
+  private static void copy(long[] src, int srcIndex, long[] dst, int dstIndex,
+          int length) {
+    while (length > 0)
+    {
+      int offset = dstIndex & 63;
+      int bits = Math.min(WORD_SIZE - offset, length);
+      dst[dstIndex >>> 6] |= (extract(src, srcIndex) & mask(bits)) << offset;
+      srcIndex += bits;
+      dstIndex += bits;
+      length -= bits;
+    }
+  }
+
+  /**
+   * Sets or clears a range of bits of a word array.
+   *
+   * @param words word array.
+   * @param from first position of the range.
+   * @param to end of the range, exclusive.
+   * @param value new state of the bits.
+   */
+  private static void fill(long[] words, int from, int to, boolean value) {
+    while (from < to)
+    {
+      int offset = from & 63;
+      int bits = Math.min(WORD_SIZE - offset, to - from);
+      long range = mask(bits) << offset;
+      if (value) words[from >>> 6] |= range;
+      else words[from >>> 6] &= ~range;
+      from += bits;
+    }
+  }
+
+  /**
+   * Checks if the index is a valid bit position.
+   *
+   * @param index position to be checked.
+   * @throws ArrayIndexOutOfBoundsException if the index is not valid.
+   */
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) throw new ArrayIndexOutOfBoundsException(
+              "index=" + index + " is not a valid bitmap position");
+  }
+
+  /**
+   * Checks if the range is valid for the {@code Bitmap}.
+   *
+   * @param from first position of the range.
+   * @param to end of the range, exclusive.
+   * @throws ArrayIndexOutOfBoundsException if the range is not valid.
+   */
+  private void checkRange(int from, int to) {
+    if (from < 0 || to > size || from > to)
+      throw new ArrayIndexOutOfBoundsException(
+              "[" + from + ", " + to + ") is not a valid bitmap range");
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,238 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: BooleanStorage.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code BooleanStorage} class stores {@code DataTypes.BOOLEAN} elements
+ * packed in a {@link Bitmap}, one bit per element. Null elements are tracked
+ * by a second, validity bitmap and by a null counter, as in
+ * {@link NumericStorage}; the value bit of a null element is clear. When read
+ * as numbers, elements are 1 and 0.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+class BooleanStorage extends Storage {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Values of the elements, a bit is set if the element is true.
+   */
+  private Bitmap values;
+
+  /**
+   * Validity of the elements, a bit is set if the element is not null.
+   */
+  private Bitmap validity;
+
+  /**
+   * Number of null elements currently stored.
+   */
+  private int nulls;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Default constructor for {@code BooleanStorage} class. The storage is
+   * initialized empty.
+   */
+  BooleanStorage() {
+    values = new Bitmap();
+    validity = new Bitmap();
+    nulls = 0;
+  }
+
+  /**
+   * Constructor for {@code BooleanStorage} class wrapping the given buffers
+   * without copying them, used to fill storages in bulk.
+   *
+   * @param bits values of the elements, bits beyond the size must be clear.
+   * @param words validity of the values, bits beyond the size must be clear.
+   * @param size number of elements.
+   */
+  BooleanStorage(long[] bits, long[] words, int size) {
+    values = new Bitmap(bits, size);
+    validity = new Bitmap(words, size);
+    nulls = size - validity.cardinality(0, size);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  @Override
+  DataTypes type() {
+    return DataTypes.BOOLEAN;
+  }
+
+  @Override
+  int size() {
+    return values.size();
+  }
+
+  @Override
+  boolean isEmpty(int index) {
+    return !validity.get(index);
+  }
+
+  @Override
+  int countEmpty() {
+    return nulls;
+  }
+
+  @Override
+  void getValidity(int index, long[] buffer, int length) {
+    validity.getWords(index, buffer, length);
+  }
+
+  @Override
+  Data get(int index) {
+    if (!validity.get(index)) return new Logical();
+    return new Logical(values.get(index));
+  }
+
+  @Override
+  double getDouble(int index) {
+    return values.get(index) ? 1.0 : 0.0;
+  }
+
+  @Override
+  void getDoubles(int index, double[] buffer, int offset, int length) {
+    for (int i = 0; i < length; i++)
+      buffer[offset + i] = values.get(index + i) ? 1.0 : 0.0;
+  }
+
+  @Override
+  long getLong(int index) {
+    return values.get(index) ? 1L : 0L;
+  }
+
+  @Override
+  void getLongs(int index, long[] buffer, int offset, int length) {
+    for (int i = 0; i < length; i++)
+      buffer[offset + i] = values.get(index + i) ? 1L : 0L;
+  }
+
+  @Override
+  String getString(int index) {
+    if (!validity.get(index)) return Character.NULL;
+    return String.valueOf(values.get(index));
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  @Override
+  void set(int index, Data data) {
+    if (data.isEmpty()) empty(index);
+    else setLong(index, ((Logical) data).get() ? 1L : 0L);
+  }
+
+  @Override
+  boolean set(int index, String data) {
+    // check if the data is empty and assign null value
+    if (data.isEmpty())
+    {
+      empty(index);
+      return true;
+    }
+    Boolean value = Logical.parse(data);
+    if (value == null) return false;
+    setLong(index, value ? 1L : 0L);
+    return true;
+  }
+
+  /**
+   * Replaces the element at the given position, false if the value is zero,
+   * else true.
+   *
+   * @param index position of the element.
+   * @param value new value of the element.
+   */
+  @Override
+  void setLong(int index, long value) {
+    values.set(index, value != 0L);
+    if (validity.get(index)) return;
+    validity.set(index);
+    nulls--;
+  }
+
+  @Override
+  void empty(int index) {
+    values.clear(index);
+    if (!validity.get(index)) return;
+    validity.clear(index);
+    nulls++;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  @Override
+  void add(Data data, int number) {
+    this.insert(values.size(), data, number);
+  }
+
+  @Override
+  void insert(int index, Data data, int number) {
+    boolean value = !data.isEmpty() && ((Logical) data).get();
+    values.insert(index, number, value);
+    validity.insert(index, number, !data.isEmpty());
+    if (data.isEmpty()) nulls += number;
+  }
+
+  @Override
+  void remove(int index, int number) {
+    nulls -= number - validity.cardinality(index, index + number);
+    values.remove(index, number);
+    validity.remove(index, number);
+  }
+
+  @Override
+  void swap(int index1, int index2) {
+    values.swap(index1, index2);
+    validity.swap(index1, index2);
+  }
+
+  @Override
+  void clear() {
+    values.clear();
+    validity.clear();
+    nulls = 0;
+  }
+
+  @Override
+  Storage newBlock() {
+    return new BooleanStorage();
+  }
+
+  @Override
+  void append(Storage storage, int from, int to) {
+    BooleanStorage source = (BooleanStorage) storage;
+    values.add(source.values, from, to);
+    validity.add(source.validity, from, to);
+    nulls += (to - from) - source.validity.cardinality(from, to);
+  }
+  //</editor-fold>
+
+}
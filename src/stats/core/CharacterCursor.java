@@ -0,0 +1,150 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: CharacterCursor.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code CharacterCursor} class gives direct access to the elements of a
+ * {@code DataTypes.CHARACTER} {@link Array} as {@code String} values. The data
+ * type is checked once when the cursor is created, then each call reads or
+ * writes the storage of the array without creating {@code Data} objects.
+ * Strings are returned as stored, so dictionary encoded arrays return the
+ * pooled instance of each distinct string. Null elements are read as
+ * {@link Character#NULL}.
+ * <p>
+ * A cursor is bound to the {@code Array} it was created from: if a table
+ * column is converted or replaced, a new cursor must be created.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public final class CharacterCursor {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * The array accessed by the cursor.
+   */
+  private final Array array;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code CharacterCursor} class.
+   *
+   * @param array a character array.
+   * @throws UnsupportedOperationException if the array is not character.
+   */
+  CharacterCursor(Array array) {
+    if (array.type() != DataTypes.CHARACTER)
+      throw new UnsupportedOperationException(
+              "Cannot access " + array.type() + " elements as string.");
+    this.array = array;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the number of elements of the underlying array.
+   *
+   * @return number of elements.
+   */
+  public int size() {
+    return array.size();
+  }
+
+  /**
+   * Checks if the element at the given position is null value.
+   *
+   * @param row position of the element.
+   * @return true if null, else false.
+   * @throws ArrayIndexOutOfBoundsException
+   */
+  public boolean isEmpty(int row) {
+    return storage(row).isEmpty(row);
+  }
+
+  /**
+   * Returns the string stored at the given position.
+   *
+   * @param row position of the element.
+   * @return the string of the element, {@link Character#NULL} if null.
+   * @throws ArrayIndexOutOfBoundsException
+   */
+  public String getString(int row) {
+    return storage(row).getString(row);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  /**
+   * Replaces the element at the given position with a string.
+   *
+   * @param row position of the element.
+   * @param value new string of the element, null is stored as null value.
+   * @throws ArrayIndexOutOfBoundsException
+   * @throws UnsupportedOperationException if the array is read-only.
+   */
+  public void setString(int row, String value) {
+    array.modify();
+    Storage storage = storage(row);
+    array.retract(row);
+    storage.set(row, value);
+    array.record(row);
+  }
+
+  /**
+   * Sets the element at the given position to null value.
+   *
+   * @param row position of the element.
+   * @throws ArrayIndexOutOfBoundsException
+   * @throws UnsupportedOperationException if the array is read-only.
+   */
+  public void empty(int row) {
+    array.modify();
+    Storage storage = storage(row);
+    array.retract(row);
+    storage.empty(row);
+    array.record(row);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Returns the storage of the array after checking the given position.
+   *
+   * @param row position of an element.
+   * @return the storage of the array.
+   * @throws ArrayIndexOutOfBoundsException if the position is not valid.
+   */
+  private Storage storage(int row) {
+    Storage storage = array.storage();
+    if (storage == null || row < 0 || row >= storage.size())
+      throw new ArrayIndexOutOfBoundsException(row);
+    return storage;
+  }
+  //</editor-fold>
+
+}
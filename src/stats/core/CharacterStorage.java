@@ -0,0 +1,314 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: CharacterStorage.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.Arrays;
+
+/**
+ * The {@code CharacterStorage} class stores {@code DataTypes.CHARACTER}
+ * elements. By default elements are dictionary encoded: each element is an
+ * {@code int} code pointing to a per-column {@link Dictionary}, so that
+ * categorical data with few distinct labels keeps one copy of each string.
+ * Blocks of the same {@link ChunkedStorage} share the dictionary. When the
+ * number of distinct strings becomes high compared to the number of elements
+ * of the column, see {@link #checkEncoding(int)}, the storage is replaced by
+ * a plain one holding a {@code String} array. Null elements are stored as
+ * {@link Character#NULL}.
+ *
+ * @author M. Vettigli
+ * @version 2.0
+ */
+class CharacterStorage extends Storage {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Initial capacity of the backing array.
+   */
+  private static final int DEFAULT_CAPACITY = 16;
+
+  /**
+   * Dictionary size below which encoding is always kept.
+   */
+  static final int MIN_CARDINALITY = 256;
+
+  /**
+   * Dictionary size above which encoding is always dropped.
+   */
+  static final int MAX_CARDINALITY = 1 << 16;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Dictionary of the encoded elements, null if the storage is plain.
+   */
+  private Dictionary dictionary;
+
+  /**
+   * Backing array of the codes, used when the storage is encoded.
+   */
+  private int[] codes;
+
+  /**
+   * Backing array of the strings, used when the storage is plain.
+   */
+  private String[] values;
+
+  /**
+   * Number of elements currently stored.
+   */
+  private int size;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Default constructor for {@code CharacterStorage} class. The storage is
+   * initialized empty and dictionary encoded.
+   */
+  CharacterStorage() {
+    this(new Dictionary());
+  }
+
+  /**
+   * Constructor for {@code CharacterStorage} class with a given dictionary,
+   * which may be shared with other storages. If the dictionary is null, the
+   * storage is initialized plain.
+   *
+   * @param dictionary dictionary of the storage, or null.
+   */
+  CharacterStorage(Dictionary dictionary) {
+    this.dictionary = dictionary;
+    if (dictionary != null) codes = new int[DEFAULT_CAPACITY];
+    else values = new String[DEFAULT_CAPACITY];
+    size = 0;
+  }
+
+  /**
+   * Constructor for an encoded {@code CharacterStorage} class wrapping the
+   * given codes without copying them, used to fill storages in bulk.
+   *
+   * @param dictionary dictionary of the codes.
+   * @param codes the codes, at least as many as the size.
+   * @param size number of elements.
+   */
+  CharacterStorage(Dictionary dictionary, int[] codes, int size) {
+    this.dictionary = dictionary;
+    this.codes = codes;
+    this.size = size;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  @Override
+  DataTypes type() {
+    return DataTypes.CHARACTER;
+  }
+
+  @Override
+  int size() {
+    return size;
+  }
+
+  @Override
+  boolean isEmpty(int index) {
+    if (dictionary != null) return codes[index] == Dictionary.NULL_CODE;
+    return values[index].equals(Character.NULL);
+  }
+
+  @Override
+  Data get(int index) {
+    return new Character(getString(index));
+  }
+
+  @Override
+  String getString(int index) {
+    if (dictionary != null) return dictionary.get(codes[index]);
+    return values[index];
+  }
+
+  @Override
+  Dictionary dictionary() {
+    return dictionary;
+  }
+
+  @Override
+  int getCode(int index) {
+    if (dictionary == null) return super.getCode(index);
+    return codes[index];
+  }
+
+  @Override
+  void getCodes(int index, int[] buffer, int offset, int length) {
+    if (dictionary == null) super.getCodes(index, buffer, offset, length);
+    else System.arraycopy(codes, index, buffer, offset, length);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  @Override
+  void set(int index, Data data) {
+    this.set(index, ((Character) data).get());
+  }
+
+  @Override
+  boolean set(int index, String data) {
+    // handle null string argument
+    if (data == null) data = Character.NULL;
+    if (dictionary != null) codes[index] = dictionary.encode(data);
+    else values[index] = data;
+    return true;
+  }
+
+  @Override
+  void empty(int index) {
+    if (dictionary != null) codes[index] = Dictionary.NULL_CODE;
+    else values[index] = Character.NULL;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  @Override
+  void add(Data data, int number) {
+    this.insert(size, data, number);
+  }
+
+  @Override
+  void insert(int index, Data data, int number) {
+    String value = ((Character) data).get();
+    ensureCapacity(size + number);
+    // shift the tail once and fill the gap
+    if (dictionary != null)
+    {
+      int code = dictionary.encode(value);
+      System.arraycopy(codes, index, codes, index + number, size - index);
+      Arrays.fill(codes, index, index + number, code);
+    } else
+    {
+      System.arraycopy(values, index, values, index + number, size - index);
+      Arrays.fill(values, index, index + number, value);
+    }
+    size += number;
+  }
+
+  @Override
+  void remove(int index, int number) {
+    if (dictionary != null)
+      System.arraycopy(codes, index + number, codes, index,
+              size - index - number);
+    else
+    {
+      System.arraycopy(values, index + number, values, index,
+              size - index - number);
+      // dereference removed strings
+      Arrays.fill(values, size - number, size, null);
+    }
+    size -= number;
+  }
+
+  @Override
+  void swap(int index1, int index2) {
+    if (dictionary != null)
+    {
+      int code = codes[index1];
+      codes[index1] = codes[index2];
+      codes[index2] = code;
+    } else
+    {
+      String value = values[index1];
+      values[index1] = values[index2];
+      values[index2] = value;
+    }
+  }
+
+  @Override
+  void clear() {
+    dictionary = new Dictionary();
+    codes = new int[DEFAULT_CAPACITY];
+    values = null;
+    size = 0;
+  }
+
+  @Override
+  Storage newBlock() {
+    return new CharacterStorage(dictionary);
+  }
+
+  @Override
+  void append(Storage storage, int from, int to) {
+    CharacterStorage source = (CharacterStorage) storage;
+    int number = to - from;
+    ensureCapacity(size + number);
+    if (dictionary != null && source.dictionary == dictionary)
+      System.arraycopy(source.codes, from, codes, size, number);
+    else if (dictionary != null)
+      for (int i = 0; i < number; i++)
+        codes[size + i] = dictionary.encode(source.getString(from + i));
+    else
+      for (int i = 0; i < number; i++)
+        values[size + i] = source.getString(from + i);
+    size += number;
+  }
+
+  /**
+   * Drops dictionary encoding if the number of distinct strings is too high
+   * to save memory: above {@code MAX_CARDINALITY} or, once past
+   * {@code MIN_CARDINALITY}, above half of the elements of the column. Blocks
+   * sharing the dictionary take the same decision, given the same total.
+   *
+   * @param total number of elements of the column.
+   */
+  @Override
+  Storage checkEncoding(int total) {
+    if (dictionary == null) return this;
+    int cardinality = dictionary.size();
+    if (cardinality <= MIN_CARDINALITY) return this;
+    if (cardinality <= MAX_CARDINALITY && cardinality * 2 <= total)
+      return this;
+    // decode all elements to a new plain storage
+    CharacterStorage plain = new CharacterStorage(null);
+    plain.append(this, 0, size);
+    return plain;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+
+  /**
+   * Grows the backing array, if needed, so that it can hold at least the
+   * given number of elements.
+   *
+   * @param capacity minimum required capacity.
+   */
+  private void ensureCapacity(int capacity) {
+    int length = (dictionary != null) ? codes.length : values.length;
+    if (capacity <= length) return;
+    int newCapacity = Math.max(capacity, length + (length >> 1));
+    if (dictionary != null) codes = Arrays.copyOf(codes, newCapacity);
+    else values = Arrays.copyOf(values, newCapacity);
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,773 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: ChunkedStorage.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * The {@code ChunkedStorage} class splits the elements of a column into
+ * blocks of at most {@link #CHUNK_SIZE} elements, each block being a flat
+ * {@code Storage} of the same kind. A block index keeps the position of the
+ * first element of each block, so that inserting or removing {@code k}
+ * elements only splits, fills or merges the affected blocks and shifts the
+ * block index, instead of shifting the whole column: the cost is
+ * {@code O(CHUNK_SIZE + k)} plus {@code O(n / CHUNK_SIZE)} for the index.
+ * <p>
+ * Random access locates the block through the index: the last used block is
+ * checked first, so sequential and local access take constant time, while
+ * other accesses take a binary search over the blocks.
+ * <p>
+ * Snapshots share the blocks of the storage: blocks are copied on write, so
+ * that only the blocks modified after a snapshot are duplicated.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+class ChunkedStorage extends Storage {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Maximum number of elements of a block.
+   */
+  static final int CHUNK_SIZE = 4096;
+
+  /**
+   * Initial capacity of the block index.
+   */
+  private static final int DEFAULT_BLOCKS = 4;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Blocks of the column, only the first {@code count} are meaningful. There
+   * is always at least one block, empty blocks are only allowed when the
+   * whole storage is empty.
+   */
+  private Storage[] blocks;
+
+  /**
+   * Position of the first element of each block, {@code offsets[count]} is
+   * the size of the storage.
+   */
+  private int[] offsets;
+
+  /**
+   * Number of blocks currently used.
+   */
+  private int count;
+
+  /**
+   * Number of elements currently stored.
+   */
+  private int size;
+
+  /**
+   * Last accessed block, checked before searching the block index.
+   */
+  private int last;
+
+  /**
+   * Dictionary size at the last encoding check.
+   */
+  private int encodedSize;
+
+  /**
+   * Blocks shared with a snapshot, which must be copied before being
+   * modified.
+   */
+  private Set<Storage> shared;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code ChunkedStorage} class given the first block. The
+   * block must be empty, further blocks are created from it.
+   *
+   * @param block the empty first block.
+   */
+  ChunkedStorage(Storage block) {
+    blocks = new Storage[DEFAULT_BLOCKS];
+    offsets = new int[DEFAULT_BLOCKS + 1];
+    blocks[0] = block;
+    count = 1;
+    size = 0;
+    last = 0;
+    encodedSize = 0;
+    shared = Collections.newSetFromMap(new IdentityHashMap<Storage, Boolean>());
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  @Override
+  DataTypes type() {
+    return blocks[0].type();
+  }
+
+  @Override
+  Precision precision() {
+    return blocks[0].precision();
+  }
+
+  @Override
+  int size() {
+    return size;
+  }
+
+  @Override
+  boolean isEmpty(int index) {
+    int b = block(index);
+    return blocks[b].isEmpty(index - offsets[b]);
+  }
+
+  @Override
+  int countEmpty() {
+    int nulls = 0;
+    for (int b = 0; b < count; b++)
+      nulls += blocks[b].countEmpty();
+    return nulls;
+  }
+
+  @Override
+  void getValidity(int index, long[] buffer, int length) {
+    Arrays.fill(buffer, 0, (length + Bitmap.WORD_SIZE - 1) >>> 6, 0L);
+    long[] words = new long[CHUNK_SIZE / Bitmap.WORD_SIZE + 1];
+    int position = 0;
+    while (position < length)
+    {
+      int b = block(index);
+      int local = index - offsets[b];
+      int number = Math.min(length - position, blocks[b].size() - local);
+      blocks[b].getValidity(local, words, number);
+      // merge the block words at the current bit position
+      int shift = position & 63;
+      for (int w = 0; w * Bitmap.WORD_SIZE < number; w++)
+      {
+        int target = (position >>> 6) + w;
+        buffer[target] |= words[w] << shift;
+        if (shift != 0 && target + 1 < buffer.length)
+          buffer[target + 1] |= words[w] >>> (Bitmap.WORD_SIZE - shift);
+      }
+      index += number;
+      position += number;
+    }
+  }
+
+  @Override
+  Data get(int index) {
+    int b = block(index);
+    return blocks[b].get(index - offsets[b]);
+  }
+
+  @Override
+  double getDouble(int index) {
+    int b = block(index);
+    return blocks[b].getDouble(index - offsets[b]);
+  }
+
+  @Override
+  void getDoubles(int index, double[] buffer, int offset, int length) {
+    while (length > 0)
+    {
+      int b = block(index);
+      int local = index - offsets[b];
+      int number = Math.min(length, blocks[b].size() - local);
+      blocks[b].getDoubles(local, buffer, offset, number);
+      index += number;
+      offset += number;
+      length -= number;
+    }
+  }
+
+  @Override
+  long getLong(int index) {
+    int b = block(index);
+    return blocks[b].getLong(index - offsets[b]);
+  }
+
+  @Override
+  void getLongs(int index, long[] buffer, int offset, int length) {
+    while (length > 0)
+    {
+      int b = block(index);
+      int local = index - offsets[b];
+      int number = Math.min(length, blocks[b].size() - local);
+      blocks[b].getLongs(local, buffer, offset, number);
+      index += number;
+      offset += number;
+      length -= number;
+    }
+  }
+
+  @Override
+  String getString(int index) {
+    int b = block(index);
+    return blocks[b].getString(index - offsets[b]);
+  }
+
+  @Override
+  Dictionary dictionary() {
+    return blocks[0].dictionary();
+  }
+
+  @Override
+  int getCode(int index) {
+    int b = block(index);
+    return blocks[b].getCode(index - offsets[b]);
+  }
+
+  @Override
+  void getCodes(int index, int[] buffer, int offset, int length) {
+    while (length > 0)
+    {
+      int b = block(index);
+      int local = index - offsets[b];
+      int number = Math.min(length, blocks[b].size() - local);
+      blocks[b].getCodes(local, buffer, offset, number);
+      index += number;
+      offset += number;
+      length -= number;
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  @Override
+  void set(int index, Data data) {
+    int b = own(block(index));
+    blocks[b].set(index - offsets[b], data);
+    checkEncoding();
+  }
+
+  @Override
+  boolean set(int index, String data) {
+    int b = own(block(index));
+    boolean result = blocks[b].set(index - offsets[b], data);
+    checkEncoding();
+    return result;
+  }
+
+  @Override
+  void setDouble(int index, double value) {
+    int b = own(block(index));
+    blocks[b].setDouble(index - offsets[b], value);
+  }
+
+  @Override
+  void setLong(int index, long value) {
+    int b = own(block(index));
+    blocks[b].setLong(index - offsets[b], value);
+  }
+
+  @Override
+  void empty(int index) {
+    int b = own(block(index));
+    blocks[b].empty(index - offsets[b]);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  @Override
+  void add(Data data, int number) {
+    ArrayList<Storage> created = new ArrayList<>();
+    // top up the last block, then append full blocks
+    Storage block = blocks[count - 1];
+    int room = Math.min(CHUNK_SIZE - block.size(), number);
+    if (room > 0) blocks[own(count - 1)].add(data, room);
+    fill(created, data, number - room);
+    insertBlocks(count, created);
+    size += number;
+    updateOffsets(count - 1 - created.size());
+    checkEncoding();
+  }
+
+  /**
+   * Appends a range of elements of another {@code Storage} of the same data
+   * type. Elements of a storage of the same kind of the blocks are copied in
+   * bulk, topping up the last block and creating full blocks.
+   *
+   * @param storage source of the elements.
+   * @param from first position of the source range.
+   * @param to end of the source range, exclusive.
+   */
+  @Override
+  void append(Storage storage, int from, int to) {
+    if (storage.getClass() != blocks[0].getClass())
+    {
+      super.append(storage, from, to);
+      return;
+    }
+    int number = to - from;
+    ArrayList<Storage> created = new ArrayList<>();
+    // top up the last block, then append full blocks
+    int room = Math.min(CHUNK_SIZE - blocks[count - 1].size(), number);
+    if (room > 0) blocks[own(count - 1)].append(storage, from, from + room);
+    for (int start = from + room; start < to; start += CHUNK_SIZE)
+    {
+      Storage block = blocks[0].newBlock();
+      block.append(storage, start, Math.min(to, start + CHUNK_SIZE));
+      created.add(block);
+    }
+    insertBlocks(count, created);
+    size += number;
+    updateOffsets(count - 1 - created.size());
+    checkEncoding();
+  }
+
+  @Override
+  void insert(int index, Data data, int number) {
+    if (index == size)
+    {
+      this.add(data, number);
+      return;
+    }
+    int b = own(block(index));
+    int local = index - offsets[b];
+    Storage block = blocks[b];
+    // insert in place if the block has enough room
+    if (block.size() + number <= CHUNK_SIZE)
+    {
+      block.insert(local, data, number);
+      size += number;
+      updateOffsets(b);
+      checkEncoding();
+      return;
+    }
+    // split the block at the insertion point
+    Storage tail = block.newBlock();
+    tail.append(block, local, block.size());
+    block.remove(local, block.size() - local);
+    // fill the gap topping up the head and creating new blocks
+    ArrayList<Storage> created = new ArrayList<>();
+    int room = Math.min(CHUNK_SIZE - block.size(), number);
+    if (room > 0) block.add(data, room);
+    fill(created, data, number - room);
+    // merge the tail with the last filled block if possible
+    Storage filled = created.isEmpty() ? block : created.get(created.size() - 1);
+    if (filled.size() + tail.size() <= CHUNK_SIZE)
+      filled.append(tail, 0, tail.size());
+    else created.add(tail);
+    insertBlocks(b + 1, created);
+    size += number;
+    updateOffsets(b);
+    checkEncoding();
+  }
+
+  @Override
+  void remove(int index, int number) {
+    int first = block(index);
+    int end = block(index + number - 1);
+    int from = index - offsets[first];
+    int to = index + number - offsets[end];
+    own(first);
+    own(end);
+    if (first == end) blocks[first].remove(from, number);
+    else
+    {
+      // trim the boundary blocks and drop the ones in between
+      blocks[first].remove(from, blocks[first].size() - from);
+      blocks[end].remove(0, to);
+      removeBlocks(first + 1, end - first - 1);
+    }
+    size -= number;
+    // merge boundary blocks with their neighbours if they fit in one block
+    int b = Math.min(first + 1, count - 1);
+    while (b >= Math.max(first - 1, 0))
+    {
+      merge(b);
+      b--;
+    }
+    updateOffsets(0);
+  }
+
+  @Override
+  void remove(Bitmap rows) {
+    Builder builder = new Builder();
+    int index = rows.nextClearBit(0);
+    // copy each run of kept elements to the new blocks
+    while (index < size)
+    {
+      int end = rows.nextSetBit(index);
+      if (end < 0) end = size;
+      copy(builder, index, end);
+      index = rows.nextClearBit(end);
+    }
+    replaceBlocks(builder.finish());
+  }
+
+  @Override
+  void insert(int[] indexes, Data data, int number) {
+    Builder builder = new Builder();
+    int index = 0;
+    // copy each run of elements followed by the inserted copies
+    for (int i = 0; i < indexes.length; i++)
+    {
+      copy(builder, index, indexes[i]);
+      builder.add(data, number);
+      index = indexes[i];
+    }
+    copy(builder, index, size);
+    replaceBlocks(builder.finish());
+    checkEncoding();
+  }
+
+  @Override
+  void insert(Bitmap rows, Storage values) {
+    if (!(values instanceof ChunkedStorage))
+    {
+      super.insert(rows, values);
+      return;
+    }
+    ChunkedStorage source = (ChunkedStorage) values;
+    Builder builder = new Builder();
+    int index = 0;
+    int value = 0;
+    // copy each run of kept elements followed by a run of inserted ones
+    for (int start = rows.nextSetBit(0); start >= 0;
+            start = rows.nextSetBit(start))
+    {
+      int end = rows.nextClearBit(start);
+      int kept = start - index - value;
+      copy(builder, index, index + kept);
+      source.copy(builder, value, value + end - start);
+      index += kept;
+      value += end - start;
+      start = end;
+    }
+    copy(builder, index, size);
+    replaceBlocks(builder.finish());
+    checkEncoding();
+  }
+
+  @Override
+  void swap(int index1, int index2) {
+    int b1 = own(block(index1));
+    int b2 = own(block(index2));
+    if (b1 == b2)
+    {
+      blocks[b1].swap(index1 - offsets[b1], index2 - offsets[b1]);
+      return;
+    }
+    Data data = blocks[b1].get(index1 - offsets[b1]);
+    blocks[b1].set(index1 - offsets[b1], blocks[b2].get(index2 - offsets[b2]));
+    blocks[b2].set(index2 - offsets[b2], data);
+  }
+
+  @Override
+  void clear() {
+    blocks[0] = blocks[0].newBlock();
+    removeBlocks(1, count - 1);
+    shared.clear();
+    size = 0;
+    last = 0;
+    encodedSize = 0;
+    updateOffsets(0);
+  }
+
+  /**
+   * Returns a snapshot sharing all blocks with this storage. Shared blocks
+   * are copied by either storage before being modified, so the snapshot can
+   * also be used as a writable copy.
+   *
+   * @return a snapshot of the storage.
+   */
+  @Override
+  Storage snapshot() {
+    ChunkedStorage copy = new ChunkedStorage(blocks[0]);
+    copy.blocks = Arrays.copyOf(blocks, blocks.length);
+    copy.offsets = Arrays.copyOf(offsets, offsets.length);
+    copy.count = count;
+    copy.size = size;
+    copy.encodedSize = encodedSize;
+    for (int b = 0; b < count; b++)
+    {
+      shared.add(blocks[b]);
+      copy.shared.add(blocks[b]);
+    }
+    return copy;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Returns the index of the block holding the element at the given
+   * position.
+   *
+   * @param index position of the element.
+   * @return index of the block.
+   */
+  private int block(int index) {
+    int b = last;
+    if (b < count && index >= offsets[b] && index < offsets[b + 1]) return b;
+    // binary search of the last block starting at or before the index
+    int low = 0;
+    int high = count - 1;
+    while (low < high)
+    {
+      int middle = (low + high + 1) >>> 1;
+      if (offsets[middle] <= index) low = middle;
+      else high = middle - 1;
+    }
+    // skip empty blocks preceding the element
+    while (low < count - 1 && offsets[low + 1] <= index)
+      low++;
+    last = low;
+    return low;
+  }
+
+  /**
+   * Creates as many full blocks as needed to hold the given number of copies
+   * of the {@code Data} argument.
+   *
+   * @param created list receiving the new blocks.
+   * @param data element used to fill the blocks.
+   * @param number number of copies.
+   */
+  private void fill(ArrayList<Storage> created, Data data, int number) {
+    while (number > 0)
+    {
+      Storage block = blocks[0].newBlock();
+      int length = Math.min(CHUNK_SIZE, number);
+      block.add(data, length);
+      created.add(block);
+      number -= length;
+    }
+  }
+
+  /**
+   * Merges the block at the given position with the following one if their
+   * elements fit in a single block, and drops it if it is empty.
+   *
+   * @param b index of the block.
+   */
+  private void merge(int b) {
+    if (b < 0 || b >= count || count == 1) return;
+    if (blocks[b].size() == 0)
+    {
+      removeBlocks(b, 1);
+      return;
+    }
+    if (b + 1 < count
+            && blocks[b].size() + blocks[b + 1].size() <= CHUNK_SIZE)
+    {
+      own(b);
+      blocks[b].append(blocks[b + 1], 0, blocks[b + 1].size());
+      removeBlocks(b + 1, 1);
+    }
+  }
+
+  /**
+   * Inserts a list of blocks in the block index at the given position.
+   *
+   * @param position position of the insertion.
+   * @param created blocks to be inserted.
+   */
+  private void insertBlocks(int position, ArrayList<Storage> created) {
+    int number = created.size();
+    if (number == 0) return;
+    if (count + number > blocks.length)
+    {
+      int capacity = Math.max(count + number, blocks.length * 2);
+      blocks = Arrays.copyOf(blocks, capacity);
+      offsets = Arrays.copyOf(offsets, capacity + 1);
+    }
+    System.arraycopy(blocks, position, blocks, position + number,
+            count - position);
+    for (int i = 0; i < number; i++)
+      blocks[position + i] = created.get(i);
+    count += number;
+  }
+
+  /**
+   * Removes a given number of blocks from the block index.
+   *
+   * @param position position of the first block to be removed.
+   * @param number number of blocks to be removed.
+   */
+  private void removeBlocks(int position, int number) {
+    if (number < 1) return;
+    for (int i = position; i < position + number; i++)
+      shared.remove(blocks[i]);
+    System.arraycopy(blocks, position + number, blocks, position,
+            count - position - number);
+    Arrays.fill(blocks, count - number, count, null);
+    count -= number;
+    last = 0;
+  }
+
+  /**
+   * Recomputes the block index starting from the given block.
+   *
+   * @param from first block whose successors must be updated.
+   */
+  private void updateOffsets(int from) {
+    if (from < 0) from = 0;
+    for (int b = from; b < count; b++)
+      offsets[b + 1] = offsets[b] + blocks[b].size();
+  }
+
+  /**
+   * Copies a range of elements to the blocks of a {@code Builder}.
+   *
+   * @param builder destination of the elements.
+   * @param from first position of the range.
+   * @param to end of the range, exclusive.
+   */
+  private void copy(Builder builder, int from, int to) {
+    while (from < to)
+    {
+      int b = block(from);
+      int local = from - offsets[b];
+      int number = Math.min(to - from, blocks[b].size() - local);
+      builder.append(blocks[b], local, local + number);
+      from += number;
+    }
+  }
+
+  /**
+   * Replaces all blocks with a new list of blocks.
+   *
+   * @param created the new blocks, at least one.
+   */
+  private void replaceBlocks(ArrayList<Storage> created) {
+    blocks = created.toArray(new Storage[Math.max(DEFAULT_BLOCKS,
+            created.size())]);
+    offsets = new int[blocks.length + 1];
+    count = created.size();
+    last = 0;
+    shared.clear();
+    updateOffsets(0);
+    size = offsets[count];
+  }
+
+  /**
+   * Lets the blocks revise their encoding when the column dictionary has
+   * grown, so that all blocks take the same decision on the column size.
+   */
+  private void checkEncoding() {
+    Dictionary dictionary = blocks[0].dictionary();
+    if (dictionary == null || dictionary.size() == encodedSize) return;
+    encodedSize = dictionary.size();
+    for (int b = 0; b < count; b++)
+    {
+      Storage block = blocks[b].checkEncoding(size);
+      if (block == blocks[b]) continue;
+      shared.remove(blocks[b]);
+      blocks[b] = block;
+    }
+  }
+
+  /**
+   * Makes sure that the block at the given position is not shared with a
+   * snapshot, replacing it with a private copy if needed.
+   *
+   * @param b index of the block.
+   * @return the index of the block.
+   */
+  private int own(int b) {
+    if (shared.isEmpty() || !shared.remove(blocks[b])) return b;
+    Storage copy = blocks[b].newBlock();
+    copy.append(blocks[b], 0, blocks[b].size());
+    blocks[b] = copy;
+    return b;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Builder">
+  /**
+   * The {@code Builder} class fills a new list of full blocks in a single
+   * pass, used to rebuild the storage after bulk operations.
+   */
+  private class Builder {
+
+    /**
+     * Completed blocks.
+     */
+    private ArrayList<Storage> created = new ArrayList<>();
+
+    /**
+     * Block currently being filled.
+     */
+    private Storage current = blocks[0].newBlock();
+
+    /**
+     * Appends a range of elements of a block.
+     *
+     * @param block source of the elements.
+     * @param from first position of the range.
+     * @param to end of the range, exclusive.
+     */
+    void append(Storage block, int from, int to) {
+      while (from < to)
+      {
+        int number = Math.min(to - from, CHUNK_SIZE - current.size());
+        current.append(block, from, from + number);
+        from += number;
+        if (current.size() == CHUNK_SIZE) next();
+      }
+    }
+
+    /**
+     * Appends a given number of copies of the {@code Data} argument.
+     *
+     * @param data element to be appended.
+     * @param number number of copies.
+     */
+    void add(Data data, int number) {
+      while (number > 0)
+      {
+        int length = Math.min(number, CHUNK_SIZE - current.size());
+        current.add(data, length);
+        number -= length;
+        if (current.size() == CHUNK_SIZE) next();
+      }
+    }
+
+    /**
+     * Returns the list of blocks, including the partially filled one.
+     *
+     * @return the new blocks.
+     */
+    ArrayList<Storage> finish() {
+      if (current.size() > 0 || created.isEmpty()) created.add(current);
+      return created;
+    }
+
+    /**
+     * Completes the current block and starts a new one.
+     */
+    private void next() {
+      created.add(current);
+      current = current.newBlock();
+    }
+  }
+  //</editor-fold>
+
+}
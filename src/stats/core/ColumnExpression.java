@@ -0,0 +1,54 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: ColumnExpression.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code ColumnExpression} interface defines the values of a computed
+ * column of a {@link Table} from the values of its source columns, all of
+ * {@code DataTypes.NUMERIC} type. Expressions are evaluated on batches of
+ * rows, so that a single call computes thousands of values; implementations
+ * should only use the arguments and keep no state between calls.
+ * <p>
+ * Rows where any source is null are null in the computed column, whatever
+ * value is written in the result, and {@code NaN} results are stored as null.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public interface ColumnExpression {
+
+  /**
+   * Computes a batch of values. Element {@code sources[k][i]} is the value of
+   * the {@code k}-th source column at the {@code i}-th row of the batch.
+   *
+   * @param sources values of the source columns.
+   * @param result destination of the computed values.
+   * @param length number of rows of the batch.
+   */
+  void evaluate(double[][] sources, double[] result, int length);
+
+}
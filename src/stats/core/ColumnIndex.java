@@ -0,0 +1,519 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: ColumnIndex.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.Arrays;
+
+/**
+ * The {@code ColumnIndex} class is a sorted index of the valid elements of a
+ * numeric array, see {@link DataTypes#isNumeric()}, used to answer range and
+ * equality queries without scanning the column. Entries are pairs of key and
+ * row, ordered by key and then by row. Keys of integral arrays are their
+ * {@code long} values; keys of {@code DataTypes.NUMERIC} arrays are the bits
+ * of their values, mapped so that keys are ordered as the values by
+ * {@link Double#compare(double, double)}. Entries are kept in primitive
+ * arrays split in sorted blocks, like the leaves of a B-tree: a lookup is a
+ * binary search over the blocks followed by a binary search inside one
+ * block, and an update only shifts the entries of one block. A query returns
+ * in {@code O(log n + k)} for {@code k} matching rows.
+ * <p>
+ * The owning {@code Array} updates the index on each modification. Inserting
+ * or removing rows shifts the row numbers of the following entries, which
+ * takes one pass over the index but keeps its order.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+final class ColumnIndex {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Number of entries of a block after a split or a build. Blocks grow up to
+   * twice this size before being split.
+   */
+  static final int BLOCK_SIZE = 1024;
+
+  /**
+   * Initial capacity of the block list.
+   */
+  private static final int DEFAULT_BLOCKS = 4;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Tells if the keys are the {@code long} values of an integral array.
+   */
+  private final boolean integral;
+
+  /**
+   * Keys of the entries of each block.
+   */
+  private long[][] keys;
+
+  /**
+   * Rows of the entries of each block.
+   */
+  private int[][] rows;
+
+  /**
+   * Number of entries of each block.
+   */
+  private int[] sizes;
+
+  /**
+   * Number of blocks in use, at least one.
+   */
+  private int count;
+
+  /**
+   * Total number of entries.
+   */
+  private int size;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code ColumnIndex} class, indexing the valid elements of
+   * a numeric array. Entries are sorted with the same stable sort used by
+   * {@link Table#sortIndex(SortKey...)}.
+   *
+   * @param array a numeric array.
+   */
+  ColumnIndex(Array array) {
+    Storage storage = array.storage();
+    integral = storage != null && storage.type() != DataTypes.NUMERIC;
+    clear();
+    int total = array.size();
+    if (total == 0) return;
+    // collect the valid rows and sort them by value
+    long[] validity = new long[(total + Bitmap.WORD_SIZE - 1)
+            / Bitmap.WORD_SIZE];
+    array.getValidity(0, validity, total);
+    int[] sorted = new int[total - array.countEmpty()];
+    int number = 0;
+    for (int w = 0; w < validity.length; w++)
+      for (long word = validity[w]; word != 0L; word &= word - 1)
+        sorted[number++] = w * Bitmap.WORD_SIZE
+                + Long.numberOfTrailingZeros(word);
+    RowComparator comparator = new RowComparator(new Array[]{array},
+            new SortKey[]{new SortKey(0)});
+    int[] buffer = new int[number];
+    if (number > Parallel.THRESHOLD) Parallel.pool().invoke(
+              new SortTask(comparator, sorted, buffer, 0, number));
+    else SortTask.sort(comparator, sorted, buffer, 0, number);
+    // fill the blocks
+    long[] longs = integral ? new long[total] : null;
+    double[] doubles = integral ? null : new double[total];
+    if (integral) array.getLongs(0, longs, 0, total);
+    else array.getDoubles(0, doubles, 0, total);
+    count = 0;
+    for (int from = 0; from < number || count == 0; from += BLOCK_SIZE)
+    {
+      int length = Math.min(BLOCK_SIZE, number - from);
+      ensureBlocks(count + 1);
+      keys[count] = new long[2 * BLOCK_SIZE];
+      rows[count] = new int[2 * BLOCK_SIZE];
+      for (int i = 0; i < length; i++)
+      {
+        int row = sorted[from + i];
+        rows[count][i] = row;
+        keys[count][i] = integral ? longs[row] : key(doubles[row]);
+      }
+      sizes[count++] = length;
+    }
+    size = number;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the number of indexed elements.
+   *
+   * @return number of entries.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns the rows of a {@code DataTypes.NUMERIC} array whose value is
+   * between the given bounds, inclusive.
+   *
+   * @param min lower bound of the values.
+   * @param max upper bound of the values.
+   * @param total number of rows of the array, size of the bitmap.
+   * @return bitmap of the matching rows.
+   */
+  Bitmap find(double min, double max, int total) {
+    return search(key(min), key(max), total);
+  }
+
+  /**
+   * Returns the rows of an integral array whose value is between the given
+   * bounds, inclusive.
+   *
+   * @param min lower bound of the values.
+   * @param max upper bound of the values.
+   * @param total number of rows of the array, size of the bitmap.
+   * @return bitmap of the matching rows.
+   */
+  Bitmap find(long min, long max, int total) {
+    return search(min, max, total);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Adds the element at the given position, if valid.
+   *
+   * @param storage storage of the array.
+   * @param row position of the element.
+   */
+  void add(Storage storage, int row) {
+    if (!storage.isEmpty(row)) add(key(storage, row), row);
+  }
+
+  /**
+   * Adds copies of an element stored at consecutive rows, if valid.
+   *
+   * @param storage storage of the array.
+   * @param row first row of the copies.
+   * @param number number of copies.
+   */
+  void add(Storage storage, int row, int number) {
+    if (storage.isEmpty(row)) return;
+    long key = key(storage, row);
+    for (int i = 0; i < number; i++)
+      add(key, row + i);
+  }
+
+  /**
+   * Removes the element at the given position, if valid.
+   *
+   * @param storage storage of the array.
+   * @param row position of the element.
+   */
+  void remove(Storage storage, int row) {
+    if (storage.isEmpty(row)) return;
+    long key = key(storage, row);
+    int b = block(key, row);
+    int i = position(b, key, row);
+    if (i == sizes[b] || rows[b][i] != row) return;
+    System.arraycopy(keys[b], i + 1, keys[b], i, sizes[b] - i - 1);
+    System.arraycopy(rows[b], i + 1, rows[b], i, sizes[b] - i - 1);
+    sizes[b]--;
+    size--;
+    if (sizes[b] == 0 && count > 1) removeBlock(b);
+  }
+
+  /**
+   * Shifts the rows following an insertion of rows at the given position.
+   *
+   * @param row position of the insertion.
+   * @param number number of inserted rows.
+   */
+  void insert(int row, int number) {
+    for (int b = 0; b < count; b++)
+      for (int i = 0; i < sizes[b]; i++)
+        if (rows[b][i] >= row) rows[b][i] += number;
+  }
+
+  /**
+   * Shifts the rows following several insertions of rows, see
+   * {@link Array#insert(int[], int)}.
+   *
+   * @param positions sorted and distinct positions of the insertions.
+   * @param number number of rows inserted at each position.
+   */
+  void insert(int[] positions, int number) {
+    for (int b = 0; b < count; b++)
+      for (int i = 0; i < sizes[b]; i++)
+      {
+        // count the insertions at or before the row
+        int before = Arrays.binarySearch(positions, rows[b][i]);
+        before = (before < 0) ? -before - 1 : before + 1;
+        rows[b][i] += before * number;
+      }
+  }
+
+  /**
+   * Drops the entries of a range of removed rows and shifts the following
+   * rows.
+   *
+   * @param row first removed row.
+   * @param number number of removed rows.
+   */
+  void remove(int row, int number) {
+    int end = row + number;
+    for (int b = 0; b < count; b++)
+    {
+      int kept = 0;
+      for (int i = 0; i < sizes[b]; i++)
+      {
+        int r = rows[b][i];
+        if (r >= row && r < end) continue;
+        keys[b][kept] = keys[b][i];
+        rows[b][kept++] = (r >= end) ? r - number : r;
+      }
+      size -= sizes[b] - kept;
+      sizes[b] = kept;
+    }
+    removeEmptyBlocks();
+  }
+
+  /**
+   * Drops the entries of the removed rows and shifts the others.
+   *
+   * @param removed bitmap of the removed rows.
+   */
+  void remove(Bitmap removed) {
+    // number of removed rows before each word
+    int[] before = new int[removed.words() + 1];
+    for (int w = 0; w < removed.words(); w++)
+      before[w + 1] = before[w] + Long.bitCount(removed.getWord(w));
+    for (int b = 0; b < count; b++)
+    {
+      int kept = 0;
+      for (int i = 0; i < sizes[b]; i++)
+      {
+        int r = rows[b][i];
+        long word = removed.getWord(r >>> 6);
+        if ((word & (1L << r)) != 0L) continue;
+        keys[b][kept] = keys[b][i];
+        rows[b][kept++] = r - before[r >>> 6]
+                - Long.bitCount(word & ((1L << r) - 1));
+      }
+      size -= sizes[b] - kept;
+      sizes[b] = kept;
+    }
+    removeEmptyBlocks();
+  }
+
+  /**
+   * Removes all entries.
+   */
+  void clear() {
+    keys = new long[DEFAULT_BLOCKS][];
+    rows = new int[DEFAULT_BLOCKS][];
+    sizes = new int[DEFAULT_BLOCKS];
+    keys[0] = new long[2 * BLOCK_SIZE];
+    rows[0] = new int[2 * BLOCK_SIZE];
+    count = 1;
+    size = 0;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Returns the key of a {@code double} value. Negative values have their
+   * magnitude bits flipped, so that keys compare as signed {@code long}
+   * values in the order of {@link Double#compare(double, double)}.
+   *
+   * @param value a value.
+   * @return the key of the value.
+   */
+  private static long key(double value) {
+    long bits = Double.doubleToLongBits(value);
+    return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+  }
+
+  /**
+   * Returns the key of a valid element.
+   *
+   * @param storage storage of the array.
+   * @param row position of the element.
+   * @return the key of the element.
+   */
+  private long key(Storage storage, int row) {
+    return integral ? storage.getLong(row) : key(storage.getDouble(row));
+  }
+
+  /**
+   * Returns the rows whose key is between the given bounds, inclusive.
+   *
+   * @param min lower bound of the keys.
+   * @param max upper bound of the keys.
+   * @param total number of rows of the array, size of the bitmap.
+   * @return bitmap of the matching rows.
+   */
+  private Bitmap search(long min, long max, int total) {
+    Bitmap result = new Bitmap(total);
+    if (min > max) return result;
+    // locate the first entry not lower than the minimum
+    int b = block(min, -1);
+    int i = position(b, min, -1);
+    for (; b < count; b++, i = 0)
+      for (; i < sizes[b]; i++)
+      {
+        if (keys[b][i] > max) return result;
+        result.set(rows[b][i]);
+      }
+    return result;
+  }
+
+  /**
+   * Adds an entry, splitting its block if full.
+   *
+   * @param key key of the entry.
+   * @param row row of the entry.
+   */
+  private void add(long key, int row) {
+    int b = block(key, row);
+    int i = position(b, key, row);
+    if (sizes[b] == keys[b].length)
+    {
+      splitBlock(b);
+      if (i > sizes[b])
+      {
+        i -= sizes[b];
+        b++;
+      }
+    }
+    System.arraycopy(keys[b], i, keys[b], i + 1, sizes[b] - i);
+    System.arraycopy(rows[b], i, rows[b], i + 1, sizes[b] - i);
+    keys[b][i] = key;
+    rows[b][i] = row;
+    sizes[b]++;
+    size++;
+  }
+
+  /**
+   * Compares two entries.
+   *
+   * @param key1 key of the first entry.
+   * @param row1 row of the first entry.
+   * @param key2 key of the second entry.
+   * @param row2 row of the second entry.
+   * @return a negative value, zero or a positive value if the first entry
+   * comes before, together with or after the second one.
+   */
+  private static int compare(long key1, int row1, long key2, int row2) {
+    int result = Long.compare(key1, key2);
+    return (result != 0) ? result : Integer.compare(row1, row2);
+  }
+
+  /**
+   * Returns the block where an entry is or would be stored: the last block
+   * whose first entry is not greater than the given one, or the first block.
+   *
+   * @param key key of the entry.
+   * @param row row of the entry.
+   * @return index of the block.
+   */
+  private int block(long key, int row) {
+    int low = 1, high = count - 1, result = 0;
+    while (low <= high)
+    {
+      int middle = (low + high) >>> 1;
+      if (compare(keys[middle][0], rows[middle][0], key, row) <= 0)
+      {
+        result = middle;
+        low = middle + 1;
+      } else high = middle - 1;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the position of the first entry of a block not lower than the
+   * given one, which is the size of the block if there is none.
+   *
+   * @param b index of the block.
+   * @param key key of the entry.
+   * @param row row of the entry.
+   * @return position inside the block.
+   */
+  private int position(int b, long key, int row) {
+    int low = 0, high = sizes[b];
+    while (low < high)
+    {
+      int middle = (low + high) >>> 1;
+      if (compare(keys[b][middle], rows[b][middle], key, row) < 0)
+        low = middle + 1;
+      else high = middle;
+    }
+    return low;
+  }
+
+  /**
+   * Splits a full block in two halves.
+   *
+   * @param b index of the block.
+   */
+  private void splitBlock(int b) {
+    ensureBlocks(count + 1);
+    System.arraycopy(keys, b + 1, keys, b + 2, count - b - 1);
+    System.arraycopy(rows, b + 1, rows, b + 2, count - b - 1);
+    System.arraycopy(sizes, b + 1, sizes, b + 2, count - b - 1);
+    int half = sizes[b] / 2;
+    keys[b + 1] = new long[2 * BLOCK_SIZE];
+    rows[b + 1] = new int[2 * BLOCK_SIZE];
+    System.arraycopy(keys[b], half, keys[b + 1], 0, sizes[b] - half);
+    System.arraycopy(rows[b], half, rows[b + 1], 0, sizes[b] - half);
+    sizes[b + 1] = sizes[b] - half;
+    sizes[b] = half;
+    count++;
+  }
+
+  /**
+   * Removes an empty block from the list.
+   *
+   * @param b index of the block.
+   */
+  private void removeBlock(int b) {
+    System.arraycopy(keys, b + 1, keys, b, count - b - 1);
+    System.arraycopy(rows, b + 1, rows, b, count - b - 1);
+    System.arraycopy(sizes, b + 1, sizes, b, count - b - 1);
+    count--;
+    keys[count] = null;
+    rows[count] = null;
+  }
+
+  /**
+   * Removes all empty blocks, keeping at least one block.
+   */
+  private void removeEmptyBlocks() {
+    for (int b = count - 1; b >= 0 && count > 1; b--)
+      if (sizes[b] == 0) removeBlock(b);
+  }
+
+  /**
+   * Grows the block list, if needed, so that it can hold at least the given
+   * number of blocks.
+   *
+   * @param blocks minimum required number of blocks.
+   */
+  private void ensureBlocks(int blocks) {
+    if (blocks <= sizes.length) return;
+    int capacity = Math.max(blocks, sizes.length * 2);
+    keys = Arrays.copyOf(keys, capacity);
+    rows = Arrays.copyOf(rows, capacity);
+    sizes = Arrays.copyOf(sizes, capacity);
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,107 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: ComputeTask.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code ComputeTask} class evaluates the expression of a
+ * {@link ComputedStorage} over a range of rows, writing the values and their
+ * validity at the same positions of the destination buffers. Large ranges
+ * are split on block boundaries of {@link ChunkedStorage} and evaluated in
+ * parallel; since block boundaries are multiples of the word size, each
+ * subtask writes its own words of the validity.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+final class ComputeTask extends RecursiveAction {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * The computed storage.
+   */
+  private final ComputedStorage storage;
+
+  /**
+   * Destination of the values.
+   */
+  private final double[] output;
+
+  /**
+   * Destination of the validity bits.
+   */
+  private final long[] validity;
+
+  /**
+   * First row of the range.
+   */
+  private final int from;
+
+  /**
+   * End of the range, exclusive.
+   */
+  private final int to;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code ComputeTask} class.
+   *
+   * @param storage the computed storage.
+   * @param output destination of the values.
+   * @param validity destination of the validity bits.
+   * @param from first row of the range, at a block boundary.
+   * @param to end of the range, exclusive.
+   */
+  ComputeTask(ComputedStorage storage, double[] output, long[] validity,
+          int from, int to) {
+    this.storage = storage;
+    this.output = output;
+    this.validity = validity;
+    this.from = from;
+    this.to = to;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  @Override
+  protected void compute() {
+    // split the range in halves aligned to the blocks
+    int middle = from + (to - from) / 2 / ChunkedStorage.CHUNK_SIZE
+            * ChunkedStorage.CHUNK_SIZE;
+    if (to - from <= Parallel.THRESHOLD || middle == from)
+    {
+      storage.evaluate(from, to, output, validity);
+      return;
+    }
+    invokeAll(new ComputeTask(storage, output, validity, from, middle),
+            new ComputeTask(storage, output, validity, middle, to));
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,323 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: ComputedStorage.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code ComputedStorage} class holds the elements of a computed column,
+ * defined by a {@link ColumnExpression} over other numeric columns, read as
+ * {@code double} values. Values are not computed until they are read: the
+ * first access evaluates the whole column in batches and caches the result,
+ * which is used until a source column is modified. The version of each source is recorded
+ * at evaluation time and checked on each access.
+ * <p>
+ * The size of the storage follows the size of the sources. Computed elements
+ * cannot be modified, so any modifier throws an
+ * {@code UnsupportedOperationException}.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+class ComputedStorage extends Storage {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Expression defining the elements.
+   */
+  private final ColumnExpression expression;
+
+  /**
+   * Source columns of the expression.
+   */
+  private final Array[] sources;
+
+  /**
+   * Versions of the sources when the cache was computed.
+   */
+  private final int[] versions;
+
+  /**
+   * Cached elements, null if not computed yet.
+   */
+  private Storage cache;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code ComputedStorage} class. Sources must be numeric
+   * and have the same size.
+   *
+   * @param expression expression defining the elements.
+   * @param sources source columns of the expression, at least one.
+   */
+  ComputedStorage(ColumnExpression expression, Array[] sources) {
+    this.expression = expression;
+    this.sources = sources.clone();
+    versions = new int[sources.length];
+    cache = null;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  @Override
+  DataTypes type() {
+    return DataTypes.NUMERIC;
+  }
+
+  @Override
+  int size() {
+    return sources[0].size();
+  }
+
+  @Override
+  boolean isEmpty(int index) {
+    return values().isEmpty(index);
+  }
+
+  @Override
+  int countEmpty() {
+    return values().countEmpty();
+  }
+
+  @Override
+  void getValidity(int index, long[] buffer, int length) {
+    values().getValidity(index, buffer, length);
+  }
+
+  @Override
+  Data get(int index) {
+    return values().get(index);
+  }
+
+  @Override
+  double getDouble(int index) {
+    return values().getDouble(index);
+  }
+
+  @Override
+  void getDoubles(int index, double[] buffer, int offset, int length) {
+    values().getDoubles(index, buffer, offset, length);
+  }
+
+  @Override
+  String getString(int index) {
+    return values().getString(index);
+  }
+
+  /**
+   * Checks if the given array is a source of the storage, directly or
+   * through computed sources.
+   *
+   * @param source an array.
+   * @return true if it is a source, else false.
+   */
+  boolean dependsOn(Array source) {
+    for (int k = 0; k < sources.length; k++)
+      if (sources[k] == source || sources[k].dependsOn(source)) return true;
+    return false;
+  }
+
+  /**
+   * Returns the sum of the versions of the sources, which changes whenever a
+   * source, or a source of a computed source, is modified.
+   *
+   * @return the version of the sources.
+   */
+  int version() {
+    int sum = 0;
+    for (int k = 0; k < sources.length; k++)
+      sum += sources[k].version();
+    return sum;
+  }
+
+  /**
+   * Checks if the cached elements are missing or out of date.
+   *
+   * @return true if the elements must be computed, else false.
+   */
+  boolean isStale() {
+    if (cache == null || cache.size() != size()) return true;
+    for (int k = 0; k < sources.length; k++)
+      if (sources[k].version() != versions[k]) return true;
+    return false;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  @Override
+  void set(int index, Data data) {
+    throw readOnly();
+  }
+
+  @Override
+  boolean set(int index, String data) {
+    throw readOnly();
+  }
+
+  @Override
+  void setDouble(int index, double value) {
+    throw readOnly();
+  }
+
+  @Override
+  void empty(int index) {
+    throw readOnly();
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  @Override
+  void add(Data data, int number) {
+    throw readOnly();
+  }
+
+  @Override
+  void insert(int index, Data data, int number) {
+    throw readOnly();
+  }
+
+  @Override
+  void remove(int index, int number) {
+    throw readOnly();
+  }
+
+  @Override
+  void swap(int index1, int index2) {
+    throw readOnly();
+  }
+
+  @Override
+  void clear() {
+    throw readOnly();
+  }
+
+  /**
+   * Evaluates the expression on a range of rows in batches of one block,
+   * writing the values at the same positions of the output and setting the
+   * validity bits of the rows whose sources are all valid and whose value is
+   * a number.
+   *
+   * @param from first row of the range, at a word boundary.
+   * @param to end of the range, exclusive.
+   * @param output destination of the values.
+   * @param validity destination of the validity bits.
+   */
+  void evaluate(int from, int to, double[] output, long[] validity) {
+    int batch = ChunkedStorage.CHUNK_SIZE;
+    double[][] values = new double[sources.length][batch];
+    long[][] valid = new long[sources.length][batch / Bitmap.WORD_SIZE];
+    double[] result = new double[batch];
+    for (int start = from; start < to; start += batch)
+    {
+      int length = Math.min(batch, to - start);
+      for (int k = 0; k < sources.length; k++)
+      {
+        sources[k].getDoubles(start, values[k], 0, length);
+        sources[k].getValidity(start, valid[k], length);
+      }
+      expression.evaluate(values, result, length);
+      System.arraycopy(result, 0, output, start, length);
+      for (int w = 0; w * Bitmap.WORD_SIZE < length; w++)
+      {
+        long bits = -1L;
+        for (int k = 0; k < sources.length; k++)
+          bits &= valid[k][w];
+        for (long b = bits; b != 0L; b &= b - 1)
+        {
+          int i = w * Bitmap.WORD_SIZE + Long.numberOfTrailingZeros(b);
+          if (i >= length || Double.isNaN(result[i])) bits &= ~(1L << i);
+        }
+        validity[start / Bitmap.WORD_SIZE + w] = bits;
+      }
+    }
+  }
+
+  /**
+   * Returns a snapshot of the current values, which is a plain numeric
+   * storage not depending on the sources anymore.
+   *
+   * @return a snapshot of the storage.
+   */
+  @Override
+  Storage snapshot() {
+    return values().snapshot();
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Returns the cached elements, computing them if they are out of date.
+   *
+   * @return the computed elements.
+   */
+  private Storage values() {
+    if (isStale()) compute();
+    return cache;
+  }
+
+  /**
+   * Evaluates the expression over the whole column and stores the result in
+   * a new cache. Large columns are evaluated in parallel blocks, unless a
+   * source is kept off-heap.
+   */
+  private void compute() {
+    int size = size();
+    double[] output = new double[size];
+    long[] validity = new long[(size + Bitmap.WORD_SIZE - 1)
+            / Bitmap.WORD_SIZE];
+    boolean mapped = false;
+    for (int k = 0; k < sources.length; k++)
+      mapped |= sources[k].isMapped();
+    if (!mapped && size > Parallel.THRESHOLD)
+      Parallel.pool().invoke(new ComputeTask(this, output, validity, 0, size));
+    else evaluate(0, size, output, validity);
+    // store results of the rows whose sources are all valid
+    Storage result = Storage.create(DataTypes.NUMERIC);
+    if (size > 0) result.add(new Numeric(), size);
+    for (int w = 0; w < validity.length; w++)
+      for (long valid = validity[w]; valid != 0; valid &= valid - 1)
+      {
+        int i = w * Bitmap.WORD_SIZE + Long.numberOfTrailingZeros(valid);
+        result.setDouble(i, output[i]);
+      }
+    // record the versions of the sources
+    for (int k = 0; k < sources.length; k++)
+      versions[k] = sources[k].version();
+    cache = result;
+  }
+
+  /**
+   * Returns the exception thrown by modifiers.
+   *
+   * @return an unsupported operation exception.
+   */
+  private static UnsupportedOperationException readOnly() {
+    return new UnsupportedOperationException(
+            "Computed columns cannot be modified.");
+  }
+  //</editor-fold>
+
+}
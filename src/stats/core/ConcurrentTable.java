@@ -0,0 +1,631 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: ConcurrentTable.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The {@code ConcurrentTable} class is a thread-safe variant of
+ * {@link Table}, so that ingestion threads can append rows while analysis
+ * threads read other columns. Locking is done at two levels:
+ * <ul>
+ * <li>a structure lock, taken for reading by cell operations and for writing
+ * by operations changing the shape of the table, such as column insertion or
+ * row removal;</li>
+ * <li>striped read/write locks on the columns, so that operations on
+ * different columns do not block each other.</li>
+ * </ul>
+ * The number of rows and columns is published atomically, so that it can be
+ * read without locking.
+ * <p>
+ * Several producers can fill the table at the same time: each producer
+ * reserves a range of rows with {@link #appendRows(int)} and fills it with
+ * {@link #set(int, int, Data)}, or appends a whole batch of rows with
+ * {@link #append(Table)}. Long analyses should run on a {@link #snapshot()}
+ * instead of holding locks.
+ * <p>
+ * Computed columns refresh their values from their source columns when
+ * read, so they are read under the structure write lock. Edits of a
+ * {@code ConcurrentTable} cannot be recorded by a {@link Journal}.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public class ConcurrentTable {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Number of column lock stripes, a power of two.
+   */
+  private static final int STRIPES = 16;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * The underlying table, only accessed while holding the locks.
+   */
+  private final Table table;
+
+  /**
+   * Lock guarding the shape of the table.
+   */
+  private final ReentrantReadWriteLock structure;
+
+  /**
+   * Locks guarding the content of the columns, column {@code col} is guarded
+   * by {@code stripes[col % STRIPES]}.
+   */
+  private final ReentrantReadWriteLock[] stripes;
+
+  /**
+   * Published number of rows.
+   */
+  private volatile int table_rows;
+
+  /**
+   * Published number of columns.
+   */
+  private volatile int table_cols;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code ConcurrentTable} class with name argument. The
+   * table is initialized as a new {@link Table}.
+   *
+   * @param name the name of the table.
+   */
+  public ConcurrentTable(String name) {
+    this(new Table(name));
+  }
+
+  /**
+   * Constructor for {@code ConcurrentTable} class wrapping an existing
+   * table. The table must not be accessed directly anymore.
+   *
+   * @param table the table to be wrapped.
+   * @throws UnsupportedOperationException if edits of the table are being
+   * recorded by a {@link Journal}.
+   */
+  public ConcurrentTable(Table table) {
+    table.share();
+    this.table = table;
+    structure = new ReentrantReadWriteLock();
+    stripes = new ReentrantReadWriteLock[STRIPES];
+    for (int i = 0; i < STRIPES; i++)
+      stripes[i] = new ReentrantReadWriteLock();
+    publish();
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the name of the table.
+   *
+   * @return the name of the table.
+   */
+  public String name() {
+    structure.readLock().lock();
+    try
+    {
+      return table.name();
+    } finally
+    {
+      structure.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of columns of the table, without locking.
+   *
+   * @return number of columns.
+   */
+  public int columns() {
+    return table_cols;
+  }
+
+  /**
+   * Returns the number of rows of the table, without locking.
+   *
+   * @return number of rows.
+   */
+  public int rows() {
+    return table_rows;
+  }
+
+  /**
+   * Returns the name of the column at the given position.
+   *
+   * @param col the index of the column.
+   * @return the name of the column.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public String getColumnName(int col) {
+    structure.readLock().lock();
+    try
+    {
+      return table.getColumnName(col);
+    } finally
+    {
+      structure.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the index of the column with the given name.
+   *
+   * @param name the name of the column.
+   * @return index of the column, -1 if no column has the given name.
+   */
+  public int indexOf(String name) {
+    structure.readLock().lock();
+    try
+    {
+      return table.indexOf(name);
+    } finally
+    {
+      structure.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the data type of the column at the given position.
+   *
+   * @param col the index of the column.
+   * @return the data type of the column.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public DataTypes getColumnType(int col) {
+    structure.readLock().lock();
+    try
+    {
+      return table.getColumnType(col);
+    } finally
+    {
+      structure.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the content of a cell.
+   *
+   * @param col the column index of the cell.
+   * @param row the row index of the cell.
+   * @return a copy of the content of the cell.
+   * @throws ArrayIndexOutOfBoundsException if the column and row indexes are
+   * not valid.
+   */
+  public Data get(int col, int row) {
+    structure.readLock().lock();
+    try
+    {
+      if (!table.isColumnComputed(col))
+      {
+        Lock lock = readLock(col);
+        lock.lock();
+        try
+        {
+          return table.get(col, row);
+        } finally
+        {
+          lock.unlock();
+        }
+      }
+    } finally
+    {
+      structure.readLock().unlock();
+    }
+    // computed columns read their sources, which may be in any stripe
+    structure.writeLock().lock();
+    try
+    {
+      return table.get(col, row);
+    } finally
+    {
+      structure.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns a read-only snapshot of a column, which can be analysed without
+   * holding any lock.
+   *
+   * @param col the index of the column.
+   * @return a snapshot of the column.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public Array snapshot(int col) {
+    structure.readLock().lock();
+    try
+    {
+      if (!table.isColumnComputed(col))
+      {
+        // taking a snapshot marks the blocks as shared
+        Lock lock = writeLock(col);
+        lock.lock();
+        try
+        {
+          return table.getArray(col).snapshot();
+        } finally
+        {
+          lock.unlock();
+        }
+      }
+    } finally
+    {
+      structure.readLock().unlock();
+    }
+    // computed columns read their sources, which may be in any stripe
+    structure.writeLock().lock();
+    try
+    {
+      return table.getArray(col).snapshot();
+    } finally
+    {
+      structure.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns a read-only snapshot of the whole table, consistent across all
+   * columns.
+   *
+   * @return a snapshot of the table.
+   */
+  public Table snapshot() {
+    structure.writeLock().lock();
+    try
+    {
+      return table.snapshot();
+    } finally
+    {
+      structure.writeLock().unlock();
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  /**
+   * Sets the content of a cell. Cells of different columns can be set at the
+   * same time by different threads.
+   *
+   * @param col the column index of the cell.
+   * @param row the row index of the cell.
+   * @param data new content of the cell.
+   * @return true if successful, else false.
+   * @throws ArrayIndexOutOfBoundsException if the column and row indexes are
+   * not valid.
+   */
+  public boolean set(int col, int row, Data data) {
+    structure.readLock().lock();
+    try
+    {
+      Lock lock = writeLock(col);
+      lock.lock();
+      try
+      {
+        return table.set(col, row, data);
+      } finally
+      {
+        lock.unlock();
+      }
+    } finally
+    {
+      structure.readLock().unlock();
+    }
+  }
+
+  /**
+   * Sets the content of a cell parsing a string data.
+   *
+   * @param col the column index of the cell.
+   * @param row the row index of the cell.
+   * @param data the string content to be parsed.
+   * @return true if successful, else false.
+   * @throws ArrayIndexOutOfBoundsException if the column and row indexes are
+   * not valid.
+   */
+  public boolean set(int col, int row, String data) {
+    structure.readLock().lock();
+    try
+    {
+      Lock lock = writeLock(col);
+      lock.lock();
+      try
+      {
+        return table.set(col, row, data);
+      } finally
+      {
+        lock.unlock();
+      }
+    } finally
+    {
+      structure.readLock().unlock();
+    }
+  }
+
+  /**
+   * Sets the name of a column.
+   *
+   * @param col the index of the column.
+   * @param name new name of the column.
+   * @return true is successful, else false.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public boolean setColumnName(int col, String name) {
+    structure.writeLock().lock();
+    try
+    {
+      return table.setColumnName(col, name);
+    } finally
+    {
+      structure.writeLock().unlock();
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Public Methods">
+  /**
+   * Reserves a range of null rows at the end of the table and returns the
+   * index of the first one. The caller can then fill the range, while other
+   * threads reserve and fill their own ranges.
+   *
+   * @param number number of rows to be reserved.
+   * @return index of the first reserved row, -1 if number is not valid.
+   */
+  public int appendRows(int number) {
+    if (number < 1) return -1;
+    structure.writeLock().lock();
+    try
+    {
+      int first = table.rows();
+      table.addRows(number);
+      publish();
+      return first;
+    } finally
+    {
+      structure.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Appends the rows of a batch table, which must have the same number of
+   * columns and the same column types. The shape is checked and the range of
+   * rows is reserved under the same lock, which is then downgraded so that
+   * the shape cannot change until the range is filled. Columns are copied
+   * one at a time through {@link Table#set(int, int, Data)}, so that several
+   * producers can append their batches at the same time. Values of computed
+   * columns in the batch are ignored.
+   *
+   * @param batch the rows to be appended.
+   * @return index of the first appended row, -1 if the batch is not valid,
+   * in which case no row is appended.
+   */
+  public int append(Table batch) {
+    if (batch.rows() < 1) return -1;
+    int first;
+    structure.writeLock().lock();
+    try
+    {
+      // check if the batch matches the columns of the table
+      if (batch.columns() != table.columns()) return -1;
+      for (int col = 0; col < batch.columns(); col++)
+        if (batch.getColumnType(col) != table.getColumnType(col)) return -1;
+      first = table.rows();
+      table.addRows(batch.rows());
+      publish();
+      // keep the shape while the rows are filled
+      structure.readLock().lock();
+    } finally
+    {
+      structure.writeLock().unlock();
+    }
+    // copy each column holding only its lock
+    try
+    {
+      for (int col = 0; col < batch.columns(); col++)
+      {
+        // computed columns follow their sources
+        if (table.isColumnComputed(col)) continue;
+        Array source = batch.getArray(col);
+        Lock lock = writeLock(col);
+        lock.lock();
+        try
+        {
+          // types cannot change while holding the structure lock
+          for (int row = 0; row < batch.rows(); row++)
+            if (!source.isEmpty(row))
+              table.set(col, first + row, source.get(row));
+        } finally
+        {
+          lock.unlock();
+        }
+      }
+      return first;
+    } finally
+    {
+      structure.readLock().unlock();
+    }
+  }
+
+  /**
+   * Adds a given number of columns of a data type at the end of the table.
+   *
+   * @param type data type of the new columns.
+   * @param number number of columns to be added.
+   * @return true if successful, else false.
+   */
+  public boolean addColumns(DataTypes type, int number) {
+    structure.writeLock().lock();
+    try
+    {
+      return table.addColumns(type, number);
+    } finally
+    {
+      publish();
+      structure.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Inserts a given number of columns of a data type at a position of the
+   * table.
+   *
+   * @param col the index of the first new column.
+   * @param type data type of the new columns.
+   * @param number number of columns to be inserted.
+   * @return true if successful, else false.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public boolean insertColumns(int col, DataTypes type, int number) {
+    structure.writeLock().lock();
+    try
+    {
+      return table.insertColumns(col, type, number);
+    } finally
+    {
+      publish();
+      structure.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes a given number of columns starting from a position of the table.
+   *
+   * @param col the index of the first column to be removed.
+   * @param number number of columns to be removed.
+   * @return true if successful, else false.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public boolean removeColumns(int col, int number) {
+    structure.writeLock().lock();
+    try
+    {
+      return table.removeColumns(col, number);
+    } finally
+    {
+      publish();
+      structure.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Inserts a given number of null rows at a position of the table.
+   *
+   * @param row the index of the first new row.
+   * @param number number of rows to be inserted.
+   * @return true if successful, else false.
+   * @throws ArrayIndexOutOfBoundsException if the row index is not valid.
+   */
+  public boolean insertRows(int row, int number) {
+    structure.writeLock().lock();
+    try
+    {
+      return table.insertRows(row, number);
+    } finally
+    {
+      publish();
+      structure.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes a given number of rows starting from a position of the table.
+   *
+   * @param row the index of the first row to be removed.
+   * @param number number of rows to be removed.
+   * @return true if successful, else false.
+   * @throws ArrayIndexOutOfBoundsException if the row index is not valid.
+   */
+  public boolean removeRows(int row, int number) {
+    structure.writeLock().lock();
+    try
+    {
+      return table.removeRows(row, number);
+    } finally
+    {
+      publish();
+      structure.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Converts a column to a new data type.
+   *
+   * @param col the index of the column to be converted.
+   * @param type new data type of the column.
+   * @return true if successful, else false.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public boolean convertColumn(int col, DataTypes type) {
+    structure.writeLock().lock();
+    try
+    {
+      return table.convertColumn(col, type);
+    } finally
+    {
+      structure.writeLock().unlock();
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Publishes the current number of rows and columns. Must be called while
+   * holding the structure write lock.
+   */
+  private void publish() {
+    table_rows = table.rows();
+    table_cols = table.columns();
+  }
+
+  /**
+   * Returns the read lock of the stripe guarding a column.
+   *
+   * @param col the index of the column.
+   * @return the read lock of the column.
+   */
+  private Lock readLock(int col) {
+    return stripes[col & (STRIPES - 1)].readLock();
+  }
+
+  /**
+   * Returns the write lock of the stripe guarding a column. Columns in
+   * different stripes may still share a {@link Dictionary}, for instance
+   * after a join, which is safe since dictionaries add new strings under
+   * their own lock.
+   *
+   * @param col the index of the column.
+   * @return the write lock of the column.
+   */
+  private Lock writeLock(int col) {
+    return stripes[col & (STRIPES - 1)].writeLock();
+  }
+  //</editor-fold>
+
+}
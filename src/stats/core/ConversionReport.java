@@ -0,0 +1,167 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: ConversionReport.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code ConversionReport} class describes the outcome of a column
+ * conversion: the target data type, whether the column was replaced and the
+ * rows whose content could not be converted. Failed rows hold a null value in
+ * the converted column when the conversion is forced.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public final class ConversionReport {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Name of the converted column.
+   */
+  private final String column;
+
+  /**
+   * Target data type of the conversion.
+   */
+  private final DataTypes type;
+
+  /**
+   * Number of rows of the column.
+   */
+  private final int rows;
+
+  /**
+   * Rows that could not be converted, in ascending order.
+   */
+  private final int[] failed;
+
+  /**
+   * Tells if the column was replaced by the converted one.
+   */
+  private final boolean applied;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code ConversionReport} class.
+   *
+   * @param column name of the converted column.
+   * @param type target data type of the conversion.
+   * @param rows number of rows of the column.
+   * @param failed rows that could not be converted, in ascending order.
+   * @param applied true if the column was replaced.
+   */
+  ConversionReport(String column, DataTypes type, int rows, int[] failed,
+          boolean applied) {
+    this.column = column;
+    this.type = type;
+    this.rows = rows;
+    this.failed = failed;
+    this.applied = applied;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the name of the converted column.
+   *
+   * @return name of the column.
+   */
+  public String column() {
+    return column;
+  }
+
+  /**
+   * Returns the target data type of the conversion.
+   *
+   * @return the target data type.
+   */
+  public DataTypes type() {
+    return type;
+  }
+
+  /**
+   * Returns the number of rows of the column.
+   *
+   * @return number of rows.
+   */
+  public int rows() {
+    return rows;
+  }
+
+  /**
+   * Checks if the column was replaced by the converted one.
+   *
+   * @return true if the conversion was applied, else false.
+   */
+  public boolean isApplied() {
+    return applied;
+  }
+
+  /**
+   * Checks if every row was converted without data loss.
+   *
+   * @return true if no row failed, else false.
+   */
+  public boolean isLossless() {
+    return failed.length == 0;
+  }
+
+  /**
+   * Returns the number of rows that could not be converted.
+   *
+   * @return number of failed rows.
+   */
+  public int countFailed() {
+    return failed.length;
+  }
+
+  /**
+   * Returns the rows that could not be converted, in ascending order.
+   *
+   * @return a copy of the failed rows.
+   */
+  public int[] getFailedRows() {
+    return failed.clone();
+  }
+
+  /**
+   * Returns a string representation of the {@code ConversionReport}.
+   *
+   * @return a string representation of the report.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(column).append(" to ").append(type).append(": ")
+            .append(rows - failed.length).append("/").append(rows)
+            .append(" rows converted, ")
+            .append(applied ? "applied" : "not applied");
+    return sb.toString();
+  }
+  //</editor-fold>
+
+}
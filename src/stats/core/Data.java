@@ -53,6 +53,19 @@ public abstract class Data {
    * @return true if null, else false.
    */
   public abstract boolean isEmpty();
+
+  /**
+   * Returns the content of the {@code Data} object as {@code double}. Only
+   * subclasses of numeric data types, see {@link DataTypes#isNumeric()},
+   * implement this method.
+   *
+   * @return the content as {@code double}.
+   * @throws UnsupportedOperationException if the data type is not numeric.
+   */
+  double toDouble() {
+    throw new UnsupportedOperationException(
+            "Cannot read " + type() + " data as double.");
+  }
   //</editor-fold>
 
   //<editor-fold defaultstate="collapsed" desc="Setters">
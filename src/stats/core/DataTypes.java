@@ -42,8 +42,49 @@ public enum DataTypes {
 
   CHARACTER,
   NUMERIC,
+  INTEGER,
+  LONG,
+  BOOLEAN,
+  DATETIME,
   UNDEFINED;
 
+  /**
+   * Checks if the elements of the data type can be read as {@code double}
+   * values. Besides {@code NUMERIC}, integer, boolean and date-time types are
+   * numeric: booleans are read as 0 and 1, date-times as nanoseconds since the
+   * epoch.
+   *
+   * @return true if the data type is numeric, else false.
+   */
+  public boolean isNumeric() {
+    return this != CHARACTER && this != UNDEFINED;
+  }
+
+  /**
+   * Checks if an integral value can be stored by an element of the data type
+   * without loss: {@code INTEGER} elements hold values within the range of
+   * {@code int}, {@code BOOLEAN} elements only 0 and 1.
+   *
+   * @param value the integral value.
+   * @return true if the value can be stored, false if not or if the data
+   * type is not numeric.
+   */
+  boolean accepts(long value) {
+    switch (this)
+    {
+      case INTEGER:
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+      case BOOLEAN:
+        return value == 0L || value == 1L;
+      case NUMERIC:
+      case LONG:
+      case DATETIME:
+        return true;
+      default:
+        return false;
+    }
+  }
+
   /**
    * Returns the icon associated to the data type, to be used in GUI
    * applications.
@@ -58,6 +99,10 @@ public enum DataTypes {
         return new ImageIcon(getClass().getResource(
                 "/stats/gui/images/character.png"));
       case NUMERIC:
+      case INTEGER:
+      case LONG:
+      case BOOLEAN:
+      case DATETIME:
         return new ImageIcon(getClass().getResource(
                 "/stats/gui/images/numeric.png"));
       case UNDEFINED:
@@ -0,0 +1,454 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: DateTime.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code DateTime} class is used to store points in time, as the number
+ * of nanoseconds since the epoch, 1970-01-01T00:00:00Z, in a {@code long}
+ * value. The representable range goes from year 1677 to year 2262. Like any
+ * other {@code Data} subclass, the object can be set to null value, tracked
+ * by a flag.
+ * <p>
+ * The string representation follows ISO 8601 in UTC,
+ * {@code yyyy-MM-ddTHH:mm:ss.fffffffff}: the time is omitted at midnight and
+ * trailing zeros of the fraction are dropped. Parsing also accepts a space as
+ * date and time separator, time without seconds and a trailing zone offset,
+ * either {@code Z} or {@code +hh:mm}, which is used to convert to UTC.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public class DateTime extends Data {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * The value returned by {@code DateTime} objects set to null, the minimum
+   * of {@code long} type. It is not used to detect null values.
+   */
+  public static final long NULL = Long.MIN_VALUE;
+
+  /**
+   * Number of nanoseconds in a second.
+   */
+  static final long NANOS_PER_SECOND = 1000000000L;
+
+  /**
+   * Number of seconds in a day.
+   */
+  private static final long SECONDS_PER_DAY = 86400L;
+
+  /**
+   * Number of days from 0000-03-01 to the epoch in the proleptic Gregorian
+   * calendar.
+   */
+  private static final long EPOCH_DAYS = 719468L;
+
+  /**
+   * Number of days in a 400-year cycle of the Gregorian calendar.
+   */
+  private static final long DAYS_PER_ERA = 146097L;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Stores the content of the {@code DateTime} object.
+   */
+  private long data;
+
+  /**
+   * Stores the null state of the {@code DateTime} object.
+   */
+  private boolean empty;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Default constructor for {@code DateTime} class. The content is
+   * initialized with null value.
+   */
+  public DateTime() {
+    this.data = NULL;
+    this.empty = true;
+  }
+
+  /**
+   * Constructor for {@code DateTime} class from value.
+   *
+   * @param data initial value of object, in nanoseconds since the epoch.
+   */
+  public DateTime(long data) {
+    this.data = data;
+    this.empty = false;
+  }
+
+  /**
+   * Constructor for {@code DateTime} class from string. If the content is
+   * not a valid date-time, an empty {@code DateTime} object will be created.
+   *
+   * @param data initial value of object as string.
+   */
+  public DateTime(String data) {
+    this();
+    this.set(data);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Static Methods">
+  /**
+   * Parses the string representation of a date-time, see the class
+   * description for the accepted format.
+   *
+   * @param data a string representation of a date-time.
+   * @return the nanoseconds since the epoch.
+   * @throws NumberFormatException if the string is not a valid date-time.
+   */
+  static long parse(String data) {
+    String text = data.trim();
+    int length = text.length();
+    // date part, yyyy-MM-dd
+    if (length < 10 || text.charAt(4) != '-' || text.charAt(7) != '-')
+      throw invalid(data);
+    int year = digits(text, 0, 4);
+    int month = digits(text, 5, 2);
+    int day = digits(text, 8, 2);
+    if (year < 0 || month < 1 || month > 12 || day < 1
+            || day > lengthOfMonth(year, month)) throw invalid(data);
+    int hour = 0, minute = 0, second = 0, offset = 0;
+    long fraction = 0L;
+    int position = 10;
+    // optional time part, HH:mm[:ss[.f]]
+    if (position < length && (text.charAt(position) == 'T'
+            || text.charAt(position) == ' '))
+    {
+      if (length < position + 6 || text.charAt(position + 3) != ':')
+        throw invalid(data);
+      hour = digits(text, position + 1, 2);
+      minute = digits(text, position + 4, 2);
+      position += 6;
+      if (position < length && text.charAt(position) == ':')
+      {
+        second = digits(text, position + 1, 2);
+        position += 3;
+        if (position < length && text.charAt(position) == '.')
+        {
+          int start = ++position;
+          while (position < length && position - start < 9
+                  && text.charAt(position) >= '0'
+                  && text.charAt(position) <= '9')
+            fraction = fraction * 10 + (text.charAt(position++) - '0');
+          if (position == start) throw invalid(data);
+          for (int i = position - start; i < 9; i++)
+            fraction *= 10;
+        }
+      }
+      if (hour < 0 || hour > 23 || minute < 0 || minute > 59
+              || second < 0 || second > 59) throw invalid(data);
+    }
+    // optional zone offset, Z or +hh:mm
+    if (position < length)
+    {
+      char sign = text.charAt(position);
+      if (sign == 'Z' || sign == 'z') position++;
+      else if (sign == '+' || sign == '-')
+      {
+        int hours = digits(text, position + 1, 2);
+        int minutes = (position + 6 <= length
+                && text.charAt(position + 3) == ':')
+                ? digits(text, position + 4, 2) : -1;
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59)
+          throw invalid(data);
+        offset = (hours * 3600 + minutes * 60) * (sign == '-' ? -1 : 1);
+        position += 6;
+      }
+      if (position != length) throw invalid(data);
+    }
+    long seconds = daysFromCivil(year, month, day) * SECONDS_PER_DAY
+            + hour * 3600 + minute * 60 + second - offset;
+    if (seconds > (Long.MAX_VALUE - fraction) / NANOS_PER_SECOND
+            || seconds < Long.MIN_VALUE / NANOS_PER_SECOND)
+      throw new NumberFormatException(
+              "Date-time \"" + data + "\" is out of range.");
+    return seconds * NANOS_PER_SECOND + fraction;
+  }
+
+  /**
+   * Returns the string representation of a date-time, see the class
+   * description for the format.
+   *
+   * @param nanos the nanoseconds since the epoch.
+   * @return a string representation of the date-time.
+   */
+  static String format(long nanos) {
+    long seconds = nanos / NANOS_PER_SECOND;
+    long fraction = nanos % NANOS_PER_SECOND;
+    if (fraction < 0)
+    {
+      fraction += NANOS_PER_SECOND;
+      seconds--;
+    }
+    long days = seconds / SECONDS_PER_DAY;
+    long time = seconds % SECONDS_PER_DAY;
+    if (time < 0)
+    {
+      time += SECONDS_PER_DAY;
+      days--;
+    }
+    // civil date from days since the epoch
+    long z = days + EPOCH_DAYS;
+    long era = (z >= 0 ? z : z - DAYS_PER_ERA + 1) / DAYS_PER_ERA;
+    long doe = z - era * DAYS_PER_ERA;
+    long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+    long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+    long mp = (5 * doy + 2) / 153;
+    int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+    int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+    int year = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+    StringBuilder builder = new StringBuilder(29);
+    pad(builder, year, 4).append('-');
+    pad(builder, month, 2).append('-');
+    pad(builder, day, 2);
+    if (time == 0 && fraction == 0) return builder.toString();
+    builder.append('T');
+    pad(builder, (int) (time / 3600), 2).append(':');
+    pad(builder, (int) (time / 60 % 60), 2).append(':');
+    pad(builder, (int) (time % 60), 2);
+    if (fraction != 0)
+    {
+      int digits = 9;
+      while (fraction % 10 == 0)
+      {
+        fraction /= 10;
+        digits--;
+      }
+      pad(builder.append('.'), (int) fraction, digits);
+    }
+    return builder.toString();
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the content of {@code DateTime} object, {@link #NULL} if the
+   * object is set to null.
+   *
+   * @return the nanoseconds since the epoch.
+   */
+  public long get() {
+    return data;
+  }
+
+  /**
+   * Returns the data type of the {@code DateTime} object.
+   *
+   * @return {@code DataTypes.DATETIME}.
+   */
+  @Override
+  public DataTypes type() {
+    return DataTypes.DATETIME;
+  }
+
+  /**
+   * Checks if the {@code DateTime} content is null value.
+   *
+   * @return true if null, else false.
+   */
+  @Override
+  public boolean isEmpty() {
+    return empty;
+  }
+
+  @Override
+  double toDouble() {
+    return data;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  /**
+   * Changes the content of the {@code DateTime} object given the number of
+   * nanoseconds since the epoch.
+   *
+   * @param data new value as {@code long}.
+   */
+  public void set(long data) {
+    this.data = data;
+    this.empty = false;
+  }
+
+  /**
+   * Changes the content of the {@code DateTime} object parsing the string
+   * representation. If empty string is given, null value is used for the
+   * assignment.
+   *
+   * @param data a string representation of a date-time.
+   * @return true if assignment and parsing was successful, else false.
+   */
+  @Override
+  public boolean set(String data) {
+    // check if the data is empty and assign null value
+    if (data == null || data.isEmpty())
+    {
+      this.empty();
+      return true;
+    }
+    // try parsing the string representation
+    try
+    {
+      this.set(parse(data));
+    } catch (NumberFormatException e)
+    {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Sets the {@code DateTime} content to null value.
+   */
+  @Override
+  public void empty() {
+    data = NULL;
+    empty = true;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Public Methods">
+  /**
+   * Returns a string representation of the {@code DateTime} object.
+   *
+   * @return a string representation of the content.
+   */
+  @Override
+  public String toString() {
+    if (empty) return Character.NULL;
+    return format(data);
+  }
+
+  /**
+   * Returns a deep copy of the {@code DateTime} object.
+   *
+   * @return a deep copy of the object.
+   */
+  @Override
+  public Data clone() {
+    if (empty) return new DateTime();
+    return new DateTime(data);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Returns the number of days from the epoch to the given date of the
+   * proleptic Gregorian calendar.
+   *
+   * @param year the year.
+   * @param month the month, from 1 to 12.
+   * @param day the day of the month.
+   * @return the days since the epoch.
+   */
+  private static long daysFromCivil(int year, int month, int day) {
+    // count years from March, so that the leap day is the last one
+    long y = (month <= 2) ? year - 1 : year;
+    long era = (y >= 0 ? y : y - 399) / 400;
+    long yoe = y - era * 400;
+    long doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+    return era * DAYS_PER_ERA + doe - EPOCH_DAYS;
+  }
+
+  /**
+   * Returns the number of days of the given month.
+   *
+   * @param year the year.
+   * @param month the month, from 1 to 12.
+   * @return the number of days.
+   */
+  private static int lengthOfMonth(int year, int month) {
+    switch (month)
+    {
+      case 2:
+        boolean leap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+        return leap ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  /**
+   * Parses a fixed number of decimal digits.
+   *
+   * @param text the string to be parsed.
+   * @param start position of the first digit.
+   * @param count number of digits.
+   * @return the parsed value, -1 if the digits are not valid.
+   */
+  private static int digits(String text, int start, int count) {
+    if (start + count > text.length()) return -1;
+    int value = 0;
+    for (int i = start; i < start + count; i++)
+    {
+      char c = text.charAt(i);
+      if (c < '0' || c > '9') return -1;
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  /**
+   * Appends a non-negative value padded with leading zeros.
+   *
+   * @param builder destination of the value.
+   * @param value the value to be appended.
+   * @param width minimum number of digits.
+   * @return the builder.
+   */
+  private static StringBuilder pad(StringBuilder builder, int value,
+          int width) {
+    String digits = String.valueOf(value);
+    for (int i = digits.length(); i < width; i++)
+      builder.append('0');
+    return builder.append(digits);
+  }
+
+  /**
+   * Returns the exception thrown for invalid date-time strings.
+   *
+   * @param data the invalid string.
+   * @return the exception to be thrown.
+   */
+  private static NumberFormatException invalid(String data) {
+    return new NumberFormatException(
+            "\"" + data + "\" is not a valid date-time.");
+  }
+  //</editor-fold>
+
+}
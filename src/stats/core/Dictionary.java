@@ -0,0 +1,171 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: Dictionary.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code Dictionary} class is a pool of distinct strings used to encode
+ * {@code DataTypes.CHARACTER} elements as integer codes. Each distinct string
+ * is stored once and identified by its position in the pool, so that
+ * equality checks and grouping on encoded elements become integer
+ * comparisons. Code {@link #NULL_CODE} is always reserved to the null value
+ * {@link Character#NULL}.
+ * <p>
+ * Codes are assigned in order of first appearance and are never reused, also
+ * when no element refers to them anymore. Since the pool only grows, readers
+ * of a snapshot can look up the codes they hold while the owning column keeps
+ * encoding new strings on another thread.
+ * <p>
+ * Copies, joins and materialized views share the dictionary of their source
+ * columns, so that their codes can be compared directly. Writable columns
+ * sharing a dictionary may be edited on different threads: new strings are
+ * added under the lock of the dictionary, while lookups never block.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public final class Dictionary {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * The code of the null value {@link Character#NULL}.
+   */
+  public static final int NULL_CODE = 0;
+
+  /**
+   * Initial capacity of the pool.
+   */
+  private static final int DEFAULT_CAPACITY = 16;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Distinct strings of the pool, indexed by code. The array is replaced, not
+   * modified, when it grows, so that readers always see a complete copy.
+   */
+  private volatile String[] entries;
+
+  /**
+   * Number of distinct strings of the pool.
+   */
+  private volatile int size;
+
+  /**
+   * Reverse lookup from string to code.
+   */
+  private ConcurrentHashMap<String, Integer> codes;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Default constructor for {@code Dictionary} class. The pool is initialized
+   * with the null value only.
+   */
+  Dictionary() {
+    entries = new String[DEFAULT_CAPACITY];
+    size = 0;
+    codes = new ConcurrentHashMap<>();
+    encode(Character.NULL);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the number of distinct strings in the pool, null value included.
+   *
+   * @return size of the dictionary.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the string identified by the given code.
+   *
+   * @param code code of the string.
+   * @return the string associated to the code.
+   * @throws IndexOutOfBoundsException if the code is not valid.
+   */
+  public String get(int code) {
+    if (code < 0 || code >= size) throw new IndexOutOfBoundsException(
+              "code=" + code + " is not a valid code");
+    return entries[code];
+  }
+
+  /**
+   * Returns the code of the given string, -1 if the string is not in the
+   * pool.
+   *
+   * @param value the string to be looked up.
+   * @return code of the string, -1 if not found.
+   */
+  public int indexOf(String value) {
+    Integer code = codes.get(value);
+    return (code == null) ? -1 : code;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Returns the code of the given string, adding it to the pool if not
+   * already present.
+   *
+   * @param value the string to be encoded.
+   * @return code of the string.
+   */
+  int encode(String value) {
+    Integer code = codes.get(value);
+    if (code != null) return code;
+    return add(value);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Adds a string at the end of the pool, unless another writer added it in
+   * the meantime. The size is published before the code, so that a code
+   * found in the reverse lookup is always valid.
+   *
+   * @param value the string to be added.
+   * @return code of the string.
+   */
+  private synchronized int add(String value) {
+    Integer code = codes.get(value);
+    if (code != null) return code;
+    int newCode = size;
+    if (newCode == entries.length)
+      entries = Arrays.copyOf(entries, newCode + (newCode >> 1));
+    entries[newCode] = value;
+    size = newCode + 1;
+    codes.put(value, newCode);
+    return newCode;
+  }
+  //</editor-fold>
+
+}
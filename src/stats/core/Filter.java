@@ -0,0 +1,475 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: Filter.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.Arrays;
+
+/**
+ * The {@code Filter} class describes a predicate over the rows of a
+ * {@link Table}: comparisons of numeric columns, lists of accepted strings of
+ * character columns, null tests and their combinations with
+ * {@link #and(Filter...)}, {@link #or(Filter...)} and {@link #not(Filter)}.
+ * Filters are built with the static factory methods and refer to columns by
+ * index, so the same filter can be applied to several tables with
+ * {@link Table#filter(Filter)}.
+ * <p>
+ * When applied, the filter is compiled against the columns of the table into
+ * a tree of {@link Predicate} objects, which evaluate blocks of rows on
+ * primitive buffers and produce whole words of a row {@link Bitmap}. Null
+ * elements never satisfy a comparison or a list, so {@code not} of a
+ * comparison selects them: combine it with {@link #notNull(int)} to exclude
+ * them.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public abstract class Filter {
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Filters are only created by the factory methods.
+   */
+  Filter() {
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Static Methods">
+  /**
+   * Returns a filter selecting the rows of a numeric column whose value is
+   * between the given bounds, inclusive.
+   *
+   * @param col index of the column.
+   * @param min lower bound of the values.
+   * @param max upper bound of the values.
+   * @return the filter.
+   */
+  public static Filter between(int col, double min, double max) {
+    return new Range(col, min, max);
+  }
+
+  /**
+   * Returns a filter selecting the rows of a numeric column equal to the
+   * given value.
+   *
+   * @param col index of the column.
+   * @param value the value.
+   * @return the filter.
+   */
+  public static Filter equal(int col, double value) {
+    return new Range(col, value, value);
+  }
+
+  /**
+   * Returns a filter selecting the rows of a numeric column whose value is
+   * between the given bounds, inclusive. On integer, boolean and date-time
+   * columns values are compared as {@code long}, with full precision.
+   *
+   * @param col index of the column.
+   * @param min lower bound of the values.
+   * @param max upper bound of the values.
+   * @return the filter.
+   */
+  public static Filter between(int col, long min, long max) {
+    return new LongRange(col, min, max);
+  }
+
+  /**
+   * Returns a filter selecting the rows of a numeric column equal to the
+   * given value, compared as {@code long} on integer, boolean and date-time
+   * columns.
+   *
+   * @param col index of the column.
+   * @param value the value.
+   * @return the filter.
+   */
+  public static Filter equal(int col, long value) {
+    return new LongRange(col, value, value);
+  }
+
+  /**
+   * Returns a filter selecting the rows of a numeric column not equal to the
+   * given value, null elements excluded.
+   *
+   * @param col index of the column.
+   * @param value the value.
+   * @return the filter.
+   */
+  public static Filter notEqual(int col, double value) {
+    return and(notNull(col), not(equal(col, value)));
+  }
+
+  /**
+   * Returns a filter selecting the rows of a numeric column lower than the
+   * given value.
+   *
+   * @param col index of the column.
+   * @param value the value.
+   * @return the filter.
+   */
+  public static Filter less(int col, double value) {
+    if (value == Double.NEGATIVE_INFINITY) return new Range(col, 1.0, 0.0);
+    return new Range(col, Double.NEGATIVE_INFINITY,
+            Math.nextAfter(value, Double.NEGATIVE_INFINITY));
+  }
+
+  /**
+   * Returns a filter selecting the rows of a numeric column lower than or
+   * equal to the given value.
+   *
+   * @param col index of the column.
+   * @param value the value.
+   * @return the filter.
+   */
+  public static Filter lessOrEqual(int col, double value) {
+    return new Range(col, Double.NEGATIVE_INFINITY, value);
+  }
+
+  /**
+   * Returns a filter selecting the rows of a numeric column greater than the
+   * given value.
+   *
+   * @param col index of the column.
+   * @param value the value.
+   * @return the filter.
+   */
+  public static Filter greater(int col, double value) {
+    if (value == Double.POSITIVE_INFINITY) return new Range(col, 1.0, 0.0);
+    return new Range(col, Math.nextUp(value), Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Returns a filter selecting the rows of a numeric column greater than or
+   * equal to the given value.
+   *
+   * @param col index of the column.
+   * @param value the value.
+   * @return the filter.
+   */
+  public static Filter greaterOrEqual(int col, double value) {
+    return new Range(col, value, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Returns a filter selecting the rows of a character column equal to the
+   * given string.
+   *
+   * @param col index of the column.
+   * @param value the string.
+   * @return the filter.
+   */
+  public static Filter equal(int col, String value) {
+    return new In(col, new String[]{value});
+  }
+
+  /**
+   * Returns a filter selecting the rows of a character column equal to one
+   * of the given strings.
+   *
+   * @param col index of the column.
+   * @param values the accepted strings.
+   * @return the filter.
+   */
+  public static Filter in(int col, String... values) {
+    return new In(col, values.clone());
+  }
+
+  /**
+   * Returns a filter selecting the null elements of a column.
+   *
+   * @param col index of the column.
+   * @return the filter.
+   */
+  public static Filter isNull(int col) {
+    return new Null(col, true);
+  }
+
+  /**
+   * Returns a filter selecting the valid elements of a column.
+   *
+   * @param col index of the column.
+   * @return the filter.
+   */
+  public static Filter notNull(int col) {
+    return new Null(col, false);
+  }
+
+  /**
+   * Returns a filter selecting the rows satisfying all the given filters.
+   *
+   * @param filters the combined filters, at least one.
+   * @return the filter.
+   */
+  public static Filter and(Filter... filters) {
+    return new Combination(filters.clone(), true);
+  }
+
+  /**
+   * Returns a filter selecting the rows satisfying at least one of the given
+   * filters.
+   *
+   * @param filters the combined filters, at least one.
+   * @return the filter.
+   */
+  public static Filter or(Filter... filters) {
+    return new Combination(filters.clone(), false);
+  }
+
+  /**
+   * Returns a filter selecting the rows not satisfying the given filter.
+   *
+   * @param filter the negated filter.
+   * @return the filter.
+   */
+  public static Filter not(Filter filter) {
+    return new Not(filter);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Compiles the filter against the columns of a table.
+   *
+   * @param table the filtered table.
+   * @return the compiled predicate.
+   * @throws ArrayIndexOutOfBoundsException if a column index is not valid.
+   * @throws IllegalArgumentException if a column has the wrong data type.
+   */
+  abstract Predicate compile(Table table);
+
+  /**
+   * Returns the column of a table after checking its index and data type.
+   *
+   * @param table the filtered table.
+   * @param col index of the column.
+   * @param type required data type, null for any type.
+   * @return the column.
+   */
+  static Array column(Table table, int col, DataTypes type) {
+    if (!table.isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
+              "col=" + col + " is not a valid column index in " + table.name());
+    Array column = table.getArray(col);
+    if (type != null && column.type() != type)
+      throw new IllegalArgumentException("Cannot filter " + column.type()
+              + " column " + column.name() + " as " + type + ".");
+    return column;
+  }
+
+  /**
+   * Returns a numeric column of a table, see {@link DataTypes#isNumeric()},
+   * after checking its index and data type.
+   *
+   * @param table the filtered table.
+   * @param col index of the column.
+   * @return the column.
+   */
+  static Array numeric(Table table, int col) {
+    Array column = column(table, col, null);
+    if (!column.type().isNumeric()) throw new IllegalArgumentException(
+              "Cannot filter " + column.type() + " column " + column.name()
+              + " as numeric.");
+    return column;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Filters">
+  /**
+   * Range of values of a numeric column.
+   */
+  private static final class Range extends Filter {
+
+    private final int col;
+
+    private final double min;
+
+    private final double max;
+
+    Range(int col, double min, double max) {
+      this.col = col;
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    Predicate compile(Table table) {
+      Array column = numeric(table, col);
+      if (column.type() == DataTypes.NUMERIC)
+        return new Predicate.Range(column.storage(), min, max);
+      // integral values within the bounds are within the rounded bounds
+      if (Double.isNaN(min) || Double.isNaN(max))
+        return new Predicate.LongRange(column.storage(), 1L, 0L);
+      return new Predicate.LongRange(column.storage(),
+              (long) Math.ceil(min), (long) Math.floor(max));
+    }
+
+    @Override
+    public String toString() {
+      return min + " <= col" + col + " <= " + max;
+    }
+  }
+
+  /**
+   * Range of integral values of a numeric column.
+   */
+  private static final class LongRange extends Filter {
+
+    private final int col;
+
+    private final long min;
+
+    private final long max;
+
+    LongRange(int col, long min, long max) {
+      this.col = col;
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    Predicate compile(Table table) {
+      Array column = numeric(table, col);
+      if (column.type() == DataTypes.NUMERIC)
+        return new Predicate.Range(column.storage(), min, max);
+      return new Predicate.LongRange(column.storage(), min, max);
+    }
+
+    @Override
+    public String toString() {
+      return min + " <= col" + col + " <= " + max;
+    }
+  }
+
+  /**
+   * List of accepted strings of a character column.
+   */
+  private static final class In extends Filter {
+
+    private final int col;
+
+    private final String[] values;
+
+    In(int col, String[] values) {
+      this.col = col;
+      this.values = values;
+    }
+
+    @Override
+    Predicate compile(Table table) {
+      return Predicate.in(
+              column(table, col, DataTypes.CHARACTER).storage(), values);
+    }
+
+    @Override
+    public String toString() {
+      return "col" + col + " in " + Arrays.toString(values);
+    }
+  }
+
+  /**
+   * Null test of a column.
+   */
+  private static final class Null extends Filter {
+
+    private final int col;
+
+    private final boolean empty;
+
+    Null(int col, boolean empty) {
+      this.col = col;
+      this.empty = empty;
+    }
+
+    @Override
+    Predicate compile(Table table) {
+      return new Predicate.Null(column(table, col, null).storage(), empty);
+    }
+
+    @Override
+    public String toString() {
+      return "col" + col + (empty ? " is null" : " is not null");
+    }
+  }
+
+  /**
+   * Conjunction or disjunction of filters.
+   */
+  private static final class Combination extends Filter {
+
+    private final Filter[] filters;
+
+    private final boolean and;
+
+    Combination(Filter[] filters, boolean and) {
+      if (filters.length == 0) throw new IllegalArgumentException(
+                "At least one filter must be combined.");
+      this.filters = filters;
+      this.and = and;
+    }
+
+    @Override
+    Predicate compile(Table table) {
+      Predicate[] predicates = new Predicate[filters.length];
+      for (int i = 0; i < filters.length; i++)
+        predicates[i] = filters[i].compile(table);
+      return new Predicate.Combination(predicates, and);
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("(");
+      for (int i = 0; i < filters.length; i++)
+      {
+        if (i > 0) sb.append(and ? " and " : " or ");
+        sb.append(filters[i]);
+      }
+      return sb.append(")").toString();
+    }
+  }
+
+  /**
+   * Negation of a filter.
+   */
+  private static final class Not extends Filter {
+
+    private final Filter filter;
+
+    Not(Filter filter) {
+      this.filter = filter;
+    }
+
+    @Override
+    Predicate compile(Table table) {
+      return new Predicate.Not(filter.compile(table));
+    }
+
+    @Override
+    public String toString() {
+      return "not " + filter;
+    }
+  }
+  //</editor-fold>
+
+}
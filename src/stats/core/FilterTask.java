@@ -0,0 +1,122 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: FilterTask.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code FilterTask} class evaluates a {@link Predicate} over a range of
+ * rows, writing the words of the resulting row bitmap. Large ranges are split
+ * on block boundaries of {@link ChunkedStorage} and evaluated in parallel;
+ * since block boundaries are multiples of the word size, each subtask writes
+ * its own words of the result.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+final class FilterTask extends RecursiveAction {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * The evaluated predicate.
+   */
+  private final Predicate predicate;
+
+  /**
+   * Words of the result, one bit for each row.
+   */
+  private final long[] result;
+
+  /**
+   * First row of the range.
+   */
+  private final int from;
+
+  /**
+   * End of the range, exclusive.
+   */
+  private final int to;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code FilterTask} class.
+   *
+   * @param predicate the evaluated predicate.
+   * @param result words of the result, one bit for each row.
+   * @param from first row of the range, at a block boundary.
+   * @param to end of the range, exclusive.
+   */
+  FilterTask(Predicate predicate, long[] result, int from, int to) {
+    this.predicate = predicate;
+    this.result = result;
+    this.from = from;
+    this.to = to;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Evaluates a predicate over a range of rows sequentially, one block at a
+   * time.
+   *
+   * @param predicate the evaluated predicate.
+   * @param result words of the result, one bit for each row.
+   * @param from first row of the range, at a word boundary.
+   * @param to end of the range, exclusive.
+   */
+  static void filter(Predicate predicate, long[] result, int from, int to) {
+    int block = ChunkedStorage.CHUNK_SIZE;
+    double[] values = new double[block];
+    long[] longs = new long[block];
+    int[] codes = new int[block];
+    long[] words = new long[Predicate.words(block)];
+    for (int start = from; start < to; start += block)
+    {
+      int length = Math.min(block, to - start);
+      predicate.evaluate(start, length, words, values, longs, codes);
+      System.arraycopy(words, 0, result, start / Bitmap.WORD_SIZE,
+              Predicate.words(length));
+    }
+  }
+
+  @Override
+  protected void compute() {
+    // split the range in halves aligned to the blocks
+    int middle = from + (to - from) / 2 / ChunkedStorage.CHUNK_SIZE
+            * ChunkedStorage.CHUNK_SIZE;
+    if (to - from <= Parallel.THRESHOLD || middle == from)
+    {
+      filter(predicate, result, from, to);
+      return;
+    }
+    invokeAll(new FilterTask(predicate, result, from, middle),
+            new FilterTask(predicate, result, middle, to));
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,539 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: Formula.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The {@code Formula} class parses a column formula such as
+ * {@code Yield = (Good / Total) * 100} and compiles it against the columns of
+ * a table into a tree of {@link Term} objects, which evaluate blocks of rows
+ * on primitive buffers. The formula is parsed once, then evaluated without
+ * any further parsing or {@code Data} object.
+ * <p>
+ * The left side is the name of the new column, the right side an expression
+ * with the following elements, in order of increasing precedence:
+ * <ul>
+ * <li>concatenation {@code a & b} of strings, numbers are converted;</li>
+ * <li>addition and subtraction, {@code +} and {@code -};</li>
+ * <li>multiplication, division and remainder, {@code *}, {@code /} and
+ * {@code %};</li>
+ * <li>negation {@code -a} and power {@code a ^ b}, right associative;</li>
+ * <li>numbers, strings in double quotes, column names, function calls and
+ * parentheses.</li>
+ * </ul>
+ * Column names which are not identifiers are written in single quotes, as
+ * {@code 'Lot ID'}; quotes are doubled inside quoted names and strings.
+ * Numeric functions are {@code abs}, {@code sqrt}, {@code exp}, {@code log},
+ * {@code log10}, {@code sin}, {@code cos}, {@code tan}, {@code asin},
+ * {@code acos}, {@code atan}, {@code floor}, {@code ceil}, {@code round},
+ * {@code pow}, {@code min}, {@code max} and {@code atan2}; string functions
+ * are {@code upper}, {@code lower}, {@code trim}, {@code length},
+ * {@code number} and {@code string}. Results are null if any operand is null
+ * or if they are not a number.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+final class Formula implements ColumnExpression {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Validity of a block whose elements are all valid.
+   */
+  private static final long[] ALL_VALID = new long[Term.Frame.SIZE
+          / Bitmap.WORD_SIZE];
+
+  static
+  {
+    Arrays.fill(ALL_VALID, -1L);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Text of the formula.
+   */
+  private final String text;
+
+  /**
+   * Name of the new column.
+   */
+  private final String name;
+
+  /**
+   * Root of the compiled expression.
+   */
+  private final Term root;
+
+  /**
+   * Indexes of the source columns, in order of first reference.
+   */
+  private final int[] sources;
+
+  /**
+   * Storages of the source columns.
+   */
+  private final Storage[] storages;
+
+  /**
+   * Number of terms of the compiled expression.
+   */
+  private final int slots;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code Formula} class.
+   *
+   * @param parser parser holding the compiled formula.
+   */
+  private Formula(Parser parser) {
+    text = parser.text;
+    name = parser.name;
+    root = parser.root;
+    sources = new int[parser.sources.size()];
+    storages = new Storage[sources.length];
+    for (int k = 0; k < sources.length; k++)
+    {
+      sources[k] = parser.sources.get(k);
+      storages[k] = parser.table.getArray(sources[k]).storage();
+    }
+    slots = parser.slots;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Parses a formula and compiles it against the columns of a table.
+   *
+   * @param text the formula.
+   * @param table the table holding the source columns.
+   * @return the compiled formula.
+   * @throws IllegalArgumentException if the formula is not valid.
+   */
+  static Formula parse(String text, Table table) {
+    Parser parser = new Parser(text, table);
+    parser.parse();
+    return new Formula(parser);
+  }
+
+  /**
+   * Returns the name of the new column.
+   *
+   * @return name of the column.
+   */
+  String name() {
+    return name;
+  }
+
+  /**
+   * Returns the data type of the results.
+   *
+   * @return the data type.
+   */
+  DataTypes type() {
+    return root.type();
+  }
+
+  /**
+   * Returns the indexes of the source columns, in the order expected by
+   * {@link #evaluate(double[][], double[], int)}.
+   *
+   * @return indexes of the source columns.
+   */
+  int[] sources() {
+    return sources.clone();
+  }
+
+  /**
+   * Checks if the formula can define a computed column: the result and all
+   * the sources, at least one, are numeric.
+   *
+   * @return true if computable, else false.
+   */
+  boolean isComputable() {
+    if (root.type() != DataTypes.NUMERIC || sources.length == 0) return false;
+    for (int k = 0; k < storages.length; k++)
+      if (!storages[k].type().isNumeric()) return false;
+    return true;
+  }
+
+  /**
+   * Evaluates the formula on a range of rows, writing the results at the
+   * same positions of the destination buffers: numeric results and their
+   * validity bits, or strings with null references for null elements.
+   *
+   * @param from first row of the range, at a word boundary.
+   * @param to end of the range, exclusive.
+   * @param numbers destination of numeric results, or null.
+   * @param validity destination of the validity of numeric results, or null.
+   * @param strings destination of character results, or null.
+   */
+  void evaluate(int from, int to, double[] numbers, long[] validity,
+          String[] strings) {
+    Term.Frame frame = new Term.Frame(sources.length, slots);
+    int[] codes = new int[Term.Frame.SIZE];
+    for (int start = from; start < to; start += Term.Frame.SIZE)
+    {
+      int length = Math.min(Term.Frame.SIZE, to - start);
+      // load the source columns
+      for (int k = 0; k < sources.length; k++)
+        if (storages[k].type().isNumeric())
+        {
+          if (frame.inputs[k] == null)
+          {
+            frame.inputs[k] = new double[Term.Frame.SIZE];
+            frame.inputValidity[k] = new long[ALL_VALID.length];
+          }
+          storages[k].getDoubles(start, frame.inputs[k], 0, length);
+          storages[k].getValidity(start, frame.inputValidity[k], length);
+        } else
+        {
+          if (frame.inputStrings[k] == null)
+            frame.inputStrings[k] = new String[Term.Frame.SIZE];
+          String[] target = frame.inputStrings[k];
+          Dictionary dictionary = storages[k].dictionary();
+          if (dictionary != null)
+          {
+            storages[k].getCodes(start, codes, 0, length);
+            for (int i = 0; i < length; i++)
+              target[i] = (codes[i] == Dictionary.NULL_CODE) ? null
+                      : dictionary.get(codes[i]);
+          } else
+            for (int i = 0; i < length; i++)
+              target[i] = storages[k].isEmpty(start + i) ? null
+                      : storages[k].getString(start + i);
+        }
+      root.evaluate(frame, length);
+      // store the results
+      if (root.type() == DataTypes.CHARACTER)
+      {
+        System.arraycopy(frame.strings[root.slot], 0, strings, start, length);
+        continue;
+      }
+      double[] values = frame.numbers[root.slot];
+      long[] valid = frame.validity[root.slot];
+      System.arraycopy(values, 0, numbers, start, length);
+      for (int w = 0; w < Term.words(length); w++)
+      {
+        long bits = valid[w];
+        for (long b = bits; b != 0L; b &= b - 1)
+        {
+          int j = Long.numberOfTrailingZeros(b);
+          if (Double.isNaN(values[w * Bitmap.WORD_SIZE + j]))
+            bits &= ~(1L << j);
+        }
+        validity[start / Bitmap.WORD_SIZE + w] = bits;
+      }
+      if (length % Bitmap.WORD_SIZE != 0)
+        validity[(start + length) / Bitmap.WORD_SIZE] &=
+                (1L << length) - 1;
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Public Methods">
+  /**
+   * Evaluates a computable formula on a batch of at most
+   * {@code ChunkedStorage.CHUNK_SIZE} rows, see {@link #isComputable()}.
+   * Null elements are handled by the computed column.
+   *
+   * @param sources values of the source columns.
+   * @param result destination of the computed values.
+   * @param length number of rows of the batch.
+   */
+  @Override
+  public void evaluate(double[][] sources, double[] result, int length) {
+    Term.Frame frame = new Term.Frame(sources.length, slots);
+    for (int k = 0; k < sources.length; k++)
+    {
+      frame.inputs[k] = sources[k];
+      frame.inputValidity[k] = ALL_VALID;
+    }
+    root.evaluate(frame, length);
+    System.arraycopy(frame.numbers[root.slot], 0, result, 0, length);
+  }
+
+  @Override
+  public String toString() {
+    return text;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Parser">
+  /**
+   * Recursive descent parser of a formula, compiling each element as soon as
+   * it is read.
+   */
+  private static final class Parser {
+
+    /**
+     * The formula and the current position.
+     */
+    private final String text;
+
+    private int position;
+
+    /**
+     * The table holding the source columns.
+     */
+    private final Table table;
+
+    /**
+     * Indexes of the source columns and number of terms.
+     */
+    private final ArrayList<Integer> sources;
+
+    private int slots;
+
+    /**
+     * Results of the parsing.
+     */
+    private String name;
+
+    private Term root;
+
+    Parser(String text, Table table) {
+      this.text = text;
+      this.table = table;
+      position = 0;
+      sources = new ArrayList<>();
+      slots = 0;
+    }
+
+    /**
+     * Parses the whole formula.
+     */
+    void parse() {
+      name = name();
+      if (!accept('=')) throw error("'=' expected");
+      root = concatenation();
+      skipSpaces();
+      if (position < text.length()) throw error("unexpected character");
+    }
+
+    private Term concatenation() {
+      Term term = sum();
+      while (accept('&'))
+        term = new Term.Concatenation(term, sum(), slots++);
+      return term;
+    }
+
+    private Term sum() {
+      Term term = product();
+      while (true)
+        if (accept('+')) term = binary(Term.Operator.ADD, term, product());
+        else if (accept('-'))
+          term = binary(Term.Operator.SUBTRACT, term, product());
+        else return term;
+    }
+
+    private Term product() {
+      Term term = unary();
+      while (true)
+        if (accept('*')) term = binary(Term.Operator.MULTIPLY, term, unary());
+        else if (accept('/'))
+          term = binary(Term.Operator.DIVIDE, term, unary());
+        else if (accept('%'))
+          term = binary(Term.Operator.MODULO, term, unary());
+        else return term;
+    }
+
+    private Term unary() {
+      if (accept('-'))
+        return new Term.Unary(Term.Function.NEGATE, numeric(unary(), "-"),
+                slots++);
+      if (accept('+')) return numeric(unary(), "+");
+      Term term = primary();
+      if (accept('^')) term = binary(Term.Operator.POWER, term, unary());
+      return term;
+    }
+
+    private Term primary() {
+      skipSpaces();
+      if (position == text.length()) throw error("operand expected");
+      char c = text.charAt(position);
+      if (accept('('))
+      {
+        Term term = concatenation();
+        if (!accept(')')) throw error("')' expected");
+        return term;
+      }
+      if (c == '"') return new Term.Text(quoted('"'), slots++);
+      if (java.lang.Character.isDigit(c) || c == '.') return number();
+      int start = position;
+      String identifier = name();
+      if (start < text.length() && text.charAt(start) != '\'' && accept('('))
+        return function(identifier);
+      // source column
+      int col = table.indexOf(identifier);
+      if (col < 0) throw new IllegalArgumentException(
+                "Unknown column " + identifier + " in formula: " + text);
+      int input = sources.indexOf(col);
+      if (input < 0)
+      {
+        input = sources.size();
+        sources.add(col);
+      }
+      // integer, boolean and date-time columns are read as numbers
+      DataTypes type = table.getColumnType(col).isNumeric()
+              ? DataTypes.NUMERIC : DataTypes.CHARACTER;
+      return new Term.Column(type, input, slots++);
+    }
+
+    private Term function(String identifier) {
+      ArrayList<Term> arguments = new ArrayList<>();
+      if (!accept(')'))
+      {
+        do
+          arguments.add(concatenation());
+        while (accept(','));
+        if (!accept(')')) throw error("')' expected");
+      }
+      Term.Function function = Term.Function.function(identifier);
+      Term.Operator operator = Term.Operator.function(identifier);
+      Term.TextFunction text_function = Term.TextFunction.function(identifier);
+      int expected = (operator != null) ? 2 : 1;
+      if (function == null && operator == null && text_function == null)
+        throw new IllegalArgumentException(
+                "Unknown function " + identifier + " in formula: " + text);
+      if (arguments.size() != expected) throw new IllegalArgumentException(
+                "Function " + identifier + " expects " + expected
+                + " argument(s) in formula: " + text);
+      if (function != null) return new Term.Unary(function,
+                numeric(arguments.get(0), identifier), slots++);
+      if (operator != null) return binary(operator, arguments.get(0),
+                arguments.get(1));
+      if (arguments.get(0).type() != text_function.argument)
+        throw new IllegalArgumentException(
+                "Function " + identifier + " expects a "
+                + text_function.argument + " argument in formula: " + text);
+      return new Term.Textual(text_function, arguments.get(0), slots++);
+    }
+
+    private Term binary(Term.Operator operator, Term left, Term right) {
+      return new Term.Binary(operator, numeric(left, operator.symbol),
+              numeric(right, operator.symbol), slots++);
+    }
+
+    private Term numeric(Term term, String operator) {
+      if (term.type() != DataTypes.NUMERIC)
+        throw new IllegalArgumentException(
+                operator + " expects numeric operands in formula: " + text);
+      return term;
+    }
+
+    private Term number() {
+      int start = position;
+      while (position < text.length() && (java.lang.Character.isDigit(
+              text.charAt(position)) || text.charAt(position) == '.'))
+        position++;
+      // optional exponent
+      if (position < text.length()
+              && (text.charAt(position) == 'e' || text.charAt(position) == 'E'))
+      {
+        position++;
+        if (position < text.length() && (text.charAt(position) == '+'
+                || text.charAt(position) == '-')) position++;
+        while (position < text.length()
+                && java.lang.Character.isDigit(text.charAt(position)))
+          position++;
+      }
+      try
+      {
+        return new Term.Constant(
+                Double.parseDouble(text.substring(start, position)), slots++);
+      } catch (NumberFormatException e)
+      {
+        position = start;
+        throw error("invalid number");
+      }
+    }
+
+    /**
+     * Reads an identifier or a name in single quotes.
+     */
+    private String name() {
+      skipSpaces();
+      if (position < text.length() && text.charAt(position) == '\'')
+        return quoted('\'');
+      int start = position;
+      while (position < text.length()
+              && (java.lang.Character.isLetterOrDigit(text.charAt(position))
+              || text.charAt(position) == '_' || text.charAt(position) == '.'))
+        position++;
+      if (start == position) throw error("name expected");
+      return text.substring(start, position);
+    }
+
+    /**
+     * Reads a string between the given quotes, doubled quotes are escaped.
+     */
+    private String quoted(char quote) {
+      StringBuilder sb = new StringBuilder();
+      int start = position++;
+      while (true)
+      {
+        if (position >= text.length())
+        {
+          position = start;
+          throw error("unterminated quote");
+        }
+        char c = text.charAt(position++);
+        if (c != quote) sb.append(c);
+        else if (position < text.length() && text.charAt(position) == quote)
+          sb.append(text.charAt(position++));
+        else return sb.toString();
+      }
+    }
+
+    private boolean accept(char c) {
+      skipSpaces();
+      if (position < text.length() && text.charAt(position) == c)
+      {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    private void skipSpaces() {
+      while (position < text.length()
+              && java.lang.Character.isWhitespace(text.charAt(position)))
+        position++;
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException("Syntax error at position "
+              + position + ", " + message + ", in formula: " + text);
+    }
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,112 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: FormulaTask.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code FormulaTask} class evaluates a {@link Formula} over a range of
+ * rows, writing the results at the same positions of the destination
+ * buffers. Large ranges are split on block boundaries of
+ * {@link ChunkedStorage} and evaluated in parallel; since block boundaries
+ * are multiples of the word size, each subtask writes its own words of the
+ * validity.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+final class FormulaTask extends RecursiveAction {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * The evaluated formula.
+   */
+  private final Formula formula;
+
+  /**
+   * Destination of numeric results and of their validity, or null.
+   */
+  private final double[] numbers;
+
+  private final long[] validity;
+
+  /**
+   * Destination of character results, or null.
+   */
+  private final String[] strings;
+
+  /**
+   * First row of the range.
+   */
+  private final int from;
+
+  /**
+   * End of the range, exclusive.
+   */
+  private final int to;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code FormulaTask} class.
+   *
+   * @param formula the evaluated formula.
+   * @param numbers destination of numeric results, or null.
+   * @param validity destination of the validity of numeric results, or null.
+   * @param strings destination of character results, or null.
+   * @param from first row of the range, at a block boundary.
+   * @param to end of the range, exclusive.
+   */
+  FormulaTask(Formula formula, double[] numbers, long[] validity,
+          String[] strings, int from, int to) {
+    this.formula = formula;
+    this.numbers = numbers;
+    this.validity = validity;
+    this.strings = strings;
+    this.from = from;
+    this.to = to;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  @Override
+  protected void compute() {
+    // split the range in halves aligned to the blocks
+    int middle = from + (to - from) / 2 / ChunkedStorage.CHUNK_SIZE
+            * ChunkedStorage.CHUNK_SIZE;
+    if (to - from <= Parallel.THRESHOLD || middle == from)
+    {
+      formula.evaluate(from, to, numbers, validity, strings);
+      return;
+    }
+    invokeAll(new FormulaTask(formula, numbers, validity, strings, from,
+            middle),
+            new FormulaTask(formula, numbers, validity, strings, middle, to));
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,485 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: GroupTable.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.Arrays;
+
+/**
+ * The {@code GroupTable} class accumulates the groups of a group-by and their
+ * partial aggregates. Each row is reduced to a tuple of {@code long} keys,
+ * one for each key column, followed by a word flagging the null keys:
+ * {@code NUMERIC} keys are the bits of the value, integer, boolean and
+ * date-time keys the value itself, character keys the dictionary code
+ * or, for plain columns, an id assigned beforehand. Tuples are looked up in
+ * an open-addressing hash table with linear probing, holding group numbers,
+ * so that no object is created per row. Groups are numbered in order of
+ * first appearance.
+ * <p>
+ * For each value column the table keeps count, sum, mean, sum of squared
+ * deviations, minimum and maximum of the valid elements. Means and
+ * deviations are updated with Welford's method, so that tables built on
+ * separate ranges of rows can be merged with {@link #merge(GroupTable)}
+ * without loss of precision.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+final class GroupTable {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Initial capacity of the group arrays, a power of two.
+   */
+  private static final int DEFAULT_CAPACITY = 16;
+
+  /**
+   * Number of statistics kept for each group and value column, stored next
+   * to each other at the following offsets.
+   */
+  private static final int STATS = 6;
+
+  /**
+   * Offsets of the statistics of a group.
+   */
+  private static final int COUNT = 0, SUM = 1, MEAN = 2, DEVIATIONS = 3,
+          MINIMUM = 4, MAXIMUM = 5;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Storages of the key columns.
+   */
+  private final Storage[] keys;
+
+  /**
+   * Ids of the elements of plain character key columns, -1 for null
+   * elements; null for other key columns.
+   */
+  private final int[][] ids;
+
+  /**
+   * Storages of the value columns.
+   */
+  private final Storage[] values;
+
+  /**
+   * Number of longs of each tuple.
+   */
+  private final int width;
+
+  /**
+   * Tuples of the groups.
+   */
+  private long[] tuples;
+
+  /**
+   * Hash codes of the groups.
+   */
+  private int[] hashes;
+
+  /**
+   * Hash table of group numbers, -1 for empty slots.
+   */
+  private int[] slots;
+
+  /**
+   * Number of groups.
+   */
+  private int groups;
+
+  /**
+   * Number of rows of each group.
+   */
+  private double[] rows;
+
+  /**
+   * Statistics of each value column: count, sum, mean, sum of squared
+   * deviations, minimum and maximum of the valid elements, stored group
+   * after group so that each row touches a single cache line.
+   */
+  private double[][] stats;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for an empty {@code GroupTable}.
+   *
+   * @param keys storages of the key columns, at most 64.
+   * @param ids ids of plain character key columns, null for other columns.
+   * @param values storages of the value columns.
+   */
+  GroupTable(Storage[] keys, int[][] ids, Storage[] values) {
+    this.keys = keys;
+    this.ids = ids;
+    this.values = values;
+    width = keys.length + 1;
+    tuples = new long[DEFAULT_CAPACITY * width];
+    hashes = new int[DEFAULT_CAPACITY];
+    slots = new int[2 * DEFAULT_CAPACITY];
+    Arrays.fill(slots, -1);
+    groups = 0;
+    rows = new double[DEFAULT_CAPACITY];
+    stats = new double[values.length][DEFAULT_CAPACITY * STATS];
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the number of groups.
+   *
+   * @return number of groups.
+   */
+  int groups() {
+    return groups;
+  }
+
+  /**
+   * Returns a key of a group.
+   *
+   * @param group the group.
+   * @param key index of the key column.
+   * @return the key, meaningless if null.
+   */
+  long key(int group, int key) {
+    return tuples[group * width + key];
+  }
+
+  /**
+   * Checks if a key of a group is null.
+   *
+   * @param group the group.
+   * @param key index of the key column.
+   * @return true if null, else false.
+   */
+  boolean isNull(int group, int key) {
+    return (tuples[group * width + keys.length] & (1L << key)) != 0L;
+  }
+
+  /**
+   * Checks if an aggregate function has a value for a group: count always
+   * has, variance needs two valid elements of the value column and the
+   * other functions one.
+   *
+   * @param function the aggregate function.
+   * @param group the group.
+   * @param value index of the value column, negative to count the rows.
+   * @return true if the value is defined, else false.
+   */
+  boolean isDefined(Aggregate.Functions function, int group, int value) {
+    if (value < 0 || function == Aggregate.Functions.COUNT) return true;
+    double n = stats[value][group * STATS + COUNT];
+    return (function == Aggregate.Functions.VARIANCE) ? n >= 2 : n >= 1;
+  }
+
+  /**
+   * Returns the value of an aggregate function for a group, meaningless if
+   * not defined, see {@link #isDefined(Aggregate.Functions, int, int)}.
+   *
+   * @param function the aggregate function.
+   * @param group the group.
+   * @param value index of the value column, negative to count the rows.
+   * @return the aggregate value.
+   */
+  double get(Aggregate.Functions function, int group, int value) {
+    if (value < 0) return rows[group];
+    double[] stat = stats[value];
+    int base = group * STATS;
+    switch (function)
+    {
+      case COUNT:
+        return stat[base + COUNT];
+      case SUM:
+        return stat[base + SUM];
+      case MEAN:
+        return stat[base + MEAN];
+      case VARIANCE:
+        return stat[base + DEVIATIONS] / (stat[base + COUNT] - 1);
+      case MINIMUM:
+        return stat[base + MINIMUM];
+      case MAXIMUM:
+      default:
+        return stat[base + MAXIMUM];
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Adds a range of rows, one block at a time: keys of the block are
+   * extracted to primitive buffers and looked up, then each value column is
+   * accumulated into the groups of the rows.
+   *
+   * @param from first row of the range.
+   * @param to end of the range, exclusive.
+   */
+  void add(int from, int to) {
+    int block = ChunkedStorage.CHUNK_SIZE;
+    long[][] buffer = new long[keys.length][block];
+    long[] nulls = new long[block];
+    double[] doubles = new double[block];
+    int[] codes = new int[block];
+    long[] validity = new long[block / Bitmap.WORD_SIZE];
+    int[] group = new int[block];
+    long[] tuple = new long[width];
+    for (int start = from; start < to; start += block)
+    {
+      int length = Math.min(block, to - start);
+      Arrays.fill(nulls, 0, length, 0L);
+      // extract the keys of the block
+      for (int k = 0; k < keys.length; k++)
+      {
+        long[] target = buffer[k];
+        long flag = 1L << k;
+        if (ids[k] != null)
+          for (int i = 0; i < length; i++)
+          {
+            int id = ids[k][start + i];
+            target[i] = id;
+            if (id < 0) nulls[i] |= flag;
+          }
+        else if (keys[k].type() == DataTypes.CHARACTER)
+        {
+          keys[k].getCodes(start, codes, 0, length);
+          for (int i = 0; i < length; i++)
+          {
+            target[i] = codes[i];
+            if (codes[i] == Dictionary.NULL_CODE) nulls[i] |= flag;
+          }
+        } else if (keys[k].type() == DataTypes.NUMERIC)
+        {
+          keys[k].getDoubles(start, doubles, 0, length);
+          keys[k].getValidity(start, validity, length);
+          for (int i = 0; i < length; i++)
+            if ((validity[i >>> 6] & (1L << i)) == 0L)
+            {
+              target[i] = 0L;
+              nulls[i] |= flag;
+            } else
+              // positive and negative zero fall in the same group
+              target[i] = Double.doubleToLongBits(
+                      (doubles[i] == 0.0) ? 0.0 : doubles[i]);
+        } else
+        {
+          // integral keys are their own hash keys
+          keys[k].getLongs(start, target, 0, length);
+          keys[k].getValidity(start, validity, length);
+          for (int i = 0; i < length; i++)
+            if ((validity[i >>> 6] & (1L << i)) == 0L)
+            {
+              target[i] = 0L;
+              nulls[i] |= flag;
+            }
+        }
+      }
+      // look up the group of each row
+      for (int i = 0; i < length; i++)
+      {
+        for (int k = 0; k < keys.length; k++)
+          tuple[k] = buffer[k][i];
+        tuple[keys.length] = nulls[i];
+        group[i] = find(tuple);
+        rows[group[i]]++;
+      }
+      // accumulate the value columns
+      for (int c = 0; c < values.length; c++)
+      {
+        boolean numeric = values[c].type().isNumeric();
+        if (numeric) values[c].getDoubles(start, doubles, 0, length);
+        values[c].getValidity(start, validity, length);
+        for (int i = 0; i < length; i++)
+          if ((validity[i >>> 6] & (1L << i)) != 0L)
+          {
+            if (numeric) accumulate(stats[c], group[i] * STATS, doubles[i]);
+            else stats[c][group[i] * STATS + COUNT]++;
+          }
+      }
+    }
+  }
+
+  /**
+   * Returns the hash code of a tuple of keys, with mixed bits so that linear
+   * probing works on sequential keys.
+   *
+   * @param tuples array holding the tuple.
+   * @param offset position of the tuple in the array.
+   * @param length number of longs of the tuple.
+   * @return hash code of the tuple.
+   */
+  static int hash(long[] tuples, int offset, int length) {
+    long h = 0x9E3779B97F4A7C15L;
+    for (int k = offset; k < offset + length; k++)
+    {
+      h ^= tuples[k];
+      h *= 0xBF58476D1CE4E5B9L;
+      h ^= h >>> 31;
+    }
+    return (int) (h ^ (h >>> 32));
+  }
+
+  /**
+   * Returns the group of a tuple, adding a new group if not found.
+   *
+   * @param tuple the keys followed by the null flags.
+   * @return the group number.
+   */
+  int find(long[] tuple) {
+    int hash = hash(tuple, 0, width);
+    int mask = slots.length - 1;
+    for (int slot = hash & mask;; slot = (slot + 1) & mask)
+    {
+      int g = slots[slot];
+      if (g < 0)
+      {
+        g = addGroup(tuple, hash);
+        slots[slot] = g;
+        if (2 * groups > slots.length) rehash();
+        return g;
+      }
+      if (hashes[g] == hash && matches(g, tuple)) return g;
+    }
+  }
+  /**
+   * Merges the groups of another table, built on a following range of rows
+   * with the same columns. Groups only found in the other table are
+   * appended, so that the order of first appearance is kept.
+   *
+   * @param other the other table.
+   */
+  void merge(GroupTable other) {
+    long[] tuple = new long[width];
+    for (int g = 0; g < other.groups; g++)
+    {
+      System.arraycopy(other.tuples, g * width, tuple, 0, width);
+      int t = find(tuple);
+      rows[t] += other.rows[g];
+      for (int c = 0; c < values.length; c++)
+      {
+        double[] a = stats[c], b = other.stats[c];
+        int i = t * STATS, j = g * STATS;
+        double nB = b[j + COUNT];
+        if (nB == 0) continue;
+        double nA = a[i + COUNT];
+        if (nA == 0)
+        {
+          System.arraycopy(b, j, a, i, STATS);
+          continue;
+        }
+        // combine means and deviations of the two partitions
+        double n = nA + nB;
+        double delta = b[j + MEAN] - a[i + MEAN];
+        a[i + COUNT] = n;
+        a[i + SUM] += b[j + SUM];
+        a[i + MEAN] += delta * nB / n;
+        a[i + DEVIATIONS] += b[j + DEVIATIONS] + delta * delta * nA * nB / n;
+        a[i + MINIMUM] = Math.min(a[i + MINIMUM], b[j + MINIMUM]);
+        a[i + MAXIMUM] = Math.max(a[i + MAXIMUM], b[j + MAXIMUM]);
+      }
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+
+
+  /**
+   * Checks if a group has the given tuple.
+   *
+   * @param group the group.
+   * @param tuple the keys followed by the null flags.
+   * @return true if equal, else false.
+   */
+  private boolean matches(int group, long[] tuple) {
+    int base = group * width;
+    for (int k = 0; k < width; k++)
+      if (tuples[base + k] != tuple[k]) return false;
+    return true;
+  }
+
+  /**
+   * Appends a new group with empty statistics.
+   *
+   * @param tuple the keys followed by the null flags.
+   * @param hash hash code of the tuple.
+   * @return the new group number.
+   */
+  private int addGroup(long[] tuple, int hash) {
+    if (groups == hashes.length)
+    {
+      int capacity = 2 * groups;
+      tuples = Arrays.copyOf(tuples, capacity * width);
+      hashes = Arrays.copyOf(hashes, capacity);
+      rows = Arrays.copyOf(rows, capacity);
+      for (int c = 0; c < values.length; c++)
+        stats[c] = Arrays.copyOf(stats[c], capacity * STATS);
+    }
+    System.arraycopy(tuple, 0, tuples, groups * width, width);
+    hashes[groups] = hash;
+    return groups++;
+  }
+
+  /**
+   * Doubles the hash table and inserts all groups again.
+   */
+  private void rehash() {
+    slots = new int[2 * slots.length];
+    Arrays.fill(slots, -1);
+    int mask = slots.length - 1;
+    for (int g = 0; g < groups; g++)
+    {
+      int slot = hashes[g] & mask;
+      while (slots[slot] >= 0)
+        slot = (slot + 1) & mask;
+      slots[slot] = g;
+    }
+  }
+
+  /**
+   * Adds a valid value of a value column to a group.
+   *
+   * @param stat statistics of the value column.
+   * @param base offset of the statistics of the group.
+   * @param value the value.
+   */
+  private static void accumulate(double[] stat, int base, double value) {
+    double n = ++stat[base + COUNT];
+    if (n == 1)
+    {
+      stat[base + MINIMUM] = value;
+      stat[base + MAXIMUM] = value;
+    } else
+    {
+      if (value < stat[base + MINIMUM]) stat[base + MINIMUM] = value;
+      if (value > stat[base + MAXIMUM]) stat[base + MAXIMUM] = value;
+    }
+    stat[base + SUM] += value;
+    double delta = value - stat[base + MEAN];
+    stat[base + MEAN] += delta / n;
+    stat[base + DEVIATIONS] += delta * (value - stat[base + MEAN]);
+  }
+  //</editor-fold>
+
+}
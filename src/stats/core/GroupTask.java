@@ -0,0 +1,120 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: GroupTask.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The {@code GroupTask} class groups a range of rows into a
+ * {@link GroupTable}. Large ranges are split on block boundaries of
+ * {@link ChunkedStorage} and grouped in parallel, each subtask with its own
+ * partial table; partial tables are then merged in order of the ranges, so
+ * that groups keep the order of first appearance. Since merging costs up to
+ * the number of groups, ranges are only split down to a given grain, usually
+ * one range for each worker of the pool.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+final class GroupTask extends RecursiveTask<GroupTable> {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Storages of the key columns.
+   */
+  private final Storage[] keys;
+
+  /**
+   * Ids of plain character key columns, null for other columns.
+   */
+  private final int[][] ids;
+
+  /**
+   * Storages of the value columns.
+   */
+  private final Storage[] values;
+
+  /**
+   * Number of rows below which the range is grouped sequentially.
+   */
+  private final int grain;
+
+  /**
+   * First row of the range.
+   */
+  private final int from;
+
+  /**
+   * End of the range, exclusive.
+   */
+  private final int to;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code GroupTask} class.
+   *
+   * @param keys storages of the key columns.
+   * @param ids ids of plain character key columns, null for other columns.
+   * @param values storages of the value columns.
+   * @param grain number of rows below which the range is not split.
+   * @param from first row of the range, at a block boundary.
+   * @param to end of the range, exclusive.
+   */
+  GroupTask(Storage[] keys, int[][] ids, Storage[] values, int grain,
+          int from, int to) {
+    this.keys = keys;
+    this.ids = ids;
+    this.values = values;
+    this.grain = grain;
+    this.from = from;
+    this.to = to;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  @Override
+  protected GroupTable compute() {
+    // split the range in halves aligned to the blocks
+    int middle = from + (to - from) / 2 / ChunkedStorage.CHUNK_SIZE
+            * ChunkedStorage.CHUNK_SIZE;
+    if (to - from <= grain || middle == from)
+    {
+      GroupTable table = new GroupTable(keys, ids, values);
+      table.add(from, to);
+      return table;
+    }
+    GroupTask right = new GroupTask(keys, ids, values, grain, middle, to);
+    right.fork();
+    GroupTable left = new GroupTask(keys, ids, values, grain, from,
+            middle).compute();
+    left.merge(right.join());
+    return left;
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,450 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: HashJoin.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The {@code HashJoin} class joins two tables on one or more key columns.
+ * The smaller table is the build side: its rows are hashed on their keys,
+ * with rows of equal keys chained in order. The rows of the other table, the
+ * probe side, are then looked up in ranges which can be processed in
+ * parallel by {@link JoinTask}.
+ * <p>
+ * Keys are compared as {@code long} values: {@code NUMERIC} keys as the bits
+ * of the value, integer, boolean and date-time keys as the value itself,
+ * character keys as ids in the build side, which are the dictionary
+ * codes for encoded columns. Probe strings are translated to build ids once
+ * for each code of their dictionary, or once for each element of plain
+ * columns. Rows with a null key never match.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+final class HashJoin {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Initial capacity of the group arrays, a power of two.
+   */
+  private static final int DEFAULT_CAPACITY = 16;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Storages of the probe key columns.
+   */
+  private final Storage[] probe;
+
+  /**
+   * Number of key columns.
+   */
+  private final int width;
+
+  /**
+   * Dictionaries of encoded build character keys, null for other keys.
+   */
+  private final Dictionary[] dictionaries;
+
+  /**
+   * Ids of the strings of plain build character keys, null for other keys.
+   */
+  private final ArrayList<HashMap<String, Integer>> ids;
+
+  /**
+   * Build ids of the codes of encoded probe character keys, -1 if the string
+   * is not found; null for other keys or if the dictionary is shared.
+   */
+  private final int[][] translations;
+
+  /**
+   * Distinct key tuples of the build side.
+   */
+  private long[] tuples;
+
+  /**
+   * Hash codes of the distinct tuples.
+   */
+  private int[] hashes;
+
+  /**
+   * Hash table of tuple numbers, -1 for empty slots.
+   */
+  private int[] slots;
+
+  /**
+   * Number of distinct tuples.
+   */
+  private int groups;
+
+  /**
+   * First and last build row of each tuple.
+   */
+  private int[] first, last;
+
+  /**
+   * Next build row with the same tuple, -1 at the end of the chain.
+   */
+  private final int[] next;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code HashJoin} class, hashing the rows of the build
+   * side. Key columns are paired by position and have the same data type.
+   *
+   * @param build storages of the build key columns.
+   * @param probe storages of the probe key columns.
+   * @param rows number of rows of the build side.
+   */
+  HashJoin(Storage[] build, Storage[] probe, int rows) {
+    this.probe = probe;
+    width = build.length;
+    dictionaries = new Dictionary[width];
+    ids = new ArrayList<>(width);
+    for (int k = 0; k < width; k++)
+    {
+      boolean character = build[k].type() == DataTypes.CHARACTER;
+      dictionaries[k] = build[k].dictionary();
+      ids.add((character && dictionaries[k] == null)
+              ? new HashMap<String, Integer>() : null);
+    }
+    tuples = new long[DEFAULT_CAPACITY * width];
+    hashes = new int[DEFAULT_CAPACITY];
+    slots = new int[2 * DEFAULT_CAPACITY];
+    Arrays.fill(slots, -1);
+    groups = 0;
+    first = new int[DEFAULT_CAPACITY];
+    last = new int[DEFAULT_CAPACITY];
+    next = new int[rows];
+    // hash the build rows, block by block
+    Buffers buffers = new Buffers(width);
+    for (int start = 0; start < rows; start += buffers.size)
+    {
+      int length = Math.min(buffers.size, rows - start);
+      extract(build, false, start, length, buffers);
+      for (int i = 0; i < length; i++)
+        if (buffers.valid[i]) add(buffers.tuples, i * width, start + i);
+    }
+    // translate the dictionaries of the probe side once
+    translations = new int[width][];
+    for (int k = 0; k < width; k++)
+    {
+      Dictionary dictionary = probe[k].dictionary();
+      if (dictionary == null || dictionary == dictionaries[k]) continue;
+      translations[k] = new int[dictionary.size()];
+      for (int code = 1; code < translations[k].length; code++)
+        translations[k][code] = resolve(k, dictionary.get(code));
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Looks up a range of probe rows, returning the matching pairs of rows as
+   * probe row followed by build row, in order of probe row and then of build
+   * row.
+   *
+   * @param from first probe row of the range.
+   * @param to end of the range, exclusive.
+   * @param outer true if probe rows without matches are returned paired with
+   * -1, false if they are skipped.
+   * @param matched flags of the build rows to be set when matched, or null.
+   * @return the matching pairs.
+   */
+  int[] probe(int from, int to, boolean outer, boolean[] matched) {
+    int[] pairs = new int[2 * (to - from)];
+    int size = 0;
+    Buffers buffers = new Buffers(width);
+    for (int start = from; start < to; start += buffers.size)
+    {
+      int length = Math.min(buffers.size, to - start);
+      extract(probe, true, start, length, buffers);
+      for (int i = 0; i < length; i++)
+      {
+        int g = buffers.valid[i] ? find(buffers.tuples, i * width) : -1;
+        if (g < 0 && !outer) continue;
+        int row = (g < 0) ? -1 : first[g];
+        do
+        {
+          if (size == pairs.length)
+            pairs = Arrays.copyOf(pairs, 2 * pairs.length + 2);
+          pairs[size++] = start + i;
+          pairs[size++] = row;
+          if (row >= 0 && matched != null) matched[row] = true;
+          row = (row < 0) ? -1 : next[row];
+        } while (row >= 0);
+      }
+    }
+    return Arrays.copyOf(pairs, size);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Extracts the key tuples of a block of rows, flagging as not valid the
+   * rows with a null key or, on the probe side, with a string not found in
+   * the build side.
+   *
+   * @param storages storages of the key columns.
+   * @param probing true for the probe side, false for the build side.
+   * @param start first row of the block.
+   * @param length number of rows of the block.
+   * @param buffers buffers of the block.
+   */
+  private void extract(Storage[] storages, boolean probing, int start,
+          int length, Buffers buffers) {
+    long[] target = buffers.tuples;
+    boolean[] valid = buffers.valid;
+    Arrays.fill(valid, 0, length, true);
+    for (int k = 0; k < width; k++)
+    {
+      Storage storage = storages[k];
+      if (storage.type() == DataTypes.NUMERIC)
+      {
+        double[] doubles = buffers.doubles;
+        long[] validity = buffers.validity;
+        storage.getDoubles(start, doubles, 0, length);
+        storage.getValidity(start, validity, length);
+        for (int i = 0; i < length; i++)
+          if ((validity[i >>> 6] & (1L << i)) == 0L) valid[i] = false;
+          else
+            // positive and negative zero match each other
+            target[i * width + k] = Double.doubleToLongBits(
+                    (doubles[i] == 0.0) ? 0.0 : doubles[i]);
+      } else if (storage.type().isNumeric())
+      {
+        long[] longs = buffers.longs;
+        long[] validity = buffers.validity;
+        storage.getLongs(start, longs, 0, length);
+        storage.getValidity(start, validity, length);
+        for (int i = 0; i < length; i++)
+          if ((validity[i >>> 6] & (1L << i)) == 0L) valid[i] = false;
+          else target[i * width + k] = longs[i];
+      } else if (storage.dictionary() != null)
+      {
+        int[] codes = buffers.codes;
+        int[] translation = probing ? translations[k] : null;
+        storage.getCodes(start, codes, 0, length);
+        for (int i = 0; i < length; i++)
+        {
+          int id = (codes[i] == Dictionary.NULL_CODE) ? -1
+                  : (translation == null) ? codes[i] : translation[codes[i]];
+          if (id < 0) valid[i] = false;
+          else target[i * width + k] = id;
+        }
+      } else
+        for (int i = 0; i < length; i++)
+        {
+          int id = storage.isEmpty(start + i) ? -1
+                  : probing ? resolve(k, storage.getString(start + i))
+                  : encode(k, storage.getString(start + i));
+          if (id < 0) valid[i] = false;
+          else target[i * width + k] = id;
+        }
+    }
+  }
+
+  /**
+   * Returns the build id of a string of a character key, -1 if not found.
+   *
+   * @param k index of the key column.
+   * @param value the string.
+   * @return the id of the string, or -1.
+   */
+  private int resolve(int k, String value) {
+    if (dictionaries[k] != null) return dictionaries[k].indexOf(value);
+    Integer id = ids.get(k).get(value);
+    return (id == null) ? -1 : id;
+  }
+
+  /**
+   * Returns the id of a string of a plain build character key, assigning a
+   * new one if not found.
+   *
+   * @param k index of the key column.
+   * @param value the string.
+   * @return the id of the string.
+   */
+  private int encode(int k, String value) {
+    HashMap<String, Integer> map = ids.get(k);
+    Integer id = map.get(value);
+    if (id == null)
+    {
+      id = map.size();
+      map.put(value, id);
+    }
+    return id;
+  }
+
+  /**
+   * Returns the number of the given tuple, -1 if not found.
+   *
+   * @param tuple array holding the tuple.
+   * @param offset position of the tuple in the array.
+   * @return the number of the tuple, or -1.
+   */
+  private int find(long[] tuple, int offset) {
+    int hash = GroupTable.hash(tuple, offset, width);
+    int mask = slots.length - 1;
+    for (int slot = hash & mask;; slot = (slot + 1) & mask)
+    {
+      int g = slots[slot];
+      if (g < 0) return -1;
+      if (hashes[g] == hash && matches(g, tuple, offset)) return g;
+    }
+  }
+
+  /**
+   * Appends a build row to the chain of its tuple, adding the tuple if not
+   * found.
+   *
+   * @param tuple array holding the tuple.
+   * @param offset position of the tuple in the array.
+   * @param row the build row.
+   */
+  private void add(long[] tuple, int offset, int row) {
+    next[row] = -1;
+    int hash = GroupTable.hash(tuple, offset, width);
+    int mask = slots.length - 1;
+    for (int slot = hash & mask;; slot = (slot + 1) & mask)
+    {
+      int g = slots[slot];
+      if (g >= 0 && (hashes[g] != hash || !matches(g, tuple, offset)))
+        continue;
+      if (g >= 0)
+      {
+        next[last[g]] = row;
+        last[g] = row;
+        return;
+      }
+      // add a new tuple
+      if (groups == hashes.length)
+      {
+        int capacity = 2 * groups;
+        tuples = Arrays.copyOf(tuples, capacity * width);
+        hashes = Arrays.copyOf(hashes, capacity);
+        first = Arrays.copyOf(first, capacity);
+        last = Arrays.copyOf(last, capacity);
+      }
+      System.arraycopy(tuple, offset, tuples, groups * width, width);
+      hashes[groups] = hash;
+      first[groups] = row;
+      last[groups] = row;
+      slots[slot] = groups++;
+      if (2 * groups > slots.length) rehash();
+      return;
+    }
+  }
+
+  /**
+   * Checks if a tuple number has the given tuple.
+   *
+   * @param g the tuple number.
+   * @param tuple array holding the tuple.
+   * @param offset position of the tuple in the array.
+   * @return true if equal, else false.
+   */
+  private boolean matches(int g, long[] tuple, int offset) {
+    int base = g * width;
+    for (int k = 0; k < width; k++)
+      if (tuples[base + k] != tuple[offset + k]) return false;
+    return true;
+  }
+
+  /**
+   * Doubles the hash table and inserts all tuples again.
+   */
+  private void rehash() {
+    slots = new int[2 * slots.length];
+    Arrays.fill(slots, -1);
+    int mask = slots.length - 1;
+    for (int g = 0; g < groups; g++)
+    {
+      int slot = hashes[g] & mask;
+      while (slots[slot] >= 0)
+        slot = (slot + 1) & mask;
+      slots[slot] = g;
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Buffers">
+  /**
+   * Buffers used to extract the keys of a block of rows.
+   */
+  private static final class Buffers {
+
+    /**
+     * Number of rows of a block.
+     */
+    final int size = ChunkedStorage.CHUNK_SIZE;
+
+    /**
+     * Key tuples of the rows, one after the other.
+     */
+    final long[] tuples;
+
+    /**
+     * Flags of the rows with valid keys.
+     */
+    final boolean[] valid = new boolean[size];
+
+    /**
+     * Values of a numeric key column.
+     */
+    final double[] doubles = new double[size];
+
+    /**
+     * Values of an integer, boolean or date-time key column.
+     */
+    final long[] longs = new long[size];
+
+    /**
+     * Validity of a numeric or integral key column.
+     */
+    final long[] validity = new long[size / Bitmap.WORD_SIZE];
+
+    /**
+     * Codes of an encoded character key column.
+     */
+    final int[] codes = new int[size];
+
+    /**
+     * Constructor for {@code Buffers} class.
+     *
+     * @param width number of key columns.
+     */
+    Buffers(int width) {
+      tuples = new long[size * width];
+    }
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,203 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: IntegerNumber.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code IntegerNumber} class is used to store integer data within the
+ * range of the {@code int} type. Like any other {@code Data} subclass, the
+ * object can be set to null value. Null state is tracked by a flag, so that
+ * every {@code int} value, {@link #NULL} included, can be stored.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public class IntegerNumber extends Data {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * The value returned by {@code IntegerNumber} objects set to null, the
+   * minimum of {@code int} type. It is not used to detect null values.
+   */
+  public static final int NULL = Integer.MIN_VALUE;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Stores the content of the {@code IntegerNumber} object.
+   */
+  private int data;
+
+  /**
+   * Stores the null state of the {@code IntegerNumber} object.
+   */
+  private boolean empty;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Default constructor for {@code IntegerNumber} class. The content is
+   * initialized with null value.
+   */
+  public IntegerNumber() {
+    this.data = NULL;
+    this.empty = true;
+  }
+
+  /**
+   * Constructor for {@code IntegerNumber} class from value.
+   *
+   * @param data initial value of object.
+   */
+  public IntegerNumber(int data) {
+    this.data = data;
+    this.empty = false;
+  }
+
+  /**
+   * Constructor for {@code IntegerNumber} class from string. If the content
+   * is not a valid integer, an empty {@code IntegerNumber} object will be
+   * created.
+   *
+   * @param data initial value of object as string.
+   */
+  public IntegerNumber(String data) {
+    this();
+    this.set(data);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the content of {@code IntegerNumber} object, {@link #NULL} if
+   * the object is set to null.
+   *
+   * @return {@code int} content of the object.
+   */
+  public int get() {
+    return data;
+  }
+
+  /**
+   * Returns the data type of the {@code IntegerNumber} object.
+   *
+   * @return {@code DataTypes.INTEGER}.
+   */
+  @Override
+  public DataTypes type() {
+    return DataTypes.INTEGER;
+  }
+
+  /**
+   * Checks if the {@code IntegerNumber} content is null value.
+   *
+   * @return true if null, else false.
+   */
+  @Override
+  public boolean isEmpty() {
+    return empty;
+  }
+
+  @Override
+  double toDouble() {
+    return data;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  /**
+   * Changes the content of the {@code IntegerNumber} object given
+   * {@code int} argument.
+   *
+   * @param data new value as {@code int}.
+   */
+  public void set(int data) {
+    this.data = data;
+    this.empty = false;
+  }
+
+  /**
+   * Changes the content of the {@code IntegerNumber} object parsing the
+   * string representation. If empty string is given, null value is used for
+   * the assignment.
+   *
+   * @param data a string representation of integer data.
+   * @return true if assignment and parsing was successful, else false.
+   */
+  @Override
+  public boolean set(String data) {
+    // check if the data is empty and assign null value
+    if (data == null || data.isEmpty())
+    {
+      this.empty();
+      return true;
+    }
+    // try parsing the string representation
+    try
+    {
+      this.set(Integer.parseInt(data.trim()));
+    } catch (NumberFormatException e)
+    {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Sets the {@code IntegerNumber} content to null value.
+   */
+  @Override
+  public void empty() {
+    data = NULL;
+    empty = true;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Public Methods">
+  /**
+   * Returns a string representation of the {@code IntegerNumber} object.
+   *
+   * @return a string representation of the content.
+   */
+  @Override
+  public String toString() {
+    if (empty) return Character.NULL;
+    return String.valueOf(data);
+  }
+
+  /**
+   * Returns a deep copy of the {@code IntegerNumber} object.
+   *
+   * @return a deep copy of the object.
+   */
+  @Override
+  public Data clone() {
+    if (empty) return new IntegerNumber();
+    return new IntegerNumber(data);
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,117 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: JoinTask.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The {@code JoinTask} class probes a range of rows against a
+ * {@link HashJoin}. Large ranges are split on block boundaries of
+ * {@link ChunkedStorage} down to a given grain and probed in parallel; the
+ * matching pairs of the subtasks are concatenated in order of the ranges, so
+ * that they keep the order of the probe rows.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+final class JoinTask extends RecursiveTask<int[]> {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * The hashed build side.
+   */
+  private final HashJoin join;
+
+  /**
+   * Tells if probe rows without matches are kept.
+   */
+  private final boolean outer;
+
+  /**
+   * Flags of the matched build rows, or null.
+   */
+  private final boolean[] matched;
+
+  /**
+   * Number of rows below which the range is probed sequentially.
+   */
+  private final int grain;
+
+  /**
+   * First row of the range.
+   */
+  private final int from;
+
+  /**
+   * End of the range, exclusive.
+   */
+  private final int to;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code JoinTask} class.
+   *
+   * @param join the hashed build side.
+   * @param outer true if probe rows without matches are kept.
+   * @param matched flags of the matched build rows, or null.
+   * @param grain number of rows below which the range is not split.
+   * @param from first row of the range, at a block boundary.
+   * @param to end of the range, exclusive.
+   */
+  JoinTask(HashJoin join, boolean outer, boolean[] matched, int grain,
+          int from, int to) {
+    this.join = join;
+    this.outer = outer;
+    this.matched = matched;
+    this.grain = grain;
+    this.from = from;
+    this.to = to;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  @Override
+  protected int[] compute() {
+    // split the range in halves aligned to the blocks
+    int middle = from + (to - from) / 2 / ChunkedStorage.CHUNK_SIZE
+            * ChunkedStorage.CHUNK_SIZE;
+    if (to - from <= grain || middle == from)
+      return join.probe(from, to, outer, matched);
+    JoinTask right = new JoinTask(join, outer, matched, grain, middle, to);
+    right.fork();
+    int[] left = new JoinTask(join, outer, matched, grain, from, middle)
+            .compute();
+    int[] tail = right.join();
+    int[] pairs = new int[left.length + tail.length];
+    System.arraycopy(left, 0, pairs, 0, left.length);
+    System.arraycopy(tail, 0, pairs, left.length, tail.length);
+    return pairs;
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,773 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: Journal.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * The {@code Journal} class records the edits of a {@link Table} so that
+ * they can be undone and redone. Each edit is recorded as a compact delta:
+ * <ul>
+ * <li>cell changes and renaming keep the old and new values;</li>
+ * <li>inserted rows keep their positions only, removed rows keep the removed
+ * elements, so that reverting a bulk operation takes a time proportional to
+ * the number of rows involved;</li>
+ * <li>column insertion, removal and conversion keep references to the old and
+ * new columns, without copying their elements.</li>
+ * </ul>
+ * The memory held by the recorded edits is estimated and kept within a
+ * budget: when it is exceeded, the oldest edits are forgotten. Several edits
+ * can be grouped into a single step with {@link #begin()} and {@link #end()}.
+ * Cells set through a view of the table, see {@link Table#view(int, int)},
+ * are recorded at their position in the table. Writes through cursors are
+ * not recorded.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public class Journal {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Default memory budget of the recorded edits, in bytes.
+   */
+  public static final long DEFAULT_BUDGET = 64L << 20;
+
+  /**
+   * Estimated memory held by an edit, apart from its elements.
+   */
+  private static final int ENTRY_COST = 64;
+
+  /**
+   * Estimated memory held by an element of a column.
+   */
+  private static final int ELEMENT_COST = 8;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * The table whose edits are recorded.
+   */
+  private final Table table;
+
+  /**
+   * Memory budget of the recorded edits, in bytes.
+   */
+  private final long budget;
+
+  /**
+   * Edits which can be undone, the most recent last.
+   */
+  private final ArrayDeque<Entry> done;
+
+  /**
+   * Edits which can be redone, the most recently undone last.
+   */
+  private final ArrayDeque<Entry> undone;
+
+  /**
+   * Estimated memory held by the recorded edits.
+   */
+  private long cost;
+
+  /**
+   * Group collecting the edits until the outermost {@link #end()}, null if
+   * no group is open.
+   */
+  private Group group;
+
+  /**
+   * Number of open groups.
+   */
+  private int depth;
+
+  /**
+   * Tells if edits are being undone or redone, so that they are not
+   * recorded again.
+   */
+  private boolean replaying;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code Journal} class with default budget. The journal
+   * starts recording the edits of the table, replacing any other journal.
+   *
+   * @param table the table whose edits are recorded.
+   * @throws UnsupportedOperationException if the table is read-only or
+   * shared by a {@link ConcurrentTable}.
+   */
+  public Journal(Table table) {
+    this(table, DEFAULT_BUDGET);
+  }
+
+  /**
+   * Constructor for {@code Journal} class with a given memory budget. The
+   * journal starts recording the edits of the table, replacing any other
+   * journal.
+   *
+   * @param table the table whose edits are recorded.
+   * @param budget memory budget of the recorded edits, in bytes.
+   * @throws UnsupportedOperationException if the table is read-only or
+   * shared by a {@link ConcurrentTable}.
+   */
+  public Journal(Table table, long budget) {
+    this.table = table;
+    this.budget = budget;
+    done = new ArrayDeque<>();
+    undone = new ArrayDeque<>();
+    cost = 0;
+    group = null;
+    depth = 0;
+    replaying = false;
+    table.setJournal(this);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the memory budget of the recorded edits.
+   *
+   * @return the budget in bytes.
+   */
+  public long budget() {
+    return budget;
+  }
+
+  /**
+   * Returns the estimated memory held by the recorded edits.
+   *
+   * @return the estimated memory in bytes.
+   */
+  public long cost() {
+    return cost;
+  }
+
+  /**
+   * Checks if there is an edit to be undone.
+   *
+   * @return true if {@link #undo()} would succeed, else false.
+   */
+  public boolean canUndo() {
+    return !done.isEmpty();
+  }
+
+  /**
+   * Checks if there is an edit to be redone.
+   *
+   * @return true if {@link #redo()} would succeed, else false.
+   */
+  public boolean canRedo() {
+    return !undone.isEmpty();
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Public Methods">
+  /**
+   * Opens a group, so that the following edits are undone and redone as a
+   * single step. Groups can be nested: edits are collected until the
+   * outermost group is closed.
+   */
+  public void begin() {
+    if (depth++ == 0) group = new Group();
+  }
+
+  /**
+   * Closes the group opened by the last call to {@link #begin()}.
+   *
+   * @throws IllegalStateException if no group is open.
+   */
+  public void end() {
+    if (depth == 0) throw new IllegalStateException(
+              "No group of edits is open in the journal of " + table.name());
+    if (--depth > 0) return;
+    Group closed = group;
+    group = null;
+    if (!closed.entries.isEmpty()) push(closed);
+  }
+
+  /**
+   * Reverts the most recent edit of the table.
+   *
+   * @return true if an edit was undone, false if there is none.
+   * @throws IllegalStateException if a group is open.
+   */
+  public boolean undo() {
+    checkClosed();
+    if (done.isEmpty()) return false;
+    Entry entry = done.removeLast();
+    replaying = true;
+    try
+    {
+      entry.undo(table);
+    } finally
+    {
+      replaying = false;
+    }
+    undone.addLast(entry);
+    return true;
+  }
+
+  /**
+   * Applies again the most recently undone edit of the table.
+   *
+   * @return true if an edit was redone, false if there is none.
+   * @throws IllegalStateException if a group is open.
+   */
+  public boolean redo() {
+    checkClosed();
+    if (undone.isEmpty()) return false;
+    Entry entry = undone.removeLast();
+    replaying = true;
+    try
+    {
+      entry.redo(table);
+    } finally
+    {
+      replaying = false;
+    }
+    done.addLast(entry);
+    return true;
+  }
+
+  /**
+   * Forgets all recorded edits.
+   */
+  public void clear() {
+    done.clear();
+    undone.clear();
+    cost = 0;
+  }
+
+  /**
+   * Forgets all recorded edits and stops recording the edits of the table.
+   */
+  public void close() {
+    clear();
+    group = null;
+    depth = 0;
+    table.setJournal(null);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Checks if edits of the table must be recorded, that is if they are not
+   * being undone or redone.
+   *
+   * @return true if recording, else false.
+   */
+  boolean isRecording() {
+    return !replaying;
+  }
+
+  /**
+   * Records an edit of the table, forgetting the edits which can be redone.
+   *
+   * @param entry the edit.
+   */
+  void record(Entry entry) {
+    if (replaying) return;
+    if (group != null) group.add(entry);
+    else push(entry);
+  }
+
+  /**
+   * Returns the edit renaming a column, or the table if the column index is
+   * negative.
+   *
+   * @param col the index of the column, or -1.
+   * @param before the old name.
+   * @param after the new name.
+   * @return the edit.
+   */
+  static Entry rename(int col, String before, String after) {
+    return new Rename(col, before, after);
+  }
+
+  /**
+   * Returns the edit of a cell.
+   *
+   * @param col the column index of the cell.
+   * @param row the row index of the cell.
+   * @param before the old content.
+   * @param after the new content.
+   * @return the edit.
+   */
+  static Entry cell(int col, int row, Data before, Data after) {
+    return new Cell(col, row, before, after);
+  }
+
+  /**
+   * Returns the edit replacing the list of columns.
+   *
+   * @param before the old columns.
+   * @param after the new columns.
+   * @return the edit.
+   */
+  static Entry columns(ArrayList<Array> before, ArrayList<Array> after) {
+    return new Columns(before, after);
+  }
+
+  /**
+   * Returns the edit inserting a range of null rows.
+   *
+   * @param row position of the first inserted row.
+   * @param number number of inserted rows.
+   * @return the edit.
+   */
+  static Entry rowsInserted(int row, int number) {
+    return new RowRange(row, number, null);
+  }
+
+  /**
+   * Returns the edit inserting null rows before each of the given positions.
+   *
+   * @param positions sorted and distinct positions, before the insertion.
+   * @param number number of rows inserted at each position.
+   * @return the edit.
+   */
+  static Entry rowsInserted(int[] positions, int number) {
+    return new RowPositions(positions, number);
+  }
+
+  /**
+   * Returns the edit removing a range of rows.
+   *
+   * @param row position of the first removed row.
+   * @param number number of removed rows.
+   * @param values removed elements of each column, null for computed ones.
+   * @return the edit.
+   */
+  static Entry rowsRemoved(int row, int number, Array[] values) {
+    return new RowRange(row, number, values);
+  }
+
+  /**
+   * Returns the edit removing the rows whose bit is set.
+   *
+   * @param rows bitmap of the removed rows, not modified afterwards.
+   * @param values removed elements of each column, null for computed ones.
+   * @return the edit.
+   */
+  static Entry rowsRemoved(Bitmap rows, Array[] values) {
+    return new RowBitmap(rows, values);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Adds an edit to be undone and forgets the oldest edits if the budget is
+   * exceeded.
+   *
+   * @param entry the edit.
+   */
+  private void push(Entry entry) {
+    for (Entry forgotten : undone)
+      cost -= forgotten.cost();
+    undone.clear();
+    done.addLast(entry);
+    cost += entry.cost();
+    while (cost > budget && !done.isEmpty())
+      cost -= done.removeFirst().cost();
+  }
+
+  /**
+   * Checks that no group of edits is open.
+   *
+   * @throws IllegalStateException if a group is open.
+   */
+  private void checkClosed() {
+    if (depth > 0) throw new IllegalStateException(
+              "A group of edits is open in the journal of " + table.name());
+  }
+
+  /**
+   * Returns the estimated memory held by the removed elements of a row
+   * edit.
+   *
+   * @param values removed elements of each column.
+   * @return the estimated memory in bytes.
+   */
+  private static long cost(Array[] values) {
+    long total = ENTRY_COST;
+    for (Array array : values)
+      if (array != null) total += (long) array.size() * ELEMENT_COST;
+    return total;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Entries">
+  /**
+   * The {@code Entry} class is a recorded edit of a table, which can be
+   * undone and redone. An edit is always undone on the table as it was right
+   * after the edit, and redone on the table as it was right before it.
+   */
+  abstract static class Entry {
+
+    /**
+     * Reverts the edit.
+     *
+     * @param table the edited table.
+     */
+    abstract void undo(Table table);
+
+    /**
+     * Applies the edit again.
+     *
+     * @param table the edited table.
+     */
+    abstract void redo(Table table);
+
+    /**
+     * Returns the estimated memory held by the edit.
+     *
+     * @return the estimated memory in bytes.
+     */
+    abstract long cost();
+
+  }
+
+  /**
+   * Edits undone and redone as a single step.
+   */
+  private static final class Group extends Entry {
+
+    private final ArrayList<Entry> entries = new ArrayList<>();
+
+    private long cost = ENTRY_COST;
+
+    void add(Entry entry) {
+      entries.add(entry);
+      cost += entry.cost();
+    }
+
+    @Override
+    void undo(Table table) {
+      for (int i = entries.size() - 1; i >= 0; i--)
+        entries.get(i).undo(table);
+    }
+
+    @Override
+    void redo(Table table) {
+      for (Entry entry : entries)
+        entry.redo(table);
+    }
+
+    @Override
+    long cost() {
+      return cost;
+    }
+
+  }
+
+  /**
+   * Renaming of the table or of a column.
+   */
+  private static final class Rename extends Entry {
+
+    private final int col;
+
+    private final String before;
+
+    private final String after;
+
+    Rename(int col, String before, String after) {
+      this.col = col;
+      this.before = before;
+      this.after = after;
+    }
+
+    @Override
+    void undo(Table table) {
+      if (col < 0) table.setName(before);
+      else table.setColumnName(col, before);
+    }
+
+    @Override
+    void redo(Table table) {
+      if (col < 0) table.setName(after);
+      else table.setColumnName(col, after);
+    }
+
+    @Override
+    long cost() {
+      return ENTRY_COST;
+    }
+
+  }
+
+  /**
+   * Change of the content of a cell.
+   */
+  private static final class Cell extends Entry {
+
+    private final int col;
+
+    private final int row;
+
+    private final Data before;
+
+    private final Data after;
+
+    Cell(int col, int row, Data before, Data after) {
+      this.col = col;
+      this.row = row;
+      this.before = before;
+      this.after = after;
+    }
+
+    @Override
+    void undo(Table table) {
+      table.set(col, row, before);
+    }
+
+    @Override
+    void redo(Table table) {
+      table.set(col, row, after);
+    }
+
+    @Override
+    long cost() {
+      return ENTRY_COST;
+    }
+
+  }
+
+  /**
+   * Replacement of the list of columns, as done by column insertion,
+   * removal, conversion and materialization. Columns are kept by reference.
+   */
+  private static final class Columns extends Entry {
+
+    private final ArrayList<Array> before;
+
+    private final ArrayList<Array> after;
+
+    private final long cost;
+
+    Columns(ArrayList<Array> before, ArrayList<Array> after) {
+      this.before = before;
+      this.after = after;
+      // count the elements of the columns held only by this edit
+      Set<Array> common = Collections.newSetFromMap(
+              new IdentityHashMap<Array, Boolean>());
+      common.addAll(before);
+      common.retainAll(after);
+      long total = ENTRY_COST;
+      for (Array array : before)
+        if (!common.contains(array))
+          total += (long) array.size() * ELEMENT_COST;
+      for (Array array : after)
+        if (!common.contains(array))
+          total += (long) array.size() * ELEMENT_COST;
+      cost = total;
+    }
+
+    @Override
+    void undo(Table table) {
+      table.restore(new ArrayList<>(before), table.rows());
+    }
+
+    @Override
+    void redo(Table table) {
+      table.restore(new ArrayList<>(after), table.rows());
+    }
+
+    @Override
+    long cost() {
+      return cost;
+    }
+
+  }
+
+  /**
+   * Insertion or removal of a range of rows. Removed elements are kept,
+   * inserted rows are null.
+   */
+  private static final class RowRange extends Entry {
+
+    private final int row;
+
+    private final int number;
+
+    /**
+     * Removed elements of each column, null if the rows were inserted.
+     */
+    private final Array[] values;
+
+    RowRange(int row, int number, Array[] values) {
+      this.row = row;
+      this.number = number;
+      this.values = values;
+    }
+
+    @Override
+    void undo(Table table) {
+      if (values == null) remove(table);
+      else insert(table);
+    }
+
+    @Override
+    void redo(Table table) {
+      if (values == null) insert(table);
+      else remove(table);
+    }
+
+    @Override
+    long cost() {
+      return (values == null) ? ENTRY_COST : Journal.cost(values);
+    }
+
+    private void insert(Table table) {
+      ArrayList<Array> columns = table.columnList();
+      // restore large ranges by copying whole blocks of elements
+      Bitmap rows = null;
+      if (values != null && number >= ChunkedStorage.CHUNK_SIZE)
+      {
+        rows = new Bitmap(table.rows() + number);
+        rows.set(row, row + number, true);
+      }
+      for (int c = 0; c < columns.size(); c++)
+      {
+        Array array = columns.get(c);
+        if (array.isComputed()) continue;
+        if (rows != null)
+        {
+          array.insert(rows, values[c]);
+          continue;
+        }
+        if (row == array.size()) array.add(number);
+        else array.insert(row, number);
+        if (values == null) continue;
+        for (int i = 0; i < number; i++)
+          if (!values[c].isEmpty(i)) array.set(row + i, values[c].get(i));
+      }
+      table.restore(columns, table.rows() + number);
+    }
+
+    private void remove(Table table) {
+      ArrayList<Array> columns = table.columnList();
+      for (Array array : columns)
+        if (!array.isComputed()) array.remove(row, number);
+      table.restore(columns, table.rows() - number);
+    }
+
+  }
+
+  /**
+   * Insertion of null rows before each of the given positions.
+   */
+  private static final class RowPositions extends Entry {
+
+    private final int[] positions;
+
+    private final int number;
+
+    RowPositions(int[] positions, int number) {
+      this.positions = positions;
+      this.number = number;
+    }
+
+    @Override
+    void undo(Table table) {
+      // mark the inserted rows, shifted by the previous insertions
+      int inserted = positions.length * number;
+      Bitmap rows = new Bitmap(table.rows());
+      for (int i = 0; i < positions.length; i++)
+      {
+        int start = positions[i] + i * number;
+        rows.set(start, start + number, true);
+      }
+      ArrayList<Array> columns = table.columnList();
+      for (Array array : columns)
+        if (!array.isComputed()) array.remove(rows);
+      table.restore(columns, table.rows() - inserted);
+    }
+
+    @Override
+    void redo(Table table) {
+      ArrayList<Array> columns = table.columnList();
+      for (Array array : columns)
+        if (!array.isComputed()) array.insert(positions, number);
+      table.restore(columns, table.rows() + positions.length * number);
+    }
+
+    @Override
+    long cost() {
+      return ENTRY_COST + 4L * positions.length;
+    }
+
+  }
+
+  /**
+   * Removal of the rows whose bit is set. Removed elements are kept and
+   * restored in a single pass over each column.
+   */
+  private static final class RowBitmap extends Entry {
+
+    private final Bitmap rows;
+
+    private final Array[] values;
+
+    private final int number;
+
+    RowBitmap(Bitmap rows, Array[] values) {
+      this.rows = rows;
+      this.values = values;
+      number = rows.cardinality();
+    }
+
+    @Override
+    void undo(Table table) {
+      ArrayList<Array> columns = table.columnList();
+      for (int c = 0; c < columns.size(); c++)
+        if (!columns.get(c).isComputed()) columns.get(c).insert(rows, values[c]);
+      table.restore(columns, table.rows() + number);
+    }
+
+    @Override
+    void redo(Table table) {
+      ArrayList<Array> columns = table.columnList();
+      for (Array array : columns)
+        if (!array.isComputed()) array.remove(rows);
+      table.restore(columns, table.rows() - number);
+    }
+
+    @Override
+    long cost() {
+      return Journal.cost(values) + rows.size() / 8;
+    }
+
+  }
+  //</editor-fold>
+
+}
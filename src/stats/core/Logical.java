@@ -0,0 +1,214 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: Logical.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code Logical} class is used to store boolean data. Like any other
+ * {@code Data} subclass, the object can be set to null value, tracked by a
+ * flag. The string representations are {@code true} and {@code false},
+ * parsed ignoring case; when read as numbers, the values are 1 and 0.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public class Logical extends Data {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * The value returned by {@code Logical} objects set to null. It is not used
+   * to detect null values.
+   */
+  public static final boolean NULL = false;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Stores the content of the {@code Logical} object.
+   */
+  private boolean data;
+
+  /**
+   * Stores the null state of the {@code Logical} object.
+   */
+  private boolean empty;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Default constructor for {@code Logical} class. The content is initialized
+   * with null value.
+   */
+  public Logical() {
+    this.data = NULL;
+    this.empty = true;
+  }
+
+  /**
+   * Constructor for {@code Logical} class from value.
+   *
+   * @param data initial value of object.
+   */
+  public Logical(boolean data) {
+    this.data = data;
+    this.empty = false;
+  }
+
+  /**
+   * Constructor for {@code Logical} class from string. If the content is not
+   * a valid boolean, an empty {@code Logical} object will be created.
+   *
+   * @param data initial value of object as string.
+   */
+  public Logical(String data) {
+    this();
+    this.set(data);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Static Methods">
+  /**
+   * Parses the string representation of a boolean value, ignoring case and
+   * surrounding whitespace.
+   *
+   * @param data a string representation of boolean data.
+   * @return {@code Boolean.TRUE} or {@code Boolean.FALSE}, null if the string
+   * is not a valid boolean.
+   */
+  static Boolean parse(String data) {
+    String value = data.trim();
+    if (value.equalsIgnoreCase("true")) return Boolean.TRUE;
+    if (value.equalsIgnoreCase("false")) return Boolean.FALSE;
+    return null;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the content of {@code Logical} object, {@link #NULL} if the
+   * object is set to null.
+   *
+   * @return {@code boolean} content of the object.
+   */
+  public boolean get() {
+    return data;
+  }
+
+  /**
+   * Returns the data type of the {@code Logical} object.
+   *
+   * @return {@code DataTypes.BOOLEAN}.
+   */
+  @Override
+  public DataTypes type() {
+    return DataTypes.BOOLEAN;
+  }
+
+  /**
+   * Checks if the {@code Logical} content is null value.
+   *
+   * @return true if null, else false.
+   */
+  @Override
+  public boolean isEmpty() {
+    return empty;
+  }
+
+  @Override
+  double toDouble() {
+    return data ? 1.0 : 0.0;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  /**
+   * Changes the content of the {@code Logical} object given {@code boolean}
+   * argument.
+   *
+   * @param data new value as {@code boolean}.
+   */
+  public void set(boolean data) {
+    this.data = data;
+    this.empty = false;
+  }
+
+  /**
+   * Changes the content of the {@code Logical} object parsing the string
+   * representation. If empty string is given, null value is used for the
+   * assignment.
+   *
+   * @param data a string representation of boolean data.
+   * @return true if assignment and parsing was successful, else false.
+   */
+  @Override
+  public boolean set(String data) {
+    // check if the data is empty and assign null value
+    if (data == null || data.isEmpty())
+    {
+      this.empty();
+      return true;
+    }
+    Boolean value = parse(data);
+    if (value == null) return false;
+    this.set(value.booleanValue());
+    return true;
+  }
+
+  /**
+   * Sets the {@code Logical} content to null value.
+   */
+  @Override
+  public void empty() {
+    data = NULL;
+    empty = true;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Public Methods">
+  /**
+   * Returns a string representation of the {@code Logical} object.
+   *
+   * @return a string representation of the content.
+   */
+  @Override
+  public String toString() {
+    if (empty) return Character.NULL;
+    return String.valueOf(data);
+  }
+
+  /**
+   * Returns a deep copy of the {@code Logical} object.
+   *
+   * @return a deep copy of the object.
+   */
+  @Override
+  public Data clone() {
+    if (empty) return new Logical();
+    return new Logical(data);
+  }
+  //</editor-fold>
+
+}
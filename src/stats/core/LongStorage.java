@@ -0,0 +1,303 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: LongStorage.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.Arrays;
+
+/**
+ * The {@code LongStorage} class stores {@code DataTypes.LONG} and
+ * {@code DataTypes.DATETIME} elements in a contiguous, growable {@code long}
+ * array; date-times are stored as nanoseconds since the epoch. The two types
+ * only differ in the {@code Data} class and in the string representation.
+ * Null elements are tracked by a validity {@link Bitmap} and by a null
+ * counter, as in {@link NumericStorage}.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+class LongStorage extends Storage {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Initial capacity of the backing array.
+   */
+  private static final int DEFAULT_CAPACITY = 16;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Data type of the elements, either {@code LONG} or {@code DATETIME}.
+   */
+  private final DataTypes type;
+
+  /**
+   * Backing array of the values, only the first {@code size} elements are
+   * meaningful.
+   */
+  private long[] values;
+
+  /**
+   * Number of elements currently stored.
+   */
+  private int size;
+
+  /**
+   * Validity of the elements, a bit is set if the element is not null.
+   */
+  private Bitmap validity;
+
+  /**
+   * Number of null elements currently stored.
+   */
+  private int nulls;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code LongStorage} class given the data type. The
+   * storage is initialized empty.
+   *
+   * @param type either {@code DataTypes.LONG} or {@code DataTypes.DATETIME}.
+   */
+  LongStorage(DataTypes type) {
+    this.type = type;
+    values = new long[DEFAULT_CAPACITY];
+    size = 0;
+    validity = new Bitmap();
+    nulls = 0;
+  }
+
+  /**
+   * Constructor for {@code LongStorage} class wrapping the given buffers
+   * without copying them, used to fill storages in bulk.
+   *
+   * @param type either {@code DataTypes.LONG} or {@code DataTypes.DATETIME}.
+   * @param values the values, at least as many as the size.
+   * @param words validity of the values, bits beyond the size must be clear.
+   * @param size number of elements.
+   */
+  LongStorage(DataTypes type, long[] values, long[] words, int size) {
+    this.type = type;
+    this.values = values;
+    this.size = size;
+    validity = new Bitmap(words, size);
+    nulls = size - validity.cardinality(0, size);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  @Override
+  DataTypes type() {
+    return type;
+  }
+
+  @Override
+  int size() {
+    return size;
+  }
+
+  @Override
+  boolean isEmpty(int index) {
+    return !validity.get(index);
+  }
+
+  @Override
+  int countEmpty() {
+    return nulls;
+  }
+
+  @Override
+  void getValidity(int index, long[] buffer, int length) {
+    validity.getWords(index, buffer, length);
+  }
+
+  @Override
+  Data get(int index) {
+    boolean valid = validity.get(index);
+    if (type == DataTypes.DATETIME)
+      return valid ? new DateTime(values[index]) : new DateTime();
+    return valid ? new LongNumber(values[index]) : new LongNumber();
+  }
+
+  @Override
+  double getDouble(int index) {
+    return values[index];
+  }
+
+  @Override
+  void getDoubles(int index, double[] buffer, int offset, int length) {
+    for (int i = 0; i < length; i++)
+      buffer[offset + i] = values[index + i];
+  }
+
+  @Override
+  long getLong(int index) {
+    return values[index];
+  }
+
+  @Override
+  void getLongs(int index, long[] buffer, int offset, int length) {
+    System.arraycopy(values, index, buffer, offset, length);
+  }
+
+  @Override
+  String getString(int index) {
+    if (!validity.get(index)) return Character.NULL;
+    if (type == DataTypes.DATETIME) return DateTime.format(values[index]);
+    return String.valueOf(values[index]);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  @Override
+  void set(int index, Data data) {
+    if (data.isEmpty()) empty(index);
+    else setLong(index, value(data));
+  }
+
+  @Override
+  boolean set(int index, String data) {
+    // check if the data is empty and assign null value
+    if (data.isEmpty())
+    {
+      empty(index);
+      return true;
+    }
+    // try parsing the string representation
+    try
+    {
+      setLong(index, (type == DataTypes.DATETIME) ? DateTime.parse(data)
+              : Long.parseLong(data.trim()));
+    } catch (NumberFormatException e)
+    {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  void setLong(int index, long value) {
+    values[index] = value;
+    if (validity.get(index)) return;
+    validity.set(index);
+    nulls--;
+  }
+
+  @Override
+  void empty(int index) {
+    values[index] = LongNumber.NULL;
+    if (!validity.get(index)) return;
+    validity.clear(index);
+    nulls++;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  @Override
+  void add(Data data, int number) {
+    this.insert(size, data, number);
+  }
+
+  @Override
+  void insert(int index, Data data, int number) {
+    ensureCapacity(size + number);
+    // shift the tail once and fill the gap
+    System.arraycopy(values, index, values, index + number, size - index);
+    Arrays.fill(values, index, index + number, value(data));
+    validity.insert(index, number, !data.isEmpty());
+    if (data.isEmpty()) nulls += number;
+    size += number;
+  }
+
+  @Override
+  void remove(int index, int number) {
+    System.arraycopy(values, index + number, values, index,
+            size - index - number);
+    nulls -= number - validity.cardinality(index, index + number);
+    validity.remove(index, number);
+    size -= number;
+  }
+
+  @Override
+  void swap(int index1, int index2) {
+    long value = values[index1];
+    values[index1] = values[index2];
+    values[index2] = value;
+    validity.swap(index1, index2);
+  }
+
+  @Override
+  void clear() {
+    values = new long[DEFAULT_CAPACITY];
+    size = 0;
+    validity.clear();
+    nulls = 0;
+  }
+
+  @Override
+  Storage newBlock() {
+    return new LongStorage(type);
+  }
+
+  @Override
+  void append(Storage storage, int from, int to) {
+    LongStorage source = (LongStorage) storage;
+    int number = to - from;
+    ensureCapacity(size + number);
+    System.arraycopy(source.values, from, values, size, number);
+    validity.add(source.validity, from, to);
+    nulls += number - source.validity.cardinality(from, to);
+    size += number;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Returns the value held by a {@code Data} object of the storage type.
+   *
+   * @param data a {@code LongNumber} or {@code DateTime} object.
+   * @return the value of the object.
+   */
+  private long value(Data data) {
+    if (type == DataTypes.DATETIME) return ((DateTime) data).get();
+    return ((LongNumber) data).get();
+  }
+
+  /**
+   * Grows the backing array, if needed, so that it can hold at least the
+   * given number of elements.
+   *
+   * @param capacity minimum required capacity.
+   */
+  private void ensureCapacity(int capacity) {
+    if (capacity <= values.length) return;
+    int newCapacity = Math.max(capacity, values.length + (values.length >> 1));
+    values = Arrays.copyOf(values, newCapacity);
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,410 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: MappedCharacterStorage.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.nio.charset.Charset;
+
+/**
+ * The {@code MappedCharacterStorage} class stores {@code DataTypes.CHARACTER}
+ * elements off-heap with an offsets and bytes layout. The UTF-8 bytes of the
+ * strings are appended to a {@link MappedFile}, while a second file holds for
+ * each element a fixed size entry with the position and the length of its
+ * bytes. Null elements have zero length and no bytes. Insertions, removals
+ * and swaps only move entries; replaced strings are left as garbage in the
+ * bytes file. When the garbage outgrows the strings in use and no snapshot
+ * shares the files, the strings are compacted to the beginning of the bytes
+ * file, so that editing a column does not grow it without bound.
+ * <p>
+ * The entries are kept in a region of the entries file. Snapshots share the
+ * region and the bytes file, which is only appended while shared: entries
+ * shared with a snapshot are moved to a new region of the same file before
+ * being modified, while entries appended after it are written in place.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+class MappedCharacterStorage extends Storage {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Size in bytes of an entry: position as {@code long}, length as
+   * {@code int} and padding to keep entries aligned.
+   */
+  private static final int ENTRY_SIZE = 16;
+
+  /**
+   * Charset used to encode the strings.
+   */
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * Minimum number of garbage bytes before the strings are compacted, so
+   * that small columns are not compacted too often.
+   */
+  private static final long COMPACT_SIZE = 1 << 20;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * File holding the entries of the elements.
+   */
+  private final MappedFile entries;
+
+  /**
+   * File holding the bytes of the strings.
+   */
+  private final MappedFile bytes;
+
+  /**
+   * Position in the entries file of the first entry.
+   */
+  private long base;
+
+  /**
+   * Number of bytes of the region holding the entries.
+   */
+  private long capacity;
+
+  /**
+   * Number of leading elements shared with snapshots, whose entries are
+   * moved to a new region before being modified.
+   */
+  private int frozen;
+
+  /**
+   * Number of bytes of the strings referenced by the entries, counted once
+   * per element.
+   */
+  private long live;
+
+  /**
+   * Number of elements currently stored.
+   */
+  private int size;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code MappedCharacterStorage} class. The storage is
+   * initialized empty.
+   *
+   * @param entries file holding the entries of the elements.
+   * @param bytes file holding the bytes of the strings.
+   */
+  MappedCharacterStorage(MappedFile entries, MappedFile bytes) {
+    this.entries = entries;
+    this.bytes = bytes;
+    entries.attach(this);
+    bytes.attach(this);
+    base = entries.allocate(0);
+    capacity = 0;
+    frozen = 0;
+    size = 0;
+    live = 0;
+  }
+
+  /**
+   * Constructor for a snapshot of a {@code MappedCharacterStorage}, sharing
+   * the files of the source. All its elements are frozen, so that the
+   * snapshot moves their entries to a new region if it is ever modified.
+   *
+   * @param source the storage to be shared.
+   */
+  private MappedCharacterStorage(MappedCharacterStorage source) {
+    entries = source.entries;
+    bytes = source.bytes;
+    entries.attach(this);
+    bytes.attach(this);
+    base = source.base;
+    capacity = 0;
+    frozen = Integer.MAX_VALUE;
+    size = source.size;
+    live = source.live;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  @Override
+  DataTypes type() {
+    return DataTypes.CHARACTER;
+  }
+
+  @Override
+  int size() {
+    return size;
+  }
+
+  @Override
+  boolean isEmpty(int index) {
+    return entries.getInt(position(index) + 8) == 0;
+  }
+
+  @Override
+  Data get(int index) {
+    return new Character(getString(index));
+  }
+
+  @Override
+  String getString(int index) {
+    int length = entries.getInt(position(index) + 8);
+    if (length == 0) return Character.NULL;
+    byte[] buffer = new byte[length];
+    bytes.get(entries.getLong(position(index)), buffer, 0, length);
+    return new String(buffer, UTF8);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  @Override
+  void set(int index, Data data) {
+    this.set(index, ((Character) data).get());
+  }
+
+  @Override
+  boolean set(int index, String data) {
+    // handle null string argument
+    if (data == null) data = Character.NULL;
+    own(index);
+    byte[] buffer = data.getBytes(UTF8);
+    live += buffer.length - entries.getInt(position(index) + 8);
+    entries.putLong(position(index), write(buffer));
+    entries.putInt(position(index) + 8, buffer.length);
+    checkGarbage();
+    return true;
+  }
+
+  @Override
+  void empty(int index) {
+    own(index);
+    live -= entries.getInt(position(index) + 8);
+    entries.putLong(position(index), 0L);
+    entries.putInt(position(index) + 8, 0);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  @Override
+  void add(Data data, int number) {
+    this.insert(size, data, number);
+  }
+
+  @Override
+  void insert(int index, Data data, int number) {
+    own(index);
+    ensureCapacity(size + number);
+    // shift the tail once and point all copies to the same bytes
+    entries.move(position(index), position(index + number),
+            length(size - index));
+    byte[] buffer = ((Character) data).get().getBytes(UTF8);
+    long start = write(buffer);
+    for (int i = index; i < index + number; i++)
+    {
+      entries.putLong(position(i), start);
+      entries.putInt(position(i) + 8, buffer.length);
+    }
+    live += (long) buffer.length * number;
+    size += number;
+    checkGarbage();
+  }
+
+  @Override
+  void remove(int index, int number) {
+    own(index);
+    for (int i = index; i < index + number; i++)
+      live -= entries.getInt(position(i) + 8);
+    entries.move(position(index + number), position(index),
+            length(size - index - number));
+    size -= number;
+  }
+
+  @Override
+  void swap(int index1, int index2) {
+    own(Math.min(index1, index2));
+    long start = entries.getLong(position(index1));
+    int length = entries.getInt(position(index1) + 8);
+    entries.putLong(position(index1), entries.getLong(position(index2)));
+    entries.putInt(position(index1) + 8, entries.getInt(position(index2) + 8));
+    entries.putLong(position(index2), start);
+    entries.putInt(position(index2) + 8, length);
+  }
+
+  @Override
+  void clear() {
+    size = 0;
+    live = 0;
+    if (!bytes.isShared(this)) bytes.reset();
+  }
+
+  /**
+   * Returns a snapshot sharing the files with this storage. The elements of
+   * the snapshot are frozen in this storage, so that their entries are moved
+   * to a new region of the file before being modified. The snapshot must not
+   * be accessed after the store is closed.
+   *
+   * @return a snapshot of the storage.
+   */
+  @Override
+  Storage snapshot() {
+    // start from the beginning of the file if it is not shared anymore, so
+    // that the regions left by previous snapshots are reused
+    if (base > 0 && !entries.isShared(this))
+      relocate(Math.max(capacity, length(size)));
+    frozen = Math.max(frozen, size);
+    return new MappedCharacterStorage(this);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Appends the bytes of a string to the bytes file.
+   *
+   * @param buffer UTF-8 bytes of the string.
+   * @return position of the first byte.
+   */
+  private long write(byte[] buffer) {
+    long start = bytes.allocate(buffer.length);
+    bytes.put(start, buffer, 0, buffer.length);
+    return start;
+  }
+
+  /**
+   * Compacts the strings if the garbage left in the bytes file outgrows the
+   * strings in use. Compaction is amortized, since the garbage must grow
+   * again by as many bytes as are in use before the next one.
+   */
+  private void checkGarbage() {
+    long garbage = bytes.allocated() - live;
+    if (garbage > COMPACT_SIZE && garbage > live && !bytes.isShared(this))
+      compact();
+  }
+
+  /**
+   * Copies the strings in use after the end of the bytes file, then moves
+   * them to its beginning, so that the garbage is released. Consecutive
+   * elements pointing to the same bytes, such as inserted copies, keep
+   * sharing them. It must only be called if no snapshot shares the files.
+   */
+  private void compact() {
+    own(0);
+    long start = bytes.allocated();
+    long written = 0;
+    long previous = -1;
+    long moved = 0;
+    byte[] buffer = new byte[64];
+    for (int i = 0; i < size; i++)
+    {
+      int length = entries.getInt(position(i) + 8);
+      if (length == 0) continue;
+      long from = entries.getLong(position(i));
+      if (from != previous)
+      {
+        // copy the string after the end of the file
+        if (length > buffer.length)
+          buffer = new byte[Math.max(length, 2 * buffer.length)];
+        bytes.get(from, buffer, 0, length);
+        bytes.put(start + written, buffer, 0, length);
+        previous = from;
+        moved = written;
+        written += length;
+      }
+      entries.putLong(position(i), moved);
+    }
+    // move the strings to the beginning of the file
+    bytes.move(start, 0, written);
+    bytes.reset();
+    bytes.allocate(written);
+  }
+
+  /**
+   * Returns the position in the entries file of the element at the given
+   * index.
+   *
+   * @param index index of the element.
+   * @return the position in bytes.
+   */
+  private long position(int index) {
+    return base + length(index);
+  }
+
+  /**
+   * Returns the number of bytes taken by the entries of a number of
+   * elements.
+   *
+   * @param number number of elements.
+   * @return the length in bytes.
+   */
+  private static long length(int number) {
+    return (long) number * ENTRY_SIZE;
+  }
+
+  /**
+   * Moves the entries to a new region of the entries file before the
+   * elements from the given index are modified, if they are shared with a
+   * snapshot.
+   *
+   * @param index index of the first element to be modified.
+   */
+  private void own(int index) {
+    if (index < frozen) relocate(Math.max(capacity, length(size)));
+  }
+
+  /**
+   * Grows the region of the entries, if needed, so that it can hold at least
+   * the given number of elements. The region is grown in place if it is the
+   * last of the file, else the entries are moved to a new region. The
+   * capacity is increased by half of its current value to amortize
+   * consecutive additions.
+   *
+   * @param number minimum required number of elements.
+   */
+  private void ensureCapacity(int number) {
+    if (length(number) <= capacity) return;
+    long newCapacity = Math.max(length(number),
+            capacity / ENTRY_SIZE * 3 / 2 * ENTRY_SIZE);
+    if (entries.extend(base, capacity, newCapacity)) capacity = newCapacity;
+    else relocate(newCapacity);
+  }
+
+  /**
+   * Moves the entries to a new region at the end of the entries file. The
+   * elements are not shared with any snapshot anymore. If no snapshot uses
+   * the files anymore, the entries file is written again from its
+   * beginning, so that the space of the previous regions is reused.
+   *
+   * @param newCapacity number of bytes of the new region.
+   */
+  private void relocate(long newCapacity) {
+    if (!entries.isShared(this)) entries.reset();
+    long start = entries.allocate(newCapacity);
+    entries.move(base, start, length(size));
+    base = start;
+    capacity = newCapacity;
+    frozen = 0;
+  }
+  //</editor-fold>
+
+}
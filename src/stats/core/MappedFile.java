@@ -0,0 +1,474 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: MappedFile.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * The {@code MappedFile} class is a growable byte sequence backed by a file
+ * mapped in memory. The file is mapped in segments of fixed size, created on
+ * first access, so that the operating system pages data in lazily and files
+ * larger than 2 GB can be addressed with {@code long} positions. Primitive
+ * values must be aligned to their size, so that they never cross a segment
+ * boundary; byte ranges may cross it.
+ * <p>
+ * Storages sharing a file with their snapshots take regions of it with
+ * {@link #allocate(long)}, so that a storage can move its elements to a new
+ * region instead of overwriting those read by a snapshot. Storages register
+ * themselves as users of the file, which keeps them through weak references:
+ * regions are never reused while the file is shared, while a storage left
+ * as the only user can write the file again from its beginning, and a file
+ * whose users have all been garbage collected can be deleted. Segments are
+ * mapped under a lock, so that snapshots can be read by other threads while
+ * the storage grows.
+ * <p>
+ * I/O errors are reported as {@code IllegalStateException}, since storages
+ * cannot throw checked exceptions.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+final class MappedFile {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Number of bits of the segment size.
+   */
+  private static final int SEGMENT_BITS = 27;
+
+  /**
+   * Size in bytes of a mapped segment.
+   */
+  static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+
+  /**
+   * Mask of the position inside a segment.
+   */
+  private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+  /**
+   * Size of the buffer used to move byte ranges.
+   */
+  private static final int MOVE_BUFFER = 1 << 16;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * The file holding the data.
+   */
+  private final File file;
+
+  /**
+   * Random access handle of the file, kept open while mapped.
+   */
+  private final RandomAccessFile handle;
+
+  /**
+   * Channel used to map the segments.
+   */
+  private final FileChannel channel;
+
+  /**
+   * Segments mapped so far, in file order, replaced when a segment is
+   * mapped.
+   */
+  private volatile MappedByteBuffer[] segments;
+
+  /**
+   * Number of bytes allocated to regions so far.
+   */
+  private volatile long allocated;
+
+  /**
+   * Storages using the file, weakly referenced.
+   */
+  private final ArrayList<WeakReference<Object>> users;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code MappedFile} class. The file is opened for reading
+   * and writing, its previous content is kept.
+   *
+   * @param file the file holding the data.
+   * @throws IOException if the file cannot be opened.
+   */
+  MappedFile(File file) throws IOException {
+    this.file = file;
+    handle = new RandomAccessFile(file, "rw");
+    channel = handle.getChannel();
+    segments = new MappedByteBuffer[0];
+    allocated = 0;
+    users = new ArrayList<>();
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Returns the file holding the data.
+   *
+   * @return the file of the mapping.
+   */
+  File file() {
+    return file;
+  }
+
+  /**
+   * Returns the number of bytes allocated to regions so far.
+   *
+   * @return the end of the last region.
+   */
+  long allocated() {
+    return allocated;
+  }
+
+  /**
+   * Registers a storage as a user of the file.
+   *
+   * @param user the storage using the file.
+   */
+  synchronized void attach(Object user) {
+    users.add(new WeakReference<>(user));
+  }
+
+  /**
+   * Checks if the file is used by any storage other than the given one.
+   * Users that have been garbage collected are forgotten.
+   *
+   * @param user a storage using the file.
+   * @return true if another storage uses the file, else false.
+   */
+  synchronized boolean isShared(Object user) {
+    boolean shared = false;
+    for (Iterator<WeakReference<Object>> i = users.iterator(); i.hasNext();)
+    {
+      Object other = i.next().get();
+      if (other == null) i.remove();
+      else if (other != user) shared = true;
+    }
+    return shared;
+  }
+
+  /**
+   * Checks if all the storages using the file have been garbage collected.
+   *
+   * @return true if the file is not used anymore, else false.
+   */
+  synchronized boolean isUnused() {
+    return !isShared(null);
+  }
+
+  /**
+   * Returns the {@code double} value at the given position, aligned to 8
+   * bytes.
+   *
+   * @param position position in the file.
+   * @return the value.
+   */
+  double getDouble(long position) {
+    return segment(position).getDouble(offset(position));
+  }
+
+  /**
+   * Writes a {@code double} value at the given position, aligned to 8 bytes.
+   *
+   * @param position position in the file.
+   * @param value the value.
+   */
+  void putDouble(long position, double value) {
+    segment(position).putDouble(offset(position), value);
+  }
+
+  /**
+   * Returns the {@code long} value at the given position, aligned to 8
+   * bytes.
+   *
+   * @param position position in the file.
+   * @return the value.
+   */
+  long getLong(long position) {
+    return segment(position).getLong(offset(position));
+  }
+
+  /**
+   * Writes a {@code long} value at the given position, aligned to 8 bytes.
+   *
+   * @param position position in the file.
+   * @param value the value.
+   */
+  void putLong(long position, long value) {
+    segment(position).putLong(offset(position), value);
+  }
+
+  /**
+   * Returns the {@code int} value at the given position, aligned to 4 bytes.
+   *
+   * @param position position in the file.
+   * @return the value.
+   */
+  int getInt(long position) {
+    return segment(position).getInt(offset(position));
+  }
+
+  /**
+   * Writes an {@code int} value at the given position, aligned to 4 bytes.
+   *
+   * @param position position in the file.
+   * @param value the value.
+   */
+  void putInt(long position, int value) {
+    segment(position).putInt(offset(position), value);
+  }
+
+  /**
+   * Copies a range of {@code double} values into a buffer. The position must
+   * be aligned to 8 bytes.
+   *
+   * @param position position of the first value in the file.
+   * @param buffer destination buffer.
+   * @param offset first position in the buffer.
+   * @param length number of values.
+   */
+  void getDoubles(long position, double[] buffer, int offset, int length) {
+    while (length > 0)
+    {
+      ByteBuffer segment = segment(position).duplicate();
+      segment.position(offset(position));
+      int number = Math.min(length, segment.remaining() / 8);
+      segment.asDoubleBuffer().get(buffer, offset, number);
+      position += number * 8L;
+      offset += number;
+      length -= number;
+    }
+  }
+
+  /**
+   * Copies a range of {@code long} values into a buffer. The position must be
+   * aligned to 8 bytes.
+   *
+   * @param position position of the first value in the file.
+   * @param buffer destination buffer.
+   * @param offset first position in the buffer.
+   * @param length number of values.
+   */
+  void getLongs(long position, long[] buffer, int offset, int length) {
+    while (length > 0)
+    {
+      ByteBuffer segment = segment(position).duplicate();
+      segment.position(offset(position));
+      int number = Math.min(length, segment.remaining() / 8);
+      segment.asLongBuffer().get(buffer, offset, number);
+      position += number * 8L;
+      offset += number;
+      length -= number;
+    }
+  }
+
+  /**
+   * Copies a range of bytes of the file into a buffer. The range may cross
+   * segment boundaries.
+   *
+   * @param position position of the first byte in the file.
+   * @param buffer destination buffer.
+   * @param offset first position in the buffer.
+   * @param length number of bytes.
+   */
+  void get(long position, byte[] buffer, int offset, int length) {
+    while (length > 0)
+    {
+      ByteBuffer segment = segment(position).duplicate();
+      segment.position(offset(position));
+      int number = Math.min(length, segment.remaining());
+      segment.get(buffer, offset, number);
+      position += number;
+      offset += number;
+      length -= number;
+    }
+  }
+
+  /**
+   * Writes a range of bytes of a buffer into the file. The range may cross
+   * segment boundaries.
+   *
+   * @param position position of the first byte in the file.
+   * @param buffer source buffer.
+   * @param offset first position in the buffer.
+   * @param length number of bytes.
+   */
+  void put(long position, byte[] buffer, int offset, int length) {
+    while (length > 0)
+    {
+      ByteBuffer segment = segment(position).duplicate();
+      segment.position(offset(position));
+      int number = Math.min(length, segment.remaining());
+      segment.put(buffer, offset, number);
+      position += number;
+      offset += number;
+      length -= number;
+    }
+  }
+
+  /**
+   * Allocates a region of bytes at the end of the allocated ones.
+   *
+   * @param length number of bytes of the region.
+   * @return position of the first byte of the region.
+   */
+  synchronized long allocate(long length) {
+    long start = allocated;
+    allocated += length;
+    return start;
+  }
+
+  /**
+   * Grows a region in place, which is only possible if it is the last
+   * allocated one.
+   *
+   * @param start position of the first byte of the region.
+   * @param length current number of bytes of the region.
+   * @param newLength new number of bytes of the region.
+   * @return true if the region was grown, else false.
+   */
+  synchronized boolean extend(long start, long length, long newLength) {
+    if (start + length != allocated) return false;
+    allocated = start + newLength;
+    return true;
+  }
+
+  /**
+   * Releases all the allocated regions, so that the file is written again
+   * from its beginning. It must only be called if no region is in use.
+   */
+  synchronized void reset() {
+    allocated = 0;
+  }
+
+  /**
+   * Moves a range of bytes inside the file. Source and destination may
+   * overlap.
+   *
+   * @param from position of the source range.
+   * @param to position of the destination range.
+   * @param length number of bytes.
+   */
+  void move(long from, long to, long length) {
+    if (from == to || length == 0) return;
+    byte[] buffer = new byte[(int) Math.min(length, MOVE_BUFFER)];
+    if (to < from)
+      // copy forward when moving to lower positions
+      for (long done = 0; done < length; done += buffer.length)
+      {
+        int number = (int) Math.min(buffer.length, length - done);
+        get(from + done, buffer, 0, number);
+        put(to + done, buffer, 0, number);
+      }
+    else
+      // copy backward when moving to higher positions
+      for (long done = length; done > 0; done -= buffer.length)
+      {
+        int number = (int) Math.min(buffer.length, done);
+        get(from + done - number, buffer, 0, number);
+        put(to + done - number, buffer, 0, number);
+      }
+  }
+
+  /**
+   * Closes the file. Mapped segments are released by the garbage collector.
+   */
+  void close() {
+    segments = new MappedByteBuffer[0];
+    try
+    {
+      handle.close();
+    } catch (IOException e)
+    {
+      throw new IllegalStateException("Cannot close " + file, e);
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Returns the segment containing the given position, mapping it and all
+   * the previous segments if needed. The file grows accordingly.
+   *
+   * @param position a position in the file.
+   * @return the segment of the position.
+   */
+  private MappedByteBuffer segment(long position) {
+    int index = (int) (position >>> SEGMENT_BITS);
+    MappedByteBuffer[] mapped = segments;
+    if (index < mapped.length) return mapped[index];
+    return map(index);
+  }
+
+  /**
+   * Maps the segments up to the given one, if another thread did not map
+   * them already.
+   *
+   * @param index index of the segment.
+   * @return the segment.
+   */
+  private synchronized MappedByteBuffer map(int index) {
+    MappedByteBuffer[] mapped = segments;
+    if (index < mapped.length) return mapped[index];
+    int number = mapped.length;
+    mapped = Arrays.copyOf(mapped, index + 1);
+    try
+    {
+      for (int i = number; i <= index; i++)
+        mapped[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                (long) i << SEGMENT_BITS, SEGMENT_SIZE);
+    } catch (IOException e)
+    {
+      throw new IllegalStateException("Cannot map " + file, e);
+    }
+    segments = mapped;
+    return mapped[index];
+  }
+
+  /**
+   * Returns the position inside its segment.
+   *
+   * @param position a position in the file.
+   * @return the offset inside the segment.
+   */
+  private static int offset(long position) {
+    return (int) (position & SEGMENT_MASK);
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,415 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: MappedLongStorage.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code MappedLongStorage} class stores {@code DataTypes.LONG} and
+ * {@code DataTypes.DATETIME} elements off-heap, as consecutive {@code long}
+ * values of a {@link MappedFile}; date-times are stored as nanoseconds since
+ * the epoch, as in {@link LongStorage}. Only the validity {@link Bitmap}, one
+ * bit per element, is kept on the heap. Values are laid out and shared with
+ * snapshots as in {@link MappedNumericStorage}.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+class MappedLongStorage extends Storage {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Size in bytes of an element.
+   */
+  private static final int ELEMENT_SIZE = 8;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Data type of the elements, either {@code LONG} or {@code DATETIME}.
+   */
+  private final DataTypes type;
+
+  /**
+   * File holding the values.
+   */
+  private final MappedFile values;
+
+  /**
+   * Position in the file of the first value.
+   */
+  private long base;
+
+  /**
+   * Number of bytes of the region holding the values.
+   */
+  private long capacity;
+
+  /**
+   * Number of leading elements shared with snapshots, which are moved to a
+   * new region before being modified.
+   */
+  private int frozen;
+
+  /**
+   * Number of elements currently stored.
+   */
+  private int size;
+
+  /**
+   * Validity of the elements, a bit is set if the element is not null.
+   */
+  private final Bitmap validity;
+
+  /**
+   * Number of null elements currently stored.
+   */
+  private int nulls;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code MappedLongStorage} class given the data type. The
+   * storage is initialized empty.
+   *
+   * @param type either {@code DataTypes.LONG} or {@code DataTypes.DATETIME}.
+   * @param values file holding the values.
+   */
+  MappedLongStorage(DataTypes type, MappedFile values) {
+    this.type = type;
+    this.values = values;
+    values.attach(this);
+    base = values.allocate(0);
+    capacity = 0;
+    frozen = 0;
+    size = 0;
+    validity = new Bitmap();
+    nulls = 0;
+  }
+
+  /**
+   * Constructor for a snapshot of a {@code MappedLongStorage}, sharing the
+   * region of the source. All its elements are frozen, so that the snapshot
+   * moves them to a new region if it is ever modified.
+   *
+   * @param source the storage to be shared.
+   */
+  private MappedLongStorage(MappedLongStorage source) {
+    type = source.type;
+    values = source.values;
+    values.attach(this);
+    base = source.base;
+    capacity = 0;
+    frozen = Integer.MAX_VALUE;
+    size = source.size;
+    validity = new Bitmap();
+    validity.add(source.validity, 0, size);
+    nulls = source.nulls;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  @Override
+  DataTypes type() {
+    return type;
+  }
+
+  @Override
+  int size() {
+    return size;
+  }
+
+  @Override
+  boolean isEmpty(int index) {
+    return !validity.get(index);
+  }
+
+  @Override
+  int countEmpty() {
+    return nulls;
+  }
+
+  @Override
+  void getValidity(int index, long[] buffer, int length) {
+    validity.getWords(index, buffer, length);
+  }
+
+  @Override
+  Data get(int index) {
+    boolean valid = validity.get(index);
+    if (type == DataTypes.DATETIME)
+      return valid ? new DateTime(getLong(index)) : new DateTime();
+    return valid ? new LongNumber(getLong(index)) : new LongNumber();
+  }
+
+  @Override
+  double getDouble(int index) {
+    return getLong(index);
+  }
+
+  @Override
+  void getDoubles(int index, double[] buffer, int offset, int length) {
+    for (int i = 0; i < length; i++)
+      buffer[offset + i] = getLong(index + i);
+  }
+
+  @Override
+  long getLong(int index) {
+    return values.getLong(position(index));
+  }
+
+  @Override
+  void getLongs(int index, long[] buffer, int offset, int length) {
+    values.getLongs(position(index), buffer, offset, length);
+  }
+
+  @Override
+  String getString(int index) {
+    if (!validity.get(index)) return Character.NULL;
+    if (type == DataTypes.DATETIME) return DateTime.format(getLong(index));
+    return String.valueOf(getLong(index));
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  @Override
+  void set(int index, Data data) {
+    if (data.isEmpty()) empty(index);
+    else setLong(index, value(data));
+  }
+
+  @Override
+  boolean set(int index, String data) {
+    // check if the data is empty and assign null value
+    if (data.isEmpty())
+    {
+      empty(index);
+      return true;
+    }
+    // try parsing the string representation
+    try
+    {
+      setLong(index, (type == DataTypes.DATETIME) ? DateTime.parse(data)
+              : Long.parseLong(data.trim()));
+    } catch (NumberFormatException e)
+    {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  void setLong(int index, long value) {
+    own(index);
+    values.putLong(position(index), value);
+    if (validity.get(index)) return;
+    validity.set(index);
+    nulls--;
+  }
+
+  @Override
+  void empty(int index) {
+    own(index);
+    values.putLong(position(index), LongNumber.NULL);
+    if (!validity.get(index)) return;
+    validity.clear(index);
+    nulls++;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  @Override
+  void add(Data data, int number) {
+    this.insert(size, data, number);
+  }
+
+  @Override
+  void insert(int index, Data data, int number) {
+    own(index);
+    ensureCapacity(size + number);
+    // shift the tail once and fill the gap
+    values.move(position(index), position(index + number),
+            length(size - index));
+    long value = data.isEmpty() ? LongNumber.NULL : value(data);
+    for (int i = index; i < index + number; i++)
+      values.putLong(position(i), value);
+    validity.insert(index, number, !data.isEmpty());
+    if (data.isEmpty()) nulls += number;
+    size += number;
+  }
+
+  @Override
+  void remove(int index, int number) {
+    own(index);
+    values.move(position(index + number), position(index),
+            length(size - index - number));
+    nulls -= number - validity.cardinality(index, index + number);
+    validity.remove(index, number);
+    size -= number;
+  }
+
+  /**
+   * Removes the elements in a single pass, moving each run of kept elements
+   * once.
+   *
+   * @param rows bitmap of the elements to be removed.
+   */
+  @Override
+  void remove(Bitmap rows) {
+    int kept = rows.nextSetBit(0);
+    if (kept < 0) return;
+    own(kept);
+    int from = kept;
+    while (from < size)
+    {
+      // find the next run of kept elements and move it
+      int start = rows.nextClearBit(from);
+      if (start >= size) break;
+      int end = rows.nextSetBit(start);
+      if (end < 0) end = size;
+      values.move(position(start), position(kept), length(end - start));
+      kept += end - start;
+      from = end;
+    }
+    // rebuild the validity of the kept elements
+    Bitmap compacted = new Bitmap();
+    for (int i = rows.nextClearBit(0); i < size; i = rows.nextClearBit(i + 1))
+      compacted.add(1, validity.get(i));
+    validity.clear();
+    validity.add(compacted, 0, compacted.size());
+    nulls = kept - validity.cardinality();
+    size = kept;
+  }
+
+  @Override
+  void swap(int index1, int index2) {
+    own(Math.min(index1, index2));
+    long value = getLong(index1);
+    values.putLong(position(index1), getLong(index2));
+    values.putLong(position(index2), value);
+    validity.swap(index1, index2);
+  }
+
+  @Override
+  void clear() {
+    size = 0;
+    validity.clear();
+    nulls = 0;
+  }
+
+  /**
+   * Returns a snapshot sharing the region of the values with this storage.
+   * The elements of the snapshot are frozen in this storage, so that they
+   * are moved to a new region of the file before being modified. The
+   * snapshot must not be accessed after the store is closed.
+   *
+   * @return a snapshot of the storage.
+   */
+  @Override
+  Storage snapshot() {
+    // start from the beginning of the file if it is not shared anymore, so
+    // that the regions left by previous snapshots are reused
+    if (base > 0 && !values.isShared(this))
+      relocate(Math.max(capacity, length(size)));
+    frozen = Math.max(frozen, size);
+    return new MappedLongStorage(this);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Returns the value held by a {@code Data} object of the storage type.
+   *
+   * @param data a {@code LongNumber} or {@code DateTime} object.
+   * @return the value of the object.
+   */
+  private long value(Data data) {
+    if (type == DataTypes.DATETIME) return ((DateTime) data).get();
+    return ((LongNumber) data).get();
+  }
+
+  /**
+   * Returns the position in the file of the element at the given index.
+   *
+   * @param index index of the element.
+   * @return the position in bytes.
+   */
+  private long position(int index) {
+    return base + length(index);
+  }
+
+  /**
+   * Returns the number of bytes taken by a number of elements.
+   *
+   * @param number number of elements.
+   * @return the length in bytes.
+   */
+  private static long length(int number) {
+    return (long) number * ELEMENT_SIZE;
+  }
+
+  /**
+   * Moves the values to a new region of the file before the elements from
+   * the given index are modified, if they are shared with a snapshot.
+   *
+   * @param index index of the first element to be modified.
+   */
+  private void own(int index) {
+    if (index < frozen) relocate(Math.max(capacity, length(size)));
+  }
+
+  /**
+   * Grows the region of the values, if needed, so that it can hold at least
+   * the given number of elements, as in {@link MappedNumericStorage}.
+   *
+   * @param number minimum required number of elements.
+   */
+  private void ensureCapacity(int number) {
+    if (length(number) <= capacity) return;
+    long newCapacity = Math.max(length(number),
+            capacity / ELEMENT_SIZE * 3 / 2 * ELEMENT_SIZE);
+    if (values.extend(base, capacity, newCapacity)) capacity = newCapacity;
+    else relocate(newCapacity);
+  }
+
+  /**
+   * Moves the values to a new region at the end of the file. The elements
+   * are not shared with any snapshot anymore. If no snapshot uses the file
+   * anymore, it is written again from its beginning, so that the space of
+   * the previous regions is reused.
+   *
+   * @param newCapacity number of bytes of the new region.
+   */
+  private void relocate(long newCapacity) {
+    if (!values.isShared(this)) values.reset();
+    long start = values.allocate(newCapacity);
+    values.move(base, start, length(size));
+    base = start;
+    capacity = newCapacity;
+    frozen = 0;
+  }
+  //</editor-fold>
+
+}
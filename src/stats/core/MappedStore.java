@@ -0,0 +1,213 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: MappedStore.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * The {@code MappedStore} class is an off-heap backend for {@code Table}
+ * objects. Columns of a table created with a store keep their elements in
+ * memory-mapped files of the store directory instead of the Java heap, so
+ * that the size of a table is not limited by the maximum heap size and the
+ * operating system pages data in lazily. {@code DataTypes.NUMERIC} columns
+ * are stored as {@code double} values, {@code DataTypes.LONG} and
+ * {@code DataTypes.DATETIME} columns as {@code long} values,
+ * {@code DataTypes.CHARACTER} columns as UTF-8 bytes plus an offset per
+ * element. Columns of the compact integer and boolean types stay on the
+ * heap.
+ * <p>
+ * Files are temporary: they are deleted when the store is closed, after
+ * which tables using the store must not be accessed anymore. Snapshots of
+ * off-heap columns share their files instead of copying them to the heap,
+ * so they must not be accessed after the store is closed either. The files
+ * of columns that are not referenced anymore, such as removed or converted
+ * columns once garbage collected, are deleted by {@link #purge()}, which is
+ * also called whenever a column is created. Files still mapped by the
+ * operating system, which cannot be deleted on some platforms, are deleted
+ * when the virtual machine exits.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public final class MappedStore implements Closeable {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Directory holding the files of the store.
+   */
+  private final File directory;
+
+  /**
+   * Files opened by the store.
+   */
+  private final ArrayList<MappedFile> files;
+
+  /**
+   * Tells if the store has been closed.
+   */
+  private boolean closed;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code MappedStore} class. The directory is created if it
+   * does not exist.
+   *
+   * @param directory directory holding the files of the store.
+   * @throws IOException if the directory cannot be created.
+   */
+  public MappedStore(File directory) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs())
+      throw new IOException("Cannot create directory " + directory);
+    this.directory = directory;
+    files = new ArrayList<>();
+    closed = false;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the directory holding the files of the store.
+   *
+   * @return the directory of the store.
+   */
+  public File directory() {
+    return directory;
+  }
+
+  /**
+   * Checks if the store has been closed.
+   *
+   * @return true if closed, else false.
+   */
+  public boolean isClosed() {
+    return closed;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Public Methods">
+  /**
+   * Closes all files of the store and deletes them. Files that cannot be
+   * deleted yet, because their segments are still mapped, are deleted when
+   * the virtual machine exits.
+   */
+  @Override
+  public void close() {
+    if (closed) return;
+    closed = true;
+    for (MappedFile file : files)
+      delete(file);
+    files.clear();
+  }
+
+  /**
+   * Closes and deletes the files whose columns have all been garbage
+   * collected, such as those of removed columns.
+   */
+  public void purge() {
+    for (Iterator<MappedFile> i = files.iterator(); i.hasNext();)
+    {
+      MappedFile file = i.next();
+      if (!file.isUnused()) continue;
+      delete(file);
+      i.remove();
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Returns an empty off-heap {@code Storage} object suitable for the given
+   * data type. When implementing new data types, this method must be
+   * modified.
+   *
+   * @param type the data type of the elements to be stored.
+   * @return an empty storage for the data type.
+   * @throws IllegalStateException if the store is closed or a file cannot be
+   * created.
+   */
+  Storage create(DataTypes type) {
+    purge();
+    switch (type)
+    {
+      case NUMERIC:
+        return new MappedNumericStorage(newFile("numeric"));
+      case LONG:
+      case DATETIME:
+        return new MappedLongStorage(type, newFile("long"));
+      case INTEGER:
+      case BOOLEAN:
+        // compact types are small enough to be kept on the heap
+        return Storage.create(type);
+      case CHARACTER:
+      case UNDEFINED:
+      default:
+        return new MappedCharacterStorage(newFile("entries"),
+                newFile("bytes"));
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Closes a file and deletes it, or schedules its deletion when the virtual
+   * machine exits if it is still mapped.
+   *
+   * @param file the file to be deleted.
+   */
+  private static void delete(MappedFile file) {
+    file.close();
+    if (!file.file().delete()) file.file().deleteOnExit();
+  }
+
+  /**
+   * Creates a new file in the store directory.
+   *
+   * @param prefix prefix of the file name.
+   * @return the mapped file.
+   */
+  private MappedFile newFile(String prefix) {
+    if (closed) throw new IllegalStateException("The store is closed.");
+    try
+    {
+      MappedFile file = new MappedFile(
+              File.createTempFile(prefix, ".map", directory));
+      files.add(file);
+      return file;
+    } catch (IOException e)
+    {
+      throw new IllegalStateException("Cannot create a file in " + directory,
+              e);
+    }
+  }
+  //</editor-fold>
+
+}
@@ -178,4 +178,70 @@ public class Node {
 
   }
 
+  /**
+   * Joins two tables of the {@code Node} object on pairs of key columns and
+   * adds the result to the node. The result holds the rows of the left
+   * table matching a row of the right one, with the columns of the left
+   * table followed by the non-key columns of the right one, in order of the
+   * left rows. Rows with a null key never match.
+   *
+   * @param left index of the left table.
+   * @param right index of the right table.
+   * @param leftKeys indexes of the key columns of the left table.
+   * @param rightKeys indexes of the key columns of the right table.
+   * @return the joined table.
+   * @throws ArrayIndexOutOfBoundsException if a table or column index is not
+   * valid.
+   * @throws IllegalArgumentException if keys are not paired or if paired keys
+   * have different data types.
+   */
+  public Table innerJoin(int left, int right, int[] leftKeys,
+          int[] rightKeys) {
+    return join(left, right, leftKeys, rightKeys, false);
+  }
+
+  /**
+   * Joins two tables of the {@code Node} object on pairs of key columns and
+   * adds the result to the node. As {@link #innerJoin(int, int, int[], int[])}
+   * but rows of the left table without matches are kept, with null values in
+   * the columns of the right table.
+   *
+   * @param left index of the left table.
+   * @param right index of the right table.
+   * @param leftKeys indexes of the key columns of the left table.
+   * @param rightKeys indexes of the key columns of the right table.
+   * @return the joined table.
+   * @throws ArrayIndexOutOfBoundsException if a table or column index is not
+   * valid.
+   * @throws IllegalArgumentException if keys are not paired or if paired keys
+   * have different data types.
+   */
+  public Table leftJoin(int left, int right, int[] leftKeys,
+          int[] rightKeys) {
+    return join(left, right, leftKeys, rightKeys, true);
+  }
+
+  /**
+   * Joins two tables of the {@code Node} object and adds the result to the
+   * node.
+   *
+   * @param left index of the left table.
+   * @param right index of the right table.
+   * @param leftKeys indexes of the key columns of the left table.
+   * @param rightKeys indexes of the key columns of the right table.
+   * @param outer true for a left outer join, false for an inner join.
+   * @return the joined table.
+   */
+  private Table join(int left, int right, int[] leftKeys, int[] rightKeys,
+          boolean outer) {
+    for (int index : new int[]{left, right})
+      if (index < 0 || index >= tables.size())
+        throw new ArrayIndexOutOfBoundsException(
+                "index=" + index + " is not a valid table index in " + name);
+    Table joined = tables.get(left).join(tables.get(right), leftKeys,
+            rightKeys, outer);
+    tables.add(joined);
+    return joined;
+  }
+
 }
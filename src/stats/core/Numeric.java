@@ -29,7 +29,9 @@ package stats.core;
 /**
  * The {@code Numeric} class is used to store numeric data. The data can
  * be decimal and are stored with double precision. Like any other {@code Data}
- * subclass, the object can be set to null value.
+ * subclass, the object can be set to null value. Null state is tracked by a
+ * flag, so that every {@code double} value, {@link #NULL} included, can be
+ * stored.
  *
  * @author M. Vettigli
  * @version 3.0
@@ -38,8 +40,8 @@ public class Numeric extends Data {
 
   //<editor-fold defaultstate="collapsed" desc="Static Members">
   /**
-   * The null value for {@code Numeric} class, the minimum of {@code
-   * double} type.
+   * The value returned by {@code Numeric} objects set to null, the minimum of
+   * {@code double} type. It is not used to detect null values.
    */
   public static final double NULL = Double.MIN_VALUE;
   //</editor-fold>
@@ -49,6 +51,11 @@ public class Numeric extends Data {
    * Stores the content of the {@code Numeric} object.
    */
   private double data;
+
+  /**
+   * Stores the null state of the {@code Numeric} object.
+   */
+  private boolean empty;
   //</editor-fold>
 
   //<editor-fold defaultstate="collapsed" desc="Constructors">
@@ -57,7 +64,8 @@ public class Numeric extends Data {
    * initialized with null value.
    */
   public Numeric() {
-    this(NULL);
+    this.data = NULL;
+    this.empty = true;
   }
 
   /**
@@ -68,6 +76,7 @@ public class Numeric extends Data {
    */
   public Numeric(double data) {
     this.data = data;
+    this.empty = false;
   }
 
   /**
@@ -83,16 +92,19 @@ public class Numeric extends Data {
     {
       double value = Double.parseDouble(data);
       this.data = value;
+      this.empty = false;
     } catch (NumberFormatException e)
     {
       this.data = NULL;
+      this.empty = true;
     }
   }
   //</editor-fold>
 
   //<editor-fold defaultstate="collapsed" desc="Getters">
   /**
-   * Returns the content of {@code Numeric} object.
+   * Returns the content of {@code Numeric} object, {@link #NULL} if the
+   * object is set to null.
    *
    * @return {@code double} content of the object.
    */
@@ -117,7 +129,12 @@ public class Numeric extends Data {
    */
   @Override
   public boolean isEmpty() {
-    return (data == NULL);
+    return empty;
+  }
+
+  @Override
+  double toDouble() {
+    return data;
   }
   //</editor-fold>
 
@@ -131,6 +148,7 @@ public class Numeric extends Data {
   public void set(double data) {
 
     this.data = data;
+    this.empty = false;
 
   }
 
@@ -147,7 +165,7 @@ public class Numeric extends Data {
     // check if the data is empty and assign null value
     if (data.isEmpty())
     {
-      this.data = NULL;
+      this.empty();
       return true;
     }
 
@@ -163,7 +181,7 @@ public class Numeric extends Data {
     }
 
     // assign the parsed data
-    this.data = parsedData;
+    this.set(parsedData);
     return true;
   }
 
@@ -173,6 +191,7 @@ public class Numeric extends Data {
   @Override
   public void empty() {
     data = NULL;
+    empty = true;
   }
   //</editor-fold>
 
@@ -184,7 +203,7 @@ public class Numeric extends Data {
    */
   @Override
   public String toString() {
-    if (data == NULL) return new String();
+    if (empty) return new String();
     else return String.valueOf(data);
   }
 
@@ -195,6 +214,7 @@ public class Numeric extends Data {
    */
   @Override
   public Data clone() {
+    if (empty) return new Numeric();
     return new Numeric(data);
   }
   //</editor-fold>
@@ -0,0 +1,154 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: NumericCursor.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code NumericCursor} class gives direct access to the elements of a
+ * {@code DataTypes.NUMERIC} {@link Array} as primitive {@code double} values.
+ * The data type is checked once when the cursor is created, then each call
+ * reads or writes the storage of the array without creating {@code Data}
+ * objects, so that bulk readers and writers allocate nothing per element.
+ * Null elements are read as {@link Numeric#NULL} and can be detected with
+ * {@link #isEmpty(int)}.
+ * <p>
+ * A cursor is bound to the {@code Array} it was created from: if a table
+ * column is converted or replaced, a new cursor must be created.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public final class NumericCursor {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * The array accessed by the cursor.
+   */
+  private final Array array;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code NumericCursor} class.
+   *
+   * @param array a numeric array.
+   * @throws UnsupportedOperationException if the array is not numeric.
+   */
+  NumericCursor(Array array) {
+    if (array.type() != DataTypes.NUMERIC)
+      throw new UnsupportedOperationException(
+              "Cannot access " + array.type() + " elements as double.");
+    this.array = array;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the number of elements of the underlying array.
+   *
+   * @return number of elements.
+   */
+  public int size() {
+    return array.size();
+  }
+
+  /**
+   * Checks if the element at the given position is null value.
+   *
+   * @param row position of the element.
+   * @return true if null, else false.
+   * @throws ArrayIndexOutOfBoundsException
+   */
+  public boolean isEmpty(int row) {
+    return storage(row).isEmpty(row);
+  }
+
+  /**
+   * Returns the value of the element at the given position.
+   *
+   * @param row position of the element.
+   * @return the value of the element, {@link Numeric#NULL} if null.
+   * @throws ArrayIndexOutOfBoundsException
+   */
+  public double getDouble(int row) {
+    return storage(row).getDouble(row);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  /**
+   * Replaces the element at the given position with a value.
+   *
+   * @param row position of the element.
+   * @param value new value of the element.
+   * @throws ArrayIndexOutOfBoundsException
+   * @throws UnsupportedOperationException if the array is read-only.
+   * @throws IllegalArgumentException if the value is beyond the range of the
+   * precision of the array.
+   */
+  public void setDouble(int row, double value) {
+    array.modify();
+    Storage storage = storage(row);
+    if (!storage.precision().fits(value)) throw new IllegalArgumentException(
+              value + " is out of the range of " + storage.precision());
+    array.retract(row);
+    storage.setDouble(row, value);
+    array.record(row);
+  }
+
+  /**
+   * Sets the element at the given position to null value.
+   *
+   * @param row position of the element.
+   * @throws ArrayIndexOutOfBoundsException
+   * @throws UnsupportedOperationException if the array is read-only.
+   */
+  public void empty(int row) {
+    array.modify();
+    Storage storage = storage(row);
+    array.retract(row);
+    storage.empty(row);
+    array.record(row);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Returns the storage of the array after checking the given position.
+   *
+   * @param row position of an element.
+   * @return the storage of the array.
+   * @throws ArrayIndexOutOfBoundsException if the position is not valid.
+   */
+  private Storage storage(int row) {
+    Storage storage = array.storage();
+    if (storage == null || row < 0 || row >= storage.size())
+      throw new ArrayIndexOutOfBoundsException(row);
+    return storage;
+  }
+  //</editor-fold>
+
+}
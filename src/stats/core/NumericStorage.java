@@ -0,0 +1,267 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: NumericStorage.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.Arrays;
+
+/**
+ * The {@code NumericStorage} class stores {@code DataTypes.NUMERIC} elements
+ * in a contiguous, growable {@code double} array. Null elements are tracked
+ * by a validity {@link Bitmap}, where a set bit marks a valid element, and
+ * by a null counter kept alongside. The value slot of a null element holds
+ * {@link Numeric#NULL}, but it is never used to detect null elements.
+ *
+ * @author M. Vettigli
+ * @version 2.0
+ */
+class NumericStorage extends Storage {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Initial capacity of the backing array.
+   */
+  private static final int DEFAULT_CAPACITY = 16;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Backing array of the values, only the first {@code size} elements are
+   * meaningful.
+   */
+  private double[] values;
+
+  /**
+   * Number of elements currently stored.
+   */
+  private int size;
+
+  /**
+   * Validity of the elements, a bit is set if the element is not null.
+   */
+  private Bitmap validity;
+
+  /**
+   * Number of null elements currently stored.
+   */
+  private int nulls;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Default constructor for {@code NumericStorage} class. The storage is
+   * initialized empty.
+   */
+  NumericStorage() {
+    values = new double[DEFAULT_CAPACITY];
+    size = 0;
+    validity = new Bitmap();
+    nulls = 0;
+  }
+
+  /**
+   * Constructor for {@code NumericStorage} class wrapping the given buffers
+   * without copying them, used to fill storages in bulk.
+   *
+   * @param values the values, at least as many as the size.
+   * @param words validity of the values, bits beyond the size must be clear.
+   * @param size number of elements.
+   */
+  NumericStorage(double[] values, long[] words, int size) {
+    this.values = values;
+    this.size = size;
+    validity = new Bitmap(words, size);
+    nulls = size - validity.cardinality(0, size);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  @Override
+  DataTypes type() {
+    return DataTypes.NUMERIC;
+  }
+
+  @Override
+  int size() {
+    return size;
+  }
+
+  @Override
+  boolean isEmpty(int index) {
+    return !validity.get(index);
+  }
+
+  @Override
+  int countEmpty() {
+    return nulls;
+  }
+
+  @Override
+  void getValidity(int index, long[] buffer, int length) {
+    validity.getWords(index, buffer, length);
+  }
+
+  @Override
+  Data get(int index) {
+    if (!validity.get(index)) return new Numeric();
+    return new Numeric(values[index]);
+  }
+
+  @Override
+  double getDouble(int index) {
+    return values[index];
+  }
+
+  @Override
+  void getDoubles(int index, double[] buffer, int offset, int length) {
+    System.arraycopy(values, index, buffer, offset, length);
+  }
+
+  @Override
+  String getString(int index) {
+    if (!validity.get(index)) return Character.NULL;
+    return String.valueOf(values[index]);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  @Override
+  void set(int index, Data data) {
+    if (data.isEmpty()) empty(index);
+    else setDouble(index, ((Numeric) data).get());
+  }
+
+  @Override
+  boolean set(int index, String data) {
+    // check if the data is empty and assign null value
+    if (data.isEmpty())
+    {
+      empty(index);
+      return true;
+    }
+    // try parsing the string representation
+    try
+    {
+      setDouble(index, Double.parseDouble(data));
+    } catch (NumberFormatException e)
+    {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  void setDouble(int index, double value) {
+    values[index] = value;
+    if (validity.get(index)) return;
+    validity.set(index);
+    nulls--;
+  }
+
+  @Override
+  void empty(int index) {
+    values[index] = Numeric.NULL;
+    if (!validity.get(index)) return;
+    validity.clear(index);
+    nulls++;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  @Override
+  void add(Data data, int number) {
+    this.insert(size, data, number);
+  }
+
+  @Override
+  void insert(int index, Data data, int number) {
+    ensureCapacity(size + number);
+    // shift the tail once and fill the gap
+    System.arraycopy(values, index, values, index + number, size - index);
+    Arrays.fill(values, index, index + number, ((Numeric) data).get());
+    validity.insert(index, number, !data.isEmpty());
+    if (data.isEmpty()) nulls += number;
+    size += number;
+  }
+
+  @Override
+  void remove(int index, int number) {
+    System.arraycopy(values, index + number, values, index,
+            size - index - number);
+    nulls -= number - validity.cardinality(index, index + number);
+    validity.remove(index, number);
+    size -= number;
+  }
+
+  @Override
+  void swap(int index1, int index2) {
+    double value = values[index1];
+    values[index1] = values[index2];
+    values[index2] = value;
+    validity.swap(index1, index2);
+  }
+
+  @Override
+  void clear() {
+    values = new double[DEFAULT_CAPACITY];
+    size = 0;
+    validity.clear();
+    nulls = 0;
+  }
+
+  @Override
+  Storage newBlock() {
+    return new NumericStorage();
+  }
+
+  @Override
+  void append(Storage storage, int from, int to) {
+    NumericStorage source = (NumericStorage) storage;
+    int number = to - from;
+    ensureCapacity(size + number);
+    System.arraycopy(source.values, from, values, size, number);
+    validity.add(source.validity, from, to);
+    nulls += number - source.validity.cardinality(from, to);
+    size += number;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Grows the backing array, if needed, so that it can hold at least the
+   * given number of elements. The capacity is increased by half of its current
+   * value to amortize consecutive additions.
+   *
+   * @param capacity minimum required capacity.
+   */
+  private void ensureCapacity(int capacity) {
+    if (capacity <= values.length) return;
+    int newCapacity = Math.max(capacity, values.length + (values.length >> 1));
+    values = Arrays.copyOf(values, newCapacity);
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,99 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: Parallel.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The {@code Parallel} class holds the fork-join pool shared by all parallel
+ * operations on tables and arrays, so that nested or concurrent operations do
+ * not create threads of their own. The pool is created on first use with one
+ * worker per available processor; its threads are daemon threads, so the
+ * pool never needs to be shut down.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public final class Parallel {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Number of elements below which work is done sequentially. It is a
+   * multiple of the block size of chunked storages, so that parallel tasks
+   * can be split on block boundaries.
+   */
+  public static final int THRESHOLD = 4 * ChunkedStorage.CHUNK_SIZE;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * The class only has static members.
+   */
+  private Parallel() {
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Static Methods">
+  /**
+   * Returns the shared fork-join pool.
+   *
+   * @return the shared pool.
+   */
+  public static ForkJoinPool pool() {
+    return Holder.POOL;
+  }
+
+  /**
+   * Returns the number of elements of each task when work is split in one
+   * task for each worker of the pool, as done when partial results are
+   * costly to merge. The grain is a multiple of the block size and not less
+   * than {@link #THRESHOLD}.
+   *
+   * @param size number of elements.
+   * @return number of elements of each task.
+   */
+  static int grain(int size) {
+    int block = ChunkedStorage.CHUNK_SIZE;
+    int grain = (size / pool().getParallelism() + block - 1) / block * block;
+    return Math.max(grain, THRESHOLD);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Holder">
+  /**
+   * Lazy holder of the pool, initialized on first access.
+   */
+  private static final class Holder {
+
+    /**
+     * The shared pool.
+     */
+    static final ForkJoinPool POOL = new ForkJoinPool();
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,136 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: ParseTask.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The {@code ParseTask} class parses a range of a character column into a
+ * numeric column of the same size, validating and converting each element in
+ * a single pass. Null elements stay null, elements that cannot be parsed are
+ * left null and their rows are returned in ascending order.
+ * <p>
+ * Large ranges are split on block boundaries of {@link ChunkedStorage} and
+ * parsed in parallel, so that each subtask writes to its own blocks. Tasks
+ * must only be forked when the target is a freshly filled heap column, whose
+ * blocks are all full; other targets must be parsed with
+ * {@link #parse(CharacterCursor, NumericCursor, int, int)}.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+final class ParseTask extends RecursiveTask<int[]> {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Source of the strings.
+   */
+  private final CharacterCursor source;
+
+  /**
+   * Target of the parsed values.
+   */
+  private final NumericCursor target;
+
+  /**
+   * First row of the range.
+   */
+  private final int from;
+
+  /**
+   * End of the range, exclusive.
+   */
+  private final int to;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code ParseTask} class.
+   *
+   * @param source source of the strings.
+   * @param target target of the parsed values.
+   * @param from first row of the range, at a block boundary.
+   * @param to end of the range, exclusive.
+   */
+  ParseTask(CharacterCursor source, NumericCursor target, int from, int to) {
+    this.source = source;
+    this.target = target;
+    this.from = from;
+    this.to = to;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Parses a range of rows sequentially.
+   *
+   * @param source source of the strings.
+   * @param target target of the parsed values.
+   * @param from first row of the range.
+   * @param to end of the range, exclusive.
+   * @return rows that could not be parsed, in ascending order.
+   */
+  static int[] parse(CharacterCursor source, NumericCursor target, int from,
+          int to) {
+    int[] failed = new int[0];
+    int number = 0;
+    for (int i = from; i < to; i++)
+    {
+      if (source.isEmpty(i)) continue;
+      try
+      {
+        target.setDouble(i, Double.parseDouble(source.getString(i)));
+      } catch (NumberFormatException e)
+      {
+        if (number == failed.length)
+          failed = Arrays.copyOf(failed, Math.max(16, number * 2));
+        failed[number++] = i;
+      }
+    }
+    return Arrays.copyOf(failed, number);
+  }
+
+  @Override
+  protected int[] compute() {
+    // split the range in halves aligned to the blocks
+    int middle = from + (to - from) / 2 / ChunkedStorage.CHUNK_SIZE
+            * ChunkedStorage.CHUNK_SIZE;
+    if (to - from <= Parallel.THRESHOLD || middle == from)
+      return parse(source, target, from, to);
+    ParseTask left = new ParseTask(source, target, from, middle);
+    left.fork();
+    int[] right = new ParseTask(source, target, middle, to).compute();
+    int[] failed = left.join();
+    // concatenate the failed rows, which are already ordered
+    int[] result = Arrays.copyOf(failed, failed.length + right.length);
+    System.arraycopy(right, 0, result, failed.length, right.length);
+    return result;
+  }
+  //</editor-fold>
+
+}
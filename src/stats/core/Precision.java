@@ -0,0 +1,68 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: Precision.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code Precision} enumeration defines the precision with which the
+ * values of {@code DataTypes.NUMERIC} columns are stored. {@code FLOAT64}
+ * columns keep {@code double} values, {@code FLOAT32} columns round them to
+ * {@code float} and take half of the memory, which is enough for values with
+ * up to six or seven significant digits. Values are always read as
+ * {@code double}, so that statistics are accumulated in double precision
+ * whatever the storage.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public enum Precision {
+
+  FLOAT32,
+  FLOAT64;
+
+  /**
+   * Returns the number of bytes taken by a value stored with the precision.
+   *
+   * @return size of a value in bytes.
+   */
+  public int bytes() {
+    return (this == FLOAT32) ? 4 : 8;
+  }
+
+  /**
+   * Checks if a value can be stored with the precision. Finite values beyond
+   * the range of {@code float} cannot be stored with {@code FLOAT32}
+   * precision, since they would be rounded to infinity.
+   *
+   * @param value the value to be checked.
+   * @return true if the value can be stored, else false.
+   */
+  public boolean fits(double value) {
+    return this == FLOAT64 || Math.abs(value) <= Float.MAX_VALUE
+            || Double.isInfinite(value) || Double.isNaN(value);
+  }
+
+}
@@ -0,0 +1,333 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: Predicate.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.HashSet;
+
+/**
+ * The {@code Predicate} class is a {@link Filter} compiled against the
+ * storages of a table. A predicate evaluates a block of consecutive rows at a
+ * time, copying the values of the block into primitive buffers and writing
+ * one bit for each row into a word buffer, so that the inner loops only read
+ * arrays of primitives. Combinations work on whole words.
+ * <p>
+ * Predicates only read the storages and keep no state between calls, so
+ * disjoint blocks can be evaluated by several threads, each one with its own
+ * buffers, see {@link FilterTask}.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+abstract class Predicate {
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Evaluates the predicate on a block of rows. Bit {@code i} of the word
+   * buffer is set if row {@code from + i} satisfies the predicate; bits
+   * beyond the length of the block are left clear.
+   *
+   * @param from first row of the block.
+   * @param length number of rows, at most {@code ChunkedStorage.CHUNK_SIZE}.
+   * @param words destination word buffer.
+   * @param values work buffer for numeric values.
+   * @param longs work buffer for integral values.
+   * @param codes work buffer for dictionary codes.
+   */
+  abstract void evaluate(int from, int length, long[] words, double[] values,
+          long[] longs, int[] codes);
+
+  /**
+   * Returns a predicate selecting the elements of a character storage equal
+   * to one of the given strings. Dictionary encoded storages are tested on
+   * the codes, plain storages on the strings.
+   *
+   * @param storage storage of the column.
+   * @param values the accepted strings.
+   * @return the predicate.
+   */
+  static Predicate in(Storage storage, String[] values) {
+    Dictionary dictionary = storage.dictionary();
+    if (dictionary == null) return new Strings(storage, values);
+    // mark the codes of the accepted strings, null is never accepted
+    boolean[] accepted = new boolean[dictionary.size()];
+    for (int i = 0; i < values.length; i++)
+    {
+      int code = dictionary.indexOf(values[i]);
+      if (code > Dictionary.NULL_CODE) accepted[code] = true;
+    }
+    return new Codes(storage, accepted);
+  }
+
+  /**
+   * Returns the number of words holding the bits of a block.
+   *
+   * @param length number of rows of the block.
+   * @return number of words.
+   */
+  static int words(int length) {
+    return (length + Bitmap.WORD_SIZE - 1) / Bitmap.WORD_SIZE;
+  }
+
+  /**
+   * Clears the bits of the last word beyond the length of the block.
+   *
+   * @param words word buffer of the block.
+   * @param length number of rows of the block.
+   */
+  static void clearTail(long[] words, int length) {
+    if (length % Bitmap.WORD_SIZE != 0)
+      words[length / Bitmap.WORD_SIZE] &= (1L << length) - 1;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Predicates">
+  /**
+   * Range of values of a numeric storage, bounds inclusive.
+   */
+  static final class Range extends Predicate {
+
+    private final Storage storage;
+
+    private final double min;
+
+    private final double max;
+
+    Range(Storage storage, double min, double max) {
+      this.storage = storage;
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    void evaluate(int from, int length, long[] words, double[] values,
+            long[] longs, int[] codes) {
+      storage.getDoubles(from, values, 0, length);
+      storage.getValidity(from, words, length);
+      for (int w = 0; w < words(length); w++)
+      {
+        int base = w * Bitmap.WORD_SIZE;
+        int end = Math.min(Bitmap.WORD_SIZE, length - base);
+        long bits = 0L;
+        for (int j = 0; j < end; j++)
+        {
+          double value = values[base + j];
+          if (value >= min && value <= max) bits |= 1L << j;
+        }
+        words[w] &= bits;
+      }
+    }
+  }
+
+  /**
+   * Range of values of an integral storage, bounds inclusive. Values are
+   * compared as {@code long}, so that large values, such as date-times, keep
+   * full precision.
+   */
+  static final class LongRange extends Predicate {
+
+    private final Storage storage;
+
+    private final long min;
+
+    private final long max;
+
+    LongRange(Storage storage, long min, long max) {
+      this.storage = storage;
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    void evaluate(int from, int length, long[] words, double[] values,
+            long[] longs, int[] codes) {
+      storage.getLongs(from, longs, 0, length);
+      storage.getValidity(from, words, length);
+      for (int w = 0; w < words(length); w++)
+      {
+        int base = w * Bitmap.WORD_SIZE;
+        int end = Math.min(Bitmap.WORD_SIZE, length - base);
+        long bits = 0L;
+        for (int j = 0; j < end; j++)
+        {
+          long value = longs[base + j];
+          if (value >= min && value <= max) bits |= 1L << j;
+        }
+        words[w] &= bits;
+      }
+    }
+  }
+
+  /**
+   * Accepted codes of a dictionary encoded storage.
+   */
+  static final class Codes extends Predicate {
+
+    private final Storage storage;
+
+    private final boolean[] accepted;
+
+    Codes(Storage storage, boolean[] accepted) {
+      this.storage = storage;
+      this.accepted = accepted;
+    }
+
+    @Override
+    void evaluate(int from, int length, long[] words, double[] values,
+            long[] longs, int[] codes) {
+      storage.getCodes(from, codes, 0, length);
+      for (int w = 0; w < words(length); w++)
+      {
+        int base = w * Bitmap.WORD_SIZE;
+        int end = Math.min(Bitmap.WORD_SIZE, length - base);
+        long bits = 0L;
+        for (int j = 0; j < end; j++)
+        {
+          // codes added after compilation are never accepted
+          int code = codes[base + j];
+          if (code < accepted.length && accepted[code]) bits |= 1L << j;
+        }
+        words[w] = bits;
+      }
+    }
+  }
+
+  /**
+   * Accepted strings of a plain storage.
+   */
+  static final class Strings extends Predicate {
+
+    private final Storage storage;
+
+    private final HashSet<String> accepted;
+
+    Strings(Storage storage, String[] values) {
+      this.storage = storage;
+      accepted = new HashSet<>();
+      for (int i = 0; i < values.length; i++)
+        if (values[i] != null && !values[i].equals(Character.NULL))
+          accepted.add(values[i]);
+    }
+
+    @Override
+    void evaluate(int from, int length, long[] words, double[] values,
+            long[] longs, int[] codes) {
+      for (int w = 0; w < words(length); w++)
+      {
+        int base = w * Bitmap.WORD_SIZE;
+        int end = Math.min(Bitmap.WORD_SIZE, length - base);
+        long bits = 0L;
+        for (int j = 0; j < end; j++)
+          if (accepted.contains(storage.getString(from + base + j)))
+            bits |= 1L << j;
+        words[w] = bits;
+      }
+    }
+  }
+
+  /**
+   * Null test of a storage.
+   */
+  static final class Null extends Predicate {
+
+    private final Storage storage;
+
+    private final boolean empty;
+
+    Null(Storage storage, boolean empty) {
+      this.storage = storage;
+      this.empty = empty;
+    }
+
+    @Override
+    void evaluate(int from, int length, long[] words, double[] values,
+            long[] longs, int[] codes) {
+      storage.getValidity(from, words, length);
+      if (!empty) return;
+      for (int w = 0; w < words(length); w++)
+        words[w] = ~words[w];
+      clearTail(words, length);
+    }
+  }
+
+  /**
+   * Conjunction or disjunction of predicates, evaluated on whole words. The
+   * evaluation stops as soon as the result of the block is known.
+   */
+  static final class Combination extends Predicate {
+
+    private final Predicate[] predicates;
+
+    private final boolean and;
+
+    Combination(Predicate[] predicates, boolean and) {
+      this.predicates = predicates;
+      this.and = and;
+    }
+
+    @Override
+    void evaluate(int from, int length, long[] words, double[] values,
+            long[] longs, int[] codes) {
+      int number = words(length);
+      predicates[0].evaluate(from, length, words, values, longs, codes);
+      long[] other = new long[number];
+      for (int p = 1; p < predicates.length; p++)
+      {
+        // check if the result is already decided
+        boolean decided = true;
+        for (int w = 0; w < number && decided; w++)
+          decided = and ? words[w] == 0L : words[w] == -1L;
+        if (decided && (and || length % Bitmap.WORD_SIZE == 0)) return;
+        predicates[p].evaluate(from, length, other, values, longs, codes);
+        for (int w = 0; w < number; w++)
+          words[w] = and ? words[w] & other[w] : words[w] | other[w];
+      }
+    }
+  }
+
+  /**
+   * Negation of a predicate.
+   */
+  static final class Not extends Predicate {
+
+    private final Predicate predicate;
+
+    Not(Predicate predicate) {
+      this.predicate = predicate;
+    }
+
+    @Override
+    void evaluate(int from, int length, long[] words, double[] values,
+            long[] longs, int[] codes) {
+      predicate.evaluate(from, length, words, values, longs, codes);
+      for (int w = 0; w < words(length); w++)
+        words[w] = ~words[w];
+      clearTail(words, length);
+    }
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,208 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: RowComparator.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * The {@code RowComparator} class compares rows of a table on a list of
+ * {@link SortKey} objects. Keys are extracted once into primitive arrays, so
+ * that comparisons never create {@code Data} objects: numeric columns are
+ * copied as {@code double} values with their validity words, integer,
+ * boolean and date-time columns as {@code long} values, so that large values
+ * keep full precision, with their validity words, character
+ * columns are replaced by the rank of each string among the distinct strings
+ * of the column. Ranks of dictionary encoded columns are computed sorting the
+ * dictionary only, then read through the element codes.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+final class RowComparator {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Values of the {@code NUMERIC} keys, null for other keys.
+   */
+  private final double[][] values;
+
+  /**
+   * Values of the integral keys, null for other keys.
+   */
+  private final long[][] longs;
+
+  /**
+   * Validity words of the numeric keys, null for character keys.
+   */
+  private final long[][] validity;
+
+  /**
+   * Ranks of the character keys, -1 for null elements, null for numeric keys.
+   */
+  private final int[][] ranks;
+
+  /**
+   * Direction of each key.
+   */
+  private final boolean[] ascending;
+
+  /**
+   * Position of null elements of each key.
+   */
+  private final boolean[] nullsFirst;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code RowComparator} class, extracting the keys from
+   * the given columns, one for each sort key.
+   *
+   * @param columns the sorted columns, with the same size.
+   * @param keys the sort keys.
+   */
+  RowComparator(Array[] columns, SortKey[] keys) {
+    values = new double[keys.length][];
+    longs = new long[keys.length][];
+    validity = new long[keys.length][];
+    ranks = new int[keys.length][];
+    ascending = new boolean[keys.length];
+    nullsFirst = new boolean[keys.length];
+    for (int k = 0; k < keys.length; k++)
+    {
+      Array column = columns[k];
+      int size = column.size();
+      ascending[k] = keys[k].isAscending();
+      nullsFirst[k] = keys[k].isNullsFirst();
+      if (column.type() == DataTypes.NUMERIC)
+      {
+        values[k] = new double[size];
+        validity[k] = new long[(size + Bitmap.WORD_SIZE - 1)
+                / Bitmap.WORD_SIZE];
+        column.getDoubles(0, values[k], 0, size);
+        column.getValidity(0, validity[k], size);
+      } else if (column.type().isNumeric())
+      {
+        longs[k] = new long[size];
+        validity[k] = new long[(size + Bitmap.WORD_SIZE - 1)
+                / Bitmap.WORD_SIZE];
+        column.getLongs(0, longs[k], 0, size);
+        column.getValidity(0, validity[k], size);
+      } else ranks[k] = rank(column);
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Compares two rows on all keys.
+   *
+   * @param row1 the first row.
+   * @param row2 the second row.
+   * @return a negative value, zero or a positive value if the first row comes
+   * before, together with or after the second row.
+   */
+  int compare(int row1, int row2) {
+    for (int k = 0; k < ascending.length; k++)
+    {
+      boolean null1, null2;
+      if (ranks[k] == null)
+      {
+        null1 = (validity[k][row1 >>> 6] & (1L << row1)) == 0L;
+        null2 = (validity[k][row2 >>> 6] & (1L << row2)) == 0L;
+      } else
+      {
+        null1 = ranks[k][row1] < 0;
+        null2 = ranks[k][row2] < 0;
+      }
+      // nulls are placed regardless of the direction
+      if (null1 || null2)
+      {
+        if (null1 && null2) continue;
+        return (null1 == nullsFirst[k]) ? -1 : 1;
+      }
+      int result = (values[k] != null)
+              ? Double.compare(values[k][row1], values[k][row2])
+              : (longs[k] != null)
+              ? Long.compare(longs[k][row1], longs[k][row2])
+              : Integer.compare(ranks[k][row1], ranks[k][row2]);
+      if (result != 0) return ascending[k] ? result : -result;
+    }
+    return 0;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Returns the rank of each element of a character column among the
+   * distinct strings of the column, -1 for null elements.
+   *
+   * @param column a character column.
+   * @return rank of each element.
+   */
+  private static int[] rank(Array column) {
+    Storage storage = column.storage();
+    int size = column.size();
+    int[] ranks = new int[size];
+    if (size == 0) return ranks;
+    final Dictionary dictionary = storage.dictionary();
+    if (dictionary != null)
+    {
+      // sort the codes of the dictionary and read ranks through the codes
+      Integer[] codes = new Integer[dictionary.size()];
+      for (int c = 0; c < codes.length; c++)
+        codes[c] = c;
+      Arrays.sort(codes, new Comparator<Integer>() {
+        @Override
+        public int compare(Integer code1, Integer code2) {
+          return dictionary.get(code1).compareTo(dictionary.get(code2));
+        }
+      });
+      int[] rankOf = new int[codes.length];
+      for (int r = 0; r < codes.length; r++)
+        rankOf[codes[r]] = r;
+      for (int i = 0; i < size; i++)
+        ranks[i] = storage.isEmpty(i) ? -1 : rankOf[storage.getCode(i)];
+      return ranks;
+    }
+    // collect the distinct strings, then sort them
+    HashMap<String, Integer> distinct = new HashMap<>();
+    for (int i = 0; i < size; i++)
+      if (!storage.isEmpty(i)) distinct.put(storage.getString(i), 0);
+    String[] strings = distinct.keySet().toArray(new String[distinct.size()]);
+    Arrays.sort(strings);
+    for (int r = 0; r < strings.length; r++)
+      distinct.put(strings[r], r);
+    for (int i = 0; i < size; i++)
+      ranks[i] = storage.isEmpty(i) ? -1
+              : distinct.get(storage.getString(i));
+    return ranks;
+  }
+  //</editor-fold>
+
+}
@@ -386,6 +386,29 @@ public class SelectionGroup {
     return true;
   }
 
+  /**
+   * Adds the rows whose bit is set in the given {@code Bitmap}, such as the
+   * result of {@link Table#filter(Filter)}. Rows already in the group are
+   * skipped.
+   *
+   * @param rows bitmap of the rows to be inserted in the group.
+   * @return number of rows added to the group.
+   */
+  public int addIndexes(Bitmap rows) {
+    // mark the elements already in the group
+    Bitmap present = new Bitmap(rows.size());
+    for (int i = 0; i < elements.size(); i++)
+      if (elements.get(i) < rows.size()) present.set(elements.get(i));
+    int added = 0;
+    for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1))
+      if (!present.get(i))
+      {
+        elements.add(i);
+        added++;
+      }
+    return added;
+  }
+
   /**
    * Removes an element from the selection group. The element is commonly the
    * row
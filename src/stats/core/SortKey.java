@@ -0,0 +1,128 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: SortKey.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code SortKey} class describes one key of a table sort: the column,
+ * the direction and the position of null elements, which is independent of
+ * the direction. Several keys are compared in order, each one breaking the
+ * ties of the previous ones.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public final class SortKey {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Index of the sorted column.
+   */
+  private final int column;
+
+  /**
+   * Tells if the column is sorted in ascending order.
+   */
+  private final boolean ascending;
+
+  /**
+   * Tells if null elements come before the valid ones.
+   */
+  private final boolean nullsFirst;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code SortKey} class sorting a column in ascending
+   * order, with null elements last.
+   *
+   * @param column index of the column.
+   */
+  public SortKey(int column) {
+    this(column, true, false);
+  }
+
+  /**
+   * Constructor for {@code SortKey} class sorting a column in the given
+   * direction, with null elements last.
+   *
+   * @param column index of the column.
+   * @param ascending true for ascending order, false for descending.
+   */
+  public SortKey(int column, boolean ascending) {
+    this(column, ascending, false);
+  }
+
+  /**
+   * Constructor for {@code SortKey} class.
+   *
+   * @param column index of the column.
+   * @param ascending true for ascending order, false for descending.
+   * @param nullsFirst true if null elements come first, false if last.
+   */
+  public SortKey(int column, boolean ascending, boolean nullsFirst) {
+    this.column = column;
+    this.ascending = ascending;
+    this.nullsFirst = nullsFirst;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the index of the sorted column.
+   *
+   * @return index of the column.
+   */
+  public int column() {
+    return column;
+  }
+
+  /**
+   * Checks if the column is sorted in ascending order.
+   *
+   * @return true if ascending, false if descending.
+   */
+  public boolean isAscending() {
+    return ascending;
+  }
+
+  /**
+   * Checks if null elements come before the valid ones.
+   *
+   * @return true if nulls first, false if nulls last.
+   */
+  public boolean isNullsFirst() {
+    return nullsFirst;
+  }
+
+  @Override
+  public String toString() {
+    return "col=" + column + (ascending ? " asc" : " desc")
+            + (nullsFirst ? " nulls first" : " nulls last");
+  }
+  //</editor-fold>
+
+}
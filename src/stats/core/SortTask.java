@@ -0,0 +1,172 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: SortTask.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code SortTask} class sorts a range of row indexes with a stable merge
+ * sort driven by a {@link RowComparator}. Large ranges are split in halves
+ * sorted in parallel, then merged; small ranges are sorted sequentially with
+ * {@link #sort(RowComparator, int[], int[], int, int)}. Rows comparing equal
+ * keep their original order.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+final class SortTask extends RecursiveAction {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Number of rows below which insertion sort is used.
+   */
+  private static final int INSERTION_THRESHOLD = 32;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Comparator of the rows.
+   */
+  private final RowComparator comparator;
+
+  /**
+   * Row indexes to be sorted.
+   */
+  private final int[] rows;
+
+  /**
+   * Work buffer with the same length of the rows.
+   */
+  private final int[] buffer;
+
+  /**
+   * First position of the range.
+   */
+  private final int from;
+
+  /**
+   * End of the range, exclusive.
+   */
+  private final int to;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code SortTask} class.
+   *
+   * @param comparator comparator of the rows.
+   * @param rows row indexes to be sorted.
+   * @param buffer work buffer with the same length of the rows.
+   * @param from first position of the range.
+   * @param to end of the range, exclusive.
+   */
+  SortTask(RowComparator comparator, int[] rows, int[] buffer, int from,
+          int to) {
+    this.comparator = comparator;
+    this.rows = rows;
+    this.buffer = buffer;
+    this.from = from;
+    this.to = to;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Sorts a range of row indexes sequentially.
+   *
+   * @param comparator comparator of the rows.
+   * @param rows row indexes to be sorted.
+   * @param buffer work buffer with the same length of the rows.
+   * @param from first position of the range.
+   * @param to end of the range, exclusive.
+   */
+  static void sort(RowComparator comparator, int[] rows, int[] buffer,
+          int from, int to) {
+    if (to - from <= INSERTION_THRESHOLD)
+    {
+      for (int i = from + 1; i < to; i++)
+      {
+        int row = rows[i];
+        int j = i - 1;
+        while (j >= from && comparator.compare(rows[j], row) > 0)
+        {
+          rows[j + 1] = rows[j];
+          j--;
+        }
+        rows[j + 1] = row;
+      }
+      return;
+    }
+    int middle = (from + to) >>> 1;
+    sort(comparator, rows, buffer, from, middle);
+    sort(comparator, rows, buffer, middle, to);
+    merge(comparator, rows, buffer, from, middle, to);
+  }
+
+  @Override
+  protected void compute() {
+    if (to - from <= Parallel.THRESHOLD)
+    {
+      sort(comparator, rows, buffer, from, to);
+      return;
+    }
+    int middle = (from + to) >>> 1;
+    invokeAll(new SortTask(comparator, rows, buffer, from, middle),
+            new SortTask(comparator, rows, buffer, middle, to));
+    merge(comparator, rows, buffer, from, middle, to);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Merges two adjacent sorted ranges, taking rows from the first range on
+   * ties so that the sort is stable.
+   *
+   * @param comparator comparator of the rows.
+   * @param rows row indexes being sorted.
+   * @param buffer work buffer with the same length of the rows.
+   * @param from first position of the first range.
+   * @param middle first position of the second range.
+   * @param to end of the second range, exclusive.
+   */
+  private static void merge(RowComparator comparator, int[] rows,
+          int[] buffer, int from, int middle, int to) {
+    // skip the merge if the ranges are already in order
+    if (comparator.compare(rows[middle - 1], rows[middle]) <= 0) return;
+    System.arraycopy(rows, from, buffer, from, to - from);
+    int i = from, j = middle, k = from;
+    while (i < middle && j < to)
+      rows[k++] = (comparator.compare(buffer[j], buffer[i]) < 0)
+              ? buffer[j++] : buffer[i++];
+    while (i < middle)
+      rows[k++] = buffer[i++];
+    while (j < to)
+      rows[k++] = buffer[j++];
+  }
+  //</editor-fold>
+
+}
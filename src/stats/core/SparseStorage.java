@@ -0,0 +1,583 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: SparseStorage.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.Arrays;
+
+/**
+ * The {@code SparseStorage} class stores the elements of a mostly null
+ * column, of any data type. Only valid elements are kept: their positions in
+ * a sorted {@code int} array and their values, in the same order, in a dense
+ * storage of the column data type. Null elements take no memory, so a column
+ * whose density is below {@link #SPARSE_DENSITY} takes a fraction of the
+ * memory of a dense one, and scans can iterate the valid elements only.
+ * <p>
+ * Random access takes a binary search over the positions. Replacing a null
+ * element, or inserting and removing elements, shifts the positions that
+ * follow, so that the storage is meant to be switched back to a dense one as
+ * soon as its density exceeds {@link #DENSE_DENSITY}. Switching is done by
+ * the owning {@link Array}, see {@link #fits(int, int)} and
+ * {@link #isDense()}.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+class SparseStorage extends Storage {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Minimum number of elements of a sparse storage, shorter columns are
+   * always dense.
+   */
+  static final int MIN_SIZE = ChunkedStorage.CHUNK_SIZE;
+
+  /**
+   * Density of valid elements below which a dense storage is made sparse.
+   */
+  static final double SPARSE_DENSITY = 1.0 / 32;
+
+  /**
+   * Density of valid elements above which a sparse storage is made dense,
+   * higher than {@code SPARSE_DENSITY} so that storages do not switch back
+   * and forth.
+   */
+  static final double DENSE_DENSITY = 1.0 / 8;
+
+  /**
+   * Initial capacity of the position array.
+   */
+  private static final int DEFAULT_CAPACITY = 16;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Sorted positions of the valid elements, only the first {@code entries}
+   * are meaningful.
+   */
+  private int[] positions;
+
+  /**
+   * Number of valid elements.
+   */
+  private int entries;
+
+  /**
+   * Values of the valid elements, in the order of their positions.
+   */
+  private Storage values;
+
+  /**
+   * Storage holding a single null element, read in place of missing ones.
+   */
+  private final Storage empty;
+
+  /**
+   * Null element of the data type, used to create new entries.
+   */
+  private final Data nullElement;
+
+  /**
+   * Number of elements currently stored.
+   */
+  private int size;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code SparseStorage} class holding no element, whose
+   * values are stored in the given empty storage.
+   *
+   * @param values empty storage of the values.
+   */
+  private SparseStorage(Storage values) {
+    this.values = values;
+    nullElement = Array.nullElement(values.type());
+    empty = create(values.type(), values.precision());
+    empty.add(nullElement, 1);
+    positions = new int[DEFAULT_CAPACITY];
+    entries = 0;
+    size = 0;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Static Methods">
+  /**
+   * Checks if a dense storage is long and sparse enough to be replaced by a
+   * {@code SparseStorage}.
+   *
+   * @param size number of elements of the storage.
+   * @param valid number of valid elements of the storage.
+   * @return true if the storage should be made sparse, else false.
+   */
+  static boolean fits(int size, int valid) {
+    if (size < MIN_SIZE) return false;
+    return valid < size * SPARSE_DENSITY;
+  }
+
+  /**
+   * Returns a new {@code SparseStorage} holding the elements of a dense
+   * storage. Character values share the dictionary of the storage, if any.
+   *
+   * @param storage a dense storage.
+   * @return a sparse copy of the storage.
+   */
+  static SparseStorage of(Storage storage) {
+    SparseStorage sparse = new SparseStorage(newValues(storage));
+    int size = storage.size();
+    long[] words = new long[ChunkedStorage.CHUNK_SIZE / Bitmap.WORD_SIZE];
+    for (int i = 0; i < size; i += ChunkedStorage.CHUNK_SIZE)
+    {
+      int length = Math.min(ChunkedStorage.CHUNK_SIZE, size - i);
+      storage.getValidity(i, words, length);
+      for (int w = 0; w * Bitmap.WORD_SIZE < length; w++)
+        for (long word = words[w]; word != 0L; word &= word - 1)
+        {
+          int row = i + w * Bitmap.WORD_SIZE + Long.numberOfTrailingZeros(word);
+          sparse.ensureCapacity(sparse.entries + 1);
+          sparse.positions[sparse.entries++] = row;
+          sparse.values.add(storage.get(row), 1);
+        }
+    }
+    sparse.size = size;
+    return sparse;
+  }
+
+  /**
+   * Returns a new empty storage for the values of the given one, with the
+   * same data type and precision, sharing its dictionary if encoded.
+   *
+   * @param storage a storage.
+   * @return an empty storage for the same values.
+   */
+  private static Storage newValues(Storage storage) {
+    Dictionary dictionary = storage.dictionary();
+    if (dictionary != null)
+      return new ChunkedStorage(new CharacterStorage(dictionary));
+    return create(storage.type(), storage.precision());
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  @Override
+  DataTypes type() {
+    return values.type();
+  }
+
+  @Override
+  Precision precision() {
+    return values.precision();
+  }
+
+  @Override
+  int size() {
+    return size;
+  }
+
+  @Override
+  boolean isEmpty(int index) {
+    return search(index) < 0;
+  }
+
+  @Override
+  int countEmpty() {
+    return size - entries;
+  }
+
+  @Override
+  void getValidity(int index, long[] buffer, int length) {
+    Arrays.fill(buffer, 0, (length + Bitmap.WORD_SIZE - 1) >>> 6, 0L);
+    for (int e = first(index); e < entries && positions[e] < index + length;
+            e++)
+    {
+      int bit = positions[e] - index;
+      buffer[bit >>> 6] |= 1L << bit;
+    }
+  }
+
+  @Override
+  Data get(int index) {
+    int e = search(index);
+    return (e < 0) ? empty.get(0) : values.get(e);
+  }
+
+  @Override
+  double getDouble(int index) {
+    int e = search(index);
+    return (e < 0) ? empty.getDouble(0) : values.getDouble(e);
+  }
+
+  @Override
+  void getDoubles(int index, double[] buffer, int offset, int length) {
+    Arrays.fill(buffer, offset, offset + length, empty.getDouble(0));
+    for (int e = first(index); e < entries && positions[e] < index + length;
+            e++)
+      buffer[offset + positions[e] - index] = values.getDouble(e);
+  }
+
+  @Override
+  long getLong(int index) {
+    int e = search(index);
+    return (e < 0) ? empty.getLong(0) : values.getLong(e);
+  }
+
+  @Override
+  void getLongs(int index, long[] buffer, int offset, int length) {
+    Arrays.fill(buffer, offset, offset + length, empty.getLong(0));
+    for (int e = first(index); e < entries && positions[e] < index + length;
+            e++)
+      buffer[offset + positions[e] - index] = values.getLong(e);
+  }
+
+  @Override
+  String getString(int index) {
+    int e = search(index);
+    return (e < 0) ? empty.getString(0) : values.getString(e);
+  }
+
+  @Override
+  Dictionary dictionary() {
+    return values.dictionary();
+  }
+
+  @Override
+  int getCode(int index) {
+    if (dictionary() == null) return super.getCode(index);
+    int e = search(index);
+    return (e < 0) ? Dictionary.NULL_CODE : values.getCode(e);
+  }
+
+  @Override
+  void getCodes(int index, int[] buffer, int offset, int length) {
+    if (dictionary() == null)
+    {
+      super.getCodes(index, buffer, offset, length);
+      return;
+    }
+    Arrays.fill(buffer, offset, offset + length, Dictionary.NULL_CODE);
+    for (int e = first(index); e < entries && positions[e] < index + length;
+            e++)
+      buffer[offset + positions[e] - index] = values.getCode(e);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  @Override
+  void set(int index, Data data) {
+    if (data.isEmpty()) empty(index);
+    else values.set(entry(index), data);
+  }
+
+  @Override
+  boolean set(int index, String data) {
+    // check if the data is empty and remove the element
+    if (data == null || data.isEmpty())
+    {
+      empty(index);
+      return true;
+    }
+    // parse the string in a new or existing entry
+    boolean created = search(index) < 0;
+    int e = entry(index);
+    boolean parsed = values.set(e, data);
+    if ((!parsed && created) || values.isEmpty(e)) removeEntry(e);
+    return parsed;
+  }
+
+  @Override
+  void setDouble(int index, double value) {
+    values.setDouble(entry(index), value);
+  }
+
+  @Override
+  void setLong(int index, long value) {
+    values.setLong(entry(index), value);
+  }
+
+  @Override
+  void empty(int index) {
+    int e = search(index);
+    if (e >= 0) removeEntry(e);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  @Override
+  void add(Data data, int number) {
+    this.insert(size, data, number);
+  }
+
+  @Override
+  void insert(int index, Data data, int number) {
+    int e = first(index);
+    for (int i = e; i < entries; i++)
+      positions[i] += number;
+    if (!data.isEmpty())
+    {
+      ensureCapacity(entries + number);
+      System.arraycopy(positions, e, positions, e + number, entries - e);
+      for (int i = 0; i < number; i++)
+        positions[e + i] = index + i;
+      entries += number;
+      values.insert(e, data, number);
+    }
+    size += number;
+  }
+
+  @Override
+  void insert(int[] indexes, Data data, int number) {
+    if (!data.isEmpty())
+    {
+      super.insert(indexes, data, number);
+      return;
+    }
+    // shift each position by the null elements inserted before it
+    int k = 0;
+    for (int e = 0; e < entries; e++)
+    {
+      while (k < indexes.length && indexes[k] <= positions[e])
+        k++;
+      positions[e] += k * number;
+    }
+    size += indexes.length * number;
+  }
+
+  @Override
+  void insert(Bitmap rows, Storage values) {
+    // merge the shifted entries with the inserted valid elements
+    Storage merged = newValues(this.values);
+    int[] shifted = new int[entries + rows.cardinality()];
+    int count = 0;
+    int e = 0;
+    int value = 0;
+    for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1))
+    {
+      for (; e < entries && positions[e] + value < i; e++)
+      {
+        shifted[count++] = positions[e] + value;
+        merged.add(this.values.get(e), 1);
+      }
+      if (!values.isEmpty(value))
+      {
+        shifted[count++] = i;
+        merged.add(values.get(value), 1);
+      }
+      value++;
+    }
+    for (; e < entries; e++)
+    {
+      shifted[count++] = positions[e] + value;
+      merged.add(this.values.get(e), 1);
+    }
+    this.values = merged;
+    positions = (count == 0) ? new int[DEFAULT_CAPACITY] : shifted;
+    entries = count;
+    size += value;
+  }
+
+  @Override
+  void remove(int index, int number) {
+    int from = first(index);
+    int to = first(index + number);
+    if (to > from)
+    {
+      System.arraycopy(positions, to, positions, from, entries - to);
+      entries -= to - from;
+      values.remove(from, to - from);
+    }
+    for (int i = from; i < entries; i++)
+      positions[i] -= number;
+    size -= number;
+  }
+
+  @Override
+  void remove(Bitmap rows) {
+    // drop the removed entries and shift the others in a single pass
+    Bitmap removed = new Bitmap(entries);
+    int count = 0;
+    int before = 0;
+    int previous = 0;
+    for (int e = 0; e < entries; e++)
+    {
+      int row = positions[e];
+      before += rows.cardinality(previous, row);
+      previous = row;
+      if (rows.get(row)) removed.set(e);
+      else positions[count++] = row - before;
+    }
+    if (count < entries) values.remove(removed);
+    entries = count;
+    size -= rows.cardinality();
+  }
+
+  @Override
+  void swap(int index1, int index2) {
+    int e1 = search(index1);
+    int e2 = search(index2);
+    if (e1 >= 0 && e2 >= 0) values.swap(e1, e2);
+    else if (e1 >= 0) move(e1, index2);
+    else if (e2 >= 0) move(e2, index1);
+  }
+
+  @Override
+  void clear() {
+    positions = new int[DEFAULT_CAPACITY];
+    entries = 0;
+    values.clear();
+    size = 0;
+  }
+
+  @Override
+  Storage snapshot() {
+    SparseStorage copy = new SparseStorage(values.snapshot());
+    copy.positions = Arrays.copyOf(positions,
+            Math.max(entries, DEFAULT_CAPACITY));
+    copy.entries = entries;
+    copy.size = size;
+    return copy;
+  }
+
+  /**
+   * Checks if the density of valid elements is high enough, or the storage
+   * short enough, that it should be replaced by a dense storage.
+   *
+   * @return true if the storage should be made dense, else false.
+   */
+  boolean isDense() {
+    return size < MIN_SIZE || entries > size * DENSE_DENSITY;
+  }
+
+  /**
+   * Returns a new dense storage holding the elements of the
+   * {@code SparseStorage}. Character values share the dictionary of the
+   * storage, if any.
+   *
+   * @return a dense copy of the storage.
+   */
+  Storage toDense() {
+    Storage dense = newValues(values);
+    dense.add(nullElement, size);
+    DataTypes type = type();
+    for (int e = 0; e < entries; e++)
+      if (type == DataTypes.NUMERIC)
+        dense.setDouble(positions[e], values.getDouble(e));
+      else if (type.isNumeric())
+        dense.setLong(positions[e], values.getLong(e));
+      else dense.set(positions[e], values.get(e));
+    return dense;
+  }
+
+  /**
+   * Returns the storage of the valid elements, in the order of their
+   * positions, so that scans can skip null elements altogether.
+   *
+   * @return the values of the valid elements.
+   */
+  Storage values() {
+    return values;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Returns the entry of the element at the given position, or a negative
+   * value {@code -(insertion point) - 1} if the element is null.
+   *
+   * @param index position of the element.
+   * @return the entry of the element, or a negative value.
+   */
+  private int search(int index) {
+    return Arrays.binarySearch(positions, 0, entries, index);
+  }
+
+  /**
+   * Returns the first entry whose position is not lower than the given one.
+   *
+   * @param index a position.
+   * @return the first entry at or after the position.
+   */
+  private int first(int index) {
+    int e = search(index);
+    return (e < 0) ? -e - 1 : e;
+  }
+
+  /**
+   * Returns the entry of the element at the given position, creating a null
+   * entry if the element is null, to be replaced by the caller.
+   *
+   * @param index position of the element.
+   * @return the entry of the element.
+   */
+  private int entry(int index) {
+    int e = search(index);
+    if (e >= 0) return e;
+    e = -e - 1;
+    ensureCapacity(entries + 1);
+    System.arraycopy(positions, e, positions, e + 1, entries - e);
+    positions[e] = index;
+    entries++;
+    values.insert(e, nullElement, 1);
+    return e;
+  }
+
+  /**
+   * Removes an entry, making its element null.
+   *
+   * @param e the entry to be removed.
+   */
+  private void removeEntry(int e) {
+    System.arraycopy(positions, e + 1, positions, e, entries - e - 1);
+    entries--;
+    values.remove(e, 1);
+  }
+
+  /**
+   * Moves the value of an entry to a null element at another position.
+   *
+   * @param e the entry to be moved.
+   * @param index position of the null element.
+   */
+  private void move(int e, int index) {
+    Data data = values.get(e);
+    removeEntry(e);
+    values.set(entry(index), data);
+  }
+
+  /**
+   * Grows the position array, if needed, so that it can hold at least the
+   * given number of entries.
+   *
+   * @param capacity minimum required capacity.
+   */
+  private void ensureCapacity(int capacity) {
+    if (capacity <= positions.length) return;
+    int newCapacity = Math.max(capacity,
+            positions.length + (positions.length >> 1));
+    positions = Arrays.copyOf(positions, newCapacity);
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,482 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: Storage.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code Storage} class is the common interface for the physical layout
+ * of the elements of an {@code Array} object. Each data type has its own
+ * subclass, so that values can be kept in primitive arrays instead of one
+ * {@code Data} object per element; {@code Data} objects are only created when
+ * an element is requested through {@link #get(int)}.
+ * <p>
+ * Index and type validation is done by the owning {@code Array}, so
+ * subclasses can assume that every argument is valid.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+abstract class Storage {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Methods">
+  /**
+   * Returns an empty {@code Storage} object suitable for the given data type.
+   * When implementing new data types, this method must be modified.
+   *
+   * @param type the data type of the elements to be stored.
+   * @return an empty storage for the data type.
+   */
+  static Storage create(DataTypes type) {
+    switch (type)
+    {
+      case NUMERIC:
+        return new ChunkedStorage(new NumericStorage());
+      case INTEGER:
+        return new ChunkedStorage(new IntegerStorage());
+      case LONG:
+      case DATETIME:
+        return new ChunkedStorage(new LongStorage(type));
+      case BOOLEAN:
+        return new ChunkedStorage(new BooleanStorage());
+      case CHARACTER:
+      case UNDEFINED:
+      default:
+        return new ChunkedStorage(new CharacterStorage());
+    }
+  }
+
+  /**
+   * Returns an empty {@code Storage} object suitable for the given data type
+   * and precision. The precision only applies to {@code DataTypes.NUMERIC}
+   * elements and is ignored for other data types.
+   *
+   * @param type the data type of the elements to be stored.
+   * @param precision the precision of numeric values.
+   * @return an empty storage for the data type.
+   */
+  static Storage create(DataTypes type, Precision precision) {
+    if (type == DataTypes.NUMERIC && precision == Precision.FLOAT32)
+      return new ChunkedStorage(new FloatStorage());
+    return create(type);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the data type of the elements held by the {@code Storage}.
+   *
+   * @return the data type of the elements.
+   */
+  abstract DataTypes type();
+
+  /**
+   * Returns the precision with which numeric values are stored. Storages
+   * holding {@code float} values must override this method.
+   *
+   * @return the precision of the values, {@code Precision.FLOAT64} by
+   * default.
+   */
+  Precision precision() {
+    return Precision.FLOAT64;
+  }
+
+  /**
+   * Returns the number of elements held by the {@code Storage}.
+   *
+   * @return number of elements.
+   */
+  abstract int size();
+
+  /**
+   * Checks if the element at the given position is null value.
+   *
+   * @param index position of the element.
+   * @return true if null, else false.
+   */
+  abstract boolean isEmpty(int index);
+
+  /**
+   * Returns the number of null elements. Subclasses should override this
+   * method if null elements are counted while storing.
+   *
+   * @return number of null elements.
+   */
+  int countEmpty() {
+    int count = 0;
+    for (int i = 0; i < size(); i++)
+      if (isEmpty(i)) count++;
+    return count;
+  }
+
+  /**
+   * Copies the validity of a range of elements into a word buffer, with the
+   * same layout of {@link Bitmap#getWords(int, long[], int)}: a bit is set if
+   * the element is not null. Subclasses should override this method if a
+   * validity bitmap is stored.
+   *
+   * @param index position of the first element.
+   * @param buffer destination buffer.
+   * @param length number of elements.
+   */
+  void getValidity(int index, long[] buffer, int length) {
+    for (int i = 0; i < (length + Bitmap.WORD_SIZE - 1) / Bitmap.WORD_SIZE; i++)
+      buffer[i] = 0L;
+    for (int i = 0; i < length; i++)
+      if (!isEmpty(index + i)) buffer[i >>> 6] |= 1L << i;
+  }
+
+  /**
+   * Returns a new {@code Data} object holding the element at the given
+   * position. Changes to the returned object are not reflected in the
+   * {@code Storage}.
+   *
+   * @param index position of the element.
+   * @return a {@code Data} copy of the element.
+   */
+  abstract Data get(int index);
+
+  /**
+   * Returns the element at the given position as {@code double}. Only
+   * numeric storages implement this method.
+   *
+   * @param index position of the element.
+   * @return the value of the element.
+   * @throws UnsupportedOperationException if the storage is not numeric.
+   */
+  double getDouble(int index) {
+    throw new UnsupportedOperationException(
+            "Cannot read " + type() + " elements as double.");
+  }
+
+  /**
+   * Copies a range of elements into a {@code double} buffer. Only numeric
+   * storages implement this method.
+   *
+   * @param index position of the first element to be copied.
+   * @param buffer destination buffer.
+   * @param offset first position in the buffer.
+   * @param length number of elements to be copied.
+   * @throws UnsupportedOperationException if the storage is not numeric.
+   */
+  void getDoubles(int index, double[] buffer, int offset, int length) {
+    throw new UnsupportedOperationException(
+            "Cannot read " + type() + " elements as double.");
+  }
+
+  /**
+   * Returns the element at the given position as {@code long}. Only storages
+   * of integer, boolean and date-time elements implement this method.
+   *
+   * @param index position of the element.
+   * @return the value of the element.
+   * @throws UnsupportedOperationException if the storage is not integral.
+   */
+  long getLong(int index) {
+    throw new UnsupportedOperationException(
+            "Cannot read " + type() + " elements as long.");
+  }
+
+  /**
+   * Copies a range of elements into a {@code long} buffer. Only storages of
+   * integer, boolean and date-time elements implement this method;
+   * subclasses should override it to copy the values directly.
+   *
+   * @param index position of the first element to be copied.
+   * @param buffer destination buffer.
+   * @param offset first position in the buffer.
+   * @param length number of elements to be copied.
+   * @throws UnsupportedOperationException if the storage is not integral.
+   */
+  void getLongs(int index, long[] buffer, int offset, int length) {
+    for (int i = 0; i < length; i++)
+      buffer[offset + i] = getLong(index + i);
+  }
+
+  /**
+   * Returns the string representation of the element at the given position.
+   * Subclasses should override this method to avoid the creation of a
+   * {@code Data} object.
+   *
+   * @param index position of the element.
+   * @return string representation of the element.
+   */
+  String getString(int index) {
+    return get(index).toString();
+  }
+
+  /**
+   * Returns the {@link Dictionary} used to encode the elements, null if the
+   * storage is not dictionary encoded.
+   *
+   * @return the dictionary of the storage, or null.
+   */
+  Dictionary dictionary() {
+    return null;
+  }
+
+  /**
+   * Returns the dictionary code of the element at the given position. Only
+   * dictionary encoded storages implement this method.
+   *
+   * @param index position of the element.
+   * @return the code of the element.
+   * @throws UnsupportedOperationException if the storage is not encoded.
+   */
+  int getCode(int index) {
+    throw new UnsupportedOperationException(
+            "Elements of " + type() + " storage are not dictionary encoded.");
+  }
+
+  /**
+   * Copies the dictionary codes of a range of elements into an {@code int}
+   * buffer. Only dictionary encoded storages implement this method;
+   * subclasses should override it to copy the codes directly.
+   *
+   * @param index position of the first element to be copied.
+   * @param buffer destination buffer.
+   * @param offset first position in the buffer.
+   * @param length number of elements to be copied.
+   * @throws UnsupportedOperationException if the storage is not encoded.
+   */
+  void getCodes(int index, int[] buffer, int offset, int length) {
+    for (int i = 0; i < length; i++)
+      buffer[offset + i] = getCode(index + i);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  /**
+   * Replaces the element at the given position with the content of the
+   * {@code Data} argument. The reference is not retained.
+   *
+   * @param index position of the element.
+   * @param data new content of the element.
+   */
+  abstract void set(int index, Data data);
+
+  /**
+   * Replaces the element at the given position parsing the string argument,
+   * with the same rules of {@link Data#set(String)}.
+   *
+   * @param index position of the element.
+   * @param data string representation of the new content.
+   * @return true if parsing was successful, else false.
+   */
+  abstract boolean set(int index, String data);
+
+  /**
+   * Replaces the element at the given position with a {@code double} value.
+   * Only numeric storages implement this method.
+   *
+   * @param index position of the element.
+   * @param value new value of the element.
+   * @throws UnsupportedOperationException if the storage is not numeric.
+   */
+  void setDouble(int index, double value) {
+    throw new UnsupportedOperationException(
+            "Cannot write double values to " + type() + " elements.");
+  }
+
+  /**
+   * Replaces the element at the given position with a {@code long} value,
+   * which must be within the range of the data type. Only storages of
+   * integer, boolean and date-time elements implement this method.
+   *
+   * @param index position of the element.
+   * @param value new value of the element.
+   * @throws UnsupportedOperationException if the storage is not integral.
+   */
+  void setLong(int index, long value) {
+    throw new UnsupportedOperationException(
+            "Cannot write long values to " + type() + " elements.");
+  }
+
+  /**
+   * Sets the element at the given position to null value.
+   *
+   * @param index position of the element.
+   */
+  abstract void empty(int index);
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Appends a given number of copies of the {@code Data} argument.
+   *
+   * @param data element to be appended.
+   * @param number number of copies.
+   */
+  abstract void add(Data data, int number);
+
+  /**
+   * Inserts a given number of copies of the {@code Data} argument at the
+   * given position, shifting the following elements.
+   *
+   * @param index position of the insertion.
+   * @param data element to be inserted.
+   * @param number number of copies.
+   */
+  abstract void insert(int index, Data data, int number);
+
+  /**
+   * Removes a given number of elements starting from the given position.
+   *
+   * @param index position of the first element to be removed.
+   * @param number number of elements to be removed.
+   */
+  abstract void remove(int index, int number);
+
+  /**
+   * Removes all elements whose bit is set in the given {@code Bitmap}, which
+   * has the same size of the storage. Subclasses should override this method
+   * to compact the elements in a single pass.
+   *
+   * @param rows bitmap of the elements to be removed.
+   */
+  void remove(Bitmap rows) {
+    // remove runs from the end, so that positions are not shifted
+    int end = size();
+    while (end > 0)
+    {
+      int start = end - 1;
+      if (!rows.get(start))
+      {
+        end--;
+        continue;
+      }
+      while (start > 0 && rows.get(start - 1))
+        start--;
+      this.remove(start, end - start);
+      end = start;
+    }
+  }
+
+  /**
+   * Inserts a given number of copies of the {@code Data} argument before each
+   * of the given positions. Positions are sorted, distinct and refer to the
+   * storage before the insertion; a position equal to the size appends the
+   * copies. Subclasses should override this method to insert in a single
+   * pass.
+   *
+   * @param indexes positions of the insertions.
+   * @param data element to be inserted.
+   * @param number number of copies at each position.
+   */
+  void insert(int[] indexes, Data data, int number) {
+    // insert from the end, so that positions are not shifted
+    for (int i = indexes.length - 1; i >= 0; i--)
+      if (indexes[i] == size()) this.add(data, number);
+      else this.insert(indexes[i], data, number);
+  }
+
+  /**
+   * Inserts the elements of another {@code Storage} of the same data type at
+   * the positions whose bit is set in the given {@code Bitmap}, which refers
+   * to the storage after the insertion and has one bit per element of the
+   * result. Subclasses should override this method to insert in a single
+   * pass.
+   *
+   * @param rows bitmap of the positions of the inserted elements.
+   * @param values the elements to be inserted, in order.
+   */
+  void insert(Bitmap rows, Storage values) {
+    // insert in ascending order, so that positions are final
+    int value = 0;
+    for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1))
+      if (i == size()) this.add(values.get(value++), 1);
+      else this.insert(i, values.get(value++), 1);
+  }
+
+  /**
+   * Swaps two elements of the {@code Storage}.
+   *
+   * @param index1 position of the first element.
+   * @param index2 position of the second element.
+   */
+  abstract void swap(int index1, int index2);
+
+  /**
+   * Removes all elements of the {@code Storage}.
+   */
+  abstract void clear();
+
+  /**
+   * Returns a new empty {@code Storage} of the same kind, to be used as a
+   * block of a {@link ChunkedStorage}. Blocks of the same column share any
+   * column-wide state, such as the dictionary.
+   *
+   * @return an empty storage of the same kind.
+   * @throws UnsupportedOperationException if the storage cannot be chunked.
+   */
+  Storage newBlock() {
+    throw new UnsupportedOperationException(
+            getClass().getSimpleName() + " cannot be used as a block.");
+  }
+
+  /**
+   * Appends a range of elements of another {@code Storage} of the same data
+   * type. Subclasses should override this method to copy primitive values
+   * directly.
+   *
+   * @param storage source of the elements.
+   * @param from first position of the source range.
+   * @param to end of the source range, exclusive.
+   */
+  void append(Storage storage, int from, int to) {
+    for (int i = from; i < to; i++)
+      this.add(storage.get(i), 1);
+  }
+
+  /**
+   * Gives the storage a chance to change its encoding, given the total
+   * number of elements of the column it belongs to. The storage is not
+   * modified: if the encoding changes, a new storage with the same elements
+   * is returned, so that blocks shared with a snapshot are left untouched.
+   * By default the storage itself is returned.
+   *
+   * @param total number of elements of the column.
+   * @return the storage to be used in place of this one.
+   */
+  Storage checkEncoding(int total) {
+    return this;
+  }
+
+  /**
+   * Returns a read-only copy of the current elements, which is not affected
+   * by later modifications of this storage. By default all elements are
+   * copied to a new heap storage; subclasses should override this method to
+   * share unchanged data.
+   *
+   * @return a snapshot of the storage.
+   */
+  Storage snapshot() {
+    Storage copy = create(type(), precision());
+    copy.append(this, 0, size());
+    return copy;
+  }
+  //</editor-fold>
+
+}
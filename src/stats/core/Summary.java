@@ -0,0 +1,485 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: Summary.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code Summary} class holds the descriptive statistics of an
+ * {@link Array}: number of valid and null elements and, for numeric arrays,
+ * see {@link DataTypes#isNumeric()}, minimum, maximum, sum and sum of
+ * squares of the valid elements. The summary is computed with a full scan the first
+ * time it is requested, then the owning {@code Array} updates it on each
+ * modification, so that reading it takes constant time.
+ * <p>
+ * Counts and sums are updated in place. Minimum and maximum can only grow
+ * outwards: when an element holding one of them is removed or replaced, they
+ * are recomputed with a scan on the next request, refreshing the sums in the
+ * same pass. Sums are recomputed the same way when a removed value is not
+ * finite, or when removals cancelled so much of the sum of squares that the
+ * rounding errors of the sums are no longer negligible.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public final class Summary {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Number of elements copied from the storage at each step of a scan, it
+   * must be a multiple of the validity word size.
+   */
+  private static final int BUFFER_SIZE = 4096;
+
+  /**
+   * Fraction of its largest value below which the sum of squares is
+   * recomputed, so that cancellation loses at most 20 bits of precision.
+   */
+  private static final double CANCELLATION = 0x1p-20;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * The {@code Array} described by the summary.
+   */
+  private final Array array;
+
+  /**
+   * Number of valid elements.
+   */
+  private int count;
+
+  /**
+   * Number of null elements.
+   */
+  private int nulls;
+
+  /**
+   * Minimum of the valid elements.
+   */
+  private double minimum;
+
+  /**
+   * Maximum of the valid elements.
+   */
+  private double maximum;
+
+  /**
+   * Sum of the valid elements.
+   */
+  private double sum;
+
+  /**
+   * Sum of the squares of the valid elements.
+   */
+  private double squares;
+
+  /**
+   * Largest sum of squares since the sums were computed, which bounds their
+   * rounding errors.
+   */
+  private double peak;
+
+  /**
+   * Tells if minimum and maximum are up to date.
+   */
+  private boolean extremes;
+
+  /**
+   * Tells if sum and sum of squares are up to date.
+   */
+  private boolean sums;
+
+  /**
+   * Version of the array when the summary was last updated.
+   */
+  private int version;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code Summary} class, which scans all the elements of
+   * the given {@code Array}.
+   *
+   * @param array the array to be described.
+   */
+  Summary(Array array) {
+    this.array = array;
+    count = 0;
+    nulls = 0;
+    scan();
+  }
+
+  /**
+   * Constructor for {@code Summary} class copying the statistics of another
+   * summary, used for snapshots of the {@code Array}.
+   *
+   * @param array the array to be described.
+   * @param summary the summary to be copied.
+   */
+  Summary(Array array, Summary summary) {
+    this.array = array;
+    count = summary.count;
+    nulls = summary.nulls;
+    minimum = summary.minimum;
+    maximum = summary.maximum;
+    sum = summary.sum;
+    squares = summary.squares;
+    peak = summary.peak;
+    extremes = summary.extremes;
+    sums = summary.sums;
+    version = summary.version;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the number of valid elements.
+   *
+   * @return number of valid elements.
+   */
+  public int count() {
+    return count;
+  }
+
+  /**
+   * Returns the number of null elements.
+   *
+   * @return number of null elements.
+   */
+  public int countEmpty() {
+    return nulls;
+  }
+
+  /**
+   * Returns the minimum of the valid elements.
+   *
+   * @return the minimum, {@code Numeric.NULL} if there are no valid numeric
+   * elements.
+   */
+  public double minimum() {
+    if (!extremes) scan();
+    return (count == 0 || !isNumeric()) ? Numeric.NULL : minimum;
+  }
+
+  /**
+   * Returns the maximum of the valid elements.
+   *
+   * @return the maximum, {@code Numeric.NULL} if there are no valid numeric
+   * elements.
+   */
+  public double maximum() {
+    if (!extremes) scan();
+    return (count == 0 || !isNumeric()) ? Numeric.NULL : maximum;
+  }
+
+  /**
+   * Returns the difference between maximum and minimum.
+   *
+   * @return the range, {@code Numeric.NULL} if there are no valid numeric
+   * elements.
+   */
+  public double range() {
+    return maximum() - minimum();
+  }
+
+  /**
+   * Returns the sum of the valid elements.
+   *
+   * @return the sum, {@code Numeric.NULL} if the array is not numeric.
+   */
+  public double sum() {
+    if (!sums) scan();
+    return isNumeric() ? sum : Numeric.NULL;
+  }
+
+  /**
+   * Returns the sum of the squares of the valid elements.
+   *
+   * @return the sum of squares, {@code Numeric.NULL} if the array is not
+   * numeric.
+   */
+  public double sumOfSquares() {
+    if (!sums) scan();
+    return isNumeric() ? squares : Numeric.NULL;
+  }
+
+  /**
+   * Returns the number of modifications of the {@code Array} when the
+   * summary was last updated. Two summaries of the same array with the same
+   * version describe the same elements.
+   *
+   * @return the modification counter of the array.
+   */
+  public int version() {
+    return version;
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + count() + ", nulls=" + countEmpty() + ", min="
+            + minimum() + ", max=" + maximum() + ", sum=" + sum();
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Records the element at the given position, which was added to the array
+   * or has just been set.
+   *
+   * @param storage storage of the array.
+   * @param index position of the element.
+   */
+  void add(Storage storage, int index) {
+    version = array.version();
+    if (storage.isEmpty(index))
+    {
+      nulls++;
+      return;
+    }
+    count++;
+    if (storage.type().isNumeric()) add(storage.getDouble(index));
+  }
+
+  /**
+   * Records a given number of copies of the {@code Data} argument, which
+   * were added to the array.
+   *
+   * @param data the element added.
+   * @param number number of copies.
+   */
+  void add(Data data, int number) {
+    version = array.version();
+    if (data.isEmpty())
+    {
+      nulls += number;
+      return;
+    }
+    count += number;
+    if (!data.type().isNumeric()) return;
+    double value = data.toDouble();
+    sum += value * number;
+    squares += value * value * number;
+    if (squares > peak) peak = squares;
+    if (count == number) setExtremes(value);
+    else if (extremes) extend(value);
+  }
+
+  /**
+   * Removes the element at the given position from the statistics, before
+   * it is removed from the array or replaced.
+   *
+   * @param storage storage of the array.
+   * @param index position of the element.
+   */
+  void remove(Storage storage, int index) {
+    version = array.version();
+    if (storage.isEmpty(index))
+    {
+      nulls--;
+      return;
+    }
+    count--;
+    if (storage.type().isNumeric()) remove(storage.getDouble(index));
+  }
+
+  /**
+   * Removes a range of elements from the statistics, before they are removed
+   * from the array.
+   *
+   * @param storage storage of the array.
+   * @param from first position of the range.
+   * @param to end of the range, exclusive.
+   */
+  void remove(Storage storage, int from, int to) {
+    if (!storage.type().isNumeric())
+    {
+      for (int i = from; i < to; i++)
+        remove(storage, i);
+      return;
+    }
+    version = array.version();
+    double[] buffer = new double[Math.min(BUFFER_SIZE, to - from)];
+    long[] validity = new long[(buffer.length + Bitmap.WORD_SIZE - 1)
+            / Bitmap.WORD_SIZE];
+    for (int i = from; i < to; i += BUFFER_SIZE)
+    {
+      int length = Math.min(BUFFER_SIZE, to - i);
+      storage.getDoubles(i, buffer, 0, length);
+      storage.getValidity(i, validity, length);
+      for (int w = 0; w * Bitmap.WORD_SIZE < length; w++)
+      {
+        long word = validity[w];
+        nulls -= Math.min(Bitmap.WORD_SIZE, length - w * Bitmap.WORD_SIZE)
+                - Long.bitCount(word);
+        while (word != 0L)
+        {
+          count--;
+          remove(buffer[w * Bitmap.WORD_SIZE
+                  + Long.numberOfTrailingZeros(word)]);
+          word &= word - 1;
+        }
+      }
+    }
+  }
+
+  /**
+   * Records a modification of the array that does not change the
+   * statistics, such as a swap of two elements.
+   */
+  void touch() {
+    version = array.version();
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Checks if the described array is numeric.
+   *
+   * @return true if numeric, else false.
+   */
+  private boolean isNumeric() {
+    return array.type().isNumeric();
+  }
+
+  /**
+   * Adds a valid value to sums and extremes.
+   *
+   * @param value the value added.
+   */
+  private void add(double value) {
+    sum += value;
+    squares += value * value;
+    if (squares > peak) peak = squares;
+    if (count == 1) setExtremes(value);
+    else if (extremes) extend(value);
+  }
+
+  /**
+   * Removes a valid value from the sums, invalidating the extremes if the
+   * value was one of them. The sums are invalidated if the value is not
+   * finite, since subtracting it leaves them undefined, or if the remaining
+   * sum of squares is a small fraction of its largest value.
+   *
+   * @param value the value removed.
+   */
+  private void remove(double value) {
+    sum -= value;
+    squares -= value * value;
+    if (value <= minimum || value >= maximum) extremes = false;
+    if (Double.isInfinite(value) || Double.isNaN(value)
+            || squares < peak * CANCELLATION) sums = false;
+  }
+
+  /**
+   * Sets both extremes to the given value, which is the only valid one.
+   *
+   * @param value the only valid value.
+   */
+  private void setExtremes(double value) {
+    minimum = value;
+    maximum = value;
+    extremes = true;
+  }
+
+  /**
+   * Extends the extremes to include the given value.
+   *
+   * @param value a valid value.
+   */
+  private void extend(double value) {
+    if (value < minimum) minimum = value;
+    if (value > maximum) maximum = value;
+  }
+
+  /**
+   * Computes all statistics scanning the elements of the array. Validity
+   * words are used to skip groups of 64 null elements and to avoid
+   * per-element checks on groups without nulls; sparse arrays only scan
+   * their valid elements.
+   */
+  private void scan() {
+    Storage storage = array.storage();
+    int size = (storage == null) ? 0 : storage.size();
+    nulls = (size == 0) ? 0 : storage.countEmpty();
+    count = size - nulls;
+    minimum = Double.MAX_VALUE;
+    maximum = -Double.MAX_VALUE;
+    sum = 0.0;
+    squares = 0.0;
+    peak = 0.0;
+    extremes = true;
+    sums = true;
+    version = array.version();
+    if (count == 0 || !storage.type().isNumeric()) return;
+    // sparse storages are scanned through their valid elements only
+    if (storage instanceof SparseStorage)
+    {
+      storage = ((SparseStorage) storage).values();
+      size = storage.size();
+    }
+    double[] buffer = new double[BUFFER_SIZE];
+    long[] validity = new long[BUFFER_SIZE / Bitmap.WORD_SIZE];
+    for (int i = 0; i < size; i += BUFFER_SIZE)
+    {
+      int length = Math.min(BUFFER_SIZE, size - i);
+      storage.getDoubles(i, buffer, 0, length);
+      storage.getValidity(i, validity, length);
+      for (int w = 0; w * Bitmap.WORD_SIZE < length; w++)
+      {
+        long word = validity[w];
+        int base = w * Bitmap.WORD_SIZE;
+        // skip null words and scan full words without bit checks
+        if (word == 0L) continue;
+        if (word == -1L)
+        {
+          for (int j = base; j < base + Bitmap.WORD_SIZE; j++)
+            accumulate(buffer[j]);
+          continue;
+        }
+        while (word != 0L)
+        {
+          accumulate(buffer[base + Long.numberOfTrailingZeros(word)]);
+          word &= word - 1;
+        }
+      }
+    }
+    peak = squares;
+  }
+
+  /**
+   * Adds a valid value to the statistics during a scan.
+   *
+   * @param value a valid value.
+   */
+  private void accumulate(double value) {
+    sum += value;
+    squares += value * value;
+    if (value < minimum) minimum = value;
+    if (value > maximum) maximum = value;
+  }
+  //</editor-fold>
+
+}
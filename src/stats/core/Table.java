@@ -27,6 +27,9 @@
 package stats.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 
 /**
  * The {@code Table} class is the fundamental data structure used in
@@ -83,6 +86,40 @@ public class Table {
    * of {@code Array} objects.
    */
   private ArrayList<Array> columns;
+
+  /**
+   * Hash index from column names to column positions, kept in sync with
+   * {@code columns} on insertion, removal and renaming.
+   */
+  private HashMap<String, Integer> column_index;
+
+  /**
+   * Off-heap store of the columns, null if columns are kept on the heap.
+   */
+  private final MappedStore store;
+
+  /**
+   * Tells if the {@code Table} is a read-only snapshot.
+   */
+  private final boolean readOnly;
+
+  /**
+   * The table whose rows are viewed, null if the {@code Table} is not a
+   * view.
+   */
+  private final Table parent;
+
+  /**
+   * Journal recording the edits of the {@code Table}, null if edits are not
+   * recorded.
+   */
+  private Journal journal;
+
+  /**
+   * Tells if the {@code Table} is shared between threads by a
+   * {@link ConcurrentTable}, so that its edits cannot be recorded.
+   */
+  private boolean shared;
   //</editor-fold>
 
   //<editor-fold defaultstate="collapsed" desc="Constructors">
@@ -101,17 +138,34 @@ public class Table {
    * @param name the name of the table.
    */
   public Table(String name) {
+    this(name, null);
+  }
 
+  /**
+   * Constructor for {@code Table} class whose columns are kept off-heap in
+   * the given {@link MappedStore}, so that tables larger than the heap can be
+   * browsed and analysed. If the store is null, columns are kept on the heap.
+   * The store must stay open as long as the table is used.
+   *
+   * @param name the name of the table.
+   * @param store off-heap store of the columns, or null.
+   */
+  public Table(String name, MappedStore store) {
+    this.store = store;
+    readOnly = false;
+    parent = null;
     // initialize column array with a single Array
     // of DEFAULT_ROWS Characher elements
     untitled_column = 1;
     columns = new ArrayList<>();
+    column_index = new HashMap<>();
     for (int i = 0; i < DEFAULT_COLS; i++)
     {
-      Array column = new Array(this.getUntitledColumn());
+      Array column = new Array(this.getUntitledColumn(), store);
       column.add(new Character());
       column.fill(DEFAULT_ROWS);
       columns.add(column);
+      column_index.put(column.name(), i);
     }
     // initialize table_rows and table_cols
     table_cols = DEFAULT_COLS;
@@ -126,6 +180,72 @@ public class Table {
       table_name = name;
     }
   }
+
+  /**
+   * Constructor for a read-only snapshot of a {@code Table} object. Columns
+   * are replaced by their snapshots.
+   *
+   * @param table the table to be copied.
+   */
+  private Table(Table table) {
+    table_name = table.table_name;
+    table_cols = table.table_cols;
+    table_rows = table.table_rows;
+    untitled_column = table.untitled_column;
+    store = table.store;
+    readOnly = true;
+    parent = null;
+    columns = new ArrayList<>(table_cols);
+    for (int i = 0; i < table_cols; i++)
+      columns.add(table.columns.get(i).snapshot());
+    column_index = new HashMap<>(table.column_index);
+  }
+
+  /**
+   * Constructor for a {@code Table} object with the same columns of another
+   * table, replaced by their views or copies.
+   *
+   * @param table the original table.
+   * @param columns views or copies of the columns.
+   * @param rows number of rows of the new columns.
+   * @param view true if the columns are views, false if copies.
+   */
+  private Table(Table table, ArrayList<Array> columns, int rows,
+          boolean view) {
+    table_name = table.table_name;
+    table_cols = table.table_cols;
+    table_rows = rows;
+    untitled_column = table.untitled_column;
+    store = table.store;
+    readOnly = view && table.readOnly;
+    parent = view ? table : null;
+    this.columns = columns;
+    column_index = new HashMap<>(table.column_index);
+    if (!view) checkDensity();
+  }
+
+  /**
+   * Constructor for a new heap {@code Table} object with the given columns,
+   * which must have the given number of rows and distinct names. If the
+   * provided table name is null or empty, an untitled one is used.
+   *
+   * @param name the name of the table.
+   * @param columns the columns of the table.
+   * @param rows number of rows of the columns.
+   */
+  Table(String name, ArrayList<Array> columns, int rows) {
+    table_name = (name == null || name.isEmpty()) ? newUntitledName() : name;
+    table_cols = columns.size();
+    table_rows = rows;
+    untitled_column = 1;
+    store = null;
+    readOnly = false;
+    parent = null;
+    this.columns = columns;
+    column_index = new HashMap<>();
+    indexColumns(0);
+    checkDensity();
+  }
   //</editor-fold>
 
   //<editor-fold defaultstate="collapsed" desc="Getters">
@@ -184,6 +304,40 @@ public class Table {
     return columns.get(col).type();
   }
 
+  /**
+   * Returns the precision with which the values of the column pointed by
+   * index are stored, see {@link Array#precision()}.
+   *
+   * @param col index of the column.
+   * @return the precision of the column values.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public Precision getColumnPrecision(int col) {
+    if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
+              "col=" + col + " is not a valid column index in " + table_name);
+    return columns.get(col).precision();
+  }
+
+  /**
+   * Checks if the {@code Table} is a read-only snapshot. Any attempt to
+   * modify a read-only {@code Table} or its columns throws an
+   * {@code UnsupportedOperationException}.
+   *
+   * @return true if read-only, else false.
+   */
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  /**
+   * Returns the {@link Journal} recording the edits of the {@code Table}.
+   *
+   * @return the journal of the table, or null if edits are not recorded.
+   */
+  public Journal journal() {
+    return journal;
+  }
+
   /**
    * Checks if the integer number is a valid column index for the the
    * {@code Table} object.
@@ -213,20 +367,28 @@ public class Table {
    * @return true if unique and not null, else false.
    */
   public boolean isColumnNameValid(String name) {
-    boolean uniqueness = true;
-    // check if column name is unique in the table
-    for (int i = 0; i < table_cols; i++)
-      uniqueness &= !name.equals(columns.get(i).name());
-    // check if it is null and return result
-    uniqueness &= !name.isEmpty();
-    return uniqueness;
+    // check if it is null and if it is unique in the table
+    return !name.isEmpty() && !column_index.containsKey(name);
+  }
+
+  /**
+   * Returns the index of the column with the given name, using a hash index
+   * of the column names.
+   *
+   * @param name the name of the column.
+   * @return index of the column, -1 if no column has the given name.
+   */
+  public int indexOf(String name) {
+    Integer col = column_index.get(name);
+    return (col == null) ? -1 : col;
   }
 
   /**
    * Checks if a column is convertible to new data type. New data type must
    * differs from current one. The check is made is such a way to preserve
    * data integrity: if even an element is not convertible the function will
-   * return false.
+   * return false. To check and convert in a single pass, use
+   * {@link #convertColumn(int, DataTypes, boolean)} in strict mode.
    *
    * @param col index of the column.
    * @param type new data type for conversion.
@@ -238,36 +400,25 @@ public class Table {
     if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
               "col=" + col + " is not a valid column index in " + table_name);
     // check if new type is different from old one
-    if (type == getColumnType(col)) return false;
-    switch (type)
-    {
-      case NUMERIC:
-        try
-        {
-          for (int i = 0; i < table_rows; i++)
-            if (!columns.get(col).get(i).isEmpty())
-              Double.parseDouble(columns.get(col).get(i).toString());
-        } catch (NumberFormatException e)
-        {
-          return false;
-        }
-        break;
-      case CHARACTER:
-        break;
-      case UNDEFINED:
-      default:
+    if (type == getColumnType(col) || type == DataTypes.UNDEFINED)
+      return false;
+    if (type == DataTypes.CHARACTER) return true;
+    Storage storage = columns.get(col).storage();
+    for (int i = 0; i < table_rows; i++)
+      if (!storage.isEmpty(i) && !convert(storage, i, type, null))
         return false;
-    }
     return true;
   }
 
   /**
    * Returns the data stored in the cell pointed by given column and row
-   * indexes. The return value is a {@link Data} reference.
+   * indexes. The return value is a new {@link Data} object holding a copy of
+   * the content, bulk readers should use {@link #numericCursor(int)} or
+   * {@link #characterCursor(int)}.
    *
    * @param col the column index of the cell.
    * @param row the row index of the cell.
-   * @return a {@link Data} reference to the content of the cell.
+   * @return a {@link Data} copy of the content of the cell.
    * @throws ArrayIndexOutOfBoundsException if the column and row indexes are
    * not valid.
    */
@@ -291,7 +442,9 @@ public class Table {
    * @return true if successful, else false.
    */
   public boolean setName(String name) {
+    checkWritable();
     if (name.isEmpty()) return false;
+    if (isJournaled()) journal.record(Journal.rename(-1, table_name, name));
     table_name = name;
     return true;
   }
@@ -306,22 +459,30 @@ public class Table {
    * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
    */
   public boolean setColumnName(int col, String name) {
+    checkWritable();
     // check if index is valid
     if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
               "col=" + col + " is not a valid column index in " + table_name);
     // check if name column is calid
     if (name.isEmpty()) return false;
     // check if the name is already used as column name in the table
-    for (int i = 0; i < table_cols; i++)
-      if (columns.get(i).name().equals(name) && i != col) return false;
+    Integer other = column_index.get(name);
+    if (other != null) return other == col;
+    // rename the column and update the index
+    if (isJournaled())
+      journal.record(Journal.rename(col, columns.get(col).name(), name));
+    column_index.remove(columns.get(col).name());
     columns.get(col).setName(name);
+    column_index.put(name, col);
     return true;
   }
 
   /**
    * Sets the content of the cell pointed by column and row indexes.
-   * The new content is provided by means of a {@link Data} reference. A check
-   * for type consistency is done before the assignment.
+   * The new content is provided by means of a {@link Data} reference, whose
+   * value is copied to the column storage without retaining the reference. A
+   * check for type consistency is done before the assignment. Bulk writers
+   * should use {@link #numericCursor(int)} or {@link #characterCursor(int)}.
    *
    * @param col the column index of the cell.
    * @param row the row index of the cell.
@@ -332,6 +493,7 @@ public class Table {
    *
    */
   public boolean set(int col, int row, Data data) {
+    checkWritable();
     // check if col and row indexes are valid
     if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
               "col=" + col + " is not a valid column index in " + table_name);
@@ -339,8 +501,11 @@ public class Table {
               "row=" + row + " is not a valid row index in " + table_name);
     // check if DataType of data is valid
     if (columns.get(col).type() != data.type()) return false;
-    // set content of the cell to new value
-    columns.get(col).set(row, data.clone());
+    // set content of the cell to new value, storage keeps no reference
+    Journal cells = cellJournal();
+    Data before = (cells != null) ? columns.get(col).get(row) : null;
+    if (!columns.get(col).set(row, data)) return false;
+    if (before != null) recordCell(cells, col, row, before);
     return true;
   }
 
@@ -357,13 +522,18 @@ public class Table {
    *
    */
   public boolean set(int col, int row, String data) {
+    checkWritable();
     // check if col and row indexes are valid
     if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
               "col=" + col + " is not a valid column index in " + table_name);
     if (!isRowIndex(row)) throw new ArrayIndexOutOfBoundsException(
               "row=" + row + " is not a valid row index in " + table_name);
     // set content of the cell to new value
-    return columns.get(col).set(row, data);
+    Journal cells = cellJournal();
+    Data before = (cells != null) ? columns.get(col).get(row) : null;
+    if (!columns.get(col).set(row, data)) return false;
+    if (before != null) recordCell(cells, col, row, before);
+    return true;
   }
   //</editor-fold>
 
@@ -438,15 +608,24 @@ public class Table {
    * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
    */
   public boolean insertColumns(int col, DataTypes type, int number) {
+    checkWritable();
     // check if index is valid
     if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
               "col=" + col + " is not a valid column index in " + table_name);
     // check if number is valid
     if (number < 1) return false;
     // insert new columns to the table
+    ArrayList<Array> before = columnsBefore();
+    ArrayList<Array> created = new ArrayList<>(number);
     for (int i = 0; i < number; i++)
-      columns.add(col + i, this.getEmptyArray(type));
+      created.add(this.getEmptyArray(type));
+    columns.addAll(col, created);
     table_cols += number;
+    // update the index of the shifted columns
+    indexColumns(col);
+    recordColumns(before);
+    for (Array column : created)
+      column.checkDensity();
     return true;
   }
 
@@ -491,12 +670,20 @@ public class Table {
    * @return true if successful, else false.
    */
   public boolean addColumns(DataTypes type, int number) {
+    checkWritable();
     // check if number is valid
     if (number < 1) return false;
     // add new columns to the table
+    ArrayList<Array> before = columnsBefore();
     for (int i = 0; i < number; i++)
+    {
       columns.add(this.getEmptyArray(type));
+      column_index.put(columns.get(table_cols + i).name(), table_cols + i);
+    }
     table_cols += number;
+    recordColumns(before);
+    for (int i = table_cols - number; i < table_cols; i++)
+      columns.get(i).checkDensity();
     return true;
   }
 
@@ -523,6 +710,7 @@ public class Table {
    * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
    */
   public boolean removeColumns(int col, int number) {
+    checkWritable();
     // check if row index is valid
     if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
               "col=" + col + " is not a valid column index in " + table_name);
@@ -531,10 +719,18 @@ public class Table {
     // check if there are enough columns to be deleted
     if (col + number > table_cols) return false;
     if (table_cols < number) return false;
-    // remove the columns
+    // materialize computed columns depending on removed columns,
+    // then remove the columns and their names
+    ArrayList<Array> before = columnsBefore();
     for (int i = col; i < col + number; i++)
-      columns.remove(col);
+      materializeDependents(columns.get(i));
+    for (int i = col; i < col + number; i++)
+      column_index.remove(columns.get(i).name());
+    columns.subList(col, col + number).clear();
     table_cols -= number;
+    // update the index of the shifted columns
+    indexColumns(col);
+    recordColumns(before);
     return true;
   }
 
@@ -556,12 +752,16 @@ public class Table {
    * @return true if successful, else false.
    */
   public boolean addRows(int number) {
+    checkResizable();
     // check if number is valid
     if (number < 1) return false;
     // insert rows for each column of the table
     for (int i = 0; i < table_cols; i++)
-      columns.get(i).add(number);
+      if (!columns.get(i).isComputed()) columns.get(i).add(number);
+    if (isJournaled())
+      journal.record(Journal.rowsInserted(table_rows, number));
     table_rows += number;
+    checkDensity();
     return true;
   }
 
@@ -609,6 +809,7 @@ public class Table {
    * @throws ArrayIndexOutOfBoundsException if the row index is not valid.
    */
   public boolean insertRows(int row, int number) {
+    checkResizable();
     // check if index is valid
     if (!isRowIndex(row)) throw new ArrayIndexOutOfBoundsException(
               "row=" + row + " is not a valid row index in " + table_name);
@@ -616,8 +817,10 @@ public class Table {
     if (number < 1) return false;
     // insert rows for each column of the table
     for (int i = 0; i < table_cols; i++)
-      columns.get(i).insert(row, number);
+      if (!columns.get(i).isComputed()) columns.get(i).insert(row, number);
+    if (isJournaled()) journal.record(Journal.rowsInserted(row, number));
     table_rows += number;
+    checkDensity();
     return true;
   }
 
@@ -643,6 +846,7 @@ public class Table {
    * @throws ArrayIndexOutOfBoundsException if the row index is not valid.
    */
   public boolean removeRows(int row, int number) {
+    checkResizable();
     // check if row index is valid
     if (!isRowIndex(row)) throw new ArrayIndexOutOfBoundsException(
               "row=" + row + " is not a valid row index in " + table_name);
@@ -651,11 +855,98 @@ public class Table {
     // check if there are enough rows to be deleted
     if (row + number > table_rows) return false;
     if (table_rows <= number) return false;
-    // remove the elements for each column
+    // keep the removed elements, then remove them for each column
+    if (isJournaled())
+    {
+      int[] removed = new int[number];
+      for (int i = 0; i < number; i++)
+        removed[i] = row + i;
+      journal.record(Journal.rowsRemoved(row, number, gather(removed)));
+    }
     for (int i = 0; i < table_cols; i++)
-      for (int j = 0; j < number; j++)
-        columns.get(i).remove(row);
+      if (!columns.get(i).isComputed()) columns.get(i).remove(row, number);
     table_rows -= number;
+    checkDensity();
+    return true;
+  }
+
+  /**
+   * Inserts a given number of rows before each of the given positions of the
+   * {@code Table} object. Positions refer to the table before the insertion
+   * and a position equal to the number of rows appends the rows at the end.
+   * Each column is rebuilt in a single pass. Null elements are used to fill
+   * each column of the table.
+   *
+   * @param rows positions of the insertions, in any order.
+   * @param number number of rows inserted at each position.
+   * @return true if successful, else false.
+   * @throws ArrayIndexOutOfBoundsException if a row index is not valid.
+   */
+  public boolean insertRows(int[] rows, int number) {
+    checkResizable();
+    // check if number is valid
+    if (number < 1 || rows.length == 0) return false;
+    // sort positions and check if they are valid
+    int[] positions = sortedRows(rows, table_rows + 1);
+    // insert rows for each column of the table
+    for (int i = 0; i < table_cols; i++)
+      if (!columns.get(i).isComputed()) columns.get(i).insert(positions, number);
+    if (isJournaled())
+      journal.record(Journal.rowsInserted(positions, number));
+    table_rows += number * positions.length;
+    checkDensity();
+    return true;
+  }
+
+  /**
+   * Removes the rows at the given positions of the {@code Table} object. Each
+   * column is compacted in a single pass. At least one row must remain in the
+   * table. All underlying data are not deleted but dereferenced.
+   *
+   * @param rows positions of the rows to be removed, in any order.
+   * @return true if successful, else false.
+   * @throws ArrayIndexOutOfBoundsException if a row index is not valid.
+   */
+  public boolean removeRows(int[] rows) {
+    // check if row indexes are valid
+    int[] positions = sortedRows(rows, table_rows);
+    // mark the rows to be removed
+    Bitmap bitmap = new Bitmap(table_rows);
+    for (int i = 0; i < positions.length; i++)
+      bitmap.set(positions[i]);
+    return this.removeRows(bitmap);
+  }
+
+  /**
+   * Removes the rows whose bit is set in the given {@code Bitmap}, which
+   * must have one bit per row of the {@code Table} object. Each column is
+   * compacted in a single pass. At least one row must remain in the table.
+   * All underlying data are not deleted but dereferenced.
+   *
+   * @param rows bitmap of the rows to be removed.
+   * @return true if successful, else false.
+   */
+  public boolean removeRows(Bitmap rows) {
+    checkResizable();
+    // check if the bitmap is valid
+    if (rows.size() != table_rows) return false;
+    int number = rows.cardinality();
+    if (number < 1) return false;
+    // check if there are enough rows to be deleted
+    if (table_rows <= number) return false;
+    // keep the removed elements, then remove them for each column
+    if (isJournaled())
+    {
+      int[] removed = new int[number];
+      for (int i = 0, r = rows.nextSetBit(0); r >= 0;
+              r = rows.nextSetBit(r + 1))
+        removed[i++] = r;
+      journal.record(Journal.rowsRemoved(rows.copy(), gather(removed)));
+    }
+    for (int i = 0; i < table_cols; i++)
+      if (!columns.get(i).isComputed()) columns.get(i).remove(rows);
+    table_rows -= number;
+    checkDensity();
     return true;
   }
 
@@ -671,29 +962,791 @@ public class Table {
    * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
    */
   public boolean convertColumn(int col, DataTypes type) {
+    return this.convertColumn(col, type, false).isApplied();
+  }
+
+  /**
+   * Converts the column pointed by index as new data type, validating and
+   * converting each element in a single pass. Values are written directly to
+   * the storage of the new column and large heap columns are converted in
+   * parallel on the {@link Parallel} pool. New data type must differ from
+   * current one. If strict, the column is replaced only if every element was
+   * converted; else the conversion is forced and elements that cannot be
+   * converted become null values.
+   *
+   * @param col the index of the column to be converted.
+   * @param type new data type of the column.
+   * @param strict if true, the column is not replaced if any element fails.
+   * @return a report listing the rows that could not be converted.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public ConversionReport convertColumn(int col, DataTypes type,
+          boolean strict) {
+    checkWritable();
     // check if col index is valid
     if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
               "col=" + col + " is not a valid column index in " + table_name);
-    if (type == getColumnType(col)) return false;
-    Array array = new Array(columns.get(col).name());
-    switch (type)
+    String name = columns.get(col).name();
+    int[] failed = new int[0];
+    if (type == getColumnType(col) || type == DataTypes.UNDEFINED)
+      return new ConversionReport(name, type, table_rows, failed, false);
+    DataTypes origin = getColumnType(col);
+    Array array = new Array(name, store);
+    array.add(Array.nullElement(type), table_rows);
+    if (type == DataTypes.NUMERIC && origin == DataTypes.CHARACTER)
     {
-      case NUMERIC:
-        for (int i = 0; i < table_rows; i++)
-          array.add(new Numeric(columns.get(col).get(i).toString()));
-        break;
-      case CHARACTER:
-        for (int i = 0; i < table_rows; i++)
-          array.add(new Character(columns.get(col).get(i).toString()));
-        break;
-      case UNDEFINED:
-      default:
-        return false;
+      // write parsed values through cursors, in parallel on heap
+      // columns, whose blocks are all full
+      CharacterCursor strings = columns.get(col).characterCursor();
+      NumericCursor values = array.numericCursor();
+      if (store == null && table_rows > Parallel.THRESHOLD)
+        failed = Parallel.pool().invoke(
+                new ParseTask(strings, values, 0, table_rows));
+      else failed = ParseTask.parse(strings, values, 0, table_rows);
+    } else if (type == DataTypes.CHARACTER && origin == DataTypes.NUMERIC)
+    {
+      // store strings directly in the storage, repeated labels are
+      // pooled by the column dictionary; strings are formatted by the
+      // source storage, as float values print shorter than doubles
+      Storage numbers = columns.get(col).storage();
+      CharacterCursor labels = array.characterCursor();
+      for (int i = 0; i < table_rows; i++)
+        if (!numbers.isEmpty(i)) labels.setString(i, numbers.getString(i));
+    } else
+    {
+      // convert element by element, collecting the failed rows
+      Storage source = columns.get(col).storage();
+      Storage target = array.storage();
+      int count = 0;
+      for (int i = 0; i < table_rows; i++)
+        if (!source.isEmpty(i) && !convert(source, i, type, target))
+        {
+          if (count == failed.length)
+            failed = Arrays.copyOf(failed, Math.max(16, count * 2));
+          failed[count++] = i;
+        }
+      failed = Arrays.copyOf(failed, count);
+    }
+    // replace the column unless a strict conversion failed
+    boolean applied = !strict || failed.length == 0;
+    if (applied)
+    {
+      ArrayList<Array> before = columnsBefore();
+      materializeDependents(columns.get(col));
+      columns.set(col, array);
+      recordColumns(before);
+      array.checkDensity();
     }
+    return new ConversionReport(name, type, table_rows, failed, applied);
+  }
+
+  /**
+   * Converts the values of the {@code DataTypes.NUMERIC} column pointed by
+   * index to the given storage precision. {@code Precision.FLOAT32} columns
+   * take half of the memory of {@code Precision.FLOAT64} ones, but values are
+   * rounded to about seven significant digits. Statistics are still computed
+   * in double precision. The column is replaced by a converted copy, so
+   * computed columns depending on it are materialized. Values beyond the
+   * range of {@code float}, about 3.4e38 in magnitude, would be rounded to
+   * infinity, so columns holding any of them are not converted to
+   * {@code Precision.FLOAT32}. Once converted, such values are rejected by
+   * {@link #set(int, int, Data)} and {@link #set(int, int, String)}.
+   *
+   * @param col the index of the column to be converted.
+   * @param precision new precision of the column values.
+   * @return true if successful, false if the column is not numeric, is
+   * computed, has already the given precision or holds values beyond the
+   * range of the new precision.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public boolean setColumnPrecision(int col, Precision precision) {
+    checkWritable();
+    // check if col index is valid
+    if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
+              "col=" + col + " is not a valid column index in " + table_name);
+    Array column = columns.get(col);
+    if (column.type() != DataTypes.NUMERIC || column.isComputed()
+            || precision == null || column.precision() == precision)
+      return false;
+    Array array = column.copy();
+    if (!array.setPrecision(precision)) return false;
+    if (column.index() != null) array.createIndex();
+    ArrayList<Array> before = columnsBefore();
+    materializeDependents(column);
     columns.set(col, array);
+    recordColumns(before);
+    array.checkDensity();
+    return true;
+  }
+
+  /**
+   * Appends a computed {@code DataTypes.NUMERIC} column, whose values are
+   * defined by an expression over other numeric columns of the table. Values
+   * are computed in batches on first access and cached until a source column
+   * is modified, so that the column takes no memory until it is read. Computed
+   * columns cannot be modified and follow the rows of the table. If a source
+   * column is removed or converted, the computed column is materialized.
+   *
+   * @param name the name of the new column.
+   * @param expression expression defining the values.
+   * @param sources indexes of the source columns, at least one.
+   * @return true if successful, else false.
+   * @throws ArrayIndexOutOfBoundsException if a column index is not valid.
+   */
+  public boolean addComputedColumn(String name, ColumnExpression expression,
+          int... sources) {
+    checkWritable();
+    // check if name and sources are valid
+    if (!isColumnNameValid(name) || sources.length == 0) return false;
+    Array[] arrays = new Array[sources.length];
+    for (int k = 0; k < sources.length; k++)
+    {
+      if (!isColumnIndex(sources[k])) throw new ArrayIndexOutOfBoundsException(
+                "col=" + sources[k] + " is not a valid column index in "
+                + table_name);
+      if (!getColumnType(sources[k]).isNumeric()) return false;
+      arrays[k] = columns.get(sources[k]);
+    }
+    // add the column to the table
+    ArrayList<Array> before = columnsBefore();
+    columns.add(new Array(name, expression, arrays));
+    column_index.put(name, table_cols);
+    table_cols++;
+    recordColumns(before);
+    return true;
+  }
+
+  /**
+   * Appends a column defined by a formula such as
+   * {@code Yield = (Good / Total) * 100}, whose left side is the name of the
+   * new column and whose right side is an expression over the columns of the
+   * table. The formula is parsed once and compiled into operations on blocks
+   * of primitive values. Numeric formulas over numeric columns define a
+   * computed column, see
+   * {@link #addComputedColumn(String, ColumnExpression, int...)}, which
+   * follows changes of its sources; other formulas are evaluated once into a
+   * new column, in parallel on large tables. Null operands give null
+   * results.
+   * <p>
+   * Expressions combine numbers, strings in double quotes and column names,
+   * with names which are not identifiers in single quotes, through the
+   * operators {@code + - * / % ^}, string concatenation {@code &} and the
+   * functions {@code abs sqrt exp log log10 sin cos tan asin acos atan floor
+   * ceil round pow min max atan2} on numbers and {@code upper lower trim
+   * length number string} on strings.
+   *
+   * @param formula the formula of the new column.
+   * @return true if successful, false if the name is not valid.
+   * @throws IllegalArgumentException if the formula is not valid.
+   */
+  public boolean addFormulaColumn(String formula) {
+    checkWritable();
+    Formula parsed = Formula.parse(formula, this);
+    String name = parsed.name();
+    if (!isColumnNameValid(name)) return false;
+    if (parsed.isComputable())
+      return addComputedColumn(name, parsed, parsed.sources());
+    // evaluate the formula once into a new column
+    boolean numeric = parsed.type() == DataTypes.NUMERIC;
+    double[] numbers = numeric ? new double[table_rows] : null;
+    long[] validity = numeric ? new long[(table_rows + Bitmap.WORD_SIZE - 1)
+            / Bitmap.WORD_SIZE] : null;
+    String[] strings = numeric ? null : new String[table_rows];
+    if (store == null && table_rows > Parallel.THRESHOLD)
+      Parallel.pool().invoke(new FormulaTask(parsed, numbers, validity,
+              strings, 0, table_rows));
+    else parsed.evaluate(0, table_rows, numbers, validity, strings);
+    Array column = new Array(name, store);
+    if (numeric)
+    {
+      column.add(new Numeric(), table_rows);
+      NumericCursor cursor = column.numericCursor();
+      for (int w = 0; w < validity.length; w++)
+        for (long valid = validity[w]; valid != 0; valid &= valid - 1)
+        {
+          int row = w * Bitmap.WORD_SIZE + Long.numberOfTrailingZeros(valid);
+          cursor.setDouble(row, numbers[row]);
+        }
+    } else
+    {
+      column.add(new Character(), table_rows);
+      CharacterCursor cursor = column.characterCursor();
+      for (int row = 0; row < table_rows; row++)
+        if (strings[row] != null) cursor.setString(row, strings[row]);
+    }
+    // add the column to the table
+    ArrayList<Array> before = columnsBefore();
+    columns.add(column);
+    column_index.put(name, table_cols);
+    table_cols++;
+    recordColumns(before);
+    column.checkDensity();
+    return true;
+  }
+
+  /**
+   * Checks if the column pointed by index is a computed column.
+   *
+   * @param col the index of the column.
+   * @return true if computed, else false.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public boolean isColumnComputed(int col) {
+    // check if col index is valid
+    if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
+              "col=" + col + " is not a valid column index in " + table_name);
+    return columns.get(col).isComputed();
+  }
+
+  /**
+   * Replaces a computed column with a regular column holding its current
+   * values, which can then be modified and does not depend on its sources
+   * anymore.
+   *
+   * @param col the index of the column.
+   * @return true if successful, false if the column is not computed.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public boolean materializeColumn(int col) {
+    checkWritable();
+    if (!isColumnComputed(col)) return false;
+    ArrayList<Array> before = columnsBefore();
+    materialize(col);
+    recordColumns(before);
     return true;
   }
 
+  /**
+   * Replaces a computed column with a plain column holding its values.
+   *
+   * @param col the index of a computed column.
+   */
+  private void materialize(int col) {
+    // copy the values through cursors
+    NumericCursor values = columns.get(col).numericCursor();
+    Array array = new Array(columns.get(col).name(), store);
+    array.add(new Numeric(), table_rows);
+    NumericCursor copy = array.numericCursor();
+    for (int i = 0; i < table_rows; i++)
+      if (!values.isEmpty(i)) copy.setDouble(i, values.getDouble(i));
+    columns.set(col, array);
+    array.checkDensity();
+  }
+
+  /**
+   * Returns a cursor reading and writing the cells of a
+   * {@code DataTypes.NUMERIC} column as {@code double} values, without
+   * creating {@code Data} objects. The cursor is bound to the current column
+   * and must be created again after the column is converted.
+   *
+   * @param col the index of the column.
+   * @return a numeric cursor on the column.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   * @throws UnsupportedOperationException if the column is not numeric.
+   */
+  public NumericCursor numericCursor(int col) {
+    // check if col index is valid
+    if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
+              "col=" + col + " is not a valid column index in " + table_name);
+    return columns.get(col).numericCursor();
+  }
+
+  /**
+   * Returns a cursor reading and writing the cells of a
+   * {@code DataTypes.CHARACTER} column as {@code String} values, without
+   * creating {@code Data} objects. The cursor is bound to the current column
+   * and must be created again after the column is converted.
+   *
+   * @param col the index of the column.
+   * @return a character cursor on the column.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   * @throws UnsupportedOperationException if the column is not character.
+   */
+  public CharacterCursor characterCursor(int col) {
+    // check if col index is valid
+    if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
+              "col=" + col + " is not a valid column index in " + table_name);
+    return columns.get(col).characterCursor();
+  }
+
+  /**
+   * Returns a view of a range of rows, whose columns are views of the
+   * columns of the table, see {@link Array#view(int, int)}. Cells of the view
+   * share the elements of the table and writes go through it, while rows
+   * cannot be added to or removed from the view. The view is not valid
+   * anymore once rows are inserted in or removed from the table. Cells set
+   * through the view are recorded by the {@link Journal} of the table, if
+   * any.
+   *
+   * @param from first row of the range.
+   * @param to end of the range, exclusive.
+   * @return a view of the rows.
+   * @throws ArrayIndexOutOfBoundsException if the range is not valid.
+   */
+  public Table view(int from, int to) {
+    if (from < 0 || to > table_rows || from > to)
+      throw new ArrayIndexOutOfBoundsException(
+              "from=" + from + ", to=" + to + " is not a valid row range in "
+              + table_name);
+    ArrayList<Array> views = new ArrayList<>(table_cols);
+    for (int i = 0; i < table_cols; i++)
+      views.add(columns.get(i).view(from, to));
+    return new Table(this, views, to - from, true);
+  }
+
+  /**
+   * Returns a view of the selected rows, in the given order, with the same
+   * behaviour of {@link #view(int, int)}.
+   *
+   * @param rows indexes of the selected rows.
+   * @return a view of the rows.
+   * @throws ArrayIndexOutOfBoundsException if a row index is not valid.
+   */
+  public Table view(int[] rows) {
+    for (int i = 0; i < rows.length; i++)
+      if (!isRowIndex(rows[i])) throw new ArrayIndexOutOfBoundsException(
+                "row=" + rows[i] + " is not a valid row index in "
+                + table_name);
+    ArrayList<Array> views = new ArrayList<>(table_cols);
+    for (int i = 0; i < table_cols; i++)
+      views.add(columns.get(i).select(rows));
+    return new Table(this, views, rows.length, true);
+  }
+
+  /**
+   * Returns a view of the rows whose bit is set in the given {@code Bitmap},
+   * with the same behaviour of {@link #view(int, int)}.
+   *
+   * @param rows bitmap of the selected rows, with one bit for each row.
+   * @return a view of the rows.
+   * @throws IllegalArgumentException if the bitmap has a different size.
+   */
+  public Table view(Bitmap rows) {
+    if (rows.size() != table_rows) throw new IllegalArgumentException(
+              "Bitmap size does not match the rows of " + table_name);
+    int[] positions = new int[rows.cardinality()];
+    for (int i = rows.nextSetBit(0), k = 0; i >= 0; i = rows.nextSetBit(i + 1))
+      positions[k++] = i;
+    return view(positions);
+  }
+
+  /**
+   * Returns a view of the rows of a {@link SelectionGroup}, with the same
+   * behaviour of {@link #view(int, int)}.
+   *
+   * @param group the selection group.
+   * @return a view of the rows of the group.
+   * @throws ArrayIndexOutOfBoundsException if a row index is not valid.
+   */
+  public Table view(SelectionGroup group) {
+    return view(group.getElements());
+  }
+
+  /**
+   * Creates a sorted index on a numeric column, see
+   * {@link DataTypes#isNumeric()}, used by
+   * {@link #findRows(int, double, double)} and
+   * {@link #findRows(int, long, long)} to answer range and equality queries
+   * without scanning the column. The index is kept up to date by any change
+   * of the column, including rows insertion and removal, and is dropped if
+   * the column is converted to another type.
+   *
+   * @param col the index of the column.
+   * @return true if successful, false if the column is not numeric or is
+   * computed.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public boolean createIndex(int col) {
+    // check if col index is valid
+    if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
+              "col=" + col + " is not a valid column index in " + table_name);
+    return columns.get(col).createIndex();
+  }
+
+  /**
+   * Drops the sorted index of a column.
+   *
+   * @param col the index of the column.
+   * @return true if the column was indexed, else false.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public boolean dropIndex(int col) {
+    // check if col index is valid
+    if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
+              "col=" + col + " is not a valid column index in " + table_name);
+    return columns.get(col).dropIndex();
+  }
+
+  /**
+   * Checks if a column has a sorted index.
+   *
+   * @param col the index of the column.
+   * @return true if indexed, else false.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public boolean isColumnIndexed(int col) {
+    // check if col index is valid
+    if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
+              "col=" + col + " is not a valid column index in " + table_name);
+    return columns.get(col).index() != null;
+  }
+
+  /**
+   * Returns the rows of a numeric column, see {@link DataTypes#isNumeric()},
+   * whose value is between the given bounds, inclusive. Null elements never
+   * match. Integral columns match the whole numbers between the bounds, see
+   * {@link #findRows(int, long, long)}. If the column is indexed the query
+   * takes {@code O(log n + k)} for {@code k} matching rows, else the column
+   * is scanned.
+   *
+   * @param col the index of the column.
+   * @param min lower bound of the values.
+   * @param max upper bound of the values.
+   * @return bitmap of the matching rows, with one bit for each row.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   * @throws UnsupportedOperationException if the column is not numeric.
+   */
+  public Bitmap findRows(int col, double min, double max) {
+    // check if col index is valid
+    if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
+              "col=" + col + " is not a valid column index in " + table_name);
+    Array column = columns.get(col);
+    if (column.type() != DataTypes.NUMERIC && column.type().isNumeric())
+    {
+      // no whole number lies beyond the range of long, nor matches NaN
+      if (!(min < 0x1p63) || !(max >= -0x1p63)) return new Bitmap(table_rows);
+      return findRows(col, (long) Math.ceil(min), (long) Math.floor(max));
+    }
+    if (column.index() != null)
+      return column.index().find(min, max, table_rows);
+    // scan the valid values of the column
+    NumericCursor cursor = column.numericCursor();
+    Bitmap result = new Bitmap(table_rows);
+    for (int i = 0; i < table_rows; i++)
+    {
+      if (cursor.isEmpty(i)) continue;
+      double value = cursor.getDouble(i);
+      if (Double.compare(value, min) >= 0 && Double.compare(value, max) <= 0)
+        result.set(i);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the rows of a {@code DataTypes.NUMERIC} column holding the given
+   * value, see {@link #findRows(int, double, double)}.
+   *
+   * @param col the index of the column.
+   * @param value the searched value.
+   * @return bitmap of the matching rows, with one bit for each row.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   * @throws UnsupportedOperationException if the column is not numeric.
+   */
+  public Bitmap findRows(int col, double value) {
+    return findRows(col, value, value);
+  }
+
+  /**
+   * Returns the rows of a numeric column, see {@link DataTypes#isNumeric()},
+   * whose value is between the given bounds, inclusive. Values of integral
+   * columns are compared exactly, so that {@code DataTypes.DATETIME} columns
+   * can be queried by nanoseconds since the epoch. Values of
+   * {@code DataTypes.NUMERIC} columns are compared to the bounds converted
+   * to {@code double}. Null elements never match. If the column is indexed
+   * the query takes {@code O(log n + k)} for {@code k} matching rows, else
+   * the column is scanned.
+   *
+   * @param col the index of the column.
+   * @param min lower bound of the values.
+   * @param max upper bound of the values.
+   * @return bitmap of the matching rows, with one bit for each row.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   * @throws UnsupportedOperationException if the column is not numeric.
+   */
+  public Bitmap findRows(int col, long min, long max) {
+    // check if col index is valid
+    if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
+              "col=" + col + " is not a valid column index in " + table_name);
+    Array column = columns.get(col);
+    if (!column.type().isNumeric() || column.type() == DataTypes.NUMERIC)
+      return findRows(col, (double) min, (double) max);
+    if (column.index() != null)
+      return column.index().find(min, max, table_rows);
+    // scan the valid values of the column one block at a time
+    Bitmap result = new Bitmap(table_rows);
+    long[] values = new long[Math.min(ChunkedStorage.CHUNK_SIZE, table_rows)];
+    long[] validity = new long[(values.length + Bitmap.WORD_SIZE - 1)
+            / Bitmap.WORD_SIZE];
+    for (int from = 0; from < table_rows; from += values.length)
+    {
+      int length = Math.min(values.length, table_rows - from);
+      column.getLongs(from, values, 0, length);
+      column.getValidity(from, validity, length);
+      for (int w = 0; w * Bitmap.WORD_SIZE < length; w++)
+        for (long word = validity[w]; word != 0L; word &= word - 1)
+        {
+          int i = w * Bitmap.WORD_SIZE + Long.numberOfTrailingZeros(word);
+          if (values[i] >= min && values[i] <= max) result.set(from + i);
+        }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the rows of a numeric column holding the given value, see
+   * {@link #findRows(int, long, long)}.
+   *
+   * @param col the index of the column.
+   * @param value the searched value.
+   * @return bitmap of the matching rows, with one bit for each row.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   * @throws UnsupportedOperationException if the column is not numeric.
+   */
+  public Bitmap findRows(int col, long value) {
+    return findRows(col, value, value);
+  }
+
+  /**
+   * Returns the rows satisfying the given filter. The filter is compiled
+   * against the columns of the table and evaluated one block of rows at a
+   * time on primitive buffers, in parallel on large tables. The result can be
+   * turned into a view with {@link #view(Bitmap)} or into a selection group
+   * with {@link SelectionGroup#addIndexes(Bitmap)}.
+   *
+   * @param filter the filter.
+   * @return bitmap of the matching rows, with one bit for each row.
+   * @throws ArrayIndexOutOfBoundsException if a column index is not valid.
+   * @throws IllegalArgumentException if a column has the wrong data type.
+   */
+  public Bitmap filter(Filter filter) {
+    long[] words = new long[(table_rows + Bitmap.WORD_SIZE - 1)
+            / Bitmap.WORD_SIZE];
+    if (table_rows == 0) return new Bitmap(words, 0);
+    Predicate predicate = filter.compile(this);
+    if (store == null && table_rows > Parallel.THRESHOLD)
+      Parallel.pool().invoke(new FilterTask(predicate, words, 0, table_rows));
+    else FilterTask.filter(predicate, words, 0, table_rows);
+    return new Bitmap(words, table_rows);
+  }
+
+  /**
+   * Returns the permutation of the rows sorting the table on the given keys:
+   * the row at position {@code i} of the sorted table is the row
+   * {@code index[i]} of this table. Keys are extracted once in primitive
+   * arrays, character keys as the rank of each string, and the permutation
+   * is computed with a stable merge sort, in parallel on large tables. Rows
+   * with equal keys keep their order.
+   *
+   * @param keys the sort keys, in order of priority.
+   * @return the sorting permutation of the rows.
+   * @throws ArrayIndexOutOfBoundsException if a column index is not valid.
+   */
+  public int[] sortIndex(SortKey... keys) {
+    Array[] sorted = new Array[keys.length];
+    for (int k = 0; k < keys.length; k++)
+    {
+      if (!isColumnIndex(keys[k].column()))
+        throw new ArrayIndexOutOfBoundsException(
+                "col=" + keys[k].column() + " is not a valid column index in "
+                + table_name);
+      sorted[k] = columns.get(keys[k].column());
+    }
+    int[] index = new int[table_rows];
+    for (int i = 0; i < table_rows; i++)
+      index[i] = i;
+    if (keys.length == 0 || table_rows < 2) return index;
+    RowComparator comparator = new RowComparator(sorted, keys);
+    int[] buffer = new int[table_rows];
+    if (table_rows > Parallel.THRESHOLD) Parallel.pool().invoke(
+              new SortTask(comparator, index, buffer, 0, table_rows));
+    else SortTask.sort(comparator, index, buffer, 0, table_rows);
+    return index;
+  }
+
+  /**
+   * Returns a view of the table sorted on the given keys, see
+   * {@link #sortIndex(SortKey...)} and {@link #view(int[])}. No element is
+   * moved: use {@link #materialize()} on the view to get a sorted copy.
+   *
+   * @param keys the sort keys, in order of priority.
+   * @return a sorted view of the table.
+   * @throws ArrayIndexOutOfBoundsException if a column index is not valid.
+   */
+  public Table sorted(SortKey... keys) {
+    return view(sortIndex(keys));
+  }
+
+  /**
+   * Groups the rows of the table on the given key columns and computes the
+   * given aggregates for each group. The result is a new table with one row
+   * for each distinct combination of keys, in order of first appearance,
+   * holding the key columns followed by one numeric column for each
+   * aggregate. Null keys form a group of their own, while aggregates ignore
+   * null values and are null for groups without valid values. With no key
+   * columns the whole table is a single group.
+   * <p>
+   * Rows are hashed on primitive keys, dictionary codes for encoded
+   * character columns, without creating objects per row. Large tables are
+   * split in ranges grouped in parallel, whose partial aggregates are merged
+   * at the end.
+   *
+   * @param keys indexes of the key columns, at most 64.
+   * @param aggregates the aggregates to be computed.
+   * @return a new table with the groups and their aggregates.
+   * @throws ArrayIndexOutOfBoundsException if a column index is not valid.
+   * @throws IllegalArgumentException if there are too many key columns, or
+   * if a value column is not numeric for aggregates other than count.
+   */
+  public Table groupBy(int[] keys, Aggregate... aggregates) {
+    if (keys.length > Long.SIZE) throw new IllegalArgumentException(
+              "Cannot group on more than " + Long.SIZE + " columns.");
+    // collect the key columns, with ids for plain character columns
+    Storage[] key_storages = new Storage[keys.length];
+    int[][] ids = new int[keys.length][];
+    ArrayList<ArrayList<String>> labels = new ArrayList<>(keys.length);
+    for (int k = 0; k < keys.length; k++)
+    {
+      if (!isColumnIndex(keys[k])) throw new ArrayIndexOutOfBoundsException(
+                "col=" + keys[k] + " is not a valid column index in "
+                + table_name);
+      Storage storage = columns.get(keys[k]).storage();
+      key_storages[k] = storage;
+      labels.add(null);
+      if (storage.type() != DataTypes.CHARACTER
+              || storage.dictionary() != null) continue;
+      HashMap<String, Integer> distinct = new HashMap<>();
+      ArrayList<String> names = new ArrayList<>();
+      ids[k] = new int[table_rows];
+      for (int i = 0; i < table_rows; i++)
+      {
+        if (storage.isEmpty(i))
+        {
+          ids[k][i] = -1;
+          continue;
+        }
+        String value = storage.getString(i);
+        Integer id = distinct.get(value);
+        if (id == null)
+        {
+          id = names.size();
+          distinct.put(value, id);
+          names.add(value);
+        }
+        ids[k][i] = id;
+      }
+      labels.set(k, names);
+    }
+    // collect the distinct value columns of the aggregates
+    ArrayList<Integer> value_cols = new ArrayList<>();
+    int[] value_of = new int[aggregates.length];
+    for (int a = 0; a < aggregates.length; a++)
+    {
+      int col = aggregates[a].column();
+      value_of[a] = -1;
+      if (col < 0) continue;
+      if (!isColumnIndex(col)) throw new ArrayIndexOutOfBoundsException(
+                "col=" + col + " is not a valid column index in "
+                + table_name);
+      if (aggregates[a].function() != Aggregate.Functions.COUNT
+              && !getColumnType(col).isNumeric())
+        throw new IllegalArgumentException(
+                "Cannot compute " + aggregates[a].function().label()
+                + " of " + getColumnType(col) + " column "
+                + getColumnName(col) + ".");
+      value_of[a] = value_cols.indexOf(col);
+      if (value_of[a] >= 0) continue;
+      value_of[a] = value_cols.size();
+      value_cols.add(col);
+    }
+    Storage[] value_storages = new Storage[value_cols.size()];
+    for (int c = 0; c < value_storages.length; c++)
+      value_storages[c] = columns.get(value_cols.get(c)).storage();
+    // group the rows, in one range for each worker of the pool
+    int grain = Parallel.grain(table_rows);
+    GroupTask task = new GroupTask(key_storages, ids, value_storages, grain,
+            0, table_rows);
+    GroupTable groups;
+    if (store == null && table_rows > grain)
+      groups = Parallel.pool().invoke(task);
+    else groups = task.compute();
+    if (keys.length == 0 && groups.groups() == 0)
+      // the whole table is a single, possibly empty, group
+      groups.find(new long[1]);
+    int size = groups.groups();
+    // build the key columns of the result
+    StringBuilder name = new StringBuilder(table_name);
+    for (int k = 0; k < keys.length; k++)
+      name.append((k == 0) ? " by " : ", ").append(getColumnName(keys[k]));
+    TableBuilder result = new TableBuilder(name.toString(), size);
+    for (int k = 0; k < keys.length; k++)
+    {
+      int col = result.addColumn(getColumnName(keys[k]),
+              key_storages[k].type());
+      Dictionary dictionary = key_storages[k].dictionary();
+      for (int g = 0; g < size; g++)
+        if (groups.isNull(g, k)) result.appendNull(col);
+        else if (key_storages[k].type() == DataTypes.NUMERIC)
+          result.appendDouble(col, Double.longBitsToDouble(groups.key(g, k)));
+        else if (key_storages[k].type().isNumeric())
+          result.appendLong(col, groups.key(g, k));
+        else if (dictionary != null)
+          result.appendString(col, dictionary.get((int) groups.key(g, k)));
+        else result.appendString(col, labels.get(k).get((int) groups.key(g, k)));
+    }
+    // build the aggregate columns of the result
+    for (int a = 0; a < aggregates.length; a++)
+    {
+      Aggregate.Functions function = aggregates[a].function();
+      String label = function.label();
+      if (aggregates[a].column() >= 0)
+        label += "(" + getColumnName(aggregates[a].column()) + ")";
+      int col = result.addColumn(label, DataTypes.NUMERIC);
+      for (int g = 0; g < size; g++)
+        if (groups.isDefined(function, g, value_of[a]))
+          result.appendDouble(col, groups.get(function, g, value_of[a]));
+        else result.appendNull(col);
+    }
+    return result.build();
+  }
+
+  /**
+   * Returns a writable copy of the table, which does not depend on it
+   * anymore. Views are copied in their order of rows and computed columns
+   * are copied as plain columns. Unchanged blocks of elements are shared
+   * with the table and copied on write, so copying a table is cheap.
+   *
+   * @return a copy of the table.
+   */
+  public Table materialize() {
+    ArrayList<Array> copies = new ArrayList<>(table_cols);
+    for (int i = 0; i < table_cols; i++)
+      copies.add(columns.get(i).copy());
+    return new Table(this, copies, table_rows, false);
+  }
+
+  /**
+   * Checks if the {@code Table} is a view of another table.
+   *
+   * @return true if a view, else false.
+   */
+  public boolean isView() {
+    return parent != null;
+  }
+
+  /**
+   * Returns a read-only snapshot of the {@code Table} object holding its
+   * current content. Columns of the snapshot share unchanged blocks of
+   * elements with the table, so that taking a snapshot is cheap and only the
+   * blocks modified later are copied. Statistics, plots and exports can run
+   * on other threads against the snapshot without locking the table.
+   *
+   * @return a read-only snapshot of the table.
+   */
+  public Table snapshot() {
+    if (readOnly) return this;
+    return new Table(this);
+  }
+
   /**
    * Builds a string representation of the {@code Table} object. This
    * function is used for debugging purpose.
@@ -760,6 +1813,174 @@ public class Table {
   }
   //</editor-fold>
 
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Sets the {@link Journal} recording the edits of the table.
+   *
+   * @param journal the journal, or null to stop recording.
+   * @throws UnsupportedOperationException if the table is read-only or
+   * shared between threads.
+   */
+  void setJournal(Journal journal) {
+    if (journal != null) checkWritable();
+    if (journal != null && shared) throw new UnsupportedOperationException(
+              table_name + " is shared by a concurrent table");
+    this.journal = journal;
+  }
+
+  /**
+   * Marks the table as shared between threads by a {@link ConcurrentTable}.
+   * Edits of shared tables are not recorded, since a {@link Journal} is not
+   * thread-safe.
+   *
+   * @throws UnsupportedOperationException if edits of the table are being
+   * recorded.
+   */
+  void share() {
+    if (journal != null) throw new UnsupportedOperationException(
+              table_name + " is recorded by a journal");
+    shared = true;
+  }
+
+  /**
+   * Returns the list of columns of the table, which must be passed back to
+   * {@link #restore(ArrayList, int)} after being modified.
+   *
+   * @return the columns of the table.
+   */
+  ArrayList<Array> columnList() {
+    return columns;
+  }
+
+  /**
+   * Replaces the columns of the table, as done by a {@link Journal} reverting
+   * or applying again an edit. The columns must have the given number of
+   * rows and distinct names.
+   *
+   * @param columns the new columns.
+   * @param rows number of rows of the columns.
+   */
+  void restore(ArrayList<Array> columns, int rows) {
+    this.columns = columns;
+    table_cols = columns.size();
+    table_rows = rows;
+    column_index.clear();
+    indexColumns(0);
+    checkDensity();
+  }
+
+  /**
+   * Joins the table with another one on pairs of key columns, returning a
+   * new table with the columns of this table followed by the non-key
+   * columns of the other one. Rows match if all their keys are equal, null
+   * keys never match; with an outer join, rows of this table without
+   * matches are kept with null values in the columns of the other one.
+   * Rows of the result follow the order of the rows of this table, then of
+   * the other one.
+   * <p>
+   * The smaller table is hashed on its keys and the rows of the larger one
+   * are looked up in parallel ranges. Character columns of the result share
+   * the dictionaries of the joined columns.
+   *
+   * @param right the other table.
+   * @param leftKeys indexes of the key columns of this table.
+   * @param rightKeys indexes of the key columns of the other table.
+   * @param outer true for a left outer join, false for an inner join.
+   * @return a new table with the joined rows.
+   * @throws ArrayIndexOutOfBoundsException if a column index is not valid.
+   * @throws IllegalArgumentException if there are no keys, if the keys are
+   * not paired or if paired keys have different data types.
+   */
+  Table join(Table right, int[] leftKeys, int[] rightKeys, boolean outer) {
+    if (leftKeys.length == 0 || leftKeys.length != rightKeys.length)
+      throw new IllegalArgumentException(
+              "Key columns of " + table_name + " and " + right.table_name
+              + " must be paired.");
+    Storage[] left_storages = new Storage[leftKeys.length];
+    Storage[] right_storages = new Storage[rightKeys.length];
+    boolean[] right_key = new boolean[right.table_cols];
+    for (int k = 0; k < leftKeys.length; k++)
+    {
+      if (!isColumnIndex(leftKeys[k])) throw new ArrayIndexOutOfBoundsException(
+                "col=" + leftKeys[k] + " is not a valid column index in "
+                + table_name);
+      if (!right.isColumnIndex(rightKeys[k]))
+        throw new ArrayIndexOutOfBoundsException(
+                "col=" + rightKeys[k] + " is not a valid column index in "
+                + right.table_name);
+      if (getColumnType(leftKeys[k]) != right.getColumnType(rightKeys[k]))
+        throw new IllegalArgumentException(
+                "Cannot join " + getColumnType(leftKeys[k]) + " column "
+                + getColumnName(leftKeys[k]) + " with "
+                + right.getColumnType(rightKeys[k]) + " column "
+                + right.getColumnName(rightKeys[k]) + ".");
+      left_storages[k] = columns.get(leftKeys[k]).storage();
+      right_storages[k] = right.columns.get(rightKeys[k]).storage();
+      right_key[rightKeys[k]] = true;
+    }
+    // hash the smaller table and probe the larger one
+    boolean left_builds = table_rows < right.table_rows;
+    int probe_rows = left_builds ? right.table_rows : table_rows;
+    HashJoin join = left_builds
+            ? new HashJoin(left_storages, right_storages, table_rows)
+            : new HashJoin(right_storages, left_storages, right.table_rows);
+    boolean[] matched = (outer && left_builds) ? new boolean[table_rows]
+            : null;
+    int grain = Parallel.grain(probe_rows);
+    JoinTask task = new JoinTask(join, outer && !left_builds, matched, grain,
+            0, probe_rows);
+    int[] pairs;
+    if (store == null && right.store == null && probe_rows > grain)
+      pairs = Parallel.pool().invoke(task);
+    else pairs = task.compute();
+    // collect the rows of the result, in order of the rows of this table
+    int size = pairs.length / 2;
+    int[] left_rows = new int[size];
+    int[] right_rows = new int[size];
+    if (!left_builds) for (int i = 0; i < size; i++)
+      {
+        left_rows[i] = pairs[2 * i];
+        right_rows[i] = pairs[2 * i + 1];
+      }
+    else
+    {
+      // counting sort of the pairs on the rows of this table
+      int[] start = new int[table_rows + 1];
+      for (int i = 0; i < size; i++)
+        start[pairs[2 * i + 1] + 1]++;
+      if (outer) for (int row = 0; row < table_rows; row++)
+          if (!matched[row]) start[row + 1]++;
+      for (int row = 0; row < table_rows; row++)
+        start[row + 1] += start[row];
+      size = start[table_rows];
+      left_rows = new int[size];
+      right_rows = new int[size];
+      for (int i = 0; i < pairs.length; i += 2)
+      {
+        int position = start[pairs[i + 1]]++;
+        left_rows[position] = pairs[i + 1];
+        right_rows[position] = pairs[i];
+      }
+      if (outer) for (int row = 0; row < table_rows; row++)
+          if (!matched[row])
+          {
+            left_rows[start[row]] = row;
+            right_rows[start[row]] = -1;
+          }
+    }
+    // gather the columns of the result
+    ArrayList<Array> result = new ArrayList<>(table_cols + right.table_cols);
+    HashSet<String> names = new HashSet<>();
+    for (int i = 0; i < table_cols; i++)
+      result.add(columns.get(i).gather(
+              uniqueName(getColumnName(i), names), left_rows));
+    for (int i = 0; i < right.table_cols; i++)
+      if (!right_key[i]) result.add(right.columns.get(i).gather(
+                uniqueName(right.getColumnName(i), names), right_rows));
+    return new Table(table_name + " join " + right.table_name, result, size);
+  }
+  //</editor-fold>
+
   //<editor-fold defaultstate="collapsed" desc="Private Methods">
   /**
    * The function returns a untitled column name. It uses a counter to
@@ -779,6 +2000,187 @@ public class Table {
     return untitled_name;
   }
 
+  /**
+   * Returns the given name, or the name followed by a progressive number if
+   * already in use, and adds it to the names in use.
+   *
+   * @param name the preferred name.
+   * @param names the names in use.
+   * @return a name not in use.
+   */
+  static String uniqueName(String name, HashSet<String> names) {
+    String unique = name;
+    for (int i = 2; !names.add(unique); i++)
+      unique = name + " " + i;
+    return unique;
+  }
+
+  /**
+   * Materializes the computed columns depending on the given column, before
+   * it is removed from the table or replaced.
+   *
+   * @param source a column of the table.
+   */
+  private void materializeDependents(Array source) {
+    for (int i = 0; i < table_cols; i++)
+      if (columns.get(i) != source && columns.get(i).dependsOn(source))
+        materialize(i);
+  }
+
+  /**
+   * Lets each column switch between dense and sparse storage after rows or
+   * columns were added or removed, see {@link Array#checkDensity()}.
+   */
+  private void checkDensity() {
+    for (int i = 0; i < table_cols; i++)
+      columns.get(i).checkDensity();
+  }
+
+  /**
+   * Updates the hash index of column names starting from the given column.
+   * New names must not clash with the names of other columns.
+   *
+   * @param from first column whose position has changed.
+   */
+  private void indexColumns(int from) {
+    for (int i = from; i < table_cols; i++)
+      column_index.put(columns.get(i).name(), i);
+  }
+
+  /**
+   * Returns the journal recording the cell edits of the table. Cells of a
+   * view are cells of the viewed table, so their edits are recorded by the
+   * journal of that table.
+   *
+   * @return the journal recording the cell edits, or null if they are not
+   * recorded.
+   */
+  private Journal cellJournal() {
+    if (parent != null) return parent.cellJournal();
+    return isJournaled() ? journal : null;
+  }
+
+  /**
+   * Records the edit of a cell in the given journal. Cells of a view are
+   * recorded at their column and row in the viewed table, unless the column
+   * is not a view of a column of that table anymore.
+   *
+   * @param cells the journal returned by {@link #cellJournal()}.
+   * @param col the column index of the cell.
+   * @param row the row index of the cell.
+   * @param before the old content of the cell.
+   */
+  private void recordCell(Journal cells, int col, int row, Data before) {
+    Data after = columns.get(col).get(row);
+    Table table = this;
+    while (table.parent != null)
+    {
+      // map the cell to the viewed table
+      Storage storage = table.columns.get(col).storage();
+      if (!(storage instanceof ViewStorage)) return;
+      ViewStorage cell = (ViewStorage) storage;
+      table = table.parent;
+      col = table.columns.indexOf(cell.parent());
+      if (col < 0) return;
+      row = cell.parentIndex(row);
+    }
+    cells.record(Journal.cell(col, row, before, after));
+  }
+
+  /**
+   * Checks if the edits of the table must be recorded by its journal.
+   *
+   * @return true if recording, else false.
+   */
+  private boolean isJournaled() {
+    return journal != null && journal.isRecording();
+  }
+
+  /**
+   * Returns a copy of the list of columns before an edit replacing some of
+   * them, to be passed to {@link #recordColumns(ArrayList)}.
+   *
+   * @return a copy of the columns, or null if edits are not recorded.
+   */
+  private ArrayList<Array> columnsBefore() {
+    return isJournaled() ? new ArrayList<>(columns) : null;
+  }
+
+  /**
+   * Records an edit replacing some columns of the table.
+   *
+   * @param before the columns before the edit, or null if not recorded.
+   */
+  private void recordColumns(ArrayList<Array> before) {
+    if (before != null)
+      journal.record(Journal.columns(before, new ArrayList<>(columns)));
+  }
+
+  /**
+   * Returns the elements of the given rows for each column, null for
+   * computed columns, so that they can be restored after the rows are
+   * removed.
+   *
+   * @param rows positions of the rows.
+   * @return the elements of each column.
+   */
+  private Array[] gather(int[] rows) {
+    Array[] values = new Array[table_cols];
+    for (int i = 0; i < table_cols; i++)
+      if (!columns.get(i).isComputed())
+        values[i] = columns.get(i).gather(columns.get(i).name(), rows);
+    return values;
+  }
+
+  /**
+   * Checks that the {@code Table} object can be modified.
+   *
+   * @throws UnsupportedOperationException if the table is read-only.
+   */
+  private void checkWritable() {
+    if (readOnly) throw new UnsupportedOperationException(
+              table_name + " is a read-only snapshot");
+  }
+
+  /**
+   * Checks that rows can be added to or removed from the {@code Table}
+   * object.
+   *
+   * @throws UnsupportedOperationException if the table is read-only or a
+   * view.
+   */
+  private void checkResizable() {
+    checkWritable();
+    if (parent != null) throw new UnsupportedOperationException(
+              "Rows cannot be added to or removed from a view of "
+              + table_name);
+  }
+
+  /**
+   * Returns a sorted copy of the given row indexes without duplicates. Each
+   * index must be lower than the given limit.
+   *
+   * @param rows row indexes in any order.
+   * @param limit the first invalid index.
+   * @return sorted and distinct row indexes.
+   * @throws ArrayIndexOutOfBoundsException if a row index is not valid.
+   */
+  private int[] sortedRows(int[] rows, int limit) {
+    int[] sorted = rows.clone();
+    Arrays.sort(sorted);
+    int number = 0;
+    for (int i = 0; i < sorted.length; i++)
+    {
+      if (sorted[i] < 0 || sorted[i] >= limit)
+        throw new ArrayIndexOutOfBoundsException(
+                "row=" + sorted[i] + " is not a valid row index in "
+                + table_name);
+      if (number == 0 || sorted[number - 1] != sorted[i])
+        sorted[number++] = sorted[i];
+    }
+    return Arrays.copyOf(sorted, number);
+  }
+
   /**
    * The function returns a new untitled table name. It uses a counter to
    * keep track of newly created table but it doesn't check for uniqueness of
@@ -791,6 +2193,49 @@ public class Table {
     return "Table" + untitled_table++;
   }
 
+  /**
+   * Converts a valid element of a storage to another data type. Strings are
+   * parsed, integral types accept numbers without fractional part within
+   * their range, booleans only 0 and 1.
+   *
+   * @param source storage of the element.
+   * @param row position of the element.
+   * @param type the new data type, other than the one of the storage.
+   * @param target storage of the converted column, null to only check if
+   * the element can be converted.
+   * @return true if the element can be converted, else false.
+   */
+  private static boolean convert(Storage source, int row, DataTypes type,
+          Storage target) {
+    if (type == DataTypes.CHARACTER)
+    {
+      if (target != null) target.set(row, source.getString(row));
+      return true;
+    }
+    if (source.type() == DataTypes.CHARACTER)
+    {
+      String value = source.getString(row);
+      if (target != null) return target.set(row, value);
+      return Array.nullElement(type).set(value);
+    }
+    if (type == DataTypes.NUMERIC)
+    {
+      if (target != null) target.setDouble(row, source.getDouble(row));
+      return true;
+    }
+    long value;
+    if (source.type() == DataTypes.NUMERIC)
+    {
+      double number = source.getDouble(row);
+      value = (long) number;
+      // reject fractions, NaN and values beyond the range of long
+      if (value != number || number >= 0x1p63) return false;
+    } else value = source.getLong(row);
+    if (!type.accepts(value)) return false;
+    if (target != null) target.setLong(row, value);
+    return true;
+  }
+
   /**
    * The function returns an empty {@link Array} of given data type. The
    * number of rows is equal to the current table row number. It is used for
@@ -802,18 +2247,8 @@ public class Table {
    */
   private Array getEmptyArray(DataTypes type) {
     // based on DataType add a column to the table
-    Array new_array = new Array(getUntitledColumn());
-    switch (type)
-    {
-      case NUMERIC:
-        new_array.add(new Numeric());
-        break;
-      case CHARACTER:
-      case UNDEFINED:
-      default:
-        new_array.add(new Character());
-        break;
-    }
+    Array new_array = new Array(getUntitledColumn(), store);
+    new_array.add(Array.nullElement(type));
     new_array.fill(table_rows);
     return new_array;
   }
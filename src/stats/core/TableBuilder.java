@@ -0,0 +1,794 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: TableBuilder.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * The {@code TableBuilder} class constructs a new {@code Table} appending
+ * whole rows or single typed values, without the per-cell validation and
+ * storage updates of {@link Table#set(int, int, String)}. Values are kept in
+ * growable primitive buffers, one for each column, which are copied in bulk
+ * to the storages of the table when {@link #build()} is called.
+ * <p>
+ * Columns of {@code DataTypes.UNDEFINED} type infer their type from the
+ * appended strings: they take the narrowest of boolean, integer, long,
+ * numeric and date-time types which can parse all of them, and are converted
+ * to character as soon as a non-empty string cannot be parsed by any. Empty
+ * strings are always stored as null values; columns of empty strings only
+ * are character.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public final class TableBuilder {
+
+  //<editor-fold defaultstate="collapsed" desc="Static Members">
+  /**
+   * Default initial capacity of the column buffers.
+   */
+  public static final int DEFAULT_CAPACITY = 1024;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Name of the table to be built.
+   */
+  private final String name;
+
+  /**
+   * Initial capacity of the column buffers.
+   */
+  private final int capacity;
+
+  /**
+   * Buffers of the columns.
+   */
+  private final ArrayList<Column> columns;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code TableBuilder} class with default capacity.
+   *
+   * @param name the name of the table, if empty an untitled name is used.
+   */
+  public TableBuilder(String name) {
+    this(name, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructor for {@code TableBuilder} class presizing the column buffers
+   * for the expected number of rows. Buffers grow beyond it when needed.
+   *
+   * @param name the name of the table, if empty an untitled name is used.
+   * @param capacity expected number of rows.
+   */
+  public TableBuilder(String name, int capacity) {
+    this.name = name;
+    this.capacity = Math.max(capacity, 16);
+    columns = new ArrayList<>();
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  /**
+   * Returns the number of columns added to the builder.
+   *
+   * @return number of columns.
+   */
+  public int columns() {
+    return columns.size();
+  }
+
+  /**
+   * Returns the number of rows appended to the builder, that is the size of
+   * the longest column.
+   *
+   * @return number of rows.
+   */
+  public int rows() {
+    int rows = 0;
+    for (Column column : columns)
+      rows = Math.max(rows, column.size);
+    return rows;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Public Methods">
+  /**
+   * Adds a new empty column. If the name is null, empty or already used by
+   * another column, the column is renamed when the table is built.
+   *
+   * @param name the name of the column.
+   * @param type the data type of the column, {@code DataTypes.UNDEFINED} to
+   * infer it from the appended strings.
+   * @return the index of the new column.
+   */
+  public int addColumn(String name, DataTypes type) {
+    return this.addColumn(name, type, Precision.FLOAT64);
+  }
+
+  /**
+   * Adds a new empty column whose numeric values are stored with the given
+   * precision. The precision applies if the column is
+   * {@code DataTypes.NUMERIC} or is inferred as such, and is ignored
+   * otherwise.
+   *
+   * @param name the name of the column.
+   * @param type the data type of the column, {@code DataTypes.UNDEFINED} to
+   * infer it from the appended strings.
+   * @param precision precision of numeric values.
+   * @return the index of the new column.
+   */
+  public int addColumn(String name, DataTypes type, Precision precision) {
+    columns.add(new Column(name, type, precision, capacity));
+    return columns.size() - 1;
+  }
+
+  /**
+   * Appends a row of string values, one for each column. Strings that cannot
+   * be parsed by numeric columns are appended as null values.
+   *
+   * @param values the values of the row.
+   * @return true if the row was appended, false if the number of values does
+   * not match the number of columns.
+   */
+  public boolean appendRow(String... values) {
+    if (values.length != columns.size()) return false;
+    for (int c = 0; c < values.length; c++)
+      columns.get(c).appendString(values[c]);
+    return true;
+  }
+
+  /**
+   * Appends a row of {@code Data} values, one for each column. Values are
+   * converted as by {@link #appendDouble(int, double)},
+   * {@link #appendLong(int, long)} and {@link #appendString(int, String)}.
+   *
+   * @param values the values of the row.
+   * @return true if the row was appended, false if the number of values does
+   * not match the number of columns.
+   * @throws IllegalArgumentException if a numeric value is given for a
+   * character column.
+   */
+  public boolean appendRow(Data... values) {
+    if (values.length != columns.size()) return false;
+    for (int c = 0; c < values.length; c++)
+    {
+      Column column = columns.get(c);
+      if (values[c] == null || values[c].isEmpty()) column.appendNull();
+      else if (values[c] instanceof Numeric)
+        column.appendDouble(((Numeric) values[c]).get());
+      else if (values[c] instanceof IntegerNumber)
+        column.appendLong(((IntegerNumber) values[c]).get());
+      else if (values[c] instanceof LongNumber)
+        column.appendLong(((LongNumber) values[c]).get());
+      else if (values[c] instanceof DateTime
+              && column.type == DataTypes.DATETIME)
+        column.appendLong(((DateTime) values[c]).get());
+      else column.appendString(values[c].toString());
+    }
+    return true;
+  }
+
+  /**
+   * Appends a numeric value at the end of the given column. Values appended
+   * to {@code DataTypes.UNDEFINED} columns already converted to character are
+   * stored as their string representation. Integer, boolean and date-time
+   * columns append a null value if the value is not integral or out of their
+   * range.
+   *
+   * @param col the index of the column.
+   * @param value the value to be appended.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   * @throws IllegalArgumentException if the column is a character column.
+   */
+  public void appendDouble(int col, double value) {
+    column(col).appendDouble(value);
+  }
+
+  /**
+   * Appends an integral value at the end of the given column: booleans are 0
+   * and 1, date-times nanoseconds since the epoch. Values out of the range of
+   * integer and boolean columns are appended as null values.
+   *
+   * @param col the index of the column.
+   * @param value the value to be appended.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   * @throws IllegalArgumentException if the column is a character column.
+   */
+  public void appendLong(int col, long value) {
+    column(col).appendLong(value);
+  }
+
+  /**
+   * Appends a string at the end of the given column. Columns of other types
+   * than character parse the string, with the rules of
+   * {@link Data#set(String)}, and append a null value if it is not valid.
+   *
+   * @param col the index of the column.
+   * @param value the value to be appended, null or empty for null value.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public void appendString(int col, String value) {
+    column(col).appendString(value);
+  }
+
+  /**
+   * Appends a null value at the end of the given column.
+   *
+   * @param col the index of the column.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  public void appendNull(int col) {
+    column(col).appendNull();
+  }
+
+  /**
+   * Builds a new heap {@code Table} holding the appended rows, copying the
+   * buffers in bulk to the column storages. Columns without a valid name are
+   * named after their position, repeated names are followed by a progressive
+   * number. The builder is emptied and can be used for a new table with the
+   * same columns.
+   *
+   * @return the new table.
+   * @throws IllegalStateException if the columns have different sizes.
+   */
+  public Table build() {
+    int rows = rows();
+    for (int c = 0; c < columns.size(); c++)
+      if (columns.get(c).size != rows) throw new IllegalStateException(
+                "Column " + c + " has " + columns.get(c).size
+                + " rows instead of " + rows + ".");
+    ArrayList<Array> arrays = new ArrayList<>(columns.size());
+    HashSet<String> names = new HashSet<>();
+    for (int c = 0; c < columns.size(); c++)
+    {
+      Column column = columns.get(c);
+      String label = (column.name == null || column.name.isEmpty())
+              ? "Column" + (c + 1) : column.name;
+      arrays.add(Array.wrap(Table.uniqueName(label, names), column.build()));
+    }
+    return new Table(name, arrays, rows);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Returns the buffer of the given column.
+   *
+   * @param col the index of the column.
+   * @return the buffer of the column.
+   * @throws ArrayIndexOutOfBoundsException if the column index is not valid.
+   */
+  private Column column(int col) {
+    if (col < 0 || col >= columns.size())
+      throw new ArrayIndexOutOfBoundsException("col=" + col
+              + " is not a valid column index in the builder of " + name);
+    return columns.get(col);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Column">
+  /**
+   * The {@code Column} class buffers the values of a column. Numeric values
+   * are kept in a {@code double} array, integer, boolean and date-time values
+   * in a {@code long} array, both with a validity word array, character
+   * values as codes of a {@link Dictionary}. Undefined columns keep the
+   * appended strings and the set of data types that can still parse all of
+   * them, so that they can be converted.
+   */
+  private static final class Column {
+
+    /**
+     * Flags of the data types inferred by undefined columns, in order of
+     * preference.
+     */
+    private static final int BOOLEAN = 1, INTEGER = 2, LONG = 4, NUMERIC = 8,
+            DATETIME = 16, ANY = 31;
+
+    /**
+     * Name of the column.
+     */
+    private final String name;
+
+    /**
+     * Declared data type of the column.
+     */
+    private final DataTypes type;
+
+    /**
+     * Precision of the storage of numeric values.
+     */
+    private final Precision precision;
+
+    /**
+     * Initial capacity of the buffers.
+     */
+    private final int capacity;
+
+    /**
+     * Number of buffered values.
+     */
+    private int size;
+
+    /**
+     * Numeric values, null if the column is not numeric.
+     */
+    private double[] values;
+
+    /**
+     * Integer, boolean and date-time values, null if the column is not of
+     * these types.
+     */
+    private long[] longs;
+
+    /**
+     * Validity of the values, a bit is set if the value is not null.
+     */
+    private long[] words;
+
+    /**
+     * Strings appended to an undefined column while not character.
+     */
+    private String[] tokens;
+
+    /**
+     * Flags of the data types which can parse all values appended to an
+     * undefined column.
+     */
+    private int candidates;
+
+    /**
+     * Dictionary of the codes, null if the column is not character.
+     */
+    private Dictionary dictionary;
+
+    /**
+     * Character values as dictionary codes.
+     */
+    private int[] codes;
+
+    /**
+     * Constructor for {@code Column} class.
+     *
+     * @param name name of the column.
+     * @param type declared data type.
+     * @param precision precision of numeric values.
+     * @param capacity initial capacity of the buffers.
+     */
+    Column(String name, DataTypes type, Precision precision, int capacity) {
+      this.name = name;
+      this.type = type;
+      this.precision = precision;
+      this.capacity = capacity;
+      reset();
+    }
+
+    /**
+     * Appends a numeric value. Integer, boolean and date-time columns append
+     * a null value if the value is not integral or out of their range.
+     *
+     * @param value the value.
+     */
+    void appendDouble(double value) {
+      if (dictionary != null)
+      {
+        checkNumeric();
+        appendCode(dictionary.encode(String.valueOf(value)));
+        return;
+      }
+      if (longs != null && type != DataTypes.UNDEFINED)
+      {
+        long integral = (long) value;
+        if (integral != value || value >= 0x1p63) appendNull();
+        else appendLong(integral);
+        return;
+      }
+      if (type == DataTypes.UNDEFINED
+              && !infer(NUMERIC, String.valueOf(value))) return;
+      ensureCapacity(size + 1);
+      values[size] = value;
+      words[size >>> 6] |= 1L << size;
+      size++;
+    }
+
+    /**
+     * Appends an integral value. Integer and boolean columns append a null
+     * value if the value is out of their range.
+     *
+     * @param value the value.
+     */
+    void appendLong(long value) {
+      if (dictionary != null)
+      {
+        checkNumeric();
+        appendCode(dictionary.encode(String.valueOf(value)));
+        return;
+      }
+      if (type == DataTypes.UNDEFINED)
+      {
+        int kind = LONG | NUMERIC;
+        if (DataTypes.INTEGER.accepts(value)) kind |= INTEGER;
+        if (!infer(kind, String.valueOf(value))) return;
+      } else if (!type.accepts(value))
+      {
+        appendNull();
+        return;
+      }
+      ensureCapacity(size + 1);
+      if (values != null) values[size] = value;
+      if (longs != null) longs[size] = value;
+      words[size >>> 6] |= 1L << size;
+      size++;
+    }
+
+    /**
+     * Appends a string, parsing it if the column is not character.
+     *
+     * @param value the value, null or empty for null value.
+     */
+    void appendString(String value) {
+      if (value == null || value.isEmpty())
+      {
+        appendNull();
+        return;
+      }
+      if (dictionary != null)
+      {
+        appendCode(dictionary.encode(value));
+        return;
+      }
+      if (type == DataTypes.UNDEFINED)
+      {
+        appendToken(value);
+        return;
+      }
+      try
+      {
+        switch (type)
+        {
+          case NUMERIC:
+            appendDouble(Double.parseDouble(value));
+            break;
+          case INTEGER:
+            appendLong(Integer.parseInt(value.trim()));
+            break;
+          case LONG:
+            appendLong(Long.parseLong(value.trim()));
+            break;
+          case DATETIME:
+            appendLong(DateTime.parse(value));
+            break;
+          case BOOLEAN:
+          default:
+            Boolean logical = Logical.parse(value);
+            if (logical == null) appendNull();
+            else appendLong(logical ? 1L : 0L);
+        }
+      } catch (NumberFormatException e)
+      {
+        appendNull();
+      }
+    }
+
+    /**
+     * Appends a null value.
+     */
+    void appendNull() {
+      if (dictionary != null)
+      {
+        appendCode(Dictionary.NULL_CODE);
+        return;
+      }
+      ensureCapacity(size + 1);
+      if (values != null) values[size] = Numeric.NULL;
+      if (longs != null) longs[size] = LongNumber.NULL;
+      size++;
+    }
+
+    /**
+     * Returns the storage of the buffered values and empties the buffers.
+     * Values are copied to full blocks of a new {@link ChunkedStorage}, which
+     * shares the dictionary of character columns. Undefined columns take the
+     * first data type which can parse all their values, in order boolean,
+     * integer, long, numeric and date-time; columns of null values only are
+     * character, as when the column is loaded cell by cell. Numeric values
+     * are rounded to {@code float} if the precision of the column is
+     * {@code Precision.FLOAT32}, unless some of them are beyond the range of
+     * {@code float}, in which case the column keeps double precision.
+     *
+     * @return a new storage, null for an empty undefined column.
+     */
+    Storage build() {
+      DataTypes resolved = type;
+      if (type == DataTypes.UNDEFINED)
+        switch ((candidates == ANY) ? 0 : Integer.lowestOneBit(candidates))
+        {
+          case 0:
+            resolved = DataTypes.CHARACTER;
+            break;
+          case BOOLEAN:
+            resolved = DataTypes.BOOLEAN;
+            break;
+          case INTEGER:
+            resolved = DataTypes.INTEGER;
+            break;
+          case LONG:
+            resolved = DataTypes.LONG;
+            break;
+          case DATETIME:
+            resolved = DataTypes.DATETIME;
+            break;
+          default:
+            resolved = DataTypes.NUMERIC;
+        }
+      Storage block = null;
+      if (dictionary != null)
+        block = new CharacterStorage(dictionary, codes, size);
+      else if (type == DataTypes.UNDEFINED && size == 0)
+        block = null;
+      else switch (resolved)
+        {
+          case CHARACTER:
+            block = new CharacterStorage(new Dictionary(), new int[size],
+                    size);
+            break;
+          case INTEGER:
+            int[] ints = new int[size];
+            for (int i = 0; i < size; i++)
+              ints[i] = ((words[i >>> 6] & (1L << i)) == 0L)
+                      ? IntegerNumber.NULL : (int) longs[i];
+            block = new IntegerStorage(ints, words, size);
+            break;
+          case LONG:
+          case DATETIME:
+            block = new LongStorage(resolved, longs, words, size);
+            break;
+          case BOOLEAN:
+            long[] bits = new long[words.length];
+            for (int i = 0; i < size; i++)
+              if (longs[i] != 0L && (words[i >>> 6] & (1L << i)) != 0L)
+                bits[i >>> 6] |= 1L << i;
+            block = new BooleanStorage(bits, words, size);
+            break;
+          case NUMERIC:
+          default:
+            if (precision == Precision.FLOAT32 && fitsFloat())
+            {
+              float[] floats = new float[size];
+              for (int i = 0; i < size; i++)
+                if ((words[i >>> 6] & (1L << i)) != 0L)
+                  floats[i] = (float) values[i];
+              block = new FloatStorage(floats, words, size);
+            } else block = new NumericStorage(values, words, size);
+        }
+      Storage storage = null;
+      if (block != null)
+      {
+        storage = new ChunkedStorage(block.newBlock());
+        storage.append(block, 0, size);
+      }
+      reset();
+      return storage;
+    }
+
+    /**
+     * Appends a non-empty string to an undefined column, recording the data
+     * types which can parse it. Integers are recognized without exceptions,
+     * date-times by their leading {@code yyyy-} pattern.
+     *
+     * @param value the value.
+     */
+    private void appendToken(String value) {
+      int kind = 0;
+      long integral = 0L;
+      double number = 0.0;
+      String text = value.trim();
+      Boolean logical = Logical.parse(text);
+      try
+      {
+        if (logical != null)
+        {
+          kind = BOOLEAN;
+          integral = logical ? 1L : 0L;
+        } else if (isInteger(text))
+        {
+          integral = Long.parseLong(text);
+          number = integral;
+          kind = LONG | NUMERIC;
+          if (DataTypes.INTEGER.accepts(integral)) kind |= INTEGER;
+        } else if (text.length() >= 10 && text.charAt(4) == '-')
+        {
+          integral = DateTime.parse(text);
+          kind = DATETIME;
+        } else
+        {
+          number = Double.parseDouble(text);
+          kind = NUMERIC;
+        }
+      } catch (NumberFormatException e)
+      {
+        // integers beyond the range of long are still numbers
+        if (isInteger(text))
+        {
+          number = Double.parseDouble(text);
+          kind = NUMERIC;
+        }
+      }
+      if (!infer(kind, value)) return;
+      ensureCapacity(size + 1);
+      values[size] = number;
+      longs[size] = integral;
+      words[size >>> 6] |= 1L << size;
+      size++;
+    }
+
+    /**
+     * Narrows the data types of an undefined column to those of a new value.
+     * If no data type is left, the column is converted to character and the
+     * value is appended as string.
+     *
+     * @param kind flags of the data types which can parse the value.
+     * @param value string representation of the value.
+     * @return true if the value must be appended to the numeric buffers,
+     * false if it was appended as string.
+     */
+    private boolean infer(int kind, String value) {
+      if ((candidates & kind) == 0)
+      {
+        // the column cannot be numeric, encode all values
+        convert();
+        appendCode(dictionary.encode(value));
+        return false;
+      }
+      candidates &= kind;
+      ensureCapacity(size + 1);
+      tokens[size] = value;
+      return true;
+    }
+
+    /**
+     * Throws an exception if the column was declared as character.
+     *
+     * @throws IllegalArgumentException if the column is a character column.
+     */
+    private void checkNumeric() {
+      if (type == DataTypes.CHARACTER) throw new IllegalArgumentException(
+                "Cannot append numeric values to character column " + name
+                + ".");
+    }
+
+    /**
+     * Appends a dictionary code.
+     *
+     * @param code the code.
+     */
+    private void appendCode(int code) {
+      ensureCapacity(size + 1);
+      codes[size++] = code;
+    }
+
+    /**
+     * Converts the buffered values of an undefined column to dictionary
+     * codes of the appended strings.
+     */
+    private void convert() {
+      dictionary = new Dictionary();
+      codes = new int[Math.max(values.length, capacity)];
+      for (int i = 0; i < size; i++)
+        if ((words[i >>> 6] & (1L << i)) == 0) codes[i] = Dictionary.NULL_CODE;
+        else codes[i] = dictionary.encode(tokens[i]);
+      values = null;
+      longs = null;
+      words = null;
+      tokens = null;
+    }
+
+    /**
+     * Grows the buffers, if needed, so that they can hold at least the given
+     * number of values.
+     *
+     * @param required minimum required capacity.
+     */
+    private void ensureCapacity(int required) {
+      int length = (dictionary != null) ? codes.length
+              : (values != null) ? values.length : longs.length;
+      if (required <= length) return;
+      int newCapacity = Math.max(required, length + (length >> 1));
+      if (dictionary != null)
+      {
+        codes = Arrays.copyOf(codes, newCapacity);
+        return;
+      }
+      if (values != null) values = Arrays.copyOf(values, newCapacity);
+      if (longs != null) longs = Arrays.copyOf(longs, newCapacity);
+      words = Arrays.copyOf(words, (newCapacity + Bitmap.WORD_SIZE - 1)
+              / Bitmap.WORD_SIZE);
+      if (tokens != null) tokens = Arrays.copyOf(tokens, newCapacity);
+    }
+
+    /**
+     * Checks if all the buffered numeric values can be rounded to
+     * {@code float} without overflowing.
+     *
+     * @return true if all values fit, else false.
+     */
+    private boolean fitsFloat() {
+      for (int i = 0; i < size; i++)
+        if ((words[i >>> 6] & (1L << i)) != 0L
+                && !Precision.FLOAT32.fits(values[i])) return false;
+      return true;
+    }
+
+    /**
+     * Empties the buffers, allocating them with the initial capacity.
+     */
+    private void reset() {
+      size = 0;
+      values = null;
+      longs = null;
+      words = null;
+      tokens = null;
+      candidates = ANY;
+      dictionary = null;
+      codes = null;
+      if (type == DataTypes.CHARACTER)
+      {
+        dictionary = new Dictionary();
+        codes = new int[capacity];
+        return;
+      }
+      if (type == DataTypes.NUMERIC || type == DataTypes.UNDEFINED)
+        values = new double[capacity];
+      if (type != DataTypes.NUMERIC) longs = new long[capacity];
+      words = new long[(capacity + Bitmap.WORD_SIZE - 1) / Bitmap.WORD_SIZE];
+      if (type == DataTypes.UNDEFINED) tokens = new String[capacity];
+    }
+
+    /**
+     * Checks if a trimmed string is a decimal integer, an optional sign
+     * followed by digits only.
+     *
+     * @param text the string.
+     * @return true if an integer, else false.
+     */
+    private static boolean isInteger(String text) {
+      int start = (text.startsWith("-") || text.startsWith("+")) ? 1 : 0;
+      if (start == text.length()) return false;
+      for (int i = start; i < text.length(); i++)
+        if (text.charAt(i) < '0' || text.charAt(i) > '9') return false;
+      return true;
+    }
+
+  }
+  //</editor-fold>
+
+}
@@ -0,0 +1,680 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: Term.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.Arrays;
+
+/**
+ * The {@code Term} class is a node of a {@link Formula} compiled against the
+ * columns of a table. A term evaluates a block of rows at a time: numeric
+ * terms write a {@code double} buffer and a validity word buffer, character
+ * terms a {@code String} buffer where null elements are null references, so
+ * that the inner loops only read and write arrays. Arithmetic operators and
+ * functions are constants of enums, each one with its own loop over the
+ * block.
+ * <p>
+ * Buffers are held by a {@link Frame}, one for each thread, where each term
+ * has its own slot: terms keep no state, so disjoint blocks can be evaluated
+ * in parallel. Null elements propagate: a result is null if any operand is.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+abstract class Term {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * Data type of the results.
+   */
+  private final DataTypes type;
+
+  /**
+   * Slot of the results in the frame.
+   */
+  final int slot;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for {@code Term} class.
+   *
+   * @param type data type of the results.
+   * @param slot slot of the results in the frame.
+   */
+  Term(DataTypes type, int slot) {
+    this.type = type;
+    this.slot = slot;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Returns the data type of the results.
+   *
+   * @return the data type.
+   */
+  DataTypes type() {
+    return type;
+  }
+
+  /**
+   * Evaluates the term on the current block of the frame, writing the
+   * results in its slot.
+   *
+   * @param frame buffers of the evaluating thread.
+   * @param length number of rows of the block.
+   */
+  abstract void evaluate(Frame frame, int length);
+
+  /**
+   * Returns the number of words holding the bits of a block.
+   *
+   * @param length number of rows of the block.
+   * @return number of words.
+   */
+  static int words(int length) {
+    return (length + Bitmap.WORD_SIZE - 1) / Bitmap.WORD_SIZE;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Frame">
+  /**
+   * Buffers of the terms of a formula for one evaluating thread. The inputs
+   * hold the values of the source columns for the current block and are
+   * filled by the caller; the outputs hold the results of each term.
+   */
+  static final class Frame {
+
+    /**
+     * Number of rows of a block.
+     */
+    static final int SIZE = ChunkedStorage.CHUNK_SIZE;
+
+    /**
+     * Values and validity of numeric source columns.
+     */
+    final double[][] inputs;
+
+    final long[][] inputValidity;
+
+    /**
+     * Strings of character source columns, null for null elements.
+     */
+    final String[][] inputStrings;
+
+    /**
+     * Results of the terms.
+     */
+    final double[][] numbers;
+
+    final long[][] validity;
+
+    final String[][] strings;
+
+    /**
+     * Constructor for {@code Frame} class.
+     *
+     * @param sources number of source columns.
+     * @param slots number of terms.
+     */
+    Frame(int sources, int slots) {
+      inputs = new double[sources][];
+      inputValidity = new long[sources][];
+      inputStrings = new String[sources][];
+      numbers = new double[slots][];
+      validity = new long[slots][];
+      strings = new String[slots][];
+    }
+
+    /**
+     * Returns the numeric buffer of a slot, allocated on first use.
+     *
+     * @param slot the slot.
+     * @return the buffer.
+     */
+    double[] numbers(int slot) {
+      if (numbers[slot] == null)
+      {
+        numbers[slot] = new double[SIZE];
+        validity[slot] = new long[SIZE / Bitmap.WORD_SIZE];
+      }
+      return numbers[slot];
+    }
+
+    /**
+     * Returns the string buffer of a slot, allocated on first use.
+     *
+     * @param slot the slot.
+     * @return the buffer.
+     */
+    String[] strings(int slot) {
+      if (strings[slot] == null) strings[slot] = new String[SIZE];
+      return strings[slot];
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Operators">
+  /**
+   * Numeric operators and functions of two arguments.
+   */
+  enum Operator {
+
+    ADD("+") {
+      @Override
+      void apply(double[] a, double[] b, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = a[i] + b[i];
+      }
+    },
+    SUBTRACT("-") {
+      @Override
+      void apply(double[] a, double[] b, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = a[i] - b[i];
+      }
+    },
+    MULTIPLY("*") {
+      @Override
+      void apply(double[] a, double[] b, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = a[i] * b[i];
+      }
+    },
+    DIVIDE("/") {
+      @Override
+      void apply(double[] a, double[] b, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = a[i] / b[i];
+      }
+    },
+    MODULO("%") {
+      @Override
+      void apply(double[] a, double[] b, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = a[i] % b[i];
+      }
+    },
+    POWER("pow") {
+      @Override
+      void apply(double[] a, double[] b, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.pow(a[i], b[i]);
+      }
+    },
+    MINIMUM("min") {
+      @Override
+      void apply(double[] a, double[] b, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.min(a[i], b[i]);
+      }
+    },
+    MAXIMUM("max") {
+      @Override
+      void apply(double[] a, double[] b, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.max(a[i], b[i]);
+      }
+    },
+    ATAN2("atan2") {
+      @Override
+      void apply(double[] a, double[] b, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.atan2(a[i], b[i]);
+      }
+    };
+
+    /**
+     * Symbol or function name of the operator.
+     */
+    final String symbol;
+
+    Operator(String symbol) {
+      this.symbol = symbol;
+    }
+
+    /**
+     * Applies the operator to a block of values.
+     *
+     * @param a values of the first operand.
+     * @param b values of the second operand.
+     * @param r destination of the results.
+     * @param n number of values.
+     */
+    abstract void apply(double[] a, double[] b, double[] r, int n);
+
+    /**
+     * Returns the operator with the given function name, null if not found.
+     *
+     * @param name name of the function.
+     * @return the operator, or null.
+     */
+    static Operator function(String name) {
+      for (Operator operator : values())
+        if (java.lang.Character.isLetter(operator.symbol.charAt(0))
+                && operator.symbol.equalsIgnoreCase(name)) return operator;
+      return null;
+    }
+  }
+
+  /**
+   * Numeric functions of one argument.
+   */
+  enum Function {
+
+    NEGATE {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = -x[i];
+      }
+    },
+    ABS {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.abs(x[i]);
+      }
+    },
+    SQRT {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.sqrt(x[i]);
+      }
+    },
+    EXP {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.exp(x[i]);
+      }
+    },
+    LOG {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.log(x[i]);
+      }
+    },
+    LOG10 {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.log10(x[i]);
+      }
+    },
+    SIN {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.sin(x[i]);
+      }
+    },
+    COS {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.cos(x[i]);
+      }
+    },
+    TAN {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.tan(x[i]);
+      }
+    },
+    ASIN {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.asin(x[i]);
+      }
+    },
+    ACOS {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.acos(x[i]);
+      }
+    },
+    ATAN {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.atan(x[i]);
+      }
+    },
+    FLOOR {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.floor(x[i]);
+      }
+    },
+    CEIL {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.ceil(x[i]);
+      }
+    },
+    ROUND {
+      @Override
+      void apply(double[] x, double[] r, int n) {
+        for (int i = 0; i < n; i++)
+          r[i] = Math.rint(x[i]);
+      }
+    };
+
+    /**
+     * Applies the function to a block of values.
+     *
+     * @param x values of the argument.
+     * @param r destination of the results.
+     * @param n number of values.
+     */
+    abstract void apply(double[] x, double[] r, int n);
+
+    /**
+     * Returns the function with the given name, null if not found. Negation
+     * is only used for the unary minus.
+     *
+     * @param name name of the function.
+     * @return the function, or null.
+     */
+    static Function function(String name) {
+      for (Function function : values())
+        if (function != NEGATE && function.name().equalsIgnoreCase(name))
+          return function;
+      return null;
+    }
+  }
+
+  /**
+   * Functions involving strings, with their argument and result types.
+   */
+  enum TextFunction {
+
+    UPPER(DataTypes.CHARACTER, DataTypes.CHARACTER),
+    LOWER(DataTypes.CHARACTER, DataTypes.CHARACTER),
+    TRIM(DataTypes.CHARACTER, DataTypes.CHARACTER),
+    LENGTH(DataTypes.CHARACTER, DataTypes.NUMERIC),
+    NUMBER(DataTypes.CHARACTER, DataTypes.NUMERIC),
+    STRING(DataTypes.NUMERIC, DataTypes.CHARACTER);
+
+    /**
+     * Data types of the argument and of the result.
+     */
+    final DataTypes argument, result;
+
+    TextFunction(DataTypes argument, DataTypes result) {
+      this.argument = argument;
+      this.result = result;
+    }
+
+    /**
+     * Returns the function with the given name, null if not found.
+     *
+     * @param name name of the function.
+     * @return the function, or null.
+     */
+    static TextFunction function(String name) {
+      for (TextFunction function : values())
+        if (function.name().equalsIgnoreCase(name)) return function;
+      return null;
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Terms">
+  /**
+   * Numeric constant, written once in its buffer.
+   */
+  static final class Constant extends Term {
+
+    private final double value;
+
+    Constant(double value, int slot) {
+      super(DataTypes.NUMERIC, slot);
+      this.value = value;
+    }
+
+    @Override
+    void evaluate(Frame frame, int length) {
+      if (frame.numbers[slot] != null) return;
+      Arrays.fill(frame.numbers(slot), value);
+      Arrays.fill(frame.validity[slot], -1L);
+    }
+  }
+
+  /**
+   * Character constant, written once in its buffer.
+   */
+  static final class Text extends Term {
+
+    private final String value;
+
+    Text(String value, int slot) {
+      super(DataTypes.CHARACTER, slot);
+      this.value = value;
+    }
+
+    @Override
+    void evaluate(Frame frame, int length) {
+      if (frame.strings[slot] != null) return;
+      Arrays.fill(frame.strings(slot), value);
+    }
+  }
+
+  /**
+   * Source column, whose buffers are the inputs of the frame.
+   */
+  static final class Column extends Term {
+
+    private final int input;
+
+    Column(DataTypes type, int input, int slot) {
+      super(type, slot);
+      this.input = input;
+    }
+
+    @Override
+    void evaluate(Frame frame, int length) {
+      if (type() == DataTypes.NUMERIC)
+      {
+        frame.numbers[slot] = frame.inputs[input];
+        frame.validity[slot] = frame.inputValidity[input];
+      } else frame.strings[slot] = frame.inputStrings[input];
+    }
+  }
+
+  /**
+   * Numeric function of one argument.
+   */
+  static final class Unary extends Term {
+
+    private final Function function;
+
+    private final Term argument;
+
+    Unary(Function function, Term argument, int slot) {
+      super(DataTypes.NUMERIC, slot);
+      this.function = function;
+      this.argument = argument;
+    }
+
+    @Override
+    void evaluate(Frame frame, int length) {
+      argument.evaluate(frame, length);
+      function.apply(frame.numbers[argument.slot], frame.numbers(slot),
+              length);
+      System.arraycopy(frame.validity[argument.slot], 0, frame.validity[slot],
+              0, words(length));
+    }
+  }
+
+  /**
+   * Numeric operator or function of two arguments.
+   */
+  static final class Binary extends Term {
+
+    private final Operator operator;
+
+    private final Term left;
+
+    private final Term right;
+
+    Binary(Operator operator, Term left, Term right, int slot) {
+      super(DataTypes.NUMERIC, slot);
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    void evaluate(Frame frame, int length) {
+      left.evaluate(frame, length);
+      right.evaluate(frame, length);
+      operator.apply(frame.numbers[left.slot], frame.numbers[right.slot],
+              frame.numbers(slot), length);
+      long[] a = frame.validity[left.slot];
+      long[] b = frame.validity[right.slot];
+      long[] r = frame.validity[slot];
+      for (int w = 0; w < words(length); w++)
+        r[w] = a[w] & b[w];
+    }
+  }
+
+  /**
+   * Concatenation of two terms of any type, numbers are written as by
+   * {@link Numeric#toString()}.
+   */
+  static final class Concatenation extends Term {
+
+    private final Term left;
+
+    private final Term right;
+
+    Concatenation(Term left, Term right, int slot) {
+      super(DataTypes.CHARACTER, slot);
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    void evaluate(Frame frame, int length) {
+      left.evaluate(frame, length);
+      right.evaluate(frame, length);
+      String[] result = frame.strings(slot);
+      for (int i = 0; i < length; i++)
+      {
+        String a = string(frame, left, i);
+        String b = string(frame, right, i);
+        result[i] = (a == null || b == null) ? null : a.concat(b);
+      }
+    }
+  }
+
+  /**
+   * Function involving strings.
+   */
+  static final class Textual extends Term {
+
+    private final TextFunction function;
+
+    private final Term argument;
+
+    Textual(TextFunction function, Term argument, int slot) {
+      super(function.result, slot);
+      this.function = function;
+      this.argument = argument;
+    }
+
+    @Override
+    void evaluate(Frame frame, int length) {
+      argument.evaluate(frame, length);
+      if (function == TextFunction.STRING)
+      {
+        String[] result = frame.strings(slot);
+        for (int i = 0; i < length; i++)
+          result[i] = string(frame, argument, i);
+        return;
+      }
+      String[] values = frame.strings[argument.slot];
+      if (function.result == DataTypes.CHARACTER)
+      {
+        String[] result = frame.strings(slot);
+        for (int i = 0; i < length; i++)
+          if (values[i] == null) result[i] = null;
+          else if (function == TextFunction.UPPER)
+            result[i] = values[i].toUpperCase();
+          else if (function == TextFunction.LOWER)
+            result[i] = values[i].toLowerCase();
+          else result[i] = values[i].trim();
+        return;
+      }
+      double[] result = frame.numbers(slot);
+      long[] valid = frame.validity[slot];
+      Arrays.fill(valid, 0, words(length), 0L);
+      for (int i = 0; i < length; i++)
+      {
+        if (values[i] == null) continue;
+        if (function == TextFunction.LENGTH) result[i] = values[i].length();
+        else
+          try
+          {
+            result[i] = Double.parseDouble(values[i]);
+          } catch (NumberFormatException e)
+          {
+            continue;
+          }
+        valid[i >>> 6] |= 1L << i;
+      }
+    }
+  }
+
+  /**
+   * Returns the string of a row of an evaluated term, null if the row is
+   * null or, for numeric terms, not a number.
+   *
+   * @param frame buffers of the evaluating thread.
+   * @param term the evaluated term.
+   * @param i row of the block.
+   * @return the string, or null.
+   */
+  private static String string(Frame frame, Term term, int i) {
+    if (term.type() == DataTypes.CHARACTER) return frame.strings[term.slot][i];
+    double value = frame.numbers[term.slot][i];
+    if ((frame.validity[term.slot][i >>> 6] & (1L << i)) == 0L
+            || Double.isNaN(value)) return null;
+    return String.valueOf(value);
+  }
+  //</editor-fold>
+
+}
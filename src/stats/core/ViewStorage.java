@@ -0,0 +1,352 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: ViewStorage.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+/**
+ * The {@code ViewStorage} class exposes a subset of the elements of another
+ * {@link Array}, either a range of positions or a list of selected rows,
+ * without copying them. Reads are forwarded to the storage of the parent and
+ * writes go through the parent, so that changes are visible on both sides
+ * and the statistics of the parent are kept up to date.
+ * <p>
+ * Elements cannot be added or removed through a view. A view is valid until
+ * elements are inserted in or removed from the parent, since its positions
+ * would not point to the same elements anymore: after that, any access
+ * throws an {@code IllegalStateException}.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+class ViewStorage extends Storage {
+
+  //<editor-fold defaultstate="collapsed" desc="Private Members">
+  /**
+   * The array whose elements are exposed.
+   */
+  private final Array parent;
+
+  /**
+   * First position of the range in the parent, used if rows are null.
+   */
+  private final int from;
+
+  /**
+   * Number of elements of the view.
+   */
+  private final int size;
+
+  /**
+   * Positions of the selected rows in the parent, null for a range.
+   */
+  private final int[] rows;
+
+  /**
+   * Structure counter of the parent when the view was created.
+   */
+  private final int structure;
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Constructors">
+  /**
+   * Constructor for a {@code ViewStorage} exposing a range of positions.
+   * Arguments must be valid.
+   *
+   * @param parent the array whose elements are exposed.
+   * @param from first position of the range.
+   * @param to end of the range, exclusive.
+   */
+  ViewStorage(Array parent, int from, int to) {
+    this.parent = parent;
+    this.from = from;
+    size = to - from;
+    rows = null;
+    structure = parent.structure();
+  }
+
+  /**
+   * Constructor for a {@code ViewStorage} exposing selected rows in the given
+   * order. Rows must be valid positions of the parent.
+   *
+   * @param parent the array whose elements are exposed.
+   * @param rows positions of the selected rows.
+   */
+  ViewStorage(Array parent, int[] rows) {
+    this.parent = parent;
+    from = 0;
+    size = rows.length;
+    this.rows = rows.clone();
+    structure = parent.structure();
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Getters">
+  @Override
+  DataTypes type() {
+    return parent.type();
+  }
+
+  @Override
+  Precision precision() {
+    return parent.precision();
+  }
+
+  @Override
+  int size() {
+    return size;
+  }
+
+  @Override
+  boolean isEmpty(int index) {
+    return source().isEmpty(row(index));
+  }
+
+  @Override
+  void getValidity(int index, long[] buffer, int length) {
+    if (rows == null) source().getValidity(from + index, buffer, length);
+    else super.getValidity(index, buffer, length);
+  }
+
+  @Override
+  Data get(int index) {
+    return source().get(row(index));
+  }
+
+  @Override
+  double getDouble(int index) {
+    return source().getDouble(row(index));
+  }
+
+  @Override
+  void getDoubles(int index, double[] buffer, int offset, int length) {
+    Storage source = source();
+    if (rows == null) source.getDoubles(from + index, buffer, offset, length);
+    else
+      for (int i = 0; i < length; i++)
+        buffer[offset + i] = source.getDouble(rows[index + i]);
+  }
+
+  @Override
+  long getLong(int index) {
+    return source().getLong(row(index));
+  }
+
+  @Override
+  void getLongs(int index, long[] buffer, int offset, int length) {
+    Storage source = source();
+    if (rows == null) source.getLongs(from + index, buffer, offset, length);
+    else
+      for (int i = 0; i < length; i++)
+        buffer[offset + i] = source.getLong(rows[index + i]);
+  }
+
+  @Override
+  String getString(int index) {
+    return source().getString(row(index));
+  }
+
+  @Override
+  Dictionary dictionary() {
+    return source().dictionary();
+  }
+
+  @Override
+  int getCode(int index) {
+    return source().getCode(row(index));
+  }
+
+  @Override
+  void getCodes(int index, int[] buffer, int offset, int length) {
+    Storage source = source();
+    if (rows == null) source.getCodes(from + index, buffer, offset, length);
+    else
+      for (int i = 0; i < length; i++)
+        buffer[offset + i] = source.getCode(rows[index + i]);
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Setters">
+  @Override
+  void set(int index, Data data) {
+    check();
+    parent.set(row(index), data);
+  }
+
+  @Override
+  boolean set(int index, String data) {
+    check();
+    return parent.set(row(index), data);
+  }
+
+  @Override
+  void setDouble(int index, double value) {
+    check();
+    parent.setDouble(row(index), value);
+  }
+
+  @Override
+  void setLong(int index, long value) {
+    check();
+    parent.setLong(row(index), value);
+  }
+
+  @Override
+  void empty(int index) {
+    check();
+    parent.empty(row(index));
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Package Methods">
+  /**
+   * Returns the array whose elements are exposed.
+   *
+   * @return the parent array.
+   */
+  Array parent() {
+    return parent;
+  }
+
+  /**
+   * Returns the position in the parent of the element of the view at the
+   * given position, after checking that the view is still valid.
+   *
+   * @param index position in the view.
+   * @return position in the parent.
+   */
+  int parentIndex(int index) {
+    check();
+    return row(index);
+  }
+
+  @Override
+  void add(Data data, int number) {
+    throw fixedSize();
+  }
+
+  @Override
+  void insert(int index, Data data, int number) {
+    throw fixedSize();
+  }
+
+  @Override
+  void remove(int index, int number) {
+    throw fixedSize();
+  }
+
+  /**
+   * Swaps the two elements in the parent, so that a view can be used to
+   * reorder a subset of the rows.
+   *
+   * @param index1 position of the first element.
+   * @param index2 position of the second element.
+   */
+  @Override
+  void swap(int index1, int index2) {
+    check();
+    parent.swap(row(index1), row(index2));
+  }
+
+  @Override
+  void clear() {
+    throw fixedSize();
+  }
+
+  /**
+   * Returns a copy of the exposed elements, which does not depend on the
+   * parent anymore.
+   *
+   * @return a snapshot of the storage.
+   */
+  @Override
+  Storage snapshot() {
+    Storage source = source();
+    Storage copy = create(type(), precision());
+    if (size == 0) return copy;
+    if (type() == DataTypes.NUMERIC)
+    {
+      copy.add(new Numeric(), size);
+      for (int i = 0; i < size; i++)
+        if (!source.isEmpty(row(i)))
+          copy.setDouble(i, source.getDouble(row(i)));
+    } else if (type() == DataTypes.CHARACTER)
+    {
+      copy.add(new Character(), size);
+      for (int i = 0; i < size; i++)
+        copy.set(i, source.getString(row(i)));
+    } else
+      for (int i = 0; i < size; i++)
+        copy.add(source.get(row(i)), 1);
+    return copy;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="Private Methods">
+  /**
+   * Returns the position in the parent of the element of the view at the
+   * given position.
+   *
+   * @param index position in the view.
+   * @return position in the parent.
+   */
+  private int row(int index) {
+    return (rows == null) ? from + index : rows[index];
+  }
+
+  /**
+   * Returns the storage of the parent after checking that the view is still
+   * valid.
+   *
+   * @return the storage of the parent.
+   */
+  private Storage source() {
+    check();
+    return parent.storage();
+  }
+
+  /**
+   * Checks that no element was inserted in or removed from the parent since
+   * the view was created.
+   *
+   * @throws IllegalStateException if the view is not valid anymore.
+   */
+  private void check() {
+    if (parent.structure() != structure) throw new IllegalStateException(
+              "View of " + parent.name() + " is not valid anymore.");
+  }
+
+  /**
+   * Returns the exception thrown by methods changing the size.
+   *
+   * @return an unsupported operation exception.
+   */
+  private static UnsupportedOperationException fixedSize() {
+    return new UnsupportedOperationException(
+            "Elements cannot be added to or removed from a view.");
+  }
+  //</editor-fold>
+
+}
@@ -45,7 +45,8 @@ import stats.core.DataTypes;
  * The {@code ArraySelector} class implements a {@code JList} object specialized
  * for handling {@code Array} objects. {@code ArraySelector} objects will
  * restrict {@code Array} selection given an allowed data type. If data type is
- * set to undefined, all {@code Array} can be handled.
+ * set to undefined, all {@code Array} can be handled; if set to numeric, any
+ * array of a numeric data type can be handled.
  *
  * @author M. Vettigli
  * @version 1.0
@@ -306,7 +307,8 @@ public class ArraySelector extends JPanel {
   /**
    * Changes the allowed data type of the {@code ArraySelector} object. It
    * determines if {@code Array} objects can be stored in the list.
-   * If set to undefined, all data type will be allowed for insertion.
+   * If set to undefined, all data type will be allowed for insertion. If set
+   * to numeric, all numeric data types will be allowed for insertion.
    *
    * @param type new allowed data type of the list.
    */
@@ -345,7 +347,7 @@ public class ArraySelector extends JPanel {
     // check if the array is already contained in the selector
     // and if the data type is allowed for inserion
     if (elements.contains(array)) return;
-    if (type != DataTypes.UNDEFINED && array.type() != type) return;
+    if (!accepts(array.type())) return;
     elements.add(array);
     // update the element list
     listElements.clearSelection();
@@ -366,7 +368,7 @@ public class ArraySelector extends JPanel {
       // check if the array is already contained in the selector
       // and if the data type is allowed for inserion
       if (elements.contains(array)) continue;
-      if (type != DataTypes.UNDEFINED && array.type() != type) continue;
+      if (!accepts(array.type())) continue;
       elements.add(array);
     }
     // update the element list
@@ -420,6 +422,20 @@ public class ArraySelector extends JPanel {
     listElements.updateUI();
   }
 
+  /**
+   * Checks if an {@code Array} object of the given data type is allowed in
+   * the {@code ArraySelector}. Undefined selectors allow any data type and
+   * numeric selectors allow any numeric data type.
+   *
+   * @param arrayType data type of the array.
+   * @return true if the data type is allowed, false otherwise.
+   */
+  private boolean accepts(DataTypes arrayType) {
+    if (type == DataTypes.UNDEFINED) return true;
+    if (type == DataTypes.NUMERIC) return arrayType.isNumeric();
+    return arrayType == type;
+  }
+
   /**
    * Checks if list content is coherent with allowed data type. The function
    * scrolls the content of {@code elements} array and removes any {@code Array}
@@ -432,7 +448,7 @@ public class ArraySelector extends JPanel {
     // create new array list and fill with allowed Array objects
     ArrayList<Array> allowedElements = new ArrayList<>();
     for (Array element : elements)
-      if (element.type() == type) allowedElements.add(element);
+      if (accepts(element.type())) allowedElements.add(element);
 
     // assign new array list
     elements = allowedElements;
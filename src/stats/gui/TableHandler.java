@@ -720,27 +720,17 @@ public class TableHandler extends javax.swing.JPanel {
     // define variables for convenience
     RowTableModel rowModel = (RowTableModel) rowTable.getModel();
     MainTableModel mainModel = (MainTableModel) mainTable.getModel();
-    // clear row selection and insert new rows
+    // clear row selection and insert new rows in a single pass
     rowSelectionModel.clearSelection();
+    table.insertRows(selected_rows, number);
+    // fire a single change event in row and main table
+    rowModel.fireTableDataChanged();
+    mainModel.fireTableDataChanged();
+    // select newly created rows, shifted by the previous insertions
     for (int i = 0; i < selected_rows.length; i++)
-    {
-      // insert rows in the Table object
-      if (selected_rows[i] != table.rows())
-        table.insertRows(selected_rows[i], number);
-      else table.addRows(number);
-      // fire row insetion in row and main table
-      rowModel.fireTableRowsInserted(selected_rows[i],
-              selected_rows[i] + number - 1);
-      mainModel.fireTableRowsInserted(selected_rows[i],
-              selected_rows[i] + number - 1);
-      // select newly created rows
       rowSelectionModel.addSelectionInterval(
-              selected_rows[i],
-              selected_rows[i] + number - 1);
-      // update next selected index to shift the selection
-      if (i != selected_rows.length - 1)
-        selected_rows[i + 1] += number * (i + 1);
-    }
+              selected_rows[i] + number * i,
+              selected_rows[i] + number * i + number - 1);
     // update row list
     updateRowList();
   }//GEN-LAST:event_menuInsertRowsActionPerformed
@@ -769,19 +759,14 @@ public class TableHandler extends javax.swing.JPanel {
               "Delete error", JOptionPane.ERROR_MESSAGE);
       return;
     }
-    // define row and main table model for firing deletion events
+    // define row and main table model for firing change events
     RowTableModel rowModel = (RowTableModel) rowTable.getModel();
     MainTableModel mainModel = (MainTableModel) mainTable.getModel();
-    // remove rows from the Table object
-    for (int i = 0; i < selected_rows.length; i++)
-    {
-      table.removeRow(selected_rows[i]);
-      // fire row deletion events
-      rowModel.fireTableRowsDeleted(selected_rows[i], selected_rows[i]);
-      mainModel.fireTableRowsDeleted(selected_rows[i], selected_rows[i]);
-      // shift backward the next selection
-      if (i != selected_rows.length - 1) selected_rows[i + 1] -= i + 1;
-    }
+    // remove rows from the Table object in a single pass
+    table.removeRows(selected_rows);
+    // fire a single change event in row and main table
+    rowModel.fireTableDataChanged();
+    mainModel.fireTableDataChanged();
     // clear row selection and update rows list
     rowSelectionModel.clearSelection();
     updateRowList();
@@ -1177,6 +1162,10 @@ public class TableHandler extends javax.swing.JPanel {
         switch (data.type())
         {
           case NUMERIC:
+          case INTEGER:
+          case LONG:
+          case BOOLEAN:
+          case DATETIME:
             cell.setHorizontalAlignment(JLabel.RIGHT);
             break;
           case CHARACTER:
@@ -1184,7 +1173,7 @@ public class TableHandler extends javax.swing.JPanel {
             cell.setHorizontalAlignment(JLabel.LEFT);
         }
         // set cell content based on Data value and type
-        if (data.isEmpty() && data.type() == DataTypes.NUMERIC)
+        if (data.isEmpty() && data.type().isNumeric())
           cell.setText(".");
         else cell.setText(data.toString());
         // set cell foreground and background based on current selection
@@ -1340,7 +1329,7 @@ public class TableHandler extends javax.swing.JPanel {
             menuCharacter.setSelected(table.getColumnType(selected_cols[0])
                     == DataTypes.CHARACTER);
             menuNumeric.setSelected(table.getColumnType(selected_cols[0])
-                    == DataTypes.NUMERIC);
+                    .isNumeric());
           } else
           {
             // for multiple selection let both unselected
@@ -34,7 +34,9 @@ import java.util.ArrayList;
 import java.util.List;
 import stats.core.Data;
 import stats.core.DataTypes;
+import stats.core.Precision;
 import stats.core.Table;
+import stats.core.TableBuilder;
 
 /**
  * A very simple CSV parser released under a commercial-friendly license.
@@ -85,6 +87,11 @@ public class CSVParser {
 
   private boolean ignoreLeadingWhiteSpace;
 
+  /**
+   * Precision of the columns parsed as numeric.
+   */
+  private Precision precision;
+
   /**
    * Stores the current status of the cursor during parsing.
    */
@@ -196,6 +203,7 @@ public class CSVParser {
     this.ignoreLeadingWhiteSpace = ignoreLeadingWhiteSpace;
     this.linesToSkip = 0;
     this.parsingRowHeaders = true;
+    this.precision = Precision.FLOAT64;
   }
 
   public File getFile() {
@@ -230,6 +238,10 @@ public class CSVParser {
     return this.ignoreLeadingWhiteSpace;
   }
 
+  public Precision getPrecision() {
+    return this.precision;
+  }
+
   /**
    * Checks if during last call line string was not fully tokenized.
    *
@@ -285,6 +297,22 @@ public class CSVParser {
     this.ignoreLeadingWhiteSpace = state;
   }
 
+  /**
+   * Sets the precision with which the values of the columns parsed as
+   * numeric are stored. {@code Precision.FLOAT32} halves the memory taken by
+   * numeric columns, at the cost of rounding values to about seven
+   * significant digits. Columns with values beyond the range of
+   * {@code float} keep {@code Precision.FLOAT64}.
+   *
+   * @param precision the precision of numeric columns.
+   * @return true if successful, false if the precision is null.
+   */
+  public boolean setPrecision(Precision precision) {
+    if (precision == null) return false;
+    this.precision = precision;
+    return true;
+  }
+
   public int parseNumberOfRows() throws IOException {
     // initialize buffered reader
     BufferedReader br = new BufferedReader(new FileReader(this.file));
@@ -322,43 +350,32 @@ public class CSVParser {
     // parse first line to get columns number
     String line = br.readLine();
     String[] firstLine = parseLine(line, false);
-    // create new table and add all columns
-    Table table = new Table();
-    table.addColumns(firstLine.length - Table.DEFAULT_COLS);
-    // if row header parsing is enabled, rename all columns
-    // else fill first row
+    // create a builder with a column for each token, whose type is
+    // inferred from the parsed values
+    TableBuilder builder = new TableBuilder(null);
     for (int i = 0; i < firstLine.length; i++)
-    {
-      if (this.parsingRowHeaders) table.setColumnName(i, firstLine[i]);
-      else table.set(i, 0, firstLine[i]);
-    }
+      builder.addColumn(parsingRowHeaders ? firstLine[i] : null,
+              DataTypes.UNDEFINED, precision);
+    // if row header parsing is disabled, the first line is a row
+    if (!parsingRowHeaders) builder.appendRow(firstLine);
     // initialize variables for convenience
     int row = parsingRowHeaders ? 0 : 1;
     String[] tokens;
     // parse remaining line in the file
     while ((line = br.readLine()) != null)
     {
-      // parse current line and check if element number is equal to columns
+      // parse current line and append it if element number is equal to
+      // columns
       tokens = parseLine(line, false);
-      if (tokens.length != table.columns()) throw new IOException(
+      if (!builder.appendRow(tokens)) throw new IOException(
                 "Number of elements on line " + row
                 + "not compatible with parsing.");
-      // add new row at the end of the table and set elements
-      table.addRow();
-      for (int i = 0; i < tokens.length; i++)
-        table.set(i, row, tokens[i]);
       // update row number
       row++;
     }
-    // trim number of rows
-    table.removeRows(row, table.rows() - row);
-    // try to convert table columns to numeric values
-    for (int i = 0; i < table.columns(); i++)
-      if (table.isColumnConvertible(i, DataTypes.NUMERIC))
-        table.convertColumn(i, DataTypes.NUMERIC);
-    // close and return the table
+    // close the reader and return the built table
     br.close();
-    return table;
+    return builder.build();
   }
 
   /**
@@ -36,34 +36,35 @@ import stats.core.Numeric;
  */
 public class Statistics {
   
+  public static int getCount(Array array) {
+    return array.summary().count();
+  }
+  
   public static double getMinimum(Array array) {
-    if (array.type() != DataTypes.NUMERIC) throw new IllegalArgumentException(
+    if (!array.type().isNumeric()) throw new IllegalArgumentException(
               "Cannot compute minimum value of CHARACTER array.");
-    if (array.size() == 0) return Numeric.NULL;
-    double minimum = Double.MAX_VALUE;
-    for (int i = 0; i < array.size(); i++)
-    {
-      Numeric element = (Numeric) array.get(i);
-      if (element.get() < minimum) minimum = element.get();
-    }
-    return minimum;
+    return array.summary().minimum();
   }
   
   public static double getMaximum(Array array) {
-    if (array.type() != DataTypes.NUMERIC) throw new IllegalArgumentException(
+    if (!array.type().isNumeric()) throw new IllegalArgumentException(
               "Cannot compute minimum value of CHARACTER array.");
-    if (array.size() == 0) return Numeric.NULL;
-    double maximum = -Double.MAX_VALUE;
-    for (int i = 0; i < array.size(); i++)
-    {
-      Numeric element = (Numeric) array.get(i);
-      if (element.get() > maximum) maximum = element.get();
-    }
-    return maximum;
+    return array.summary().maximum();
   }
   
   public static double getRange(Array array) {
     return getMaximum(array) - getMinimum(array);
   }
   
+  public static double getSum(Array array) {
+    if (!array.type().isNumeric()) throw new IllegalArgumentException(
+              "Cannot compute sum of CHARACTER array.");
+    return array.summary().sum();
+  }
+  
+  public static double getMean(Array array) {
+    if (getCount(array) == 0) return Numeric.NULL;
+    return getSum(array) / getCount(array);
+  }
+  
 }
@@ -0,0 +1,108 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: ColumnIndexTest.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ColumnIndex} queries through
+ * {@link Table#findRows(int, long, long)} and
+ * {@link Table#findRows(int, double, double)}.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public class ColumnIndexTest {
+
+  /**
+   * Indexes a column of integers and compares the queries with a scan.
+   */
+  @Test
+  public void testIntegerIndex() {
+    Table table = table(DataTypes.INTEGER);
+    Bitmap range = table.findRows(1, -10L, 20L);
+    Bitmap bounds = table.findRows(1, -10.5, 20.5);
+    assertTrue(table.createIndex(1));
+    assertRows(range, table.findRows(1, -10L, 20L));
+    assertRows(range, table.findRows(1, -10.5, 20.5));
+    assertRows(bounds, range);
+    assertEquals(0, table.findRows(1, Double.NaN).cardinality());
+  }
+
+  /**
+   * Queries an indexed date-time column by nanoseconds since the epoch,
+   * while rows are inserted and removed.
+   */
+  @Test
+  public void testDateTimeIndex() {
+    Table table = table(DataTypes.DATETIME);
+    assertTrue(table.createIndex(1));
+    table.insertRows(10, 3);
+    table.removeRows(50, 20);
+    table.set(1, 10, new DateTime(7L));
+    Bitmap indexed = table.findRows(1, 0L, 100L);
+    assertTrue(indexed.get(10));
+    table.dropIndex(1);
+    assertRows(table.findRows(1, 0L, 100L), indexed);
+  }
+
+  /**
+   * Returns a table with one column of the given integral type, holding
+   * values between -1000 and 1000 and some null elements.
+   *
+   * @param type an integral data type.
+   * @return the new table.
+   */
+  private static Table table(DataTypes type) {
+    Table table = new Table("t");
+    table.addColumn(type);
+    table.addRows(5000);
+    for (int i = 0; i < table.rows(); i++)
+      if (i % 7 != 0)
+      {
+        long value = (i * 7919L) % 2001 - 1000;
+        table.set(1, i, (type == DataTypes.DATETIME) ? new DateTime(value)
+                : new IntegerNumber((int) value));
+      }
+    return table;
+  }
+
+  /**
+   * Checks that two bitmaps have the same bits set.
+   *
+   * @param expected the expected bitmap.
+   * @param actual the actual bitmap.
+   */
+  private static void assertRows(Bitmap expected, Bitmap actual) {
+    assertEquals(expected.cardinality(), actual.cardinality());
+    for (int i = expected.nextSetBit(0); i >= 0;
+            i = expected.nextSetBit(i + 1))
+      assertTrue(actual.get(i));
+  }
+
+}
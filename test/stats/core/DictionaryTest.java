@@ -0,0 +1,142 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: DictionaryTest.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.util.concurrent.CountDownLatch;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests of {@link Dictionary} shared by writable columns.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public class DictionaryTest {
+
+  /**
+   * Number of rows of the test tables.
+   */
+  private static final int ROWS = 50000;
+
+  /**
+   * Encodes distinct strings from several threads at once.
+   */
+  @Test
+  public void testConcurrentEncode() throws InterruptedException {
+    final Dictionary dictionary = new Dictionary();
+    final int[][] codes = new int[4][ROWS];
+    Thread[] threads = new Thread[codes.length];
+    final CountDownLatch start = new CountDownLatch(1);
+    for (int k = 0; k < threads.length; k++)
+    {
+      final int writer = k;
+      threads[k] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          await(start);
+          for (int i = 0; i < ROWS; i++)
+            codes[writer][i] = dictionary.encode(label(writer, i));
+        }
+      });
+      threads[k].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) thread.join();
+    assertEquals(codes.length * ROWS + 1, dictionary.size());
+    for (int k = 0; k < codes.length; k++)
+      for (int i = 0; i < ROWS; i++)
+        assertEquals(label(k, i), dictionary.get(codes[k][i]));
+  }
+
+  /**
+   * Edits a table and its materialized copy, which share the dictionary of
+   * their character column, on two threads.
+   */
+  @Test
+  public void testCopiesEditedConcurrently() throws InterruptedException {
+    final Table table = new Table("t");
+    table.addColumn(DataTypes.CHARACTER);
+    table.addRows(ROWS);
+    for (int i = 0; i < ROWS; i++) table.set(0, i, "base" + (i % 10));
+    final Table copy = table.materialize();
+    assertSame(table.getArray(0).getDictionary(),
+            copy.getArray(0).getDictionary());
+    final CountDownLatch start = new CountDownLatch(1);
+    Thread first = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        await(start);
+        for (int i = 0; i < ROWS; i++) table.set(0, i, label(0, i % 5000));
+      }
+    });
+    Thread second = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        await(start);
+        for (int i = 0; i < ROWS; i++) copy.set(0, i, label(1, i % 5000));
+      }
+    });
+    first.start();
+    second.start();
+    start.countDown();
+    first.join();
+    second.join();
+    for (int i = 0; i < ROWS; i++)
+    {
+      assertEquals(label(0, i % 5000), table.get(0, i).toString());
+      assertEquals(label(1, i % 5000), copy.get(0, i).toString());
+    }
+  }
+
+  /**
+   * Returns the label written by a writer in a row.
+   *
+   * @param writer index of the writer.
+   * @param row index of the row.
+   * @return the label.
+   */
+  private static String label(int writer, int row) {
+    return "w" + writer + "r" + row;
+  }
+
+  /**
+   * Waits for the latch, so that all writers start at the same time.
+   *
+   * @param latch the starting latch.
+   */
+  private static void await(CountDownLatch latch) {
+    try
+    {
+      latch.await();
+    } catch (InterruptedException ex)
+    {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
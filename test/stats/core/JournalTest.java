@@ -0,0 +1,98 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: JournalTest.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests of the edits recorded by a {@link Journal}.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public class JournalTest {
+
+  /**
+   * Sets cells through views of a journaled table, then undoes and redoes
+   * the edits.
+   */
+  @Test
+  public void testViewEditsRecorded() {
+    Table table = numbers();
+    Journal journal = new Journal(table);
+    Table range = table.view(2, 8);
+    Table selected = table.view(new int[]{7, 1, 4});
+    Table nested = range.view(new int[]{5, 0});
+    assertTrue(range.set(1, 0, "20"));
+    assertTrue(selected.set(1, 1, new Numeric(10)));
+    assertTrue(nested.set(1, 0, "70"));
+    assertTrue(journal.canUndo());
+    assertEquals("20.0", table.get(1, 2).toString());
+    assertEquals("10.0", table.get(1, 1).toString());
+    assertEquals("70.0", table.get(1, 7).toString());
+    // edits are undone on the table and seen by the views
+    assertTrue(journal.undo());
+    assertEquals("7.0", table.get(1, 7).toString());
+    assertEquals("7.0", range.get(1, 5).toString());
+    assertTrue(journal.undo());
+    assertEquals("1.0", selected.get(1, 1).toString());
+    assertTrue(journal.undo());
+    assertEquals("2.0", table.get(1, 2).toString());
+    assertFalse(journal.canUndo());
+    assertTrue(journal.redo());
+    assertEquals("20.0", range.get(1, 0).toString());
+  }
+
+  /**
+   * Sets cells of a view column that is not a view of the table anymore,
+   * since the column of the table was removed: the edit is not recorded.
+   */
+  @Test
+  public void testRemovedColumnNotRecorded() {
+    Table table = numbers();
+    Journal journal = new Journal(table);
+    Table view = table.view(0, 5);
+    table.removeColumn(1);
+    journal.clear();
+    assertTrue(view.set(1, 0, "5"));
+    assertFalse(journal.canUndo());
+  }
+
+  /**
+   * Returns a table whose numeric column holds the row indexes.
+   *
+   * @return the test table.
+   */
+  private static Table numbers() {
+    Table table = new Table("t");
+    table.addColumn(DataTypes.NUMERIC);
+    for (int i = 0; i < table.rows(); i++) table.set(1, i, "" + i);
+    return table;
+  }
+
+}
@@ -0,0 +1,162 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: MappedStoreTest.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the space used by the files of a {@link MappedStore}.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public class MappedStoreTest {
+
+  /**
+   * Number of rows of the test columns.
+   */
+  private static final int ROWS = 10000;
+
+  /**
+   * Directory of the store.
+   */
+  private File directory;
+
+  /**
+   * Store of the test columns.
+   */
+  private MappedStore store;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = File.createTempFile("store", "");
+    assertTrue(directory.delete());
+    store = new MappedStore(directory);
+  }
+
+  @After
+  public void tearDown() {
+    store.close();
+    assertEquals(0, directory.list().length);
+    assertTrue(directory.delete());
+  }
+
+  /**
+   * Overwrites the strings of a character column many times: the garbage is
+   * compacted, so the bytes file stays proportional to the strings in use.
+   */
+  @Test
+  public void testCharacterGarbageCompacted() throws IOException {
+    MappedFile entries = new MappedFile(new File(directory, "entries.map"));
+    MappedFile bytes = new MappedFile(new File(directory, "bytes.map"));
+    MappedCharacterStorage storage = new MappedCharacterStorage(entries,
+            bytes);
+    storage.add(new Character(), ROWS);
+    long written = 0;
+    for (int pass = 0; pass < 50; pass++)
+      for (int i = 0; i < ROWS; i++)
+      {
+        storage.set(i, label(pass, i));
+        written += label(pass, i).length();
+      }
+    assertTrue(bytes.allocated() < written / 4);
+    for (int i = 0; i < ROWS; i++)
+      assertEquals(label(49, i), storage.getString(i));
+    entries.close();
+    bytes.close();
+    assertTrue(entries.file().delete());
+    assertTrue(bytes.file().delete());
+  }
+
+  /**
+   * Takes snapshots of a numeric column and edits it after each one: once
+   * released, the regions left to the snapshots are reused.
+   */
+  @Test
+  public void testSnapshotRegionsReused() throws IOException {
+    MappedFile values = new MappedFile(new File(directory, "values.map"));
+    MappedNumericStorage storage = new MappedNumericStorage(values);
+    storage.add(new Numeric(0), ROWS);
+    for (int pass = 1; pass <= 50; pass++)
+    {
+      Storage snapshot = storage.snapshot();
+      storage.setDouble(0, pass);
+      assertEquals(pass - 1, snapshot.getDouble(0), 0);
+      snapshot = null;
+      collect();
+      // the region of the storage plus the one left to the snapshot
+      assertTrue(values.allocated() <= 2 * ROWS * 8L);
+    }
+    assertEquals(50, storage.getDouble(0), 0);
+    values.close();
+    assertTrue(values.file().delete());
+  }
+
+  /**
+   * Removes columns of a table: their files are deleted by a purge once the
+   * columns are garbage collected.
+   */
+  @Test
+  public void testRemovedColumnsPurged() {
+    Table table = new Table("t", store);
+    table.addColumn(DataTypes.NUMERIC);
+    table.addColumn(DataTypes.LONG);
+    table.addRows(ROWS);
+    int files = directory.list().length;
+    table.removeColumns(1, 2);
+    collect();
+    store.purge();
+    assertEquals(files - 2, directory.list().length);
+  }
+
+  /**
+   * Runs the garbage collector until weakly referenced objects are cleared.
+   */
+  private static void collect() {
+    WeakReference<Object> reference = new WeakReference<>(new Object());
+    for (int i = 0; i < 100 && reference.get() != null; i++)
+      System.gc();
+  }
+
+  /**
+   * Returns the string written in a row during a pass.
+   *
+   * @param pass index of the pass.
+   * @param row index of the row.
+   * @return the string.
+   */
+  private static String label(int pass, int row) {
+    return "pass" + pass + "row" + row;
+  }
+
+}
@@ -0,0 +1,92 @@
+/* ============================================================================
+ *                   StatS - STatistical Analysis ToolS
+ * ============================================================================
+ *
+ *   File: SummaryTest.java
+ *   Date: Oct 18, 2026
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Copyright (C) 2013 M. Vettigli <m.vettigli@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ----------------------------------------------------------------------------
+ */
+package stats.core;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests of the sums kept by {@link Summary} while the array changes.
+ *
+ * @author M. Vettigli
+ * @version 1.0
+ */
+public class SummaryTest {
+
+  /**
+   * Replaces an element with a large value and back.
+   */
+  @Test
+  public void testLargeValueReplaced() {
+    Array array = numbers(10, 1.0);
+    assertEquals(10.0, array.summary().sum(), 0.0);
+    array.set(3, new Numeric(1e17));
+    array.set(3, new Numeric(1.0));
+    assertEquals(10.0, array.summary().sum(), 0.0);
+    assertEquals(10.0, array.summary().sumOfSquares(), 0.0);
+  }
+
+  /**
+   * Replaces a NaN element with a finite value.
+   */
+  @Test
+  public void testNaNReplaced() {
+    Array array = numbers(10, 2.0);
+    array.set(0, new Numeric(Double.NaN));
+    assertTrue(Double.isNaN(array.summary().sum()));
+    array.set(0, new Numeric(2.0));
+    assertEquals(20.0, array.summary().sum(), 0.0);
+    assertEquals(40.0, array.summary().sumOfSquares(), 0.0);
+  }
+
+  /**
+   * Removes the elements of a range holding an infinite value.
+   */
+  @Test
+  public void testInfiniteValueRemoved() {
+    Array array = numbers(10, 1.0);
+    array.set(5, new Numeric(Double.POSITIVE_INFINITY));
+    assertEquals(Double.POSITIVE_INFINITY, array.summary().sum(), 0.0);
+    array.remove(4, 2);
+    assertEquals(8.0, array.summary().sum(), 0.0);
+  }
+
+  /**
+   * Returns a numeric array with a summary, holding copies of a value.
+   *
+   * @param size number of elements.
+   * @param value value of the elements.
+   * @return the new array.
+   */
+  private static Array numbers(int size, double value) {
+    Array array = new Array("a");
+    for (int i = 0; i < size; i++) array.add(new Numeric(value));
+    array.summary();
+    return array;
+  }
+
+}